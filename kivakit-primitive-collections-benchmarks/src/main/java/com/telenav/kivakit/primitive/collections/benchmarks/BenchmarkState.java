@@ -0,0 +1,147 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+package com.telenav.kivakit.primitive.collections.benchmarks;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.SplittableRandom;
+
+/**
+ * Base class for benchmark state. Each benchmark is run with {@link #size} elements (1K, 1M and 100M by default) and a
+ * fixed set of {@link #PROBES} random indexes in the range [0, size), which are used to select the keys or array
+ * indexes to access.
+ * <p>
+ * Keys are produced by {@link #key(long)} and {@link #intKey(int)}, which are bijective mixing functions of an index.
+ * This guarantees distinct, well-distributed keys without having to store or de-duplicate them, so a key that is known
+ * to be present can be recomputed from its index. The keys for the probe indexes are computed once, along with keys
+ * that are known to be absent, so benchmarks measure only collection access. No key is ever zero, which is the
+ * default null value for primitive collections.
+ * <p>
+ * Subclasses populate the collection under test in {@link #onSetup()}. Since JMH only instantiates the states used by
+ * the benchmark method being run, a primitive collection and its baseline are never in memory at the same time.
+ *
+ * @author agent
+ */
+@State(Scope.Benchmark)
+public abstract class BenchmarkState
+{
+    /** The number of random probes, and the number of operations per benchmark invocation */
+    public static final int PROBES = 65_536;
+
+    /** Seed for random probe selection, so runs are repeatable */
+    private static final long SEED = 0x5eed_1234_abcdL;
+
+    /**
+     * @return A distinct, non-zero long key for the given index
+     */
+    public static long key(long index)
+    {
+        // SplitMix64 finalizer, which is a bijection, applied to index + 1 so that no key is zero
+        var key = index + 1;
+        key = (key ^ (key >>> 30)) * 0xbf58476d1ce4e5b9L;
+        key = (key ^ (key >>> 27)) * 0x94d049bb133111ebL;
+        return key ^ (key >>> 31);
+    }
+
+    /**
+     * @return A distinct, non-zero int key for the given index
+     */
+    public static int intKey(int index)
+    {
+        // Murmur3 32-bit finalizer, which is a bijection, applied to index + 1 so that no key is zero
+        var key = index + 1;
+        key = (key ^ (key >>> 16)) * 0x85ebca6b;
+        key = (key ^ (key >>> 13)) * 0xc2b2ae35;
+        return key ^ (key >>> 16);
+    }
+
+    /** The number of elements in the collection under test */
+    @Param({ "1000", "1000000", "100000000" })
+    public int size;
+
+    /** Random indexes in the range [0, size) */
+    public int[] indexes;
+
+    /** The int keys for {@link #indexes}, which are present in a populated collection */
+    public int[] intKeys;
+
+    /** The long keys for {@link #indexes}, which are present in a populated collection */
+    public long[] keys;
+
+    /** Int keys which are not present in a populated collection */
+    public int[] missingIntKeys;
+
+    /** Long keys which are not present in a populated collection */
+    public long[] missingKeys;
+
+    /** Sequential access cursor */
+    private int cursor;
+
+    /**
+     * @return The initial size for a map or set that will hold {@link #size} entries without rehashing at the default
+     * maximum occupancy of 70%
+     */
+    public int hashedCapacity()
+    {
+        return (int) Math.min(Integer.MAX_VALUE - 8, size * 10L / 7 + 1);
+    }
+
+    /**
+     * @return The next index in a sequential scan of the collection, wrapping around at the end
+     */
+    public int nextSequentialIndex()
+    {
+        var index = cursor;
+        if (++cursor == size)
+        {
+            cursor = 0;
+        }
+        return index;
+    }
+
+    @Setup(Level.Trial)
+    public final void setup()
+    {
+        var random = new SplittableRandom(SEED);
+        indexes = new int[PROBES];
+        intKeys = new int[PROBES];
+        keys = new long[PROBES];
+        missingIntKeys = new int[PROBES];
+        missingKeys = new long[PROBES];
+        for (var probe = 0; probe < PROBES; probe++)
+        {
+            var index = random.nextInt(size);
+            indexes[probe] = index;
+            intKeys[probe] = intKey(index);
+            keys[probe] = key(index);
+            missingIntKeys[probe] = intKey(size + index);
+            missingKeys[probe] = key((long) size + index);
+        }
+        onSetup();
+    }
+
+    /**
+     * Populates the collection under test with {@link #size} elements
+     */
+    protected abstract void onSetup();
+}
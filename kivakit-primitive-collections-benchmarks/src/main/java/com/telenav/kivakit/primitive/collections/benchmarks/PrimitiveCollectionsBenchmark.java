@@ -0,0 +1,51 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+package com.telenav.kivakit.primitive.collections.benchmarks;
+
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Base class for primitive collection benchmarks. Holds the JMH run configuration shared by all benchmarks, so results
+ * from different collections are directly comparable. Each benchmark method performs {@link #OPERATIONS} operations per
+ * invocation and reports throughput in operations per second.
+ * <p>
+ * The largest element counts need a large heap (the {@link java.util.HashMap} baselines in particular), so the forked
+ * JVM is given 24 GB. This can be overridden from the command line with <i>-jvmArgsAppend</i>, and sizes can be
+ * restricted with <i>-p size=1000,1000000</i>.
+ *
+ * @author agent
+ * @see BenchmarkState
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = { "-Xms24g", "-Xmx24g", "-XX:+UseG1GC" })
+public abstract class PrimitiveCollectionsBenchmark
+{
+    /** The number of operations performed by each benchmark invocation */
+    public static final int OPERATIONS = BenchmarkState.PROBES;
+}
@@ -0,0 +1,158 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+package com.telenav.kivakit.primitive.collections.benchmarks.array;
+
+import com.telenav.kivakit.primitive.collections.array.bits.BitArray;
+import com.telenav.kivakit.primitive.collections.benchmarks.BenchmarkState;
+import com.telenav.kivakit.primitive.collections.benchmarks.PrimitiveCollectionsBenchmark;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.BitSet;
+
+/**
+ * Benchmarks sequential and random access to a {@link BitArray}, and counting its set bits, against a
+ * {@link BitSet} baseline.
+ *
+ * @author agent
+ */
+public class BitArrayBenchmark extends PrimitiveCollectionsBenchmark
+{
+    @State(Scope.Benchmark)
+    public static class ArrayState extends BenchmarkState
+    {
+        BitArray array;
+
+        @Override
+        protected void onSetup()
+        {
+            array = new BitArray("benchmark");
+            array.initialSize(size);
+            array.initialize();
+            for (var index = 0; index < size; index++)
+            {
+                array.set(index, (key(index) & 1) != 0);
+            }
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class BaselineState extends BenchmarkState
+    {
+        BitSet bits;
+
+        @Override
+        protected void onSetup()
+        {
+            bits = new BitSet(size);
+            for (var index = 0; index < size; index++)
+            {
+                bits.set(index, (key(index) & 1) != 0);
+            }
+        }
+    }
+
+    @Benchmark
+    public long baselineBitCount(BaselineState state)
+    {
+        return state.bits.cardinality();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(OPERATIONS)
+    public long baselineRandomGet(BaselineState state)
+    {
+        var bits = state.bits;
+        var count = 0L;
+        for (var index : state.indexes)
+        {
+            count += bits.get(index) ? 1 : 0;
+        }
+        return count;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(OPERATIONS)
+    public void baselineRandomSet(BaselineState state)
+    {
+        var bits = state.bits;
+        for (var index : state.indexes)
+        {
+            bits.set(index, (index & 1) != 0);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(OPERATIONS)
+    public long baselineSequentialGet(BaselineState state)
+    {
+        var bits = state.bits;
+        var count = 0L;
+        for (var i = 0; i < OPERATIONS; i++)
+        {
+            count += bits.get(state.nextSequentialIndex()) ? 1 : 0;
+        }
+        return count;
+    }
+
+    @Benchmark
+    public long bitCount(ArrayState state)
+    {
+        return state.array.bitCount();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(OPERATIONS)
+    public long randomGet(ArrayState state)
+    {
+        var array = state.array;
+        var count = 0L;
+        for (var index : state.indexes)
+        {
+            count += array.bit(index) ? 1 : 0;
+        }
+        return count;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(OPERATIONS)
+    public void randomSet(ArrayState state)
+    {
+        var array = state.array;
+        for (var index : state.indexes)
+        {
+            array.set(index, (index & 1) != 0);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(OPERATIONS)
+    public long sequentialGet(ArrayState state)
+    {
+        var array = state.array;
+        var count = 0L;
+        for (var i = 0; i < OPERATIONS; i++)
+        {
+            count += array.bit(state.nextSequentialIndex()) ? 1 : 0;
+        }
+        return count;
+    }
+}
@@ -0,0 +1,135 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+package com.telenav.kivakit.primitive.collections.benchmarks.array;
+
+import com.telenav.kivakit.core.value.count.BitCount;
+import com.telenav.kivakit.primitive.collections.array.packed.PackedArray;
+import com.telenav.kivakit.primitive.collections.benchmarks.BenchmarkState;
+import com.telenav.kivakit.primitive.collections.benchmarks.PrimitiveCollectionsBenchmark;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import static com.telenav.kivakit.primitive.collections.array.packed.PackedPrimitiveArray.OverflowHandling.NO_OVERFLOW;
+
+/**
+ * Benchmarks sequential, bulk and random access to a {@link PackedArray} at a range of bit widths, including the
+ * aligned 32 and 64 bit special cases and widths that straddle word boundaries.
+ *
+ * @author agent
+ */
+public class PackedArrayBenchmark extends PrimitiveCollectionsBenchmark
+{
+    @State(Scope.Benchmark)
+    public static class ArrayState extends BenchmarkState
+    {
+        /** The number of bits in each packed value */
+        @Param({ "4", "12", "17", "32", "40", "64" })
+        public int bits;
+
+        PackedArray array;
+
+        /** Buffer for values unpacked in bulk */
+        final long[] block = new long[1_024];
+
+        /** Sequential bulk access cursor */
+        int cursor;
+
+        /** Mask that limits values to the number of bits */
+        long mask;
+
+        @Override
+        protected void onSetup()
+        {
+            mask = bits == 64 ? -1L : (1L << bits) - 1;
+            array = new PackedArray("benchmark");
+            array.initialSize(size);
+            array.hasNullLong(false);
+            array.bits(BitCount.bitCount(bits), NO_OVERFLOW);
+            array.initialize();
+            for (var index = 0; index < size; index++)
+            {
+                array.set(index, key(index) & mask);
+            }
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(OPERATIONS)
+    public long randomGet(ArrayState state)
+    {
+        var array = state.array;
+        var sum = 0L;
+        for (var index : state.indexes)
+        {
+            sum += array.get(index);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(OPERATIONS)
+    public void randomSet(ArrayState state)
+    {
+        var array = state.array;
+        var mask = state.mask;
+        for (var index : state.indexes)
+        {
+            array.set(index, index & mask);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(OPERATIONS)
+    public long sequentialBulkGet(ArrayState state)
+    {
+        var array = state.array;
+        var block = state.block;
+        var sum = 0L;
+        for (var done = 0; done < OPERATIONS; )
+        {
+            // Unpack the next block of values, wrapping around at the end of the array
+            var start = state.cursor;
+            var count = Math.min(Math.min(block.length, OPERATIONS - done), state.size - start);
+            array.get(start, block, count);
+            for (var i = 0; i < count; i++)
+            {
+                sum += block[i];
+            }
+            state.cursor = start + count == state.size ? 0 : start + count;
+            done += count;
+        }
+        return sum;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(OPERATIONS)
+    public long sequentialGet(ArrayState state)
+    {
+        var array = state.array;
+        var sum = 0L;
+        for (var i = 0; i < OPERATIONS; i++)
+        {
+            sum += array.get(state.nextSequentialIndex());
+        }
+        return sum;
+    }
+}
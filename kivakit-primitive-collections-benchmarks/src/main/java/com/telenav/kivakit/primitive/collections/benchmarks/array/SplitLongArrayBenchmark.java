@@ -0,0 +1,188 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+package com.telenav.kivakit.primitive.collections.benchmarks.array;
+
+import com.telenav.kivakit.primitive.collections.array.scalars.SplitLongArray;
+import com.telenav.kivakit.primitive.collections.array.scalars.SplitOffHeapLongArray;
+import com.telenav.kivakit.primitive.collections.benchmarks.BenchmarkState;
+import com.telenav.kivakit.primitive.collections.benchmarks.PrimitiveCollectionsBenchmark;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Benchmarks sequential and random access to a {@link SplitLongArray} and a {@link SplitOffHeapLongArray} against a
+ * plain long[] baseline.
+ *
+ * @author agent
+ */
+public class SplitLongArrayBenchmark extends PrimitiveCollectionsBenchmark
+{
+    @State(Scope.Benchmark)
+    public static class ArrayState extends BenchmarkState
+    {
+        SplitLongArray array;
+
+        @Override
+        protected void onSetup()
+        {
+            array = new SplitLongArray("benchmark");
+            array.initialSize(size);
+            array.initialize();
+            for (var index = 0; index < size; index++)
+            {
+                array.set(index, key(index));
+            }
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class BaselineState extends BenchmarkState
+    {
+        long[] array;
+
+        @Override
+        protected void onSetup()
+        {
+            array = new long[size];
+            for (var index = 0; index < size; index++)
+            {
+                array[index] = key(index);
+            }
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class OffHeapArrayState extends BenchmarkState
+    {
+        SplitOffHeapLongArray array;
+
+        @Override
+        protected void onSetup()
+        {
+            array = new SplitOffHeapLongArray("benchmark");
+            array.initialSize(size);
+            array.initialize();
+            for (var index = 0; index < size; index++)
+            {
+                array.set(index, key(index));
+            }
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(OPERATIONS)
+    public long baselineRandomGet(BaselineState state)
+    {
+        var array = state.array;
+        var sum = 0L;
+        for (var index : state.indexes)
+        {
+            sum += array[index];
+        }
+        return sum;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(OPERATIONS)
+    public void baselineRandomSet(BaselineState state)
+    {
+        var array = state.array;
+        for (var index : state.indexes)
+        {
+            array[index] = index;
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(OPERATIONS)
+    public long baselineSequentialGet(BaselineState state)
+    {
+        var array = state.array;
+        var sum = 0L;
+        for (var i = 0; i < OPERATIONS; i++)
+        {
+            sum += array[state.nextSequentialIndex()];
+        }
+        return sum;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(OPERATIONS)
+    public long offHeapRandomGet(OffHeapArrayState state)
+    {
+        var array = state.array;
+        var sum = 0L;
+        for (var index : state.indexes)
+        {
+            sum += array.get(index);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(OPERATIONS)
+    public long offHeapSequentialGet(OffHeapArrayState state)
+    {
+        var array = state.array;
+        var sum = 0L;
+        for (var i = 0; i < OPERATIONS; i++)
+        {
+            sum += array.get(state.nextSequentialIndex());
+        }
+        return sum;
+    }
+    @Benchmark
+    @OperationsPerInvocation(OPERATIONS)
+    public long randomGet(ArrayState state)
+    {
+        var array = state.array;
+        var sum = 0L;
+        for (var index : state.indexes)
+        {
+            sum += array.get(index);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(OPERATIONS)
+    public void randomSet(ArrayState state)
+    {
+        var array = state.array;
+        for (var index : state.indexes)
+        {
+            array.set(index, index);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(OPERATIONS)
+    public long sequentialGet(ArrayState state)
+    {
+        var array = state.array;
+        var sum = 0L;
+        for (var i = 0; i < OPERATIONS; i++)
+        {
+            sum += array.get(state.nextSequentialIndex());
+        }
+        return sum;
+    }
+}
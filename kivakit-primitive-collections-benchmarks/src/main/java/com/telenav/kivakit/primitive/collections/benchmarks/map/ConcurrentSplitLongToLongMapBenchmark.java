@@ -0,0 +1,124 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+package com.telenav.kivakit.primitive.collections.benchmarks.map;
+
+import com.telenav.kivakit.primitive.collections.benchmarks.BenchmarkState;
+import com.telenav.kivakit.primitive.collections.benchmarks.PrimitiveCollectionsBenchmark;
+import com.telenav.kivakit.primitive.collections.map.split.ConcurrentSplitLongToLongMap;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Benchmarks {@link ConcurrentSplitLongToLongMap} get and put from all available cores against a {@link
+ * ConcurrentHashMap}&lt;Long, Long&gt; baseline. All threads share one map.
+ *
+ * @author agent
+ */
+@Threads(Threads.MAX)
+public class ConcurrentSplitLongToLongMapBenchmark extends PrimitiveCollectionsBenchmark
+{
+    @State(Scope.Benchmark)
+    public static class MapState extends BenchmarkState
+    {
+        ConcurrentSplitLongToLongMap map;
+
+        @Override
+        protected void onSetup()
+        {
+            map = new ConcurrentSplitLongToLongMap("benchmark");
+            map.initialSize(hashedCapacity());
+            map.initialize();
+            for (var index = 0; index < size; index++)
+            {
+                var key = key(index);
+                map.put(key, key);
+            }
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class BaselineState extends BenchmarkState
+    {
+        ConcurrentHashMap<Long, Long> map;
+
+        @Override
+        protected void onSetup()
+        {
+            map = new ConcurrentHashMap<>(hashedCapacity());
+            for (var index = 0; index < size; index++)
+            {
+                var key = key(index);
+                map.put(key, key);
+            }
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(OPERATIONS)
+    public long baselineGet(BaselineState state)
+    {
+        var map = state.map;
+        var sum = 0L;
+        for (var key : state.keys)
+        {
+            sum += map.get(key);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(OPERATIONS)
+    public void baselinePut(BaselineState state)
+    {
+        var map = state.map;
+        for (var key : state.keys)
+        {
+            map.put(key, key);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(OPERATIONS)
+    public long get(MapState state)
+    {
+        var map = state.map;
+        var sum = 0L;
+        for (var key : state.keys)
+        {
+            sum += map.get(key);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(OPERATIONS)
+    public void put(MapState state)
+    {
+        var map = state.map;
+        for (var key : state.keys)
+        {
+            map.put(key, key);
+        }
+    }
+}
@@ -0,0 +1,191 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+package com.telenav.kivakit.primitive.collections.benchmarks.map;
+
+import com.telenav.kivakit.primitive.collections.benchmarks.BenchmarkState;
+import com.telenav.kivakit.primitive.collections.benchmarks.PrimitiveCollectionsBenchmark;
+import com.telenav.kivakit.primitive.collections.map.PowerOfTwoHashingStrategy;
+import com.telenav.kivakit.primitive.collections.map.scalars.IntToIntMap;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.HashMap;
+
+/**
+ * Benchmarks {@link IntToIntMap} get, put and remove against a {@link HashMap}&lt;Integer, Integer&gt; baseline.
+ *
+ * @author agent
+ */
+public class IntToIntMapBenchmark extends PrimitiveCollectionsBenchmark
+{
+    @State(Scope.Benchmark)
+    public static class MapState extends BenchmarkState
+    {
+        /** The hashing strategy to use, either "default" or "powerOfTwo" */
+        @Param({ "default", "powerOfTwo" })
+        public String hashing;
+
+        IntToIntMap map;
+
+        @Override
+        protected void onSetup()
+        {
+            map = new IntToIntMap("benchmark");
+            map.initialSize(hashedCapacity());
+            if (hashing.equals("powerOfTwo"))
+            {
+                map.initialHashingStrategy(PowerOfTwoHashingStrategy.DEFAULT);
+            }
+            map.initialize();
+            for (var index = 0; index < size; index++)
+            {
+                var key = intKey(index);
+                map.put(key, key);
+            }
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class BaselineState extends BenchmarkState
+    {
+        HashMap<Integer, Integer> map;
+
+        @Override
+        protected void onSetup()
+        {
+            map = new HashMap<>(hashedCapacity());
+            for (var index = 0; index < size; index++)
+            {
+                var key = intKey(index);
+                map.put(key, key);
+            }
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(OPERATIONS)
+    public long baselineGet(BaselineState state)
+    {
+        var map = state.map;
+        var keys = state.intKeys;
+        var sum = 0L;
+        for (var key : keys)
+        {
+            sum += map.get(key);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(OPERATIONS)
+    public long baselineGetMissing(BaselineState state)
+    {
+        var map = state.map;
+        var keys = state.missingIntKeys;
+        var found = 0L;
+        for (var key : keys)
+        {
+            if (map.get(key) != null)
+            {
+                found++;
+            }
+        }
+        return found;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(OPERATIONS)
+    public void baselinePut(BaselineState state)
+    {
+        var map = state.map;
+        for (var key : state.intKeys)
+        {
+            map.put(key, key);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(OPERATIONS)
+    public void baselineRemoveAndReinsert(BaselineState state)
+    {
+        var map = state.map;
+        for (var key : state.intKeys)
+        {
+            map.remove(key);
+            map.put(key, key);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(OPERATIONS)
+    public long get(MapState state)
+    {
+        var map = state.map;
+        var keys = state.intKeys;
+        var sum = 0L;
+        for (var key : keys)
+        {
+            sum += map.get(key);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(OPERATIONS)
+    public long getMissing(MapState state)
+    {
+        var map = state.map;
+        var keys = state.missingIntKeys;
+        var found = 0L;
+        for (var key : keys)
+        {
+            if (!map.isNull(map.get(key)))
+            {
+                found++;
+            }
+        }
+        return found;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(OPERATIONS)
+    public void put(MapState state)
+    {
+        var map = state.map;
+        for (var key : state.intKeys)
+        {
+            map.put(key, key);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(OPERATIONS)
+    public void removeAndReinsert(MapState state)
+    {
+        var map = state.map;
+        for (var key : state.intKeys)
+        {
+            map.remove(key);
+            map.put(key, key);
+        }
+    }
+}
@@ -0,0 +1,220 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+package com.telenav.kivakit.primitive.collections.benchmarks.map;
+
+import com.telenav.kivakit.primitive.collections.benchmarks.BenchmarkState;
+import com.telenav.kivakit.primitive.collections.benchmarks.PrimitiveCollectionsBenchmark;
+import com.telenav.kivakit.primitive.collections.map.PowerOfTwoHashingStrategy;
+import com.telenav.kivakit.primitive.collections.map.scalars.LongToLongMap;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.HashMap;
+
+/**
+ * Benchmarks {@link LongToLongMap} get, put and remove, one key at a time and in bulk, against a {@link
+ * HashMap}&lt;Long, Long&gt; baseline.
+ *
+ * @author agent
+ */
+public class LongToLongMapBenchmark extends PrimitiveCollectionsBenchmark
+{
+    @State(Scope.Benchmark)
+    public static class MapState extends BenchmarkState
+    {
+        /** The hashing strategy to use, either "default" or "powerOfTwo" */
+        @Param({ "default", "powerOfTwo" })
+        public String hashing;
+
+        /**
+         * The bound on the average probe length, where zero turns off adaptive rehashing and, with metrics disabled,
+         * stops lookups from counting probes
+         */
+        @Param({ "16", "0" })
+        public double maximumAverageProbeLength;
+
+        LongToLongMap map;
+
+        /** Values found by bulk lookups */
+        long[] values;
+
+        @Override
+        protected void onSetup()
+        {
+            values = new long[keys.length];
+            map = new LongToLongMap("benchmark");
+            map.initialSize(hashedCapacity());
+            if (hashing.equals("powerOfTwo"))
+            {
+                map.initialHashingStrategy(PowerOfTwoHashingStrategy.DEFAULT);
+            }
+            map.maximumAverageProbeLength(maximumAverageProbeLength);
+            map.initialize();
+            for (var index = 0; index < size; index++)
+            {
+                var key = key(index);
+                map.put(key, key);
+            }
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class BaselineState extends BenchmarkState
+    {
+        HashMap<Long, Long> map;
+
+        @Override
+        protected void onSetup()
+        {
+            map = new HashMap<>(hashedCapacity());
+            for (var index = 0; index < size; index++)
+            {
+                var key = key(index);
+                map.put(key, key);
+            }
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(OPERATIONS)
+    public long baselineGet(BaselineState state)
+    {
+        var map = state.map;
+        var keys = state.keys;
+        var sum = 0L;
+        for (var key : keys)
+        {
+            sum += map.get(key);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(OPERATIONS)
+    public long baselineGetMissing(BaselineState state)
+    {
+        var map = state.map;
+        var keys = state.missingKeys;
+        var found = 0L;
+        for (var key : keys)
+        {
+            if (map.get(key) != null)
+            {
+                found++;
+            }
+        }
+        return found;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(OPERATIONS)
+    public void baselinePut(BaselineState state)
+    {
+        var map = state.map;
+        for (var key : state.keys)
+        {
+            map.put(key, key);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(OPERATIONS)
+    public void baselineRemoveAndReinsert(BaselineState state)
+    {
+        var map = state.map;
+        for (var key : state.keys)
+        {
+            map.remove(key);
+            map.put(key, key);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(OPERATIONS)
+    public long get(MapState state)
+    {
+        var map = state.map;
+        var keys = state.keys;
+        var sum = 0L;
+        for (var key : keys)
+        {
+            sum += map.get(key);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(OPERATIONS)
+    public long getAll(MapState state)
+    {
+        var values = state.values;
+        state.map.getAll(state.keys, values);
+        return values[values.length - 1];
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(OPERATIONS)
+    public long getMissing(MapState state)
+    {
+        var map = state.map;
+        var keys = state.missingKeys;
+        var found = 0L;
+        for (var key : keys)
+        {
+            if (!map.isNull(map.get(key)))
+            {
+                found++;
+            }
+        }
+        return found;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(OPERATIONS)
+    public void put(MapState state)
+    {
+        var map = state.map;
+        for (var key : state.keys)
+        {
+            map.put(key, key);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(OPERATIONS)
+    public int putAll(MapState state)
+    {
+        return state.map.putAll(state.keys, state.keys);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(OPERATIONS)
+    public void removeAndReinsert(MapState state)
+    {
+        var map = state.map;
+        for (var key : state.keys)
+        {
+            map.remove(key);
+            map.put(key, key);
+        }
+    }
+}
@@ -0,0 +1,135 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+package com.telenav.kivakit.primitive.collections.benchmarks.set;
+
+import com.telenav.kivakit.primitive.collections.benchmarks.BenchmarkState;
+import com.telenav.kivakit.primitive.collections.benchmarks.PrimitiveCollectionsBenchmark;
+import com.telenav.kivakit.primitive.collections.set.LongSet;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.HashSet;
+
+/**
+ * Benchmarks {@link LongSet} membership tests against a {@link HashSet}&lt;Long&gt; baseline.
+ *
+ * @author agent
+ */
+public class LongSetBenchmark extends PrimitiveCollectionsBenchmark
+{
+    @State(Scope.Benchmark)
+    public static class SetState extends BenchmarkState
+    {
+        LongSet set;
+
+        @Override
+        protected void onSetup()
+        {
+            set = new LongSet("benchmark");
+            set.initialSize(hashedCapacity());
+            set.initialize();
+            for (var index = 0; index < size; index++)
+            {
+                set.add(key(index));
+            }
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class BaselineState extends BenchmarkState
+    {
+        HashSet<Long> set;
+
+        @Override
+        protected void onSetup()
+        {
+            set = new HashSet<>(hashedCapacity());
+            for (var index = 0; index < size; index++)
+            {
+                set.add(key(index));
+            }
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(OPERATIONS)
+    public int baselineContains(BaselineState state)
+    {
+        var set = state.set;
+        var found = 0;
+        for (var key : state.keys)
+        {
+            if (set.contains(key))
+            {
+                found++;
+            }
+        }
+        return found;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(OPERATIONS)
+    public int baselineContainsMissing(BaselineState state)
+    {
+        var set = state.set;
+        var found = 0;
+        for (var key : state.missingKeys)
+        {
+            if (set.contains(key))
+            {
+                found++;
+            }
+        }
+        return found;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(OPERATIONS)
+    public int contains(SetState state)
+    {
+        var set = state.set;
+        var found = 0;
+        for (var key : state.keys)
+        {
+            if (set.contains(key))
+            {
+                found++;
+            }
+        }
+        return found;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(OPERATIONS)
+    public int containsMissing(SetState state)
+    {
+        var set = state.set;
+        var found = 0;
+        for (var key : state.missingKeys)
+        {
+            if (set.contains(key))
+            {
+                found++;
+            }
+        }
+        return found;
+    }
+}
@@ -0,0 +1,14 @@
+open module kivakit.primitive.collections.benchmarks
+{
+    // KivaKit
+    requires kivakit.primitive.collections;
+
+    // JMH
+    requires jmh.core;
+
+    // Module exports
+    exports com.telenav.kivakit.primitive.collections.benchmarks;
+    exports com.telenav.kivakit.primitive.collections.benchmarks.array;
+    exports com.telenav.kivakit.primitive.collections.benchmarks.map;
+    exports com.telenav.kivakit.primitive.collections.benchmarks.set;
+}
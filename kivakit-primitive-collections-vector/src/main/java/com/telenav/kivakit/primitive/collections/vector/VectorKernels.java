@@ -0,0 +1,362 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+package com.telenav.kivakit.primitive.collections.vector;
+
+import com.telenav.kivakit.primitive.collections.array.kernels.ArrayKernels;
+import com.telenav.kivakit.primitive.collections.array.kernels.ArrayKernels.BitwiseOperation;
+import com.telenav.kivakit.primitive.collections.array.kernels.Kernels;
+import com.telenav.kivakit.primitive.collections.array.kernels.ScalarKernels;
+import com.telenav.kivakit.primitive.collections.lexakai.DiagramPrimitiveArray;
+import com.telenav.lexakai.annotations.UmlClassDiagram;
+import jdk.incubator.vector.ByteVector;
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+import static jdk.incubator.vector.VectorOperators.ADD;
+import static jdk.incubator.vector.VectorOperators.EQ;
+import static jdk.incubator.vector.VectorOperators.LSHR;
+import static jdk.incubator.vector.VectorOperators.MAX;
+import static jdk.incubator.vector.VectorOperators.MIN;
+import static jdk.incubator.vector.VectorOperators.NE;
+
+/**
+ * Kernels implemented with the incubating vector API, which compiles each loop to SIMD instructions for the widest
+ * vectors the processor supports (AVX2 or AVX-512 on x86). Each kernel processes whole vectors and hands the values
+ * left over at the end of a range to {@link ScalarKernels}.
+ * <p>
+ * This class is provided as a {@link Kernels} service, which {@link ArrayKernels} loads when this module is on the
+ * module path. It's kept out of kivakit-primitive-collections, so that only this module is compiled against the
+ * incubating jdk.incubator.vector module.
+ *
+ * @author agent
+ */
+@SuppressWarnings("DuplicatedCode")
+@UmlClassDiagram(diagram = DiagramPrimitiveArray.class)
+public final class VectorKernels implements Kernels
+{
+    private static final VectorSpecies<Byte> BYTES = ByteVector.SPECIES_PREFERRED;
+
+    private static final VectorSpecies<Integer> INTS = IntVector.SPECIES_PREFERRED;
+
+    private static final VectorSpecies<Long> LONGS = LongVector.SPECIES_PREFERRED;
+
+    /** The smallest number of values worth unpacking with vectors */
+    private static final int MINIMUM_UNPACK = 256;
+
+    /** Loops for values and ranges that don't fill a vector */
+    private final ScalarKernels scalar = new ScalarKernels();
+
+    /** For each power-of-two bit width, the right shift that moves each of the values in a word to its low bits */
+    private final long[][] unpackShifts = new long[Long.SIZE + 1][];
+
+    public VectorKernels()
+    {
+        for (var bits = 1; bits < Long.SIZE; bits *= 2)
+        {
+            var shifts = new long[Long.SIZE / bits];
+            for (var i = 0; i < shifts.length; i++)
+            {
+                shifts[i] = Long.SIZE - (i + 1) * bits;
+            }
+            unpackShifts[bits] = shifts;
+        }
+    }
+
+    @Override
+    public long bitCount(byte[] values, int from, int to)
+    {
+        var bound = from + BYTES.loopBound(to - from);
+        var counts = LongVector.zero(LONGS);
+        var i = from;
+        for (; i < bound; i += BYTES.length())
+        {
+            counts = counts.add(bitCount(ByteVector.fromArray(BYTES, values, i).reinterpretAsLongs()));
+        }
+        return counts.reduceLanes(ADD) + scalar.bitCount(values, i, to);
+    }
+
+    @Override
+    public void bitwise(BitwiseOperation operation, byte[] values, int offset, byte[] that, int thatOffset, int length)
+    {
+        var operator = operator(operation);
+        var bound = BYTES.loopBound(length);
+        var i = 0;
+        for (; i < bound; i += BYTES.length())
+        {
+            ByteVector.fromArray(BYTES, values, offset + i)
+                    .lanewise(operator, ByteVector.fromArray(BYTES, that, thatOffset + i))
+                    .intoArray(values, offset + i);
+        }
+        scalar.bitwise(operation, values, offset + i, that, thatOffset + i, length - i);
+    }
+
+    @Override
+    public boolean equals(long[] values, int offset, long[] that, int thatOffset, int length)
+    {
+        var bound = LONGS.loopBound(length);
+        var i = 0;
+        for (; i < bound; i += LONGS.length())
+        {
+            var a = LongVector.fromArray(LONGS, values, offset + i);
+            var b = LongVector.fromArray(LONGS, that, thatOffset + i);
+            if (a.compare(NE, b).anyTrue())
+            {
+                return false;
+            }
+        }
+        return scalar.equals(values, offset + i, that, thatOffset + i, length - i);
+    }
+
+    @Override
+    public boolean equals(int[] values, int offset, int[] that, int thatOffset, int length)
+    {
+        var bound = INTS.loopBound(length);
+        var i = 0;
+        for (; i < bound; i += INTS.length())
+        {
+            var a = IntVector.fromArray(INTS, values, offset + i);
+            var b = IntVector.fromArray(INTS, that, thatOffset + i);
+            if (a.compare(NE, b).anyTrue())
+            {
+                return false;
+            }
+        }
+        return scalar.equals(values, offset + i, that, thatOffset + i, length - i);
+    }
+
+    @Override
+    public void fill(long[] values, int from, int to, long value)
+    {
+        var bound = from + LONGS.loopBound(to - from);
+        var vector = LongVector.broadcast(LONGS, value);
+        var i = from;
+        for (; i < bound; i += LONGS.length())
+        {
+            vector.intoArray(values, i);
+        }
+        scalar.fill(values, i, to, value);
+    }
+
+    @Override
+    public void fill(int[] values, int from, int to, int value)
+    {
+        var bound = from + INTS.loopBound(to - from);
+        var vector = IntVector.broadcast(INTS, value);
+        var i = from;
+        for (; i < bound; i += INTS.length())
+        {
+            vector.intoArray(values, i);
+        }
+        scalar.fill(values, i, to, value);
+    }
+
+    @Override
+    public int indexOf(long[] values, int from, int to, long value)
+    {
+        var bound = from + LONGS.loopBound(to - from);
+        var i = from;
+        for (; i < bound; i += LONGS.length())
+        {
+            var matches = LongVector.fromArray(LONGS, values, i).compare(EQ, value);
+            if (matches.anyTrue())
+            {
+                return i + matches.firstTrue();
+            }
+        }
+        return scalar.indexOf(values, i, to, value);
+    }
+
+    @Override
+    public int indexOf(int[] values, int from, int to, int value)
+    {
+        var bound = from + INTS.loopBound(to - from);
+        var i = from;
+        for (; i < bound; i += INTS.length())
+        {
+            var matches = IntVector.fromArray(INTS, values, i).compare(EQ, value);
+            if (matches.anyTrue())
+            {
+                return i + matches.firstTrue();
+            }
+        }
+        return scalar.indexOf(values, i, to, value);
+    }
+
+    @Override
+    public long maximum(long[] values, int from, int to)
+    {
+        var bound = from + LONGS.loopBound(to - from);
+        var maximum = LongVector.broadcast(LONGS, Long.MIN_VALUE);
+        var i = from;
+        for (; i < bound; i += LONGS.length())
+        {
+            maximum = maximum.max(LongVector.fromArray(LONGS, values, i));
+        }
+        return Math.max(maximum.reduceLanes(MAX), scalar.maximum(values, i, to));
+    }
+
+    @Override
+    public int maximum(int[] values, int from, int to)
+    {
+        var bound = from + INTS.loopBound(to - from);
+        var maximum = IntVector.broadcast(INTS, Integer.MIN_VALUE);
+        var i = from;
+        for (; i < bound; i += INTS.length())
+        {
+            maximum = maximum.max(IntVector.fromArray(INTS, values, i));
+        }
+        return Math.max(maximum.reduceLanes(MAX), scalar.maximum(values, i, to));
+    }
+
+    @Override
+    public long minimum(long[] values, int from, int to)
+    {
+        var bound = from + LONGS.loopBound(to - from);
+        var minimum = LongVector.broadcast(LONGS, Long.MAX_VALUE);
+        var i = from;
+        for (; i < bound; i += LONGS.length())
+        {
+            minimum = minimum.min(LongVector.fromArray(LONGS, values, i));
+        }
+        return Math.min(minimum.reduceLanes(MIN), scalar.minimum(values, i, to));
+    }
+
+    @Override
+    public int minimum(int[] values, int from, int to)
+    {
+        var bound = from + INTS.loopBound(to - from);
+        var minimum = IntVector.broadcast(INTS, Integer.MAX_VALUE);
+        var i = from;
+        for (; i < bound; i += INTS.length())
+        {
+            minimum = minimum.min(IntVector.fromArray(INTS, values, i));
+        }
+        return Math.min(minimum.reduceLanes(MIN), scalar.minimum(values, i, to));
+    }
+
+    @Override
+    public long sum(long[] values, int from, int to)
+    {
+        var bound = from + LONGS.loopBound(to - from);
+        var sum = LongVector.zero(LONGS);
+        var i = from;
+        for (; i < bound; i += LONGS.length())
+        {
+            sum = sum.add(LongVector.fromArray(LONGS, values, i));
+        }
+        return sum.reduceLanes(ADD) + scalar.sum(values, i, to);
+    }
+
+    @Override
+    public long sum(int[] values, int from, int to)
+    {
+        // Each vector of ints is widened to two vectors of longs, so the sum can't overflow
+        var bound = from + INTS.loopBound(to - from);
+        var sum = LongVector.zero(LONGS);
+        var i = from;
+        for (; i < bound; i += INTS.length())
+        {
+            var ints = IntVector.fromArray(INTS, values, i);
+            sum = sum.add(ints.convertShape(VectorOperators.I2L, LONGS, 0))
+                    .add(ints.convertShape(VectorOperators.I2L, LONGS, 1));
+        }
+        return sum.reduceLanes(ADD) + scalar.sum(values, i, to);
+    }
+
+    @Override
+    public void unpack(long[] words, long bitIndex, int bits, long[] values, int offset, int count)
+    {
+        var valuesPerWord = Long.SIZE / bits;
+
+        // If there are too few values to be worth vectorizing, or values might span words, or a word doesn't hold
+        // enough values to fill a vector, or the first value isn't aligned to the bit width, unpack with scalar code.
+        // Values that span words would need gathers, which are slower than scalar code on AVX2 and are miscompiled for
+        // AVX-512 by some JDK 17 builds.
+        if (count < MINIMUM_UNPACK
+                || Long.SIZE % bits != 0
+                || valuesPerWord < LONGS.length()
+                || bitIndex % bits != 0)
+        {
+            scalar.unpack(words, bitIndex, bits, values, offset, count);
+            return;
+        }
+
+        // Unpack values with scalar code until we reach the start of a word,
+        var head = (int) (((Long.SIZE - bitIndex % Long.SIZE) % Long.SIZE) / bits);
+        scalar.unpack(words, bitIndex, bits, values, offset, head);
+
+        // then broadcast each word to every lane, and shift each lane's value down to its low bits,
+        var shifts = unpackShifts[bits];
+        var mask = (1L << bits) - 1;
+        var word = (int) ((bitIndex + (long) head * bits) / Long.SIZE);
+        var at = head;
+        for (; at + valuesPerWord <= count; at += valuesPerWord, word++)
+        {
+            var broadcast = LongVector.broadcast(LONGS, words[word]);
+            for (var lane = 0; lane < valuesPerWord; lane += LONGS.length())
+            {
+                broadcast.lanewise(LSHR, LongVector.fromArray(LONGS, shifts, lane))
+                        .and(mask)
+                        .intoArray(values, offset + at + lane);
+            }
+        }
+
+        // and unpack any remaining values with scalar code.
+        scalar.unpack(words, bitIndex + (long) at * bits, bits, values, offset + at, count - at);
+    }
+
+    /**
+     * @return The number of one bits in each lane of the given vector
+     */
+    private LongVector bitCount(LongVector vector)
+    {
+        // Count bits in pairs, then nibbles, then bytes,
+        var x = vector.sub(vector.lanewise(LSHR, 1).and(0x5555_5555_5555_5555L));
+        x = x.and(0x3333_3333_3333_3333L).add(x.lanewise(LSHR, 2).and(0x3333_3333_3333_3333L));
+        x = x.add(x.lanewise(LSHR, 4)).and(0x0f0f_0f0f_0f0f_0f0fL);
+
+        // then add up the byte counts, which avoids a 64-bit multiply that some processors lack.
+        x = x.add(x.lanewise(LSHR, 8));
+        x = x.add(x.lanewise(LSHR, 16));
+        x = x.add(x.lanewise(LSHR, 32));
+        return x.and(0x7f);
+    }
+
+    private VectorOperators.Binary operator(BitwiseOperation operation)
+    {
+        switch (operation)
+        {
+            case AND:
+                return VectorOperators.AND;
+
+            case AND_NOT:
+                return VectorOperators.AND_NOT;
+
+            case OR:
+                return VectorOperators.OR;
+
+            case XOR:
+                return VectorOperators.XOR;
+
+            default:
+                throw new IllegalArgumentException("Unsupported operation " + operation);
+        }
+    }
+}
@@ -0,0 +1,15 @@
+open module kivakit.primitive.collections.vector
+{
+    // KivaKit
+    requires kivakit.primitive.collections;
+
+    // Java
+    requires jdk.incubator.vector;
+
+    // Services
+    provides com.telenav.kivakit.primitive.collections.array.kernels.Kernels
+            with com.telenav.kivakit.primitive.collections.vector.VectorKernels;
+
+    // Module exports
+    exports com.telenav.kivakit.primitive.collections.vector;
+}
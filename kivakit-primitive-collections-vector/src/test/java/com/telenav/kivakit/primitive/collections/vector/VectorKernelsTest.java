@@ -0,0 +1,157 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+package com.telenav.kivakit.primitive.collections.vector;
+
+import com.telenav.kivakit.primitive.collections.PrimitiveCollectionsUnitTest;
+import com.telenav.kivakit.primitive.collections.array.kernels.ArrayKernels.BitwiseOperation;
+import com.telenav.kivakit.primitive.collections.array.kernels.ScalarKernels;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+public class VectorKernelsTest extends PrimitiveCollectionsUnitTest
+{
+    private final ScalarKernels scalar = new ScalarKernels();
+
+    private final VectorKernels vector = new VectorKernels();
+
+    @Test
+    public void testBits()
+    {
+        var random = new Random(1);
+        for (var i = 0; i < 100; i++)
+        {
+            var a = new byte[random.nextInt(1_000) + 1];
+            var b = new byte[a.length];
+            random.nextBytes(a);
+            random.nextBytes(b);
+            var from = random.nextInt(a.length);
+            var to = from + random.nextInt(a.length - from + 1);
+
+            ensureEqual(scalar.bitCount(a, from, to), vector.bitCount(a, from, to));
+            for (var operation : BitwiseOperation.values())
+            {
+                var expected = a.clone();
+                var result = a.clone();
+                scalar.bitwise(operation, expected, from, b, 0, to - from);
+                vector.bitwise(operation, result, from, b, 0, to - from);
+                ensure(Arrays.equals(expected, result));
+            }
+        }
+    }
+
+    @Test
+    public void testInts()
+    {
+        var random = new Random(2);
+        for (var i = 0; i < 100; i++)
+        {
+            var values = new int[random.nextInt(1_000) + 1];
+            for (var at = 0; at < values.length; at++)
+            {
+                values[at] = random.nextInt(100) - 50;
+            }
+            var from = random.nextInt(values.length);
+            var to = from + random.nextInt(values.length - from + 1);
+            var value = random.nextInt(100) - 50;
+
+            ensureEqual(scalar.indexOf(values, from, to, value), vector.indexOf(values, from, to, value));
+            ensureEqual(scalar.sum(values, from, to), vector.sum(values, from, to));
+            if (from < to)
+            {
+                ensureEqual(scalar.maximum(values, from, to), vector.maximum(values, from, to));
+                ensureEqual(scalar.minimum(values, from, to), vector.minimum(values, from, to));
+            }
+
+            var that = values.clone();
+            ensure(vector.equals(values, from, that, from, to - from));
+            if (from < to)
+            {
+                that[to - 1]++;
+                ensureFalse(vector.equals(values, from, that, from, to - from));
+            }
+
+            var expected = values.clone();
+            scalar.fill(expected, from, to, value);
+            vector.fill(values, from, to, value);
+            ensure(Arrays.equals(expected, values));
+        }
+    }
+
+    @Test
+    public void testLongs()
+    {
+        var random = new Random(3);
+        for (var i = 0; i < 100; i++)
+        {
+            var values = new long[random.nextInt(1_000) + 1];
+            for (var at = 0; at < values.length; at++)
+            {
+                values[at] = random.nextBoolean() ? random.nextLong() : random.nextInt(100) - 50;
+            }
+            var from = random.nextInt(values.length);
+            var to = from + random.nextInt(values.length - from + 1);
+            var value = values[random.nextInt(values.length)];
+
+            ensureEqual(scalar.indexOf(values, from, to, value), vector.indexOf(values, from, to, value));
+            ensureEqual(scalar.sum(values, from, to), vector.sum(values, from, to));
+            if (from < to)
+            {
+                ensureEqual(scalar.maximum(values, from, to), vector.maximum(values, from, to));
+                ensureEqual(scalar.minimum(values, from, to), vector.minimum(values, from, to));
+            }
+
+            var that = values.clone();
+            ensure(vector.equals(values, from, that, from, to - from));
+            if (from < to)
+            {
+                that[to - 1]++;
+                ensureFalse(vector.equals(values, from, that, from, to - from));
+            }
+
+            var expected = values.clone();
+            scalar.fill(expected, from, to, value);
+            vector.fill(values, from, to, value);
+            ensure(Arrays.equals(expected, values));
+        }
+    }
+
+    @Test
+    public void testUnpack()
+    {
+        var random = new Random(4);
+        for (var bits = 1; bits <= Long.SIZE; bits++)
+        {
+            var words = new long[random.nextInt(200) + 1];
+            for (var at = 0; at < words.length; at++)
+            {
+                words[at] = random.nextLong();
+            }
+            var count = (int) ((long) words.length * Long.SIZE / bits);
+            var start = random.nextInt(count);
+            var length = random.nextInt(count - start + 1);
+
+            var expected = new long[length];
+            var values = new long[length];
+            scalar.unpack(words, (long) start * bits, bits, expected, 0, length);
+            vector.unpack(words, (long) start * bits, bits, values, 0, length);
+            ensure(Arrays.equals(expected, values));
+        }
+    }
+}
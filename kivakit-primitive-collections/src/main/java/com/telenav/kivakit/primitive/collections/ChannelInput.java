@@ -0,0 +1,220 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+package com.telenav.kivakit.primitive.collections;
+
+import com.telenav.kivakit.primitive.collections.lexakai.DiagramPrimitiveCollection;
+import com.telenav.lexakai.annotations.UmlClassDiagram;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+
+import static com.telenav.kivakit.core.ensure.Ensure.ensure;
+import static com.telenav.kivakit.core.ensure.Ensure.fail;
+
+/**
+ * Buffered, little-endian input from a {@link ReadableByteChannel} for {@link ChannelSerializable} collections. This
+ * is the reverse of {@link ChannelOutput}: primitive arrays are read from a direct buffer in large blocks.
+ *
+ * @author agent
+ * @see ChannelOutput
+ */
+@UmlClassDiagram(diagram = DiagramPrimitiveCollection.class)
+public final class ChannelInput
+{
+    /** The size of the buffer */
+    private static final int BUFFER_SIZE = 1 << 20;
+
+    /** The channel to read from */
+    private final ReadableByteChannel channel;
+
+    /** Bytes read from the channel but not yet consumed */
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+
+    public ChannelInput(ReadableByteChannel channel)
+    {
+        this.channel = channel;
+        buffer.limit(0);
+    }
+
+    public boolean readBoolean()
+    {
+        return readByte() != 0;
+    }
+
+    public byte readByte()
+    {
+        ensureAvailable(Byte.BYTES);
+        return buffer.get();
+    }
+
+    /**
+     * Reads the given range of bytes in blocks
+     */
+    public void readBytes(byte[] values, int offset, int length)
+    {
+        while (length > 0)
+        {
+            ensureAvailable(Byte.BYTES);
+            var count = Math.min(length, buffer.remaining());
+            buffer.get(values, offset, count);
+            offset += count;
+            length -= count;
+        }
+    }
+
+    /**
+     * Reads the given range of chars in blocks
+     */
+    public void readChars(char[] values, int offset, int length)
+    {
+        while (length > 0)
+        {
+            ensureAvailable(Character.BYTES);
+            var count = Math.min(length, buffer.remaining() / Character.BYTES);
+            buffer.asCharBuffer().get(values, offset, count);
+            buffer.position(buffer.position() + count * Character.BYTES);
+            offset += count;
+            length -= count;
+        }
+    }
+
+    public int readInt()
+    {
+        ensureAvailable(Integer.BYTES);
+        return buffer.getInt();
+    }
+
+    /**
+     * Reads the given range of ints in blocks
+     */
+    public void readInts(int[] values, int offset, int length)
+    {
+        while (length > 0)
+        {
+            ensureAvailable(Integer.BYTES);
+            var count = Math.min(length, buffer.remaining() / Integer.BYTES);
+            buffer.asIntBuffer().get(values, offset, count);
+            buffer.position(buffer.position() + count * Integer.BYTES);
+            offset += count;
+            length -= count;
+        }
+    }
+
+    /**
+     * Reads the given range of ints into a (possibly off-heap) buffer in blocks
+     */
+    public void readInts(IntBuffer values, int offset, int length)
+    {
+        while (length > 0)
+        {
+            ensureAvailable(Integer.BYTES);
+            var count = Math.min(length, buffer.remaining() / Integer.BYTES);
+            values.slice(offset, count).put(buffer.asIntBuffer().limit(count));
+            buffer.position(buffer.position() + count * Integer.BYTES);
+            offset += count;
+            length -= count;
+        }
+    }
+
+    public long readLong()
+    {
+        ensureAvailable(Long.BYTES);
+        return buffer.getLong();
+    }
+
+    /**
+     * Reads the given range of longs in blocks
+     */
+    public void readLongs(long[] values, int offset, int length)
+    {
+        while (length > 0)
+        {
+            ensureAvailable(Long.BYTES);
+            var count = Math.min(length, buffer.remaining() / Long.BYTES);
+            buffer.asLongBuffer().get(values, offset, count);
+            buffer.position(buffer.position() + count * Long.BYTES);
+            offset += count;
+            length -= count;
+        }
+    }
+
+    /**
+     * Reads the given range of longs into a (possibly off-heap) buffer in blocks
+     */
+    public void readLongs(LongBuffer values, int offset, int length)
+    {
+        while (length > 0)
+        {
+            ensureAvailable(Long.BYTES);
+            var count = Math.min(length, buffer.remaining() / Long.BYTES);
+            values.slice(offset, count).put(buffer.asLongBuffer().limit(count));
+            buffer.position(buffer.position() + count * Long.BYTES);
+            offset += count;
+            length -= count;
+        }
+    }
+
+    /**
+     * @return A string written by {@link ChannelOutput#writeString(String)}
+     */
+    public String readString()
+    {
+        var length = readInt();
+        if (length < 0)
+        {
+            return null;
+        }
+        var bytes = new byte[length];
+        readBytes(bytes, 0, length);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Ensures that at least the given number of bytes is buffered, reading more from the channel if necessary
+     */
+    private void ensureAvailable(int bytes)
+    {
+        if (buffer.remaining() < bytes)
+        {
+            try
+            {
+                // Move any unread bytes to the start of the buffer,
+                buffer.compact();
+
+                // then fill it until we have enough bytes or the channel ends,
+                while (buffer.position() < bytes && channel.read(buffer) >= 0)
+                {
+                }
+
+                // and make sure the channel didn't end too soon.
+                ensure(buffer.position() >= bytes, "Unexpected end of channel");
+                buffer.flip();
+            }
+            catch (IOException e)
+            {
+                fail(e, "Unable to read from channel");
+            }
+        }
+    }
+}
@@ -0,0 +1,230 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+package com.telenav.kivakit.primitive.collections;
+
+import com.telenav.kivakit.primitive.collections.lexakai.DiagramPrimitiveCollection;
+import com.telenav.lexakai.annotations.UmlClassDiagram;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+
+import static com.telenav.kivakit.core.ensure.Ensure.fail;
+
+/**
+ * Buffered, little-endian output to a {@link WritableByteChannel} for {@link ChannelSerializable} collections. Scalar
+ * values are written through a direct buffer, and primitive arrays are copied into that buffer in large blocks, so
+ * writing runs at the speed of the channel rather than the speed of per-value serialization.
+ *
+ * @author agent
+ * @see ChannelInput
+ */
+@UmlClassDiagram(diagram = DiagramPrimitiveCollection.class)
+public final class ChannelOutput implements AutoCloseable
+{
+    /** The size of the buffer */
+    private static final int BUFFER_SIZE = 1 << 20;
+
+    /** The channel to write to */
+    private final WritableByteChannel channel;
+
+    /** Bytes not yet written to the channel */
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+
+    public ChannelOutput(WritableByteChannel channel)
+    {
+        this.channel = channel;
+    }
+
+    /**
+     * Flushes any buffered bytes. The channel is not closed, since it belongs to the caller.
+     */
+    @Override
+    public void close()
+    {
+        flush();
+    }
+
+    /**
+     * Writes any buffered bytes to the channel
+     */
+    public void flush()
+    {
+        try
+        {
+            buffer.flip();
+            while (buffer.hasRemaining())
+            {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+        catch (IOException e)
+        {
+            fail(e, "Unable to write to channel");
+        }
+    }
+
+    public void writeBoolean(boolean value)
+    {
+        writeByte((byte) (value ? 1 : 0));
+    }
+
+    public void writeByte(byte value)
+    {
+        ensureRoomFor(Byte.BYTES);
+        buffer.put(value);
+    }
+
+    /**
+     * Writes the given range of bytes in blocks
+     */
+    public void writeBytes(byte[] values, int offset, int length)
+    {
+        while (length > 0)
+        {
+            ensureRoomFor(Byte.BYTES);
+            var count = Math.min(length, buffer.remaining());
+            buffer.put(values, offset, count);
+            offset += count;
+            length -= count;
+        }
+    }
+
+    /**
+     * Writes the given range of chars in blocks
+     */
+    public void writeChars(char[] values, int offset, int length)
+    {
+        while (length > 0)
+        {
+            ensureRoomFor(Character.BYTES);
+            var count = Math.min(length, buffer.remaining() / Character.BYTES);
+            buffer.asCharBuffer().put(values, offset, count);
+            buffer.position(buffer.position() + count * Character.BYTES);
+            offset += count;
+            length -= count;
+        }
+    }
+
+    public void writeInt(int value)
+    {
+        ensureRoomFor(Integer.BYTES);
+        buffer.putInt(value);
+    }
+
+    /**
+     * Writes the given range of ints in blocks
+     */
+    public void writeInts(int[] values, int offset, int length)
+    {
+        while (length > 0)
+        {
+            ensureRoomFor(Integer.BYTES);
+            var count = Math.min(length, buffer.remaining() / Integer.BYTES);
+            buffer.asIntBuffer().put(values, offset, count);
+            buffer.position(buffer.position() + count * Integer.BYTES);
+            offset += count;
+            length -= count;
+        }
+    }
+
+    /**
+     * Writes the given range of ints from a (possibly off-heap) buffer in blocks
+     */
+    public void writeInts(IntBuffer values, int offset, int length)
+    {
+        while (length > 0)
+        {
+            ensureRoomFor(Integer.BYTES);
+            var count = Math.min(length, buffer.remaining() / Integer.BYTES);
+            buffer.asIntBuffer().put(values.slice(offset, count));
+            buffer.position(buffer.position() + count * Integer.BYTES);
+            offset += count;
+            length -= count;
+        }
+    }
+
+    public void writeLong(long value)
+    {
+        ensureRoomFor(Long.BYTES);
+        buffer.putLong(value);
+    }
+
+    /**
+     * Writes the given range of longs in blocks
+     */
+    public void writeLongs(long[] values, int offset, int length)
+    {
+        while (length > 0)
+        {
+            ensureRoomFor(Long.BYTES);
+            var count = Math.min(length, buffer.remaining() / Long.BYTES);
+            buffer.asLongBuffer().put(values, offset, count);
+            buffer.position(buffer.position() + count * Long.BYTES);
+            offset += count;
+            length -= count;
+        }
+    }
+
+    /**
+     * Writes the given range of longs from a (possibly off-heap) buffer in blocks
+     */
+    public void writeLongs(LongBuffer values, int offset, int length)
+    {
+        while (length > 0)
+        {
+            ensureRoomFor(Long.BYTES);
+            var count = Math.min(length, buffer.remaining() / Long.BYTES);
+            buffer.asLongBuffer().put(values.slice(offset, count));
+            buffer.position(buffer.position() + count * Long.BYTES);
+            offset += count;
+            length -= count;
+        }
+    }
+
+    /**
+     * Writes the given string as a length followed by UTF-8 bytes. A null string has a length of -1.
+     */
+    public void writeString(String value)
+    {
+        if (value == null)
+        {
+            writeInt(-1);
+        }
+        else
+        {
+            var bytes = value.getBytes(StandardCharsets.UTF_8);
+            writeInt(bytes.length);
+            writeBytes(bytes, 0, bytes.length);
+        }
+    }
+
+    private void ensureRoomFor(int bytes)
+    {
+        if (buffer.remaining() < bytes)
+        {
+            flush();
+        }
+    }
+}
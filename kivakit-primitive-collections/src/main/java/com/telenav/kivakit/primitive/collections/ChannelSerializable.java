@@ -0,0 +1,93 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+package com.telenav.kivakit.primitive.collections;
+
+import com.telenav.kivakit.primitive.collections.lexakai.DiagramPrimitiveCollection;
+import com.telenav.lexakai.annotations.UmlClassDiagram;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+
+import static com.telenav.kivakit.core.ensure.Ensure.fail;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+/**
+ * A collection that can be written to and read from a channel in bulk, as an alternative to Kryo serialization. The
+ * backing arrays of the collection are written in large blocks, and split collections are streamed one child at a
+ * time, so saving and loading runs at disk speed and never needs a second copy of the collection in memory.
+ * <p>
+ * A collection is loaded into a new, uninitialized instance, which takes its settings from the channel:
+ *
+ * <pre>
+ * var array = new SplitLongArray("nodes");
+ * array.load(path);
+ * </pre>
+ *
+ * @author agent
+ * @see ChannelInput
+ * @see ChannelOutput
+ */
+@UmlClassDiagram(diagram = DiagramPrimitiveCollection.class)
+public interface ChannelSerializable
+{
+    /**
+     * Reads this collection from the given file
+     */
+    default void load(Path path)
+    {
+        try (var channel = FileChannel.open(path, READ))
+        {
+            read(new ChannelInput(channel));
+        }
+        catch (IOException e)
+        {
+            fail(e, "Unable to load $", path);
+        }
+    }
+
+    /**
+     * Reads this collection from the given input
+     */
+    void read(ChannelInput input);
+
+    /**
+     * Writes this collection to the given file
+     */
+    default void save(Path path)
+    {
+        try (var channel = FileChannel.open(path, CREATE, TRUNCATE_EXISTING, WRITE);
+             var output = new ChannelOutput(channel))
+        {
+            write(output);
+        }
+        catch (IOException e)
+        {
+            fail(e, "Unable to save $", path);
+        }
+    }
+
+    /**
+     * Writes this collection to the given output
+     */
+    void write(ChannelOutput output);
+}
@@ -27,8 +27,10 @@ import com.telenav.kivakit.interfaces.messaging.Transmittable;
 import com.telenav.kivakit.primitive.collections.lexakai.DiagramPrimitiveCollection;
 import com.telenav.lexakai.annotations.UmlClassDiagram;
 
+import java.util.ArrayList;
 import java.util.IdentityHashMap;
 import java.util.Map;
+import java.util.stream.IntStream;
 
 /**
  * Interface for collection objects that can be compressed. The {@link #compress(Method)} method attempts to compress
@@ -42,7 +44,7 @@ import java.util.Map;
 public interface CompressibleCollection
 {
     /**
-     * Compress all {@link CompressibleCollection} fields recursively on the given object
+     * Compress all {@link CompressibleCollection} fields recursively on the given object, one at a time
      *
      * @param root The object to compress
      * @return Size of the object after compressing
@@ -54,29 +56,61 @@ public interface CompressibleCollection
             Method method,
             Receiver receiver
     )
+    {
+        return compressReachableObjects(listener, root, method, receiver, Parallelism.SEQUENTIAL);
+    }
+
+    /**
+     * Compress all {@link CompressibleCollection} fields recursively on the given object. If the parallelism is {@link
+     * Parallelism#PARALLEL}, the reachable collections are compressed at the same time on the fork-join common pool,
+     * but compression events are still sent to the receiver one at a time, in the order the collections were found.
+     *
+     * @param root The object to compress
+     * @param parallelism Whether to compress collections one at a time or in parallel
+     * @return Size of the object after compressing
+     */
+    static Bytes compressReachableObjects
+    (
+            Listener listener,
+            Object root,
+            Method method,
+            Receiver receiver,
+            Parallelism parallelism
+    )
     {
         return JavaVirtualMachine.local().traceSizeChange(listener, "compress", root, Bytes.megabytes(1), () ->
         {
-            // Go through all reachable sub-objects
+            // Go through all reachable sub-objects,
             var values = Type.of(root).reachableObjectsImplementing(root, CompressibleCollection.class);
-            Map<Object, Boolean> compressed = new IdentityHashMap<>();
+            Map<Object, Boolean> found = new IdentityHashMap<>();
+            var compressibles = new ArrayList<CompressibleCollection>();
             for (var value : values)
             {
-                // and if we haven't already compressed it, and it can be compressed,
-                if (compressed.get(value) != Boolean.TRUE)
+                // and if we haven't already seen it, add it to the list of collections to compress,
+                if (found.put(value, Boolean.TRUE) == null)
                 {
-                    // compress it using the given method,
-                    var compressible = (CompressibleCollection) value;
-                    var methodUsed = compressible.compress(method);
-                    assert methodUsed != null;
-                    if (methodUsed != Method.NONE)
-                    {
-                        // and if it did compress, notify the client,
-                        receiver.receive(new CompressionEvent(compressible, methodUsed));
-                    }
-
-                    // then mark it as compressed, so we don't try it again.
-                    compressed.put(value, Boolean.TRUE);
+                    compressibles.add((CompressibleCollection) value);
+                }
+            }
+
+            // then compress each collection using the given method,
+            var methods = new Method[compressibles.size()];
+            var indexes = IntStream.range(0, compressibles.size());
+            if (parallelism == Parallelism.PARALLEL)
+            {
+                indexes = indexes.parallel();
+            }
+            indexes.forEach(index -> methods[index] = compressibles.get(index).compress(method, parallelism));
+
+            // and for each collection that did compress,
+            for (var index = 0; index < methods.length; index++)
+            {
+                var methodUsed = methods[index];
+                assert methodUsed != null;
+                if (methodUsed != Method.NONE)
+                {
+                    // notify the client.
+                    receiver.receive(new CompressionEvent(compressibles.get(index), methodUsed));
                 }
             }
         });
@@ -111,6 +145,19 @@ public interface CompressibleCollection
         MIXED
     }
 
+    /**
+     * Whether {@link #compressReachableObjects(Listener, Object, Method, Receiver, Parallelism)} compresses reachable
+     * collections one at a time or in parallel
+     */
+    enum Parallelism
+    {
+        /** Compress one collection at a time on the calling thread */
+        SEQUENTIAL,
+
+        /** Compress independent collections in parallel on the fork-join common pool */
+        PARALLEL
+    }
+
     /**
      * A compression event when compressing objects with {@link #compressReachableObjects(Listener, Object, Method,
      * Receiver)}
@@ -148,6 +195,18 @@ public interface CompressibleCollection
      */
     Method compress(Method method);
 
+    /**
+     * Compresses this collection like {@link #compress(Method)}, but if the parallelism is {@link
+     * Parallelism#PARALLEL}, independent parts of the collection may be compressed in parallel on the fork-join common
+     * pool. By default, the collection is compressed sequentially.
+     *
+     * @return The method used to compress the collection
+     */
+    default Method compress(Method method, Parallelism parallelism)
+    {
+        return compress(method);
+    }
+
     /**
      * @return Any compression method that has been applied to this collection. For subclasses of PrimitiveCollection,
      * this will normally be the value that was returned from {@link #compress(Method)}.
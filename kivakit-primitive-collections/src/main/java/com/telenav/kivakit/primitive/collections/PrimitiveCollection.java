@@ -69,15 +69,21 @@ import com.telenav.kivakit.primitive.collections.map.multi.dynamic.LongToLongMul
 import com.telenav.kivakit.primitive.collections.map.scalars.LongToIntMap;
 import com.telenav.kivakit.primitive.collections.map.scalars.LongToLongMap;
 import com.telenav.kivakit.primitive.collections.map.split.SplitLongToIntMap;
+import com.telenav.kivakit.primitive.collections.metrics.CollectionMetricsRegistry;
 import com.telenav.kivakit.primitive.collections.set.PrimitiveSet;
 import com.telenav.lexakai.annotations.UmlClassDiagram;
 import org.jetbrains.annotations.MustBeInvokedByOverriders;
 
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.Objects;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
 
+import static com.telenav.kivakit.core.ensure.Ensure.ensure;
+import static com.telenav.kivakit.core.ensure.Ensure.fail;
 import static com.telenav.kivakit.core.messaging.context.CallStack.Matching.SUBCLASS;
 import static com.telenav.kivakit.core.messaging.context.CallStack.Proximity.IMMEDIATE;
 import static com.telenav.kivakit.core.project.Project.resolveProject;
@@ -151,6 +157,9 @@ import static com.telenav.kivakit.core.vm.ShutdownHook.Order.FIRST;
  *     <li>KIVAKIT_LOG_ALLOCATION_STACK_TRACES - log stack traces for allocations</li>
  * </ul>
  * <i>All of these debugging options are expensive and should only be used during debugging.</i>
+ * <p>
+ * The size, capacity and retained memory of live collections can be monitored in production through {@link
+ * CollectionMetricsRegistry}, which is enabled with -DKIVAKIT_COLLECTION_METRICS=true.
  *
  * @author jonathanl (shibo)
  * @see CompressibleCollection
@@ -171,6 +180,9 @@ public abstract class PrimitiveCollection implements
     /** The number of elements to show when converting a collection to a String */
     protected static final int TO_STRING_MAXIMUM_ELEMENTS = 20;
 
+    /** The version of the settings written by {@link #writeSettings(ChannelOutput)} */
+    private static final int CHANNEL_FORMAT_VERSION = 1;
+
     private static final Logger LOGGER = LoggerFactory.newLogger();
 
     private static final Debug DEBUG = new Debug(LOGGER);
@@ -193,6 +205,12 @@ public abstract class PrimitiveCollection implements
     /** A record of significant compression events */
     private static ObjectList<CompressionRecord> compressionRecords = new ObjectList<>();
 
+    /** The minimum number of children a split collection must have before they are compressed in parallel */
+    private static final int PARALLEL_COMPRESSION_MINIMUM_CHILDREN = 8;
+
+    /** Releases the native memory of a direct buffer right away, or null if the JVM doesn't allow this */
+    private static final Consumer<ByteBuffer> BUFFER_CLEANER = bufferCleaner();
+
     static
     {
         ShutdownHook.register(FIRST, () ->
@@ -317,6 +335,9 @@ public abstract class PrimitiveCollection implements
     /** Any compression method that has been applied to this collection (see {@link CompressibleCollection}) */
     private Method compressionMethod = Method.NONE;
 
+    /** The parallelism of any compression in progress, which split collections use to compress their children */
+    private Parallelism compressionParallelism = Parallelism.SEQUENTIAL;
+
     /** True if this collection defines a null byte value */
     private boolean hasNullByte = true;
 
@@ -442,9 +463,23 @@ public abstract class PrimitiveCollection implements
 
     /**
      * {@inheritDoc}
+     * <p>
+     * The collection is compressed sequentially, on the calling thread.
      */
     @Override
     public final Method compress(Method method)
+    {
+        return compress(method, Parallelism.SEQUENTIAL);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Compression is synchronized on this collection, so a collection reachable from more than one parent can be
+     * compressed safely by {@link CompressibleCollection.Parallelism#PARALLEL} compression.
+     */
+    @Override
+    public final synchronized Method compress(Method method, Parallelism parallelism)
     {
         assert initialized : "Collection " + objectName() + " not initialized";
 
@@ -462,7 +497,15 @@ public abstract class PrimitiveCollection implements
                 DEBUG.trace("Compressing $", objectName());
             }
 
-            compressionMethod = onCompress(method);
+            compressionParallelism = parallelism;
+            try
+            {
+                compressionMethod = onCompress(method);
+            }
+            finally
+            {
+                compressionParallelism = Parallelism.SEQUENTIAL;
+            }
 
             var elapsed = start.elapsedSince();
             if (big && elapsed.isGreaterThan(Duration.ONE_SECOND))
@@ -482,7 +525,10 @@ public abstract class PrimitiveCollection implements
                 {
                     // then add a compression record to be dumped out on exit
                     var record = new CompressionRecord(getClass(), objectName(), before, after);
-                    compressionRecords.add(record);
+                    synchronized (PrimitiveCollection.class)
+                    {
+                        compressionRecords.add(record);
+                    }
 
                     // and write trace the record as well.
                     DEBUG.trace(record.toString());
@@ -657,6 +703,7 @@ public abstract class PrimitiveCollection implements
         {
             onInitialize();
             initialized = true;
+            CollectionMetricsRegistry.register(this);
         }
     }
 
@@ -873,6 +920,8 @@ public abstract class PrimitiveCollection implements
         nullShort = kryo.readObject(input, Short.class);
         nullChar = kryo.readObject(input, Character.class);
         nullByte = kryo.readObject(input, Byte.class);
+
+        CollectionMetricsRegistry.register(this);
     }
 
     /**
@@ -1104,6 +1153,47 @@ public abstract class PrimitiveCollection implements
         Arrays.fill(values, null);
     }
 
+    /**
+     * Compresses the given children of a split collection, skipping any null children of sparse collections. Since
+     * each child is independent of its siblings, if the parallelism is {@link Parallelism#PARALLEL} and there are
+     * enough children, they are compressed in parallel on the fork-join common pool. Otherwise, they are compressed one
+     * at a time on the calling thread. Each child records its own compression as usual.
+     */
+    protected final void compressChildren(PrimitiveCollection[] children, Method method, Parallelism parallelism)
+    {
+        // If parallel compression was requested and there are enough children to make it worthwhile,
+        if (parallelism == Parallelism.PARALLEL && children.length >= PARALLEL_COMPRESSION_MINIMUM_CHILDREN)
+        {
+            // compress them in parallel,
+            Arrays.stream(children)
+                    .parallel()
+                    .filter(Objects::nonNull)
+                    .forEach(child -> child.compress(method, parallelism));
+        }
+        else
+        {
+            // otherwise, go through the children one at a time,
+            for (var child : children)
+            {
+                // and if the child is not null (this is a sparse collection)
+                if (child != null)
+                {
+                    // then compress it.
+                    child.compress(method);
+                }
+            }
+        }
+    }
+
+    /**
+     * @return The parallelism of the compression in progress, to pass to {@link #compressChildren(PrimitiveCollection[],
+     * Method, Parallelism)} from {@link #onCompress(Method)}
+     */
+    protected final Parallelism compressionParallelism()
+    {
+        return compressionParallelism;
+    }
+
     /**
      * Copies the contents of another collection into this collection
      */
@@ -1142,6 +1232,18 @@ public abstract class PrimitiveCollection implements
         assert index < maximumSizeAsInt() : "Index " + index + " must be < " + maximumSizeAsInt();
     }
 
+    /**
+     * Releases the native memory of a buffer allocated by {@link #newOffHeapBuffer(Object, String, int, int)} right
+     * away, rather than when the garbage collector gets around to the buffer. The buffer must not be used afterwards.
+     */
+    protected final void freeOffHeapBuffer(ByteBuffer buffer)
+    {
+        if (buffer != null && BUFFER_CLEANER != null)
+        {
+            BUFFER_CLEANER.accept(buffer);
+        }
+    }
+
     protected final int increaseSize(int count)
     {
         assert initialized : "Collection " + objectName() + " not initialized";
@@ -1245,6 +1347,26 @@ public abstract class PrimitiveCollection implements
         return allocated(who, why, values, size);
     }
 
+    /**
+     * @return A direct buffer in native memory, outside the Java heap, with room for the given number of values of the
+     * given width. Direct memory is limited by -XX:MaxDirectMemorySize, which defaults to the maximum heap size, so
+     * this fails with a message naming that option when the limit is reached.
+     */
+    protected ByteBuffer newOffHeapBuffer(Object who, String why, int size, int valueBytes)
+    {
+        tracePrimitiveAllocation(size);
+        try
+        {
+            var values = ByteBuffer.allocateDirect(size * valueBytes).order(ByteOrder.nativeOrder());
+            return allocated(who, why, values, size);
+        }
+        catch (OutOfMemoryError e)
+        {
+            return fail(e, "Unable to allocate $ bytes of direct memory for $. Direct memory is limited by " +
+                    "-XX:MaxDirectMemorySize, which defaults to the maximum heap size (-Xmx)", (long) size * valueBytes, who);
+        }
+    }
+
     @SuppressWarnings("SameParameterValue")
     protected <T> T[] newObjectArray(Object who, String why)
     {
@@ -1311,6 +1433,37 @@ public abstract class PrimitiveCollection implements
         return Method.NONE;
     }
 
+    /**
+     * Reads the settings of this collection written by {@link #writeSettings(ChannelOutput)}
+     */
+    protected void readSettings(ChannelInput input)
+    {
+        var version = input.readInt();
+        ensure(version == CHANNEL_FORMAT_VERSION, "Unsupported channel format version $", version);
+
+        objectName = input.readString();
+        size = input.readInt();
+        compressionMethod = Method.values()[input.readByte()];
+        initialized = input.readBoolean();
+
+        maximumSize = input.readInt();
+        initialSize = input.readInt();
+        maximumChildSize = input.readInt();
+        initialChildSize = input.readInt();
+
+        hasNullLong = input.readBoolean();
+        hasNullInt = input.readBoolean();
+        hasNullShort = input.readBoolean();
+        hasNullChar = input.readBoolean();
+        hasNullByte = input.readBoolean();
+
+        nullLong = input.readLong();
+        nullInt = input.readInt();
+        nullShort = (short) input.readInt();
+        nullChar = (char) input.readInt();
+        nullByte = input.readByte();
+    }
+
     protected final void size(int size)
     {
         this.size = size;
@@ -1355,6 +1508,70 @@ public abstract class PrimitiveCollection implements
         return Indent.by(4, builder.toString());
     }
 
+    /**
+     * Writes the settings of this collection for a {@link ChannelSerializable} subclass
+     */
+    protected void writeSettings(ChannelOutput output)
+    {
+        output.writeInt(CHANNEL_FORMAT_VERSION);
+
+        output.writeString(objectName);
+        output.writeInt(size);
+        output.writeByte((byte) compressionMethod.ordinal());
+        output.writeBoolean(initialized);
+
+        output.writeInt(maximumSize);
+        output.writeInt(initialSize);
+        output.writeInt(maximumChildSize);
+        output.writeInt(initialChildSize);
+
+        output.writeBoolean(hasNullLong());
+        output.writeBoolean(hasNullInt());
+        output.writeBoolean(hasNullShort());
+        output.writeBoolean(hasNullChar());
+        output.writeBoolean(hasNullByte());
+
+        output.writeLong(nullLong);
+        output.writeInt(nullInt);
+        output.writeInt(nullShort);
+        output.writeInt(nullChar);
+        output.writeByte(nullByte);
+    }
+
+    /**
+     * @return A function that releases the native memory of a direct buffer with Unsafe.invokeCleaner, or null if
+     * sun.misc.Unsafe is not available, in which case the memory is released when the buffer is garbage collected
+     */
+    private static Consumer<ByteBuffer> bufferCleaner()
+    {
+        try
+        {
+            // Get the Unsafe singleton and its invokeCleaner(ByteBuffer) method,
+            var type = Class.forName("sun.misc.Unsafe");
+            var field = type.getDeclaredField("theUnsafe");
+            field.setAccessible(true);
+            var unsafe = field.get(null);
+            var invokeCleaner = type.getMethod("invokeCleaner", ByteBuffer.class);
+
+            // and return a function that invokes the cleaner on a buffer.
+            return buffer ->
+            {
+                try
+                {
+                    invokeCleaner.invoke(unsafe, buffer);
+                }
+                catch (Exception ignored)
+                {
+                    // The memory will be released when the buffer is collected
+                }
+            };
+        }
+        catch (Exception e)
+        {
+            return null;
+        }
+    }
+
     private Boolean logAllocations()
     {
         if (logAllocations == null)
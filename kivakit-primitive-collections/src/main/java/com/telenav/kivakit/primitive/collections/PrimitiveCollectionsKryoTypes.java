@@ -25,25 +25,38 @@ import com.telenav.kivakit.primitive.collections.array.arrays.IntArrayArray;
 import com.telenav.kivakit.primitive.collections.array.arrays.LongArrayArray;
 import com.telenav.kivakit.primitive.collections.array.bits.BitArray;
 import com.telenav.kivakit.primitive.collections.array.bits.FixedSizeBitArray;
+import com.telenav.kivakit.primitive.collections.array.bits.compressed.CompressedBitmap;
+import com.telenav.kivakit.primitive.collections.array.packed.EliasFanoLongList;
 import com.telenav.kivakit.primitive.collections.array.packed.PackedArray;
 import com.telenav.kivakit.primitive.collections.array.packed.PackedPrimitiveArray;
 import com.telenav.kivakit.primitive.collections.array.packed.SplitPackedArray;
+import com.telenav.kivakit.primitive.collections.array.scalars.BigSplitByteArray;
+import com.telenav.kivakit.primitive.collections.array.scalars.BigSplitIntArray;
+import com.telenav.kivakit.primitive.collections.array.scalars.BigSplitLongArray;
 import com.telenav.kivakit.primitive.collections.array.scalars.ByteArray;
 import com.telenav.kivakit.primitive.collections.array.scalars.CharArray;
 import com.telenav.kivakit.primitive.collections.array.scalars.IntArray;
 import com.telenav.kivakit.primitive.collections.array.scalars.LongArray;
+import com.telenav.kivakit.primitive.collections.array.scalars.OffHeapIntArray;
+import com.telenav.kivakit.primitive.collections.array.scalars.OffHeapLongArray;
 import com.telenav.kivakit.primitive.collections.array.scalars.ShortArray;
 import com.telenav.kivakit.primitive.collections.array.scalars.SplitByteArray;
 import com.telenav.kivakit.primitive.collections.array.scalars.SplitCharArray;
 import com.telenav.kivakit.primitive.collections.array.scalars.SplitIntArray;
 import com.telenav.kivakit.primitive.collections.array.scalars.SplitLongArray;
+import com.telenav.kivakit.primitive.collections.array.scalars.SplitOffHeapLongArray;
 import com.telenav.kivakit.primitive.collections.array.strings.PackedStringArray;
 import com.telenav.kivakit.primitive.collections.list.store.IntLinkedListStore;
 import com.telenav.kivakit.primitive.collections.list.store.LongLinkedListStore;
 import com.telenav.kivakit.primitive.collections.list.store.PackedStringStore;
 import com.telenav.kivakit.primitive.collections.map.DefaultHashingStrategy;
+import com.telenav.kivakit.primitive.collections.map.PerfectHash;
+import com.telenav.kivakit.primitive.collections.map.PowerOfTwoHashingStrategy;
 import com.telenav.kivakit.primitive.collections.map.multi.dynamic.LongToIntMultiMap;
 import com.telenav.kivakit.primitive.collections.map.multi.dynamic.LongToLongMultiMap;
+import com.telenav.kivakit.primitive.collections.map.objects.ConcurrentLongToObjectCache;
+import com.telenav.kivakit.primitive.collections.map.objects.IntToObjectCache;
+import com.telenav.kivakit.primitive.collections.map.objects.LongToObjectCache;
 import com.telenav.kivakit.primitive.collections.map.objects.LongToObjectMap;
 import com.telenav.kivakit.primitive.collections.map.scalars.IntToByteMap;
 import com.telenav.kivakit.primitive.collections.map.scalars.IntToIntMap;
@@ -53,14 +66,20 @@ import com.telenav.kivakit.primitive.collections.map.scalars.LongToIntMap;
 import com.telenav.kivakit.primitive.collections.map.scalars.LongToLongMap;
 import com.telenav.kivakit.primitive.collections.map.scalars.StringToIntMap;
 import com.telenav.kivakit.primitive.collections.map.scalars.StringToObjectMap;
+import com.telenav.kivakit.primitive.collections.map.scalars.Utf8ToIntMap;
+import com.telenav.kivakit.primitive.collections.map.scalars.Utf8ToLongMap;
 import com.telenav.kivakit.primitive.collections.map.scalars.fixed.IntToByteFixedMultiMap;
 import com.telenav.kivakit.primitive.collections.map.scalars.fixed.IntToIntFixedMultiMap;
 import com.telenav.kivakit.primitive.collections.map.scalars.fixed.IntToLongFixedMultiMap;
 import com.telenav.kivakit.primitive.collections.map.scalars.fixed.IntToPackedArrayFixedMultiMap;
 import com.telenav.kivakit.primitive.collections.map.scalars.fixed.LongToLongFixedMultiMap;
+import com.telenav.kivakit.primitive.collections.map.split.ConcurrentSplitIntToIntMap;
+import com.telenav.kivakit.primitive.collections.map.split.ConcurrentSplitLongToIntMap;
+import com.telenav.kivakit.primitive.collections.map.split.ConcurrentSplitLongToLongMap;
 import com.telenav.kivakit.primitive.collections.map.split.SplitLongToByteMap;
 import com.telenav.kivakit.primitive.collections.map.split.SplitLongToIntMap;
 import com.telenav.kivakit.primitive.collections.map.split.SplitLongToLongMap;
+import com.telenav.kivakit.primitive.collections.set.ConcurrentSplitLongSet;
 import com.telenav.kivakit.primitive.collections.set.LongSet;
 import com.telenav.kivakit.primitive.collections.set.SplitLongSet;
 import com.telenav.kivakit.serialization.kryo.types.KryoTypes;
@@ -177,5 +196,51 @@ public class PrimitiveCollectionsKryoTypes extends KryoTypes
             register(IntToPackedArrayFixedMultiMap.class);
             register(LongToIntMultiMap.class);
         });
+
+        group("hashing-strategies", () -> register(PowerOfTwoHashingStrategy.class));
+
+        group("off-heap-arrays", () ->
+        {
+            register(OffHeapIntArray.class);
+            register(OffHeapLongArray.class);
+            register(OffHeapLongArray[].class);
+            register(SplitOffHeapLongArray.class);
+        });
+
+        group("concurrent-split-collections", () ->
+        {
+            register(ConcurrentSplitIntToIntMap.class);
+            register(ConcurrentSplitLongToIntMap.class);
+            register(ConcurrentSplitLongToLongMap.class);
+            register(ConcurrentSplitLongSet.class);
+            register(IntToIntMap[].class);
+        });
+
+        group("compressed-bitmaps", () -> register(CompressedBitmap.class));
+
+        group("perfect-hashes", () -> register(PerfectHash.class));
+
+        group("elias-fano-lists", () -> register(EliasFanoLongList.class));
+
+        group("utf8-maps", () ->
+        {
+            register(Utf8ToIntMap.class);
+            register(Utf8ToLongMap.class);
+        });
+
+        group("big-split-arrays", () ->
+        {
+            register(BigSplitByteArray.class);
+            register(BigSplitIntArray.class);
+            register(BigSplitLongArray.class);
+        });
+
+        group("caches", () ->
+        {
+            register(ConcurrentLongToObjectCache.class);
+            register(IntToObjectCache.class);
+            register(LongToObjectCache.class);
+            register(LongToObjectCache[].class);
+        });
     }
 }
@@ -19,6 +19,9 @@
 package com.telenav.kivakit.primitive.collections.array;
 
 import com.telenav.kivakit.primitive.collections.array.packed.SplitPackedArray;
+import com.telenav.kivakit.primitive.collections.array.scalars.BigSplitByteArray;
+import com.telenav.kivakit.primitive.collections.array.scalars.BigSplitIntArray;
+import com.telenav.kivakit.primitive.collections.array.scalars.BigSplitLongArray;
 import com.telenav.kivakit.primitive.collections.array.scalars.SplitByteArray;
 import com.telenav.kivakit.primitive.collections.array.scalars.SplitCharArray;
 import com.telenav.kivakit.primitive.collections.array.scalars.SplitIntArray;
@@ -31,6 +34,9 @@ import com.telenav.lexakai.annotations.UmlClassDiagram;
  * allocations, which can be expensive to resize and hard on the garbage collector.
  *
  * @author jonathanl (shibo)
+ * @see BigSplitByteArray
+ * @see BigSplitIntArray
+ * @see BigSplitLongArray
  * @see SplitByteArray
  * @see SplitCharArray
  * @see SplitIntArray
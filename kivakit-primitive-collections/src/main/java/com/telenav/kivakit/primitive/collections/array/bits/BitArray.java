@@ -24,17 +24,22 @@ import com.telenav.kivakit.interfaces.naming.Named;
 import com.telenav.kivakit.primitive.collections.array.PrimitiveArray;
 import com.telenav.kivakit.primitive.collections.array.bits.io.BitReader;
 import com.telenav.kivakit.primitive.collections.array.bits.io.BitWriter;
-import com.telenav.kivakit.primitive.collections.array.bits.io.input.BaseBitReader;
-import com.telenav.kivakit.primitive.collections.array.bits.io.output.BaseBitWriter;
+import com.telenav.kivakit.primitive.collections.array.bits.io.input.BufferedBitReader;
+import com.telenav.kivakit.primitive.collections.array.bits.io.output.BufferedBitWriter;
+import com.telenav.kivakit.primitive.collections.array.kernels.ArrayKernels;
+import com.telenav.kivakit.primitive.collections.array.kernels.ArrayKernels.BitwiseOperation;
 import com.telenav.kivakit.primitive.collections.array.scalars.ByteArray;
 import com.telenav.kivakit.primitive.collections.list.ByteList;
 import com.telenav.kivakit.primitive.collections.lexakai.DiagramPrimitiveArray;
 import com.telenav.lexakai.annotations.UmlClassDiagram;
 
+import static com.telenav.kivakit.core.ensure.Ensure.ensure;
 import static com.telenav.kivakit.core.ensure.Ensure.unsupported;
 
 /**
- * An array of bits backed by a {@link ByteArray}.
+ * An array of bits backed by a {@link ByteArray}. Bits can be counted with {@link #bitCount()} and combined with
+ * another bit array of the same size with {@link #and(BitArray)}, {@link #andNot(BitArray)}, {@link #or(BitArray)} and
+ * {@link #xor(BitArray)}, which process whole bytes with {@link ArrayKernels}.
  *
  * @author jonathanl (shibo)
  */
@@ -59,6 +64,22 @@ public final class BitArray extends PrimitiveArray implements Named
         offset = bytes.cursor();
     }
 
+    /**
+     * Clears each bit in this array that is not set in the given array, which must be the same size
+     */
+    public void and(BitArray that)
+    {
+        bitwise(BitwiseOperation.AND, that);
+    }
+
+    /**
+     * Clears each bit in this array that is set in the given array, which must be the same size
+     */
+    public void andNot(BitArray that)
+    {
+        bitwise(BitwiseOperation.AND_NOT, that);
+    }
+
     /**
      * @return The bit at the given index
      */
@@ -68,6 +89,37 @@ public final class BitArray extends PrimitiveArray implements Named
         return (getByte(index / 8) & mask) != 0;
     }
 
+    /**
+     * @return The number of bits in this array that are set
+     */
+    public long bitCount()
+    {
+        var bytes = size() / 8;
+        var remainder = size() % 8;
+
+        // Count the bits in the whole bytes,
+        long count;
+        if (isByteArray())
+        {
+            count = ((ByteArray) this.bytes).bitCount(offset, bytes);
+        }
+        else
+        {
+            count = 0;
+            for (var i = 0; i < bytes; i++)
+            {
+                count += Integer.bitCount(getByte(i) & 0xff);
+            }
+        }
+
+        // then add the bits in any partial byte at the end, which are its high bits.
+        if (remainder > 0)
+        {
+            count += Integer.bitCount(getByte(bytes) & (0xff << (8 - remainder)) & 0xff);
+        }
+        return count;
+    }
+
     /**
      * @return The underlying bytes
      */
@@ -115,12 +167,20 @@ public final class BitArray extends PrimitiveArray implements Named
         }
     }
 
+    /**
+     * Sets each bit in this array that is set in the given array, which must be the same size
+     */
+    public void or(BitArray that)
+    {
+        bitwise(BitwiseOperation.OR, that);
+    }
+
     /**
      * @return A reader that reads the bits in this bit array
      */
     public BitReader reader()
     {
-        return new BaseBitReader(bytes, count()) {};
+        return new BufferedBitReader(bytes, count());
     }
 
     /**
@@ -138,8 +198,9 @@ public final class BitArray extends PrimitiveArray implements Named
     public void set(int index, boolean value)
     {
         var mask = 0x80 >>> (index % 8);
-        var current = getByte(index / 8);
-        setByte(index / 8, (byte) ((current & ~mask) | (value ? 1 : 0)));
+        var byteIndex = index / 8;
+        var current = offset + byteIndex < bytes.size() ? getByte(byteIndex) : 0;
+        setByte(byteIndex, (byte) ((current & ~mask) | (value ? mask : 0)));
         size(Math.max(size(), index + 1));
     }
 
@@ -163,7 +224,7 @@ public final class BitArray extends PrimitiveArray implements Named
     public BitWriter writer()
     {
         var outer = this;
-        return new BaseBitWriter()
+        return new BufferedBitWriter(bytes)
         {
             @Override
             public void close()
@@ -178,21 +239,60 @@ public final class BitArray extends PrimitiveArray implements Named
                 }
                 outer.bytes.compress(Method.RESIZE);
             }
+        };
+    }
 
-            @Override
-            protected void onFlush(byte value)
-            {
-                // Store the byte, but don't advance the add cursor
-                outer.bytes.set(outer.bytes.cursor(), value);
-            }
+    /**
+     * Flips each bit in this array that is set in the given array, which must be the same size
+     */
+    public void xor(BitArray that)
+    {
+        bitwise(BitwiseOperation.XOR, that);
+    }
 
-            @Override
-            protected void onWrite(byte value)
+    /**
+     * Combines the bits in this array with the bits in the given array. The bytes are combined in bulk by
+     * {@link ArrayKernels} if both arrays are backed by {@link ByteArray}s.
+     */
+    private void bitwise(BitwiseOperation operation, BitArray that)
+    {
+        ensure(size() == that.size(), "Cannot combine bit arrays of sizes $ and $", size(), that.size());
+
+        var count = (size() + 7) / 8;
+
+        // If both arrays are backed by byte arrays,
+        if (isByteArray() && that.isByteArray())
+        {
+            // combine their bytes in bulk,
+            ((ByteArray) bytes).bitwise(operation, offset, (ByteArray) that.bytes, that.offset, count);
+        }
+        else
+        {
+            // otherwise, combine them one byte at a time.
+            for (var i = 0; i < count; i++)
             {
-                outer.bytes.add(value);
-                size(size() + 8);
+                var a = getByte(i);
+                var b = that.getByte(i);
+                switch (operation)
+                {
+                    case AND:
+                        setByte(i, (byte) (a & b));
+                        break;
+
+                    case AND_NOT:
+                        setByte(i, (byte) (a & ~b));
+                        break;
+
+                    case OR:
+                        setByte(i, (byte) (a | b));
+                        break;
+
+                    case XOR:
+                        setByte(i, (byte) (a ^ b));
+                        break;
+                }
             }
-        };
+        }
     }
 
     private byte getByte(int index)
@@ -200,6 +300,15 @@ public final class BitArray extends PrimitiveArray implements Named
         return bytes.get(offset + index);
     }
 
+    /**
+     * @return True if the bytes of this array are in an ordinary {@link ByteArray}, rather than a sub-array or some
+     * other {@link ByteList}, so they can be processed in bulk
+     */
+    private boolean isByteArray()
+    {
+        return bytes.getClass() == ByteArray.class;
+    }
+
     private void setByte(int index, byte value)
     {
         bytes.set(offset + index, value);
@@ -0,0 +1,295 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+package com.telenav.kivakit.primitive.collections.array.bits.compressed;
+
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.io.Output;
+import com.telenav.kivakit.primitive.collections.ChannelOutput;
+import com.telenav.kivakit.primitive.collections.iteration.CharIterator;
+import com.telenav.kivakit.primitive.collections.lexakai.DiagramPrimitiveArray;
+import com.telenav.lexakai.annotations.UmlClassDiagram;
+
+import java.util.Arrays;
+
+/**
+ * A container that holds up to {@link #MAXIMUM_ARRAY_SIZE} values in a sorted array. When the array would grow past
+ * that size it is converted to a {@link BitmapContainer}.
+ *
+ * @author agent
+ */
+@UmlClassDiagram(diagram = DiagramPrimitiveArray.class)
+final class ArrayContainer extends Container
+{
+    /**
+     * @return An array container holding the bits set in the given words
+     */
+    static ArrayContainer fromWords(long[] words, int cardinality)
+    {
+        var values = new char[cardinality];
+        var size = 0;
+        for (var i = 0; i < words.length; i++)
+        {
+            var word = words[i];
+            while (word != 0)
+            {
+                values[size++] = (char) (i * 64 + Long.numberOfTrailingZeros(word));
+                word &= word - 1;
+            }
+        }
+        return new ArrayContainer(values, size);
+    }
+
+    /** The sorted values */
+    private char[] values;
+
+    /** The number of values in use */
+    private int size;
+
+    ArrayContainer()
+    {
+        this(new char[4], 0);
+    }
+
+    ArrayContainer(char[] values, int size)
+    {
+        this.values = values;
+        this.size = size;
+    }
+
+    @Override
+    Container add(char value)
+    {
+        var index = Arrays.binarySearch(values, 0, size, value);
+
+        // If the value is already present, there's nothing to do,
+        if (index >= 0)
+        {
+            return this;
+        }
+
+        // otherwise, if the array is full, convert to a bitmap,
+        if (size == MAXIMUM_ARRAY_SIZE)
+        {
+            return new BitmapContainer(words(), size).add(value);
+        }
+
+        // and if not, grow the array if we need to
+        if (size == values.length)
+        {
+            values = Arrays.copyOf(values, Math.min(MAXIMUM_ARRAY_SIZE, size * 2));
+        }
+
+        // and insert the value.
+        var insertion = -index - 1;
+        System.arraycopy(values, insertion, values, insertion + 1, size - insertion);
+        values[insertion] = value;
+        size++;
+        return this;
+    }
+
+    @Override
+    int capacity()
+    {
+        return values.length;
+    }
+
+    @Override
+    int cardinality()
+    {
+        return size;
+    }
+
+    @Override
+    boolean contains(char value)
+    {
+        return Arrays.binarySearch(values, 0, size, value) >= 0;
+    }
+
+    @Override
+    Container copy()
+    {
+        return new ArrayContainer(Arrays.copyOf(values, size), size);
+    }
+
+    /**
+     * @param keep True to keep the values that are in the given container, false to keep those that are not
+     * @return An array container with the values in this container that pass the filter, or null if there are none
+     */
+    Container filter(Container that, boolean keep)
+    {
+        var filtered = new char[size];
+        var count = 0;
+        for (var i = 0; i < size; i++)
+        {
+            if (that.contains(values[i]) == keep)
+            {
+                filtered[count++] = values[i];
+            }
+        }
+        return count == 0 ? null : new ArrayContainer(filtered, count);
+    }
+
+    @Override
+    CharIterator iterator()
+    {
+        return new CharIterator()
+        {
+            private int index;
+
+            @Override
+            public boolean hasNext()
+            {
+                return index < size;
+            }
+
+            @Override
+            public char next()
+            {
+                return values[index++];
+            }
+        };
+    }
+
+    @Override
+    int rank(char value)
+    {
+        var index = Arrays.binarySearch(values, 0, size, value);
+        return index >= 0 ? index + 1 : -index - 1;
+    }
+
+    @Override
+    Container remove(char value)
+    {
+        var index = Arrays.binarySearch(values, 0, size, value);
+        if (index >= 0)
+        {
+            System.arraycopy(values, index + 1, values, index, size - index - 1);
+            size--;
+        }
+        return size == 0 ? null : this;
+    }
+
+    @Override
+    int runCount()
+    {
+        var runs = size == 0 ? 0 : 1;
+        for (var i = 1; i < size; i++)
+        {
+            if (values[i] != values[i - 1] + 1)
+            {
+                runs++;
+            }
+        }
+        return runs;
+    }
+
+    @Override
+    char select(int rank)
+    {
+        return values[rank];
+    }
+
+    @Override
+    long sizeInBytes()
+    {
+        return (long) values.length * Character.BYTES;
+    }
+
+    @Override
+    Container toArrayOrBitmap()
+    {
+        return this;
+    }
+
+    @Override
+    Container trim()
+    {
+        if (values.length > size)
+        {
+            values = Arrays.copyOf(values, size);
+        }
+        return this;
+    }
+
+    /**
+     * @return The union of this container with the given one, which must fit in an array container
+     */
+    ArrayContainer union(ArrayContainer that)
+    {
+        var merged = new char[size + that.size];
+        int i = 0, j = 0, count = 0;
+        while (i < size && j < that.size)
+        {
+            var a = values[i];
+            var b = that.values[j];
+            if (a < b)
+            {
+                merged[count++] = a;
+                i++;
+            }
+            else if (b < a)
+            {
+                merged[count++] = b;
+                j++;
+            }
+            else
+            {
+                merged[count++] = a;
+                i++;
+                j++;
+            }
+        }
+        while (i < size)
+        {
+            merged[count++] = values[i++];
+        }
+        while (j < that.size)
+        {
+            merged[count++] = that.values[j++];
+        }
+        return new ArrayContainer(merged, count);
+    }
+
+    @Override
+    long[] words()
+    {
+        var words = new long[WORDS];
+        for (var i = 0; i < size; i++)
+        {
+            var value = values[i];
+            words[value >>> 6] |= 1L << value;
+        }
+        return words;
+    }
+
+    @Override
+    void write(ChannelOutput output)
+    {
+        output.writeByte(ARRAY);
+        output.writeInt(size);
+        output.writeChars(values, 0, size);
+    }
+
+    @Override
+    void write(Kryo kryo, Output output)
+    {
+        kryo.writeObject(output, ARRAY);
+        kryo.writeObject(output, size);
+        kryo.writeObject(output, Arrays.copyOf(values, size));
+    }
+}
@@ -0,0 +1,215 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+package com.telenav.kivakit.primitive.collections.array.bits.compressed;
+
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.io.Output;
+import com.telenav.kivakit.primitive.collections.ChannelOutput;
+import com.telenav.kivakit.primitive.collections.iteration.CharIterator;
+import com.telenav.kivakit.primitive.collections.lexakai.DiagramPrimitiveArray;
+import com.telenav.lexakai.annotations.UmlClassDiagram;
+
+/**
+ * A container that holds the values in a 64K chunk as a fixed bitmap of {@link #WORDS} longs. When values are removed
+ * so that the container holds {@link #MAXIMUM_ARRAY_SIZE} or fewer values, it is converted back to an
+ * {@link ArrayContainer}.
+ *
+ * @author agent
+ */
+@UmlClassDiagram(diagram = DiagramPrimitiveArray.class)
+final class BitmapContainer extends Container
+{
+    /** The bitmap */
+    private final long[] words;
+
+    /** The number of bits set in the bitmap */
+    private int cardinality;
+
+    BitmapContainer(long[] words, int cardinality)
+    {
+        this.words = words;
+        this.cardinality = cardinality;
+    }
+
+    @Override
+    Container add(char value)
+    {
+        var index = value >>> 6;
+        var before = words[index];
+        words[index] = before | (1L << value);
+        if (before != words[index])
+        {
+            cardinality++;
+        }
+        return this;
+    }
+
+    @Override
+    int capacity()
+    {
+        return WORDS * 64;
+    }
+
+    @Override
+    int cardinality()
+    {
+        return cardinality;
+    }
+
+    @Override
+    boolean contains(char value)
+    {
+        return (words[value >>> 6] & (1L << value)) != 0;
+    }
+
+    @Override
+    Container copy()
+    {
+        return new BitmapContainer(words.clone(), cardinality);
+    }
+
+    @Override
+    CharIterator iterator()
+    {
+        return new CharIterator()
+        {
+            private int index;
+
+            private long word = words[0];
+
+            @Override
+            public boolean hasNext()
+            {
+                while (word == 0 && index < WORDS - 1)
+                {
+                    word = words[++index];
+                }
+                return word != 0;
+            }
+
+            @Override
+            public char next()
+            {
+                hasNext();
+                var value = (char) (index * 64 + Long.numberOfTrailingZeros(word));
+                word &= word - 1;
+                return value;
+            }
+        };
+    }
+
+    @Override
+    int rank(char value)
+    {
+        var index = value >>> 6;
+        var rank = 0;
+        for (var i = 0; i < index; i++)
+        {
+            rank += Long.bitCount(words[i]);
+        }
+
+        // Count the bits in the last word up to and including the value's bit
+        return rank + Long.bitCount(words[index] & (-1L >>> (63 - (value & 63))));
+    }
+
+    @Override
+    Container remove(char value)
+    {
+        var index = value >>> 6;
+        var before = words[index];
+        words[index] = before & ~(1L << value);
+        if (before != words[index])
+        {
+            cardinality--;
+            if (cardinality <= MAXIMUM_ARRAY_SIZE)
+            {
+                return ArrayContainer.fromWords(words, cardinality);
+            }
+        }
+        return this;
+    }
+
+    @Override
+    int runCount()
+    {
+        // A run starts at every set bit whose preceding bit is clear
+        var runs = 0;
+        var previous = 0L;
+        for (var word : words)
+        {
+            runs += Long.bitCount(word & ~((word << 1) | (previous >>> 63)));
+            previous = word;
+        }
+        return runs;
+    }
+
+    @Override
+    char select(int rank)
+    {
+        for (var i = 0; i < WORDS; i++)
+        {
+            var word = words[i];
+            var count = Long.bitCount(word);
+            if (rank < count)
+            {
+                // Clear the lowest bits of the word until the bit we want is the lowest
+                for (var j = 0; j < rank; j++)
+                {
+                    word &= word - 1;
+                }
+                return (char) (i * 64 + Long.numberOfTrailingZeros(word));
+            }
+            rank -= count;
+        }
+        throw new IllegalArgumentException("Rank " + rank + " is out of range");
+    }
+
+    @Override
+    long sizeInBytes()
+    {
+        return (long) WORDS * Long.BYTES;
+    }
+
+    @Override
+    Container toArrayOrBitmap()
+    {
+        return this;
+    }
+
+    @Override
+    long[] words()
+    {
+        return words;
+    }
+
+    @Override
+    void write(ChannelOutput output)
+    {
+        output.writeByte(BITMAP);
+        output.writeInt(cardinality);
+        output.writeLongs(words, 0, WORDS);
+    }
+
+    @Override
+    void write(Kryo kryo, Output output)
+    {
+        kryo.writeObject(output, BITMAP);
+        kryo.writeObject(output, cardinality);
+        kryo.writeObject(output, words);
+    }
+}
@@ -0,0 +1,630 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+package com.telenav.kivakit.primitive.collections.array.bits.compressed;
+
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+import com.telenav.kivakit.core.string.Strings;
+import com.telenav.kivakit.core.value.count.Bytes;
+import com.telenav.kivakit.core.value.count.Count;
+import com.telenav.kivakit.primitive.collections.ChannelInput;
+import com.telenav.kivakit.primitive.collections.ChannelOutput;
+import com.telenav.kivakit.primitive.collections.ChannelSerializable;
+import com.telenav.kivakit.primitive.collections.IntCollection;
+import com.telenav.kivakit.primitive.collections.PrimitiveCollection;
+import com.telenav.kivakit.primitive.collections.array.bits.BitArray;
+import com.telenav.kivakit.primitive.collections.array.bits.FixedSizeBitArray;
+import com.telenav.kivakit.primitive.collections.iteration.CharIterator;
+import com.telenav.kivakit.primitive.collections.iteration.IntIterator;
+import com.telenav.kivakit.primitive.collections.lexakai.DiagramPrimitiveArray;
+import com.telenav.lexakai.annotations.UmlClassDiagram;
+
+import java.util.Arrays;
+
+import static com.telenav.kivakit.core.ensure.Ensure.ensure;
+
+/**
+ * A compressed set of int values in the style of a Roaring bitmap. Unlike {@link BitArray} and {@link
+ * FixedSizeBitArray}, which use one bit for every possible value, a compressed bitmap only uses memory in proportion
+ * to the values it holds, so a few million values spread over the whole int range take megabytes rather than hundreds
+ * of megabytes.
+ * <p>
+ * Values are divided into 64K chunks by their high 16 bits. The low 16 bits of the values in each chunk are held in a
+ * container suited to the chunk's density:
+ *
+ * <ul>
+ *     <li>A sorted array for sparse chunks with up to 4,096 values</li>
+ *     <li>A 64K bitmap for dense chunks</li>
+ *     <li>A list of runs for chunks with long runs of consecutive values</li>
+ * </ul>
+ * <p>
+ * Array and bitmap containers are chosen automatically as values are added and removed. Run containers are chosen when
+ * the bitmap is compressed with {@link #compress(Method)}, which converts each container to its smallest
+ * representation.
+ * <p>
+ * <b>Operations</b>
+ *
+ * <ul>
+ *     <li>{@link #and(CompressedBitmap)} - The intersection of this bitmap with another</li>
+ *     <li>{@link #or(CompressedBitmap)} - The union of this bitmap with another</li>
+ *     <li>{@link #andNot(CompressedBitmap)} - The values in this bitmap that are not in another</li>
+ *     <li>{@link #cardinality()} - The number of values in this bitmap</li>
+ *     <li>{@link #rank(int)} - The number of values less than or equal to a given value</li>
+ *     <li>{@link #select(long)} - The value with a given rank</li>
+ *     <li>{@link #iterator()} - The values in this bitmap</li>
+ * </ul>
+ * <p>
+ * Values are ordered as <i>unsigned</i> ints, so negative values come after all positive values in iteration, rank
+ * and select. Binary operations work chunk by chunk and never expand a sparse chunk into a bitmap unless the result
+ * needs one.
+ * <p>
+ * A compressed bitmap can be serialized with Kryo or written in bulk with {@link ChannelSerializable}.
+ *
+ * @author agent
+ */
+@SuppressWarnings("DuplicatedCode")
+@UmlClassDiagram(diagram = DiagramPrimitiveArray.class)
+public final class CompressedBitmap extends PrimitiveCollection implements IntCollection, ChannelSerializable
+{
+    /** The high 16 bits of the values in each container, in ascending order */
+    private char[] keys;
+
+    /** The container for each key */
+    private Container[] containers;
+
+    /** The number of containers in use */
+    private int containerCount;
+
+    /** The number of values in this bitmap */
+    private long cardinality;
+
+    /** The number of values before each container, or null if it must be recomputed */
+    private long[] ranks;
+
+    public CompressedBitmap(String objectName)
+    {
+        super(objectName);
+    }
+
+    private CompressedBitmap()
+    {
+    }
+
+    /**
+     * Adds the given value to this bitmap
+     *
+     * @return True if the value was added, false if it was already present
+     */
+    @Override
+    public boolean add(int value)
+    {
+        assert isInitialized();
+
+        var key = (char) (value >>> 16);
+        var index = index(key);
+
+        // If there's no container for the value's chunk,
+        if (index < 0)
+        {
+            // insert a new array container for it.
+            index = -index - 1;
+            insert(index, key, new ArrayContainer());
+        }
+
+        // Add the low bits of the value to the container
+        var container = containers[index];
+        var before = container.cardinality();
+        containers[index] = container.add((char) value);
+        return changed(containers[index].cardinality() - before);
+    }
+
+    /**
+     * @return The values in both this bitmap and the given bitmap
+     */
+    public CompressedBitmap and(CompressedBitmap that)
+    {
+        var result = newBitmap("and");
+        int i = 0, j = 0;
+        while (i < containerCount && j < that.containerCount)
+        {
+            var a = keys[i];
+            var b = that.keys[j];
+            if (a < b)
+            {
+                i++;
+            }
+            else if (b < a)
+            {
+                j++;
+            }
+            else
+            {
+                result.append(a, Container.and(containers[i++], that.containers[j++]));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return The values in this bitmap that are not in the given bitmap
+     */
+    public CompressedBitmap andNot(CompressedBitmap that)
+    {
+        var result = newBitmap("andNot");
+        var j = 0;
+        for (var i = 0; i < containerCount; i++)
+        {
+            var key = keys[i];
+
+            // Skip past the other bitmap's chunks that come before this one
+            while (j < that.containerCount && that.keys[j] < key)
+            {
+                j++;
+            }
+
+            // If the other bitmap has the same chunk, subtract it, otherwise keep this chunk as it is
+            if (j < that.containerCount && that.keys[j] == key)
+            {
+                result.append(key, Container.andNot(containers[i], that.containers[j]));
+            }
+            else
+            {
+                result.append(key, containers[i].copy());
+            }
+        }
+        return result;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Count capacity()
+    {
+        var capacity = 0L;
+        for (var i = 0; i < containerCount; i++)
+        {
+            capacity += containers[i].capacity();
+        }
+        return Count.count(capacity);
+    }
+
+    /**
+     * @return The number of values in this bitmap, which may be more than {@link #size()} can hold
+     */
+    public long cardinality()
+    {
+        return cardinality;
+    }
+
+    /**
+     * Removes all values from this bitmap
+     */
+    @Override
+    public void clear()
+    {
+        super.clear();
+        keys = new char[4];
+        containers = new Container[4];
+        containerCount = 0;
+        cardinality = 0;
+        ranks = null;
+    }
+
+    /**
+     * @return True if this bitmap contains the given value
+     */
+    @Override
+    public boolean contains(int value)
+    {
+        var index = index((char) (value >>> 16));
+        return index >= 0 && containers[index].contains((char) value);
+    }
+
+    @Override
+    public boolean equals(Object object)
+    {
+        if (object instanceof CompressedBitmap)
+        {
+            var that = (CompressedBitmap) object;
+            return cardinality == that.cardinality && iterator().identical(that.iterator());
+        }
+        return false;
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return iterator().hash();
+    }
+
+    /**
+     * @return The values in this bitmap in ascending unsigned order
+     */
+    @Override
+    public IntIterator iterator()
+    {
+        return new IntIterator()
+        {
+            private int index = -1;
+
+            private int high;
+
+            private CharIterator values;
+
+            @Override
+            public boolean hasNext()
+            {
+                // Move to the next container until we find one with values left
+                while ((values == null || !values.hasNext()) && index + 1 < containerCount)
+                {
+                    index++;
+                    high = keys[index] << 16;
+                    values = containers[index].iterator();
+                }
+                return values != null && values.hasNext();
+            }
+
+            @Override
+            public int next()
+            {
+                hasNext();
+                return high | values.next();
+            }
+        };
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Converts each container to its smallest representation, which may be a run container
+     */
+    @Override
+    public Method onCompress(Method method)
+    {
+        for (var i = 0; i < containerCount; i++)
+        {
+            containers[i] = containers[i].optimize();
+        }
+        keys = Arrays.copyOf(keys, containerCount);
+        containers = Arrays.copyOf(containers, containerCount);
+        return Method.RESIZE;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void onInitialize()
+    {
+        super.onInitialize();
+        keys = new char[4];
+        containers = new Container[4];
+    }
+
+    /**
+     * @return The values in this bitmap or the given bitmap
+     */
+    public CompressedBitmap or(CompressedBitmap that)
+    {
+        var result = newBitmap("or");
+        int i = 0, j = 0;
+        while (i < containerCount || j < that.containerCount)
+        {
+            // If only this bitmap has the next chunk, copy it,
+            if (j == that.containerCount || (i < containerCount && keys[i] < that.keys[j]))
+            {
+                result.append(keys[i], containers[i++].copy());
+            }
+
+            // if only the other bitmap has the next chunk, copy that,
+            else if (i == containerCount || that.keys[j] < keys[i])
+            {
+                result.append(that.keys[j], that.containers[j++].copy());
+            }
+
+            // and if both have it, combine them.
+            else
+            {
+                result.append(keys[i], Container.or(containers[i++], that.containers[j++]));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return The number of values in this bitmap that are less than or equal to the given value (as an unsigned int)
+     */
+    public long rank(int value)
+    {
+        var key = (char) (value >>> 16);
+        var index = index(key);
+
+        // If there's a container for the value's chunk, add the values before the chunk to the rank within it,
+        if (index >= 0)
+        {
+            return ranks()[index] + containers[index].rank((char) value);
+        }
+
+        // otherwise, the rank is the number of values in all chunks before the value's chunk.
+        index = -index - 1;
+        return index < containerCount ? ranks()[index] : cardinality;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void read(ChannelInput input)
+    {
+        readSettings(input);
+
+        cardinality = input.readLong();
+        containerCount = input.readInt();
+        keys = new char[Math.max(4, containerCount)];
+        input.readChars(keys, 0, containerCount);
+        containers = new Container[keys.length];
+        for (var i = 0; i < containerCount; i++)
+        {
+            containers[i] = Container.read(input);
+        }
+        ranks = null;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void read(Kryo kryo, Input input)
+    {
+        super.read(kryo, input);
+
+        cardinality = kryo.readObject(input, long.class);
+        containerCount = kryo.readObject(input, int.class);
+        keys = Arrays.copyOf(kryo.readObject(input, char[].class), Math.max(4, containerCount));
+        containers = new Container[keys.length];
+        for (var i = 0; i < containerCount; i++)
+        {
+            containers[i] = Container.read(kryo, input);
+        }
+        ranks = null;
+    }
+
+    /**
+     * Removes the given value from this bitmap
+     *
+     * @return True if the value was removed, false if it was not present
+     */
+    @Override
+    public boolean remove(int value)
+    {
+        var index = index((char) (value >>> 16));
+        if (index >= 0)
+        {
+            var container = containers[index];
+            var before = container.cardinality();
+            var removed = container.remove((char) value);
+
+            // If the container is now empty, remove it,
+            if (removed == null)
+            {
+                System.arraycopy(keys, index + 1, keys, index, containerCount - index - 1);
+                System.arraycopy(containers, index + 1, containers, index, containerCount - index - 1);
+                containers[--containerCount] = null;
+                return changed(-before);
+            }
+
+            // otherwise, replace it with the container holding the result.
+            containers[index] = removed;
+            return changed(removed.cardinality() - before);
+        }
+        return false;
+    }
+
+    /**
+     * @return The value with the given zero-based rank in ascending unsigned order
+     */
+    public int select(long rank)
+    {
+        ensure(rank >= 0 && rank < cardinality, "Rank $ is out of range", rank);
+
+        // Find the last container that starts at or before the rank,
+        var ranks = ranks();
+        var index = Arrays.binarySearch(ranks, 0, containerCount, rank);
+        if (index < 0)
+        {
+            index = -index - 2;
+        }
+        else
+        {
+            // (skipping any containers that start at the same rank, although containers are never empty)
+            while (index + 1 < containerCount && ranks[index + 1] == rank)
+            {
+                index++;
+            }
+        }
+
+        // then select the value within it.
+        return (keys[index] << 16) | containers[index].select((int) (rank - ranks[index]));
+    }
+
+    /**
+     * @return The approximate amount of memory used by this bitmap
+     */
+    public Bytes sizeInBytes()
+    {
+        var bytes = (long) keys.length * (Character.BYTES + 8);
+        for (var i = 0; i < containerCount; i++)
+        {
+            bytes += containers[i].sizeInBytes();
+        }
+        return Bytes.bytes(bytes);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString()
+    {
+        var builder = new StringBuilder();
+        var values = iterator();
+        for (var i = 0; values.hasNext() && i < TO_STRING_MAXIMUM_ELEMENTS; i++)
+        {
+            if (i > 0)
+            {
+                builder.append(", ");
+            }
+            builder.append(Integer.toUnsignedString(values.next()));
+        }
+        if (cardinality > TO_STRING_MAXIMUM_ELEMENTS)
+        {
+            builder.append(", [...]");
+        }
+        return Strings.format("[CompressedBitmap name = '$', cardinality = $, values = [$]]",
+                objectName(), cardinality, builder);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void write(ChannelOutput output)
+    {
+        writeSettings(output);
+
+        output.writeLong(cardinality);
+        output.writeInt(containerCount);
+        output.writeChars(keys, 0, containerCount);
+        for (var i = 0; i < containerCount; i++)
+        {
+            containers[i].write(output);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void write(Kryo kryo, Output output)
+    {
+        super.write(kryo, output);
+
+        kryo.writeObject(output, cardinality);
+        kryo.writeObject(output, containerCount);
+        kryo.writeObject(output, Arrays.copyOf(keys, containerCount));
+        for (var i = 0; i < containerCount; i++)
+        {
+            containers[i].write(kryo, output);
+        }
+    }
+
+    /**
+     * Appends the given container to this bitmap, which must have a key greater than any existing key
+     */
+    private void append(char key, Container container)
+    {
+        if (container != null)
+        {
+            insert(containerCount, key, container);
+            changed(container.cardinality());
+        }
+    }
+
+    /**
+     * Updates the cardinality of this bitmap by the given change
+     *
+     * @return True if the cardinality changed
+     */
+    private boolean changed(long change)
+    {
+        if (change != 0)
+        {
+            cardinality += change;
+            size((int) Math.min(Integer.MAX_VALUE, cardinality));
+            ranks = null;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * @return The index of the container for the given key, or (-(insertion point) - 1) if there is none
+     */
+    private int index(char key)
+    {
+        // If the key is past the last container (as it is when values are added in order), there's no need to search
+        if (containerCount == 0 || keys[containerCount - 1] < key)
+        {
+            return -containerCount - 1;
+        }
+        return Arrays.binarySearch(keys, 0, containerCount, key);
+    }
+
+    /**
+     * Inserts the given container at the given index
+     */
+    private void insert(int index, char key, Container container)
+    {
+        // If the arrays are full, grow them,
+        if (containerCount == keys.length)
+        {
+            var length = Math.max(4, containerCount * 2);
+            keys = Arrays.copyOf(keys, length);
+            containers = Arrays.copyOf(containers, length);
+        }
+
+        // then shift the containers after the index up and insert the new one.
+        System.arraycopy(keys, index, keys, index + 1, containerCount - index);
+        System.arraycopy(containers, index, containers, index + 1, containerCount - index);
+        keys[index] = key;
+        containers[index] = container;
+        containerCount++;
+        ranks = null;
+    }
+
+    /**
+     * @return A new, initialized bitmap to hold the result of the given operation
+     */
+    private CompressedBitmap newBitmap(String operation)
+    {
+        var bitmap = new CompressedBitmap(objectName() + "." + operation);
+        bitmap.initialize();
+        return bitmap;
+    }
+
+    /**
+     * @return The number of values before each container
+     */
+    private long[] ranks()
+    {
+        if (ranks == null)
+        {
+            var ranks = new long[containerCount];
+            var rank = 0L;
+            for (var i = 0; i < containerCount; i++)
+            {
+                ranks[i] = rank;
+                rank += containers[i].cardinality();
+            }
+            this.ranks = ranks;
+        }
+        return ranks;
+    }
+}
@@ -0,0 +1,317 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+package com.telenav.kivakit.primitive.collections.array.bits.compressed;
+
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+import com.telenav.kivakit.primitive.collections.ChannelInput;
+import com.telenav.kivakit.primitive.collections.ChannelOutput;
+import com.telenav.kivakit.primitive.collections.iteration.CharIterator;
+import com.telenav.kivakit.primitive.collections.lexakai.DiagramPrimitiveArray;
+import com.telenav.lexakai.annotations.UmlClassDiagram;
+
+/**
+ * Holds the low 16 bits of the values in one 64K chunk of a {@link CompressedBitmap}. There are three kinds of
+ * container:
+ *
+ * <ul>
+ *     <li>{@link ArrayContainer} - A sorted array of up to {@link #MAXIMUM_ARRAY_SIZE} values</li>
+ *     <li>{@link BitmapContainer} - A fixed bitmap of 64K bits for chunks with more values than that</li>
+ *     <li>{@link RunContainer} - Runs of consecutive values, used when {@link #optimize()} finds them smaller</li>
+ * </ul>
+ * <p>
+ * Containers are mutable, but an operation may need a different kind of container to hold its result, so methods
+ * that change a container return the container that should replace it.
+ *
+ * @author agent
+ */
+@UmlClassDiagram(diagram = DiagramPrimitiveArray.class)
+abstract class Container
+{
+    /** The largest number of values held by an array container */
+    static final int MAXIMUM_ARRAY_SIZE = 4_096;
+
+    /** The number of words in a bitmap container */
+    static final int WORDS = 1_024;
+
+    /** Serialized container types */
+    static final byte ARRAY = 0;
+
+    static final byte BITMAP = 1;
+
+    static final byte RUN = 2;
+
+    /**
+     * @return The intersection of the two containers, or null if it is empty
+     */
+    static Container and(Container a, Container b)
+    {
+        // If either container is an array, the result can be no larger, so filter it by the other container,
+        if (a instanceof ArrayContainer)
+        {
+            return ((ArrayContainer) a).filter(b, true);
+        }
+        if (b instanceof ArrayContainer)
+        {
+            return ((ArrayContainer) b).filter(a, true);
+        }
+
+        // otherwise, intersect the bitmap words.
+        var x = a.words();
+        var y = b.words();
+        var words = new long[WORDS];
+        for (var i = 0; i < WORDS; i++)
+        {
+            words[i] = x[i] & y[i];
+        }
+        return fromWords(words);
+    }
+
+    /**
+     * @return The values in the first container that are not in the second, or null if there are none
+     */
+    static Container andNot(Container a, Container b)
+    {
+        // If the first container is an array, the result can be no larger, so filter it by the second container,
+        if (a instanceof ArrayContainer)
+        {
+            return ((ArrayContainer) a).filter(b, false);
+        }
+
+        // otherwise, subtract the bitmap words.
+        var x = a.words();
+        var y = b.words();
+        var words = new long[WORDS];
+        for (var i = 0; i < WORDS; i++)
+        {
+            words[i] = x[i] & ~y[i];
+        }
+        return fromWords(words);
+    }
+
+    /**
+     * @return An array or bitmap container for the given bitmap words, or null if no bits are set
+     */
+    static Container fromWords(long[] words)
+    {
+        var cardinality = 0;
+        for (var word : words)
+        {
+            cardinality += Long.bitCount(word);
+        }
+        if (cardinality == 0)
+        {
+            return null;
+        }
+        if (cardinality <= MAXIMUM_ARRAY_SIZE)
+        {
+            return ArrayContainer.fromWords(words, cardinality);
+        }
+        return new BitmapContainer(words, cardinality);
+    }
+
+    /**
+     * @return The union of the two containers
+     */
+    static Container or(Container a, Container b)
+    {
+        // If both containers are arrays and their union must fit in an array, merge them,
+        if (a instanceof ArrayContainer && b instanceof ArrayContainer
+                && a.cardinality() + b.cardinality() <= MAXIMUM_ARRAY_SIZE)
+        {
+            return ((ArrayContainer) a).union((ArrayContainer) b);
+        }
+
+        // otherwise, combine the bitmap words.
+        var x = a.words();
+        var y = b.words();
+        var words = new long[WORDS];
+        for (var i = 0; i < WORDS; i++)
+        {
+            words[i] = x[i] | y[i];
+        }
+        return fromWords(words);
+    }
+
+    /**
+     * @return A container read from the given input
+     */
+    static Container read(ChannelInput input)
+    {
+        var type = input.readByte();
+        var length = input.readInt();
+        switch (type)
+        {
+            case ARRAY:
+            {
+                var values = new char[length];
+                input.readChars(values, 0, length);
+                return new ArrayContainer(values, length);
+            }
+
+            case BITMAP:
+            {
+                var words = new long[WORDS];
+                input.readLongs(words, 0, WORDS);
+                return new BitmapContainer(words, length);
+            }
+
+            case RUN:
+            {
+                var runs = new char[length * 2];
+                input.readChars(runs, 0, runs.length);
+                return new RunContainer(runs, length);
+            }
+
+            default:
+                throw new IllegalStateException("Unknown container type " + type);
+        }
+    }
+
+    /**
+     * @return A container read from the given Kryo input
+     */
+    static Container read(Kryo kryo, Input input)
+    {
+        var type = kryo.readObject(input, byte.class);
+        var length = kryo.readObject(input, int.class);
+        switch (type)
+        {
+            case ARRAY:
+                return new ArrayContainer(kryo.readObject(input, char[].class), length);
+
+            case BITMAP:
+                return new BitmapContainer(kryo.readObject(input, long[].class), length);
+
+            case RUN:
+                return new RunContainer(kryo.readObject(input, char[].class), length);
+
+            default:
+                throw new IllegalStateException("Unknown container type " + type);
+        }
+    }
+
+    /**
+     * Adds the given value to this container
+     *
+     * @return The container that holds the result
+     */
+    abstract Container add(char value);
+
+    /**
+     * @return The number of values this container can hold without being reallocated or converted
+     */
+    abstract int capacity();
+
+    /**
+     * @return The number of values in this container
+     */
+    abstract int cardinality();
+
+    /**
+     * @return True if this container holds the given value
+     */
+    abstract boolean contains(char value);
+
+    /**
+     * @return A deep copy of this container
+     */
+    abstract Container copy();
+
+    /**
+     * @return The values in this container in ascending order
+     */
+    abstract CharIterator iterator();
+
+    /**
+     * @return The container that holds the values in this container in the least memory
+     */
+    final Container optimize()
+    {
+        var cardinality = cardinality();
+        var arrayBytes = cardinality <= MAXIMUM_ARRAY_SIZE ? cardinality * Character.BYTES : Integer.MAX_VALUE;
+        var bitmapBytes = WORDS * Long.BYTES;
+        var runBytes = runCount() * 2 * Character.BYTES;
+
+        // If runs are the smallest representation, convert to runs,
+        if (runBytes < Math.min(arrayBytes, bitmapBytes))
+        {
+            return this instanceof RunContainer ? this : RunContainer.of(this);
+        }
+
+        // otherwise, use an array or bitmap container that is trimmed to size.
+        return toArrayOrBitmap().trim();
+    }
+
+    /**
+     * @return The number of values in this container that are less than or equal to the given value
+     */
+    abstract int rank(char value);
+
+    /**
+     * Removes the given value from this container
+     *
+     * @return The container that holds the result, or null if the container is now empty
+     */
+    abstract Container remove(char value);
+
+    /**
+     * @return The number of runs of consecutive values in this container
+     */
+    abstract int runCount();
+
+    /**
+     * @return The value with the given zero-based rank
+     */
+    abstract char select(int rank);
+
+    /**
+     * @return The approximate number of bytes used by this container
+     */
+    abstract long sizeInBytes();
+
+    /**
+     * @return This container as an array or bitmap container, which can be modified efficiently
+     */
+    abstract Container toArrayOrBitmap();
+
+    /**
+     * @return This container without any unused capacity
+     */
+    Container trim()
+    {
+        return this;
+    }
+
+    /**
+     * @return The bitmap words of this container. The array must not be modified, since it may be the container's own
+     * storage.
+     */
+    abstract long[] words();
+
+    /**
+     * Writes this container to the given output
+     */
+    abstract void write(ChannelOutput output);
+
+    /**
+     * Writes this container to the given Kryo output
+     */
+    abstract void write(Kryo kryo, Output output);
+}
@@ -0,0 +1,274 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+package com.telenav.kivakit.primitive.collections.array.bits.compressed;
+
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.io.Output;
+import com.telenav.kivakit.primitive.collections.ChannelOutput;
+import com.telenav.kivakit.primitive.collections.iteration.CharIterator;
+import com.telenav.kivakit.primitive.collections.lexakai.DiagramPrimitiveArray;
+import com.telenav.lexakai.annotations.UmlClassDiagram;
+
+import java.util.Arrays;
+
+/**
+ * A container that holds runs of consecutive values as pairs of (start, length - 1). Run containers are created by
+ * {@link #optimize()} when they are the smallest representation of a chunk. They are read-mostly: adding or removing a
+ * value converts the container to an {@link ArrayContainer} or {@link BitmapContainer} first.
+ *
+ * @author agent
+ */
+@UmlClassDiagram(diagram = DiagramPrimitiveArray.class)
+final class RunContainer extends Container
+{
+    /**
+     * @return A run container holding the values in the given container
+     */
+    static RunContainer of(Container container)
+    {
+        var runs = new char[container.runCount() * 2];
+        var count = 0;
+        var values = container.iterator();
+        var start = -1;
+        var end = -1;
+        while (values.hasNext())
+        {
+            int value = values.next();
+
+            // If there's no current run or the value doesn't extend it,
+            if (start < 0 || value != end + 1)
+            {
+                // record the current run, if any,
+                if (start >= 0)
+                {
+                    runs[count++] = (char) start;
+                    runs[count++] = (char) (end - start);
+                }
+
+                // and start a new one.
+                start = value;
+            }
+            end = value;
+        }
+        if (start >= 0)
+        {
+            runs[count++] = (char) start;
+            runs[count++] = (char) (end - start);
+        }
+        return new RunContainer(runs, count / 2);
+    }
+
+    /** Pairs of (start, length - 1) for each run */
+    private final char[] runs;
+
+    /** The number of runs */
+    private final int runCount;
+
+    /** The number of values in all runs */
+    private final int cardinality;
+
+    RunContainer(char[] runs, int runCount)
+    {
+        this.runs = runs;
+        this.runCount = runCount;
+
+        var cardinality = 0;
+        for (var i = 0; i < runCount; i++)
+        {
+            cardinality += runs[i * 2 + 1] + 1;
+        }
+        this.cardinality = cardinality;
+    }
+
+    @Override
+    Container add(char value)
+    {
+        return contains(value) ? this : toArrayOrBitmap().add(value);
+    }
+
+    @Override
+    int capacity()
+    {
+        return cardinality;
+    }
+
+    @Override
+    int cardinality()
+    {
+        return cardinality;
+    }
+
+    @Override
+    boolean contains(char value)
+    {
+        var run = run(value);
+        return run >= 0 && value <= runs[run * 2] + runs[run * 2 + 1];
+    }
+
+    @Override
+    Container copy()
+    {
+        return new RunContainer(Arrays.copyOf(runs, runCount * 2), runCount);
+    }
+
+    @Override
+    CharIterator iterator()
+    {
+        return new CharIterator()
+        {
+            private int run;
+
+            private int next = runCount > 0 ? runs[0] : 0;
+
+            @Override
+            public boolean hasNext()
+            {
+                return run < runCount;
+            }
+
+            @Override
+            public char next()
+            {
+                var value = (char) next;
+
+                // If this is the last value in the run, move to the next run
+                if (next == runs[run * 2] + runs[run * 2 + 1])
+                {
+                    run++;
+                    if (run < runCount)
+                    {
+                        next = runs[run * 2];
+                    }
+                }
+                else
+                {
+                    next++;
+                }
+                return value;
+            }
+        };
+    }
+
+    @Override
+    int rank(char value)
+    {
+        var run = run(value);
+        var rank = 0;
+        for (var i = 0; i < run; i++)
+        {
+            rank += runs[i * 2 + 1] + 1;
+        }
+        if (run >= 0)
+        {
+            rank += Math.min(value - runs[run * 2], runs[run * 2 + 1]) + 1;
+        }
+        return rank;
+    }
+
+    @Override
+    Container remove(char value)
+    {
+        return contains(value) ? toArrayOrBitmap().remove(value) : this;
+    }
+
+    @Override
+    int runCount()
+    {
+        return runCount;
+    }
+
+    @Override
+    char select(int rank)
+    {
+        for (var i = 0; i < runCount; i++)
+        {
+            var length = runs[i * 2 + 1] + 1;
+            if (rank < length)
+            {
+                return (char) (runs[i * 2] + rank);
+            }
+            rank -= length;
+        }
+        throw new IllegalArgumentException("Rank " + rank + " is out of range");
+    }
+
+    @Override
+    long sizeInBytes()
+    {
+        return (long) runs.length * Character.BYTES;
+    }
+
+    @Override
+    Container toArrayOrBitmap()
+    {
+        return fromWords(words());
+    }
+
+    @Override
+    long[] words()
+    {
+        var words = new long[WORDS];
+        for (var i = 0; i < runCount; i++)
+        {
+            int start = runs[i * 2];
+            var end = start + runs[i * 2 + 1];
+            for (var value = start; value <= end; value++)
+            {
+                words[value >>> 6] |= 1L << value;
+            }
+        }
+        return words;
+    }
+
+    @Override
+    void write(ChannelOutput output)
+    {
+        output.writeByte(RUN);
+        output.writeInt(runCount);
+        output.writeChars(runs, 0, runCount * 2);
+    }
+
+    @Override
+    void write(Kryo kryo, Output output)
+    {
+        kryo.writeObject(output, RUN);
+        kryo.writeObject(output, runCount);
+        kryo.writeObject(output, Arrays.copyOf(runs, runCount * 2));
+    }
+
+    /**
+     * @return The index of the last run starting at or before the given value, or -1 if there is none
+     */
+    private int run(char value)
+    {
+        int low = 0, high = runCount - 1;
+        while (low <= high)
+        {
+            var middle = (low + high) >>> 1;
+            if (runs[middle * 2] <= value)
+            {
+                low = middle + 1;
+            }
+            else
+            {
+                high = middle - 1;
+            }
+        }
+        return high;
+    }
+}
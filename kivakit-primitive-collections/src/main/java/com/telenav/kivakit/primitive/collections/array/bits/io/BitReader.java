@@ -24,9 +24,10 @@ import com.telenav.lexakai.annotations.UmlClassDiagram;
 import java.nio.charset.StandardCharsets;
 
 /**
- * A bit reader can read a single bit with {@link #readBit()} or up to 64 bits with {@link #readLong(int)}. The method
- * {@link #hasNext()} returns true if there is at least one more bit to read and {@link #close()} closes the source of
- * bits using the method implemented in {@link #onClose()}.
+ * A bit reader can read a single bit with {@link #readBit()}, up to 64 bits with {@link #readLong(int)}, or a sequence
+ * of values of the same size with {@link #read(int, long[], int)}. The method {@link #hasNext()} returns true if there
+ * is at least one more bit to read and {@link #close()} closes the source of bits using the method implemented in
+ * {@link #onClose()}.
  *
  * @author jonathanl (shibo)
  */
@@ -60,6 +61,17 @@ public interface BitReader extends AutoCloseable
         return (int) readLong(bits);
     }
 
+    /**
+     * Reads the given number of values of the given size in bits into the given array
+     */
+    default void read(int bits, long[] values, int count)
+    {
+        for (var i = 0; i < count; i++)
+        {
+            values[i] = readLong(bits);
+        }
+    }
+
     /**
      * @return The next bit read
      */
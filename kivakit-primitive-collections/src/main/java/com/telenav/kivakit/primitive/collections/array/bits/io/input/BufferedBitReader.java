@@ -0,0 +1,273 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+package com.telenav.kivakit.primitive.collections.array.bits.io.input;
+
+import com.telenav.kivakit.core.string.Strings;
+import com.telenav.kivakit.core.value.count.Count;
+import com.telenav.kivakit.primitive.collections.array.bits.BitArray;
+import com.telenav.kivakit.primitive.collections.array.bits.io.BitReader;
+import com.telenav.kivakit.primitive.collections.list.ByteList;
+import com.telenav.kivakit.primitive.collections.lexakai.DiagramPrimitiveArrayBitIo;
+import com.telenav.lexakai.annotations.UmlClassDiagram;
+
+/**
+ * Reads bits from a {@link ByteList} through a 64-bit buffer. The buffer holds the next unread bits in its high bits
+ * and is refilled from the byte list eight bits at a time until it holds at least {@link #MAXIMUM_BITS} bits, so any
+ * value of up to that many bits can be extracted with a single shift, rather than bit by bit as in {@link
+ * BaseBitReader}. Wider values are read in two parts. Sequences of values of the same width can be read in bulk with
+ * {@link #read(int, long[], int)}.
+ *
+ * @author agent
+ * @see BitArray
+ * @see BaseBitReader
+ */
+@UmlClassDiagram(diagram = DiagramPrimitiveArrayBitIo.class)
+public class BufferedBitReader implements BitReader
+{
+    /** The maximum number of bits that can be read from the buffer at once */
+    public static final int MAXIMUM_BITS = Long.SIZE - Byte.SIZE + 1;
+
+    /** The unread bits, starting at the high bit */
+    private long buffer;
+
+    /** The number of unread bits in the buffer */
+    private int buffered;
+
+    /** The list of bytes to read bits from */
+    private final ByteList bytes;
+
+    /** Index of the next byte to load into the buffer */
+    private int byteCursor;
+
+    /** The position of the read cursor in bits */
+    private long cursor;
+
+    /** The total number of bits in the input or -1 if it is unknown */
+    private final int size;
+
+    /**
+     * @param bytes List of bytes to read from
+     * @param size The number of bits stored in the bytes
+     */
+    public BufferedBitReader(ByteList bytes, Count size)
+    {
+        this.bytes = bytes;
+        this.size = size.asInt();
+    }
+
+    /**
+     * @param bytes List of bytes to read from, where the number of bits is unknown
+     */
+    public BufferedBitReader(ByteList bytes)
+    {
+        this.bytes = bytes;
+        size = -1;
+    }
+
+    /**
+     * @return The current bit position in the input
+     */
+    @Override
+    public long cursor()
+    {
+        return cursor;
+    }
+
+    /**
+     * Seeks to the given bit index
+     */
+    @Override
+    public void cursor(long index)
+    {
+        // Set the bit and byte cursors,
+        cursor = index;
+        byteCursor = (int) (index / 8);
+
+        // discard the buffer and refill it from the new position,
+        buffer = 0;
+        buffered = 0;
+        refill();
+
+        // then skip any bits before the index in the first byte.
+        var skip = (int) (index % 8);
+        assert buffered >= skip : "Out of input";
+        buffer <<= skip;
+        buffered -= skip;
+    }
+
+    /**
+     * @return True if there is at least one more bit to read
+     */
+    @Override
+    public boolean hasNext()
+    {
+        // If the size is unknown, we have a next bit if there are bits in the buffer or bytes left to read,
+        // otherwise we have one if the cursor is less than the size in bits.
+        return size == -1 ? buffered > 0 || byteCursor < bytes.size() : cursor < size;
+    }
+
+    @Override
+    public void onClose()
+    {
+    }
+
+    /**
+     * @return An integer of the specified size in bits
+     */
+    @Override
+    public final int read(int bits)
+    {
+        return (int) readLong(bits);
+    }
+
+    /**
+     * Reads the given number of values of the given size in bits into the given array
+     */
+    @Override
+    public final void read(int bits, long[] values, int count)
+    {
+        assert bits > 0 && bits <= Long.SIZE;
+        assert count <= values.length;
+
+        // If values are too wide to read from the buffer at once,
+        if (bits > MAXIMUM_BITS)
+        {
+            // read each value in two parts,
+            for (var i = 0; i < count; i++)
+            {
+                values[i] = readLong(bits);
+            }
+        }
+        else
+        {
+            // otherwise, shift each value off the top of the buffer, refilling it as needed.
+            var shift = Long.SIZE - bits;
+            for (var i = 0; i < count; i++)
+            {
+                if (buffered < bits)
+                {
+                    refill();
+                    assert buffered >= bits : "Out of input";
+                }
+                values[i] = buffer >>> shift;
+                buffer <<= bits;
+                buffered -= bits;
+            }
+            cursor += (long) bits * count;
+        }
+    }
+
+    /**
+     * @return The next bit
+     */
+    @Override
+    public final boolean readBit()
+    {
+        if (buffered == 0)
+        {
+            refill();
+            assert buffered > 0 : "Out of input";
+        }
+
+        // The next bit is the sign bit of the buffer
+        var value = buffer < 0;
+        buffer <<= 1;
+        buffered--;
+        cursor++;
+        return value;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public final int readFlexibleInt(int smallBitCount, int bigBitCount)
+    {
+        if (readBit())
+        {
+            return read(smallBitCount);
+        }
+        else
+        {
+            return read(bigBitCount);
+        }
+    }
+
+    /**
+     * @return A long value of the specified size in bits
+     */
+    @Override
+    public final long readLong(int bits)
+    {
+        assert bits >= 0 && bits <= Long.SIZE;
+
+        // If the value is too wide to read from the buffer at once,
+        if (bits > MAXIMUM_BITS)
+        {
+            // read its high bits and then its low 32 bits,
+            var high = readLong(bits - Integer.SIZE);
+            return (high << Integer.SIZE) | readLong(Integer.SIZE);
+        }
+
+        if (bits == 0)
+        {
+            return 0;
+        }
+
+        // otherwise, make sure the buffer holds enough bits,
+        if (buffered < bits)
+        {
+            refill();
+            assert buffered >= bits : "Out of input";
+        }
+
+        // and shift the value off the top of it.
+        var value = buffer >>> (Long.SIZE - bits);
+        buffer <<= bits;
+        buffered -= bits;
+        cursor += bits;
+        return value;
+    }
+
+    @Override
+    public int size()
+    {
+        return size;
+    }
+
+    @Override
+    public String toString()
+    {
+        return Strings.format("[BufferedBitReader cursor = $, size = $, hasNext = $, buffered = $]",
+                cursor(), size(), hasNext(), buffered);
+    }
+
+    /**
+     * Loads whole bytes into the low end of the buffer until it holds at least {@link #MAXIMUM_BITS} bits or there
+     * are no more bytes
+     */
+    private void refill()
+    {
+        var size = bytes.size();
+        while (buffered < MAXIMUM_BITS && byteCursor < size)
+        {
+            buffer |= (bytes.get(byteCursor++) & 0xffL) << (Long.SIZE - Byte.SIZE - buffered);
+            buffered += Byte.SIZE;
+        }
+    }
+}
@@ -0,0 +1,184 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+package com.telenav.kivakit.primitive.collections.array.bits.io.output;
+
+import com.telenav.kivakit.primitive.collections.array.bits.BitArray;
+import com.telenav.kivakit.primitive.collections.array.bits.io.BitWriter;
+import com.telenav.kivakit.primitive.collections.list.ByteList;
+import com.telenav.kivakit.primitive.collections.lexakai.DiagramPrimitiveArrayBitIo;
+import com.telenav.lexakai.annotations.UmlClassDiagram;
+
+/**
+ * Writes bits to a {@link ByteList} through a 64-bit buffer. Each value is shifted into the buffer below any bits
+ * that have not yet been written, and whole bytes are then added to the byte list from the top of the buffer, so
+ * values of up to {@link #MAXIMUM_BITS} bits are written with a single shift, rather than bit by bit as in {@link
+ * BaseBitWriter}. Wider values are written in two parts.
+ *
+ * @author agent
+ * @see BitArray
+ * @see BaseBitWriter
+ */
+@UmlClassDiagram(diagram = DiagramPrimitiveArrayBitIo.class)
+public class BufferedBitWriter implements BitWriter
+{
+    /** The maximum number of bits that can be written to the buffer at once */
+    public static final int MAXIMUM_BITS = Long.SIZE - Byte.SIZE + 1;
+
+    /** The unwritten bits, starting at the high bit */
+    private long buffer;
+
+    /** The number of unwritten bits in the buffer, which is always less than a byte between writes */
+    private int buffered;
+
+    /** The list of bytes to write to */
+    private final ByteList bytes;
+
+    /** True if this writer has been closed */
+    private boolean closed;
+
+    /** The location of the write cursor in bits */
+    private long cursor;
+
+    /**
+     * @param bytes The byte list to add bytes to
+     */
+    public BufferedBitWriter(ByteList bytes)
+    {
+        this.bytes = bytes;
+    }
+
+    /**
+     * @return The current bit position being written to
+     */
+    @Override
+    public long cursor()
+    {
+        return cursor;
+    }
+
+    /**
+     * Writes any unwritten bits as a partial byte, padded with zeros, and moves the cursor to the start of the next
+     * byte
+     */
+    @Override
+    public void flush()
+    {
+        if (buffered > 0)
+        {
+            cursor += Byte.SIZE - buffered;
+            writePartialByte();
+        }
+    }
+
+    /**
+     * Closes this writer, writing any remaining bits as a final partial byte. The cursor remains at the end of the
+     * last bit written.
+     */
+    @Override
+    public void onClose()
+    {
+        if (!closed)
+        {
+            writePartialByte();
+            closed = true;
+        }
+    }
+
+    /**
+     * Writes the low bits of the given value
+     */
+    @Override
+    public final void write(long value, int bits)
+    {
+        assert !closed : "Writer has been closed";
+
+        // If the value is too wide to write to the buffer at once,
+        if (bits > MAXIMUM_BITS)
+        {
+            if (bits > Long.SIZE)
+            {
+                throw new IllegalArgumentException("Bit count must be less than or equal to " + Long.SIZE);
+            }
+
+            // write its high bits and then its low 32 bits,
+            write(value >>> Integer.SIZE, bits - Integer.SIZE);
+            write(value, Integer.SIZE);
+        }
+        else if (bits > 0)
+        {
+            // otherwise, discard any bits above the value and shift it in below the unwritten bits,
+            buffer |= (value << (Long.SIZE - bits)) >>> buffered;
+            buffered += bits;
+            cursor += bits;
+
+            // then write out any whole bytes.
+            drain();
+        }
+    }
+
+    /**
+     * Writes the given bit
+     *
+     * @return True if a byte value was written
+     */
+    @Override
+    public final boolean writeBit(boolean bit)
+    {
+        assert !closed : "Writer has been closed";
+
+        if (bit)
+        {
+            buffer |= Long.MIN_VALUE >>> buffered;
+        }
+        buffered++;
+        cursor++;
+
+        if (buffered == Byte.SIZE)
+        {
+            drain();
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Adds each whole byte at the top of the buffer to the byte list
+     */
+    private void drain()
+    {
+        while (buffered >= Byte.SIZE)
+        {
+            bytes.add((byte) (buffer >>> (Long.SIZE - Byte.SIZE)));
+            buffer <<= Byte.SIZE;
+            buffered -= Byte.SIZE;
+        }
+    }
+
+    /**
+     * Adds any unwritten bits to the byte list as a byte, padded with zeros
+     */
+    private void writePartialByte()
+    {
+        if (buffered > 0)
+        {
+            bytes.add((byte) (buffer >>> (Long.SIZE - Byte.SIZE)));
+            buffer = 0;
+            buffered = 0;
+        }
+    }
+}
@@ -0,0 +1,266 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+package com.telenav.kivakit.primitive.collections.array.kernels;
+
+import com.telenav.kivakit.core.logging.Logger;
+import com.telenav.kivakit.core.logging.LoggerFactory;
+import com.telenav.kivakit.core.messaging.Debug;
+import com.telenav.kivakit.primitive.collections.lexakai.DiagramPrimitiveArray;
+import com.telenav.lexakai.annotations.UmlClassDiagram;
+
+import java.util.ServiceConfigurationError;
+import java.util.ServiceLoader;
+
+/**
+ * Bulk operations on ranges of primitive arrays, used by the array classes in this project for their whole-array
+ * operations. When kivakit-primitive-collections-vector is on the module path, the operations are implemented with
+ * the vector API, which compiles them to SIMD instructions. Otherwise, or if the system property
+ * <i>KIVAKIT_VECTOR_KERNELS</i> is set to <i>false</i>, they fall back to ordinary loops. The choice is made once, when
+ * this class is loaded, and can be checked with {@link #isVectorized()}.
+ *
+ * <p><b>Operations</b></p>
+ *
+ * <ul>
+ *     <li>{@link #bitCount(byte[], int, int)} - The number of one bits in a range of bytes</li>
+ *     <li>{@link #bitwise(BitwiseOperation, byte[], int, byte[], int, int)} - Combines two ranges of bytes</li>
+ *     <li>{@link #equals(long[], int, long[], int, int)} - True if two ranges hold the same values</li>
+ *     <li>{@link #fill(long[], int, int, long)} - Sets every value in a range</li>
+ *     <li>{@link #indexOf(long[], int, int, long)} - The index of the first occurrence of a value</li>
+ *     <li>{@link #maximum(long[], int, int)} - The largest value in a range</li>
+ *     <li>{@link #minimum(long[], int, int)} - The smallest value in a range</li>
+ *     <li>{@link #sum(long[], int, int)} - The sum of the values in a range</li>
+ *     <li>{@link #unpack(long[], long, int, long[], int, int)} - Unpacks bit-packed values</li>
+ * </ul>
+ *
+ * @author agent
+ */
+@UmlClassDiagram(diagram = DiagramPrimitiveArray.class)
+public final class ArrayKernels
+{
+    private static final Logger LOGGER = LoggerFactory.newLogger();
+
+    private static final Debug DEBUG = new Debug(LOGGER);
+
+    /** The kernels selected for this JVM */
+    private static final Kernels KERNELS = kernels();
+
+    /**
+     * An operation that combines two ranges of bits
+     */
+    public enum BitwiseOperation
+    {
+        /** Bits set in both ranges */
+        AND,
+
+        /** Bits set in the first range but not the second */
+        AND_NOT,
+
+        /** Bits set in either range */
+        OR,
+
+        /** Bits set in exactly one of the ranges */
+        XOR
+    }
+
+    /**
+     * @return The number of one bits in the given range of bytes
+     */
+    public static long bitCount(byte[] values, int from, int to)
+    {
+        assert 0 <= from && from <= to && to <= values.length;
+        return KERNELS.bitCount(values, from, to);
+    }
+
+    /**
+     * Combines the given number of bytes in the first array, starting at the given offset, with the bytes in the second
+     * array, storing the results in the first array
+     */
+    public static void bitwise(BitwiseOperation operation,
+                               byte[] values, int offset,
+                               byte[] that, int thatOffset,
+                               int length)
+    {
+        assert length >= 0 && offset + length <= values.length && thatOffset + length <= that.length;
+        KERNELS.bitwise(operation, values, offset, that, thatOffset, length);
+    }
+
+    /**
+     * @return True if the given number of values in each array, starting at the given offsets, are the same
+     */
+    public static boolean equals(long[] values, int offset, long[] that, int thatOffset, int length)
+    {
+        assert length >= 0 && offset + length <= values.length && thatOffset + length <= that.length;
+        return KERNELS.equals(values, offset, that, thatOffset, length);
+    }
+
+    /**
+     * @return True if the given number of values in each array, starting at the given offsets, are the same
+     */
+    public static boolean equals(int[] values, int offset, int[] that, int thatOffset, int length)
+    {
+        assert length >= 0 && offset + length <= values.length && thatOffset + length <= that.length;
+        return KERNELS.equals(values, offset, that, thatOffset, length);
+    }
+
+    /**
+     * Sets each value in the given range to the given value
+     */
+    public static void fill(long[] values, int from, int to, long value)
+    {
+        assert 0 <= from && from <= to && to <= values.length;
+        KERNELS.fill(values, from, to, value);
+    }
+
+    /**
+     * Sets each value in the given range to the given value
+     */
+    public static void fill(int[] values, int from, int to, int value)
+    {
+        assert 0 <= from && from <= to && to <= values.length;
+        KERNELS.fill(values, from, to, value);
+    }
+
+    /**
+     * @return The index of the first occurrence of the given value in the given range, or -1 if it is not found
+     */
+    public static int indexOf(long[] values, int from, int to, long value)
+    {
+        assert 0 <= from && from <= to && to <= values.length;
+        return KERNELS.indexOf(values, from, to, value);
+    }
+
+    /**
+     * @return The index of the first occurrence of the given value in the given range, or -1 if it is not found
+     */
+    public static int indexOf(int[] values, int from, int to, int value)
+    {
+        assert 0 <= from && from <= to && to <= values.length;
+        return KERNELS.indexOf(values, from, to, value);
+    }
+
+    /**
+     * @return True if operations are implemented with the vector API
+     */
+    public static boolean isVectorized()
+    {
+        return !(KERNELS instanceof ScalarKernels);
+    }
+
+    /**
+     * @return The largest value in the given range, or Long.MIN_VALUE if the range is empty
+     */
+    public static long maximum(long[] values, int from, int to)
+    {
+        assert 0 <= from && from <= to && to <= values.length;
+        return KERNELS.maximum(values, from, to);
+    }
+
+    /**
+     * @return The largest value in the given range, or Integer.MIN_VALUE if the range is empty
+     */
+    public static int maximum(int[] values, int from, int to)
+    {
+        assert 0 <= from && from <= to && to <= values.length;
+        return KERNELS.maximum(values, from, to);
+    }
+
+    /**
+     * @return The smallest value in the given range, or Long.MAX_VALUE if the range is empty
+     */
+    public static long minimum(long[] values, int from, int to)
+    {
+        assert 0 <= from && from <= to && to <= values.length;
+        return KERNELS.minimum(values, from, to);
+    }
+
+    /**
+     * @return The smallest value in the given range, or Integer.MAX_VALUE if the range is empty
+     */
+    public static int minimum(int[] values, int from, int to)
+    {
+        assert 0 <= from && from <= to && to <= values.length;
+        return KERNELS.minimum(values, from, to);
+    }
+
+    /**
+     * @return The sum of the values in the given range, which wraps around on overflow
+     */
+    public static long sum(long[] values, int from, int to)
+    {
+        assert 0 <= from && from <= to && to <= values.length;
+        return KERNELS.sum(values, from, to);
+    }
+
+    /**
+     * @return The sum of the values in the given range, computed with longs so it doesn't overflow
+     */
+    public static long sum(int[] values, int from, int to)
+    {
+        assert 0 <= from && from <= to && to <= values.length;
+        return KERNELS.sum(values, from, to);
+    }
+
+    /**
+     * Unpacks values of the given bit width from the given words into the given array. Values are packed from the high
+     * bits of each word to the low bits, and may span two words, as they are in a
+     * {@link com.telenav.kivakit.primitive.collections.array.packed.PackedArray}.
+     *
+     * @param words The packed words
+     * @param bitIndex The index of the first bit of the first value to unpack
+     * @param bits The number of bits in each value, from 1 to 64
+     * @param values The array to unpack into
+     * @param offset The index in the array of the first value
+     * @param count The number of values to unpack
+     */
+    public static void unpack(long[] words, long bitIndex, int bits, long[] values, int offset, int count)
+    {
+        assert bits >= 1 && bits <= Long.SIZE;
+        assert count >= 0 && offset >= 0 && offset + count <= values.length;
+        assert bitIndex >= 0 && bitIndex + (long) count * bits <= (long) words.length * Long.SIZE;
+        KERNELS.unpack(words, bitIndex, bits, values, offset, count);
+    }
+
+    private static Kernels kernels()
+    {
+        // If the vector kernels haven't been turned off,
+        if (!"false".equalsIgnoreCase(System.getProperty("KIVAKIT_VECTOR_KERNELS")))
+        {
+            try
+            {
+                // use the kernels provided by another module, like kivakit-primitive-collections-vector, if any.
+                var kernels = ServiceLoader.load(Kernels.class).findFirst();
+                if (kernels.isPresent())
+                {
+                    DEBUG.trace("Using $", kernels.get().getClass().getSimpleName());
+                    return kernels.get();
+                }
+            }
+            catch (ServiceConfigurationError | LinkageError e)
+            {
+                DEBUG.trace("Unable to load vector kernels: $", e.getMessage());
+            }
+        }
+
+        // Otherwise, use ordinary loops.
+        return new ScalarKernels();
+    }
+
+    private ArrayKernels()
+    {
+    }
+}
@@ -0,0 +1,64 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+package com.telenav.kivakit.primitive.collections.array.kernels;
+
+import com.telenav.kivakit.primitive.collections.array.kernels.ArrayKernels.BitwiseOperation;
+import com.telenav.kivakit.primitive.collections.lexakai.DiagramPrimitiveArray;
+import com.telenav.lexakai.annotations.UmlClassDiagram;
+
+/**
+ * The operations implemented by {@link ScalarKernels} and by the vector kernels in
+ * kivakit-primitive-collections-vector, which provides them as a service that {@link ArrayKernels} loads with {@link
+ * java.util.ServiceLoader}. Ranges are given as absolute indexes into the arrays, and have already been checked by
+ * {@link ArrayKernels}.
+ *
+ * @author agent
+ */
+@UmlClassDiagram(diagram = DiagramPrimitiveArray.class)
+public interface Kernels
+{
+    long bitCount(byte[] values, int from, int to);
+
+    void bitwise(BitwiseOperation operation, byte[] values, int offset, byte[] that, int thatOffset, int length);
+
+    boolean equals(long[] values, int offset, long[] that, int thatOffset, int length);
+
+    boolean equals(int[] values, int offset, int[] that, int thatOffset, int length);
+
+    void fill(long[] values, int from, int to, long value);
+
+    void fill(int[] values, int from, int to, int value);
+
+    int indexOf(long[] values, int from, int to, long value);
+
+    int indexOf(int[] values, int from, int to, int value);
+
+    long maximum(long[] values, int from, int to);
+
+    int maximum(int[] values, int from, int to);
+
+    long minimum(long[] values, int from, int to);
+
+    int minimum(int[] values, int from, int to);
+
+    long sum(long[] values, int from, int to);
+
+    long sum(int[] values, int from, int to);
+
+    void unpack(long[] words, long bitIndex, int bits, long[] values, int offset, int count);
+}
@@ -0,0 +1,257 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+package com.telenav.kivakit.primitive.collections.array.kernels;
+
+import com.telenav.kivakit.primitive.collections.array.kernels.ArrayKernels.BitwiseOperation;
+import com.telenav.kivakit.primitive.collections.lexakai.DiagramPrimitiveArray;
+import com.telenav.lexakai.annotations.UmlClassDiagram;
+
+import java.util.Arrays;
+
+/**
+ * Kernels implemented with ordinary loops, used when no other kernels are available. The vector kernels in
+ * kivakit-primitive-collections-vector also use these kernels for ranges that are too short to vectorize and for the
+ * leftover values at the end of a range.
+ *
+ * @author agent
+ */
+@SuppressWarnings("DuplicatedCode")
+@UmlClassDiagram(diagram = DiagramPrimitiveArray.class)
+public final class ScalarKernels implements Kernels
+{
+    @Override
+    public long bitCount(byte[] values, int from, int to)
+    {
+        var count = 0L;
+        for (var i = from; i < to; i++)
+        {
+            count += Integer.bitCount(values[i] & 0xff);
+        }
+        return count;
+    }
+
+    @Override
+    public void bitwise(BitwiseOperation operation, byte[] values, int offset, byte[] that, int thatOffset, int length)
+    {
+        for (var i = 0; i < length; i++)
+        {
+            var a = values[offset + i];
+            var b = that[thatOffset + i];
+            switch (operation)
+            {
+                case AND:
+                    values[offset + i] = (byte) (a & b);
+                    break;
+
+                case AND_NOT:
+                    values[offset + i] = (byte) (a & ~b);
+                    break;
+
+                case OR:
+                    values[offset + i] = (byte) (a | b);
+                    break;
+
+                case XOR:
+                    values[offset + i] = (byte) (a ^ b);
+                    break;
+            }
+        }
+    }
+
+    @Override
+    public boolean equals(long[] values, int offset, long[] that, int thatOffset, int length)
+    {
+        return Arrays.equals(values, offset, offset + length, that, thatOffset, thatOffset + length);
+    }
+
+    @Override
+    public boolean equals(int[] values, int offset, int[] that, int thatOffset, int length)
+    {
+        return Arrays.equals(values, offset, offset + length, that, thatOffset, thatOffset + length);
+    }
+
+    @Override
+    public void fill(long[] values, int from, int to, long value)
+    {
+        Arrays.fill(values, from, to, value);
+    }
+
+    @Override
+    public void fill(int[] values, int from, int to, int value)
+    {
+        Arrays.fill(values, from, to, value);
+    }
+
+    @Override
+    public int indexOf(long[] values, int from, int to, long value)
+    {
+        for (var i = from; i < to; i++)
+        {
+            if (values[i] == value)
+            {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public int indexOf(int[] values, int from, int to, int value)
+    {
+        for (var i = from; i < to; i++)
+        {
+            if (values[i] == value)
+            {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public long maximum(long[] values, int from, int to)
+    {
+        var maximum = Long.MIN_VALUE;
+        for (var i = from; i < to; i++)
+        {
+            maximum = Math.max(maximum, values[i]);
+        }
+        return maximum;
+    }
+
+    @Override
+    public int maximum(int[] values, int from, int to)
+    {
+        var maximum = Integer.MIN_VALUE;
+        for (var i = from; i < to; i++)
+        {
+            maximum = Math.max(maximum, values[i]);
+        }
+        return maximum;
+    }
+
+    @Override
+    public long minimum(long[] values, int from, int to)
+    {
+        var minimum = Long.MAX_VALUE;
+        for (var i = from; i < to; i++)
+        {
+            minimum = Math.min(minimum, values[i]);
+        }
+        return minimum;
+    }
+
+    @Override
+    public int minimum(int[] values, int from, int to)
+    {
+        var minimum = Integer.MAX_VALUE;
+        for (var i = from; i < to; i++)
+        {
+            minimum = Math.min(minimum, values[i]);
+        }
+        return minimum;
+    }
+
+    @Override
+    public long sum(long[] values, int from, int to)
+    {
+        var sum = 0L;
+        for (var i = from; i < to; i++)
+        {
+            sum += values[i];
+        }
+        return sum;
+    }
+
+    @Override
+    public long sum(int[] values, int from, int to)
+    {
+        var sum = 0L;
+        for (var i = from; i < to; i++)
+        {
+            sum += values[i];
+        }
+        return sum;
+    }
+
+    @Override
+    public void unpack(long[] words, long bitIndex, int bits, long[] values, int offset, int count)
+    {
+        if (count == 0)
+        {
+            return;
+        }
+
+        var wordIndex = (int) (bitIndex / Long.SIZE);
+        var end = offset + count;
+
+        // If values are whole, aligned words,
+        if (bits == Long.SIZE && bitIndex % Long.SIZE == 0)
+        {
+            // just copy them,
+            System.arraycopy(words, wordIndex, values, offset, count);
+        }
+        else if (Long.SIZE % bits == 0 && bitIndex % bits == 0)
+        {
+            // otherwise, if the bit width divides a word evenly and the first value is aligned, no value spans two
+            // words, so each word can be
+            // unpacked from its high bits to its low bits
+            var mask = (1L << bits) - 1;
+            var shift = Long.SIZE - bits - (int) (bitIndex % Long.SIZE);
+            var word = words[wordIndex];
+            for (var at = offset; at < end; at++)
+            {
+                values[at] = (word >>> shift) & mask;
+                shift -= bits;
+                if (shift < 0 && at + 1 < end)
+                {
+                    word = words[++wordIndex];
+                    shift = Long.SIZE - bits;
+                }
+            }
+        }
+        else
+        {
+            // otherwise, stream through the words, keeping track of how many unread bits remain in the current word.
+            var mask = (1L << bits) - 1;
+            var available = Long.SIZE - (int) (bitIndex % Long.SIZE);
+            var word = words[wordIndex];
+            for (var at = offset; at < end; at++)
+            {
+                // If the value is entirely in the current word,
+                if (available >= bits)
+                {
+                    // take it from the word,
+                    available -= bits;
+                    values[at] = (word >>> available) & mask;
+                }
+                else
+                {
+                    // otherwise, the value's high bits are the low bits of the current word,
+                    var remaining = bits - available;
+                    var high = (word & ((1L << available) - 1)) << remaining;
+
+                    // and its low bits are the high bits of the next word.
+                    word = words[++wordIndex];
+                    available = Long.SIZE - remaining;
+                    values[at] = high | (word >>> available);
+                }
+            }
+        }
+    }
+}
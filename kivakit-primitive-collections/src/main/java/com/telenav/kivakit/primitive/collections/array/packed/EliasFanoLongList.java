@@ -0,0 +1,537 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+package com.telenav.kivakit.primitive.collections.array.packed;
+
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+import com.telenav.kivakit.core.value.count.Bytes;
+import com.telenav.kivakit.core.value.count.Count;
+import com.telenav.kivakit.primitive.collections.array.PrimitiveArray;
+import com.telenav.kivakit.primitive.collections.array.scalars.LongArray;
+import com.telenav.kivakit.primitive.collections.iteration.LongIterator;
+import com.telenav.kivakit.primitive.collections.list.LongList;
+import com.telenav.kivakit.primitive.collections.lexakai.DiagramPrimitiveArray;
+import com.telenav.lexakai.annotations.UmlClassDiagram;
+
+import static com.telenav.kivakit.core.ensure.Ensure.ensure;
+import static com.telenav.kivakit.core.ensure.Ensure.unsupported;
+
+/**
+ * A read-only list of non-negative, non-decreasing long values, such as sorted identifiers, in Elias-Fano encoding.
+ * Each value is split into a number of low bits, chosen from the ratio of the largest value to the number of values,
+ * which are stored packed in an array, and the remaining high bits, which are stored in unary in a bit vector where
+ * value <i>i</i> sets the bit at its high bits plus <i>i</i>. A list of <i>n</i> values up to <i>u</i> takes about
+ * 2 + log2(<i>u</i> / <i>n</i>) bits per value.
+ *
+ * <p><b>Construction</b></p>
+ *
+ * <p>
+ * Lists are built from the values of a sorted {@link LongList} (such as a {@link LongArray}) with {@link #of(String,
+ * LongList)}, or from a {@link LongIterator} of known size and maximum value with {@link #of(String, LongIterator,
+ * int, long)}.
+ * </p>
+ *
+ * <p><b>Access</b></p>
+ *
+ * <ul>
+ *     <li>{@link #get(int)} - The value at an index, in constant time</li>
+ *     <li>{@link #nextGEQ(long)} - The index of the first value greater than or equal to a value</li>
+ *     <li>{@link #binarySearch(long)} - The index of a value, found with {@link #nextGEQ(long)}</li>
+ *     <li>{@link #iterator()} - The values in order, decoded sequentially</li>
+ * </ul>
+ *
+ * <p>
+ * Positions of every {@link #SAMPLE_INTERVAL}th one bit and zero bit in the high bit vector are sampled, so
+ * {@link #get(int)} and {@link #nextGEQ(long)} only scan a few words of the vector. The samples are rebuilt when a
+ * list is deserialized.
+ * </p>
+ *
+ * @author agent
+ */
+@UmlClassDiagram(diagram = DiagramPrimitiveArray.class)
+public final class EliasFanoLongList extends PrimitiveArray implements LongList
+{
+    /** The number of one (or zero) bits between sampled positions in the high bit vector */
+    public static final int SAMPLE_INTERVAL = 256;
+
+    /**
+     * @return The given sorted values in Elias-Fano encoding
+     */
+    public static EliasFanoLongList of(String objectName, LongList values)
+    {
+        var size = values.size();
+        return of(objectName, values.iterator(), size, size == 0 ? 0 : values.last());
+    }
+
+    /**
+     * @param values The sorted values to encode
+     * @param size The number of values
+     * @param maximum The largest value
+     * @return The given sorted values in Elias-Fano encoding
+     */
+    public static EliasFanoLongList of(String objectName, LongIterator values, int size, long maximum)
+    {
+        ensure(size >= 0 && maximum >= 0, "Invalid size $ or maximum $", size, maximum);
+
+        var list = new EliasFanoLongList(objectName);
+        list.hasNullLong(false);
+        list.initialize();
+        list.encode(values, size, maximum);
+        return list;
+    }
+
+    /**
+     * @return The position in the given word of the one bit with the given rank, counting from zero
+     */
+    private static int select(long word, int rank)
+    {
+        for (; rank > 0; rank--)
+        {
+            word &= word - 1;
+        }
+        return Long.numberOfTrailingZeros(word);
+    }
+
+    /** The read cursor */
+    private int cursor;
+
+    /** The high bits of each value in unary, as a bit vector where value i sets bit (value >>> lowBits) + i */
+    private long[] high;
+
+    /** The position in the high bit vector of every SAMPLE_INTERVAL-th one bit */
+    private long[] highOneSamples;
+
+    /** The position in the high bit vector of every SAMPLE_INTERVAL-th zero bit */
+    private long[] highZeroSamples;
+
+    /** The last (largest) value */
+    private long last;
+
+    /** The low bits of each value, packed from the low bits of each word to the high bits */
+    private long[] low;
+
+    /** The number of low bits in each value */
+    private int lowBits;
+
+    /** Mask for the low bits of a value */
+    private long lowMask;
+
+    public EliasFanoLongList(String objectName)
+    {
+        super(objectName);
+    }
+
+    private EliasFanoLongList()
+    {
+    }
+
+    /**
+     * Not supported, as this list is read-only
+     */
+    @Override
+    public boolean add(long value)
+    {
+        return unsupported("Cannot add to an Elias-Fano list");
+    }
+
+    /**
+     * @return The index of the given value, or -(insertion point + 1) if it is not in this list
+     */
+    @Override
+    public int binarySearch(long target)
+    {
+        var index = nextGEQ(target);
+        return index < size() && get(index) == target ? index : -(index + 1);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int cursor()
+    {
+        return cursor;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void cursor(int position)
+    {
+        cursor = position;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean equals(Object object)
+    {
+        if (object instanceof EliasFanoLongList)
+        {
+            var that = (EliasFanoLongList) object;
+            return size() == that.size() && iterator().identical(that.iterator());
+        }
+        return false;
+    }
+
+    /**
+     * @return The value at the given index
+     */
+    @Override
+    public long get(int index)
+    {
+        assert index >= 0 && index < size() : "Index " + index + " out of range";
+        return ((select1(index) - index) << lowBits) | low(index);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int hashCode()
+    {
+        return iterator().hash();
+    }
+
+    /**
+     * @return The values in this list in order. The iterator decodes values sequentially, so each value takes
+     * constant time without any search of the high bit vector.
+     */
+    @Override
+    public LongIterator iterator()
+    {
+        return new LongIterator()
+        {
+            private int index;
+
+            private int wordIndex;
+
+            private long word = high.length == 0 ? 0 : high[0];
+
+            @Override
+            public boolean hasNext()
+            {
+                return index < size();
+            }
+
+            @Override
+            public long next()
+            {
+                // Find the next one bit in the high bit vector,
+                while (word == 0)
+                {
+                    word = high[++wordIndex];
+                }
+                var position = (long) wordIndex * Long.SIZE + Long.numberOfTrailingZeros(word);
+                word &= word - 1;
+
+                // and combine the high bits it encodes with the value's low bits.
+                var value = ((position - index) << lowBits) | low(index);
+                index++;
+                return value;
+            }
+        };
+    }
+
+    /**
+     * @return The index of the first value that is greater than or equal to the given target, or {@link #size()} if
+     * there is no such value
+     */
+    public int nextGEQ(long target)
+    {
+        // If the target is past the last value, there is no such value,
+        if (isEmpty() || target > last)
+        {
+            return size();
+        }
+
+        // and if the target is not positive, the first value is the answer.
+        if (target <= 0)
+        {
+            return 0;
+        }
+
+        // Otherwise, values with high bits at least those of the target start just after the bucket-th zero bit
+        // in the high bit vector, where the number of one bits before the position is the index of the first value,
+        var bucket = target >>> lowBits;
+        var position = bucket == 0 ? 0 : select0(bucket - 1) + 1;
+        var index = (int) (position - bucket);
+
+        // so scan forward from there until we reach a value that is at least the target.
+        var wordIndex = (int) (position >>> 6);
+        var word = high[wordIndex] & (-1L << position);
+        while (true)
+        {
+            while (word == 0)
+            {
+                word = high[++wordIndex];
+            }
+            var one = (long) wordIndex * Long.SIZE + Long.numberOfTrailingZeros(word);
+            if ((((one - index) << lowBits) | low(index)) >= target)
+            {
+                return index;
+            }
+            word &= word - 1;
+            index++;
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void read(Kryo kryo, Input input)
+    {
+        super.read(kryo, input);
+
+        lowBits = kryo.readObject(input, int.class);
+        last = kryo.readObject(input, long.class);
+        low = kryo.readObject(input, long[].class);
+        high = kryo.readObject(input, long[].class);
+        lowMask = lowBits == 0 ? 0 : (1L << lowBits) - 1;
+        sample();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long safeGet(int index)
+    {
+        return index >= 0 && index < size() ? get(index) : nullLong();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long safeGetPrimitive(int index)
+    {
+        return safeGet(index);
+    }
+
+    /**
+     * Not supported, as this list is read-only
+     */
+    @Override
+    public void set(int index, long value)
+    {
+        unsupported("Cannot modify an Elias-Fano list");
+    }
+
+    /**
+     * Not supported, as this list is read-only
+     */
+    @Override
+    public void setPrimitive(int index, long value)
+    {
+        set(index, value);
+    }
+
+    /**
+     * @return The number of bytes used by the encoded values and samples
+     */
+    public Bytes sizeInBytes()
+    {
+        return Bytes.bytes((long) (high.length + low.length + highOneSamples.length + highZeroSamples.length)
+                * Long.BYTES);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString()
+    {
+        return "[EliasFanoLongList name = " + objectName() + ", size = " + size() + ", lowBits = " + lowBits
+                + "]\n" + toString(index -> Long.toString(get(index)));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void write(Kryo kryo, Output output)
+    {
+        super.write(kryo, output);
+
+        kryo.writeObject(output, lowBits);
+        kryo.writeObject(output, last);
+        kryo.writeObject(output, low);
+        kryo.writeObject(output, high);
+    }
+
+    /**
+     * Encodes the given number of values, which must be sorted and no larger than the given maximum
+     */
+    private void encode(LongIterator values, int size, long maximum)
+    {
+        // Choose the number of low bits from the average gap between values,
+        var averageGap = size == 0 ? 0 : maximum / size;
+        lowBits = averageGap == 0 ? 0 : Long.SIZE - 1 - Long.numberOfLeadingZeros(averageGap);
+        lowMask = lowBits == 0 ? 0 : (1L << lowBits) - 1;
+
+        // allocate the low bits and a bit for each value and each possible high bits value,
+        low = new long[(int) (((long) size * lowBits + Long.SIZE - 1) / Long.SIZE)];
+        high = new long[(int) ((size + (maximum >>> lowBits) + 1 + Long.SIZE - 1) / Long.SIZE)];
+
+        // then store each value.
+        var previous = 0L;
+        for (var index = 0; index < size; index++)
+        {
+            ensure(values.hasNext(), "Expected $ values, but there were only $", size, index);
+            var value = values.next();
+            ensure(value >= previous && value <= maximum,
+                    "Value $ at index $ is out of order or larger than $", value, index, maximum);
+            previous = value;
+
+            // Store the low bits of the value,
+            if (lowBits > 0)
+            {
+                var bit = (long) index * lowBits;
+                var word = (int) (bit >>> 6);
+                var shift = (int) (bit & 63);
+                var lowValue = value & lowMask;
+                low[word] |= lowValue << shift;
+                if (shift + lowBits > Long.SIZE)
+                {
+                    low[word + 1] |= lowValue >>> (Long.SIZE - shift);
+                }
+            }
+
+            // and set the bit for its high bits.
+            var position = (value >>> lowBits) + index;
+            high[(int) (position >>> 6)] |= 1L << position;
+        }
+        last = previous;
+        size(size);
+
+        sample();
+    }
+
+    /**
+     * @return The low bits of the value at the given index
+     */
+    private long low(int index)
+    {
+        if (lowBits == 0)
+        {
+            return 0;
+        }
+        var bit = (long) index * lowBits;
+        var word = (int) (bit >>> 6);
+        var shift = (int) (bit & 63);
+        var value = low[word] >>> shift;
+        if (shift + lowBits > Long.SIZE)
+        {
+            value |= low[word + 1] << (Long.SIZE - shift);
+        }
+        return value & lowMask;
+    }
+
+    /**
+     * Records the position of every {@link #SAMPLE_INTERVAL}th one bit and zero bit in the high bit vector
+     */
+    private void sample()
+    {
+        var ones = size();
+        var zeros = high.length == 0 ? 0 : (int) ((last >>> lowBits) + 1);
+        highOneSamples = new long[(ones + SAMPLE_INTERVAL - 1) / SAMPLE_INTERVAL];
+        highZeroSamples = new long[(zeros + SAMPLE_INTERVAL - 1) / SAMPLE_INTERVAL];
+
+        // Go through the words of the high bit vector,
+        var one = 0L;
+        var zero = 0L;
+        for (var wordIndex = 0; wordIndex < high.length; wordIndex++)
+        {
+            var word = high[wordIndex];
+            var wordOnes = Long.bitCount(word);
+            var base = (long) wordIndex * Long.SIZE;
+
+            // recording the position of each sampled one bit in the word,
+            for (var next = (one + SAMPLE_INTERVAL - 1) / SAMPLE_INTERVAL * SAMPLE_INTERVAL;
+                 next < one + wordOnes && next < ones; next += SAMPLE_INTERVAL)
+            {
+                highOneSamples[(int) (next / SAMPLE_INTERVAL)] = base + select(word, (int) (next - one));
+            }
+
+            // and each sampled zero bit.
+            for (var next = (zero + SAMPLE_INTERVAL - 1) / SAMPLE_INTERVAL * SAMPLE_INTERVAL;
+                 next < zero + Long.SIZE - wordOnes && next < zeros; next += SAMPLE_INTERVAL)
+            {
+                highZeroSamples[(int) (next / SAMPLE_INTERVAL)] = base + select(~word, (int) (next - zero));
+            }
+
+            one += wordOnes;
+            zero += Long.SIZE - wordOnes;
+        }
+    }
+
+    /**
+     * @return The position of the given zero bit in the high bit vector, counting from zero
+     */
+    private long select0(long rank)
+    {
+        // Start at the sampled position of an earlier zero bit,
+        var sample = (int) (rank / SAMPLE_INTERVAL);
+        var position = highZeroSamples[sample];
+        var remaining = (int) (rank - (long) sample * SAMPLE_INTERVAL);
+
+        // skip whole words with too few zero bits,
+        var wordIndex = (int) (position >>> 6);
+        var word = ~high[wordIndex] & (-1L << position);
+        var count = Long.bitCount(word);
+        while (count <= remaining)
+        {
+            remaining -= count;
+            word = ~high[++wordIndex];
+            count = Long.bitCount(word);
+        }
+
+        // then find the zero bit we want in the word.
+        return (long) wordIndex * Long.SIZE + select(word, remaining);
+    }
+
+    /**
+     * @return The position of the given one bit in the high bit vector, counting from zero
+     */
+    private long select1(int rank)
+    {
+        // Start at the sampled position of an earlier one bit,
+        var sample = rank / SAMPLE_INTERVAL;
+        var position = highOneSamples[sample];
+        var remaining = rank - sample * SAMPLE_INTERVAL;
+
+        // skip whole words with too few one bits,
+        var wordIndex = (int) (position >>> 6);
+        var word = high[wordIndex] & (-1L << position);
+        var count = Long.bitCount(word);
+        while (count <= remaining)
+        {
+            remaining -= count;
+            word = high[++wordIndex];
+            count = Long.bitCount(word);
+        }
+
+        // then find the one bit we want in the word.
+        return (long) wordIndex * Long.SIZE + select(word, remaining);
+    }
+}
@@ -26,14 +26,21 @@ import com.telenav.kivakit.core.language.Objects;
 import com.telenav.kivakit.core.value.count.BitCount;
 import com.telenav.kivakit.core.value.count.Count;
 import com.telenav.kivakit.core.value.count.Estimate;
+import com.telenav.kivakit.primitive.collections.ChannelInput;
+import com.telenav.kivakit.primitive.collections.ChannelOutput;
+import com.telenav.kivakit.primitive.collections.ChannelSerializable;
 import com.telenav.kivakit.primitive.collections.CompressibleCollection;
 import com.telenav.kivakit.primitive.collections.PrimitiveCollection;
 import com.telenav.kivakit.primitive.collections.array.PrimitiveArray;
 import com.telenav.kivakit.primitive.collections.array.scalars.LongArray;
+import com.telenav.kivakit.primitive.collections.array.sorting.RadixSort;
+import com.telenav.kivakit.primitive.collections.iteration.LongIterator;
 import com.telenav.kivakit.primitive.collections.list.LongList;
 import com.telenav.kivakit.primitive.collections.lexakai.DiagramPrimitiveArray;
 import com.telenav.lexakai.annotations.UmlClassDiagram;
 
+import java.util.Spliterator;
+
 import static com.telenav.kivakit.core.ensure.Ensure.ensure;
 import static com.telenav.kivakit.primitive.collections.array.packed.PackedPrimitiveArray.OverflowHandling.ALLOW_OVERFLOW;
 import static com.telenav.kivakit.primitive.collections.array.packed.PackedPrimitiveArray.OverflowHandling.NO_OVERFLOW;
@@ -61,7 +68,7 @@ import static com.telenav.kivakit.primitive.collections.array.packed.PackedPrimi
  */
 @SuppressWarnings({ "ConstantConditions" })
 @UmlClassDiagram(diagram = DiagramPrimitiveArray.class)
-public final class PackedArray extends PrimitiveArray implements LongList, PackedPrimitiveArray
+public final class PackedArray extends PrimitiveArray implements LongList, PackedPrimitiveArray, ChannelSerializable
 {
     /** Data storage */
     private LongArray data;
@@ -172,6 +179,46 @@ public final class PackedArray extends PrimitiveArray implements LongList, Packe
         this.cursor = cursor;
     }
 
+    /**
+     * Removes adjacent duplicate values from this array, which should already be sorted, leaving only distinct values
+     *
+     * @return The new size of this array
+     */
+    public int deduplicate()
+    {
+        var size = size();
+        if (size < 2)
+        {
+            return size;
+        }
+
+        // Unpack the values a block at a time,
+        var block = new long[Math.min(size, RadixSort.BUFFERED_SORT_SIZE)];
+        var end = 0;
+        var last = 0L;
+        for (var from = 0; from < size; from += block.length)
+        {
+            var count = Math.min(block.length, size - from);
+            get(from, block, count);
+
+            // and pack each value that differs from the value before it at the end of the distinct values, which is
+            // never past the values that have been unpacked. Values past the new end are reinitialized by set() if the
+            // array grows again.
+            for (var index = 0; index < count; index++)
+            {
+                var value = block[index];
+                if (end == 0 || value != last)
+                {
+                    set(end++, value);
+                    last = value;
+                }
+            }
+        }
+        size(end);
+        cursor = end;
+        return end;
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -232,6 +279,34 @@ public final class PackedArray extends PrimitiveArray implements LongList, Packe
         return value;
     }
 
+    /**
+     * Unpacks the given number of values, starting at the given index, into the given array
+     */
+    public void get(int index, long[] values, int count)
+    {
+        get(index, values, 0, count);
+    }
+
+    /**
+     * Unpacks the given number of values, starting at the given index, into the given array at the given offset. Whole
+     * 64-bit words are read from the underlying data and unpacked by {@link LongArray#unpack(long, int, long[], int,
+     * int)}, so sequential scans avoid the per-value shift and mask table lookups of {@link #get(int)}, and can use
+     * vector instructions where they are available.
+     */
+    public void get(int index, long[] values, int offset, int count)
+    {
+        assert index >= 0 && count >= 0 : "Invalid range " + index + " (" + count + " values)";
+        assert index + count <= size() : "Range " + index + " (" + count + " values) exceeds size " + size();
+        assert offset >= 0 && offset + count <= values.length;
+
+        if (count == 0)
+        {
+            return;
+        }
+
+        data.unpack((long) index * bits, bits, values, offset, count);
+    }
+
     public long getSigned(int index)
     {
         // Get the value stored at the given index
@@ -259,6 +334,15 @@ public final class PackedArray extends PrimitiveArray implements LongList, Packe
         return Estimate.estimate(super.initialSize().times(bits()).dividedBy(Long.SIZE).plus(Count._1).asInt());
     }
 
+    /**
+     * @return An iterator over the non-null values in this array that unpacks values a block at a time
+     */
+    @Override
+    public LongIterator iterator()
+    {
+        return new UnpackingLongIterator(this, this::get);
+    }
+
     @Override
     public CompressibleCollection.Method onCompress(CompressibleCollection.Method method)
     {
@@ -309,6 +393,26 @@ public final class PackedArray extends PrimitiveArray implements LongList, Packe
         return maximumAllowedValue == Long.MAX_VALUE ? ALLOW_OVERFLOW : NO_OVERFLOW;
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void read(ChannelInput input)
+    {
+        readSettings(input);
+
+        bits = input.readInt();
+        maximumAllowedValue = input.readLong();
+        largestValue = input.readLong();
+        smallestValue = input.readLong();
+        cursor = input.readInt();
+
+        // Read the packed data in bulk, and recompute the shift and mask tables instead of reading them
+        data = new LongArray(objectName() + ".data");
+        data.read(input);
+        computeShiftsAndMasks();
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -408,6 +512,40 @@ public final class PackedArray extends PrimitiveArray implements LongList, Packe
         set(index, value);
     }
 
+    /**
+     * Sorts the values in this array by their unpacked values, in place. Values are swapped into buckets by their most
+     * significant digit until each bucket is small enough to be unpacked into a bounded buffer, radix sorted and packed
+     * back, so the array is never unpacked all at once.
+     *
+     * @see RadixSort
+     */
+    public void sort()
+    {
+        RadixSort.sort(new RadixSort.LongValues()
+        {
+            @Override
+            public long get(int index)
+            {
+                return PackedArray.this.get(index);
+            }
+
+            @Override
+            public void set(int index, long value)
+            {
+                PackedArray.this.set(index, value);
+            }
+        }, 0, size());
+    }
+
+    /**
+     * @return A spliterator over the non-null values in this array that unpacks values a block at a time
+     */
+    @Override
+    public Spliterator.OfLong spliterator()
+    {
+        return new UnpackingLongSpliterator(this, this::get, 0, size(), 1);
+    }
+
     @Override
     public String toString()
     {
@@ -415,6 +553,24 @@ public final class PackedArray extends PrimitiveArray implements LongList, Packe
                 toString(index -> Long.toString(get(index)));
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void write(ChannelOutput output)
+    {
+        writeSettings(output);
+
+        output.writeInt(bits);
+        output.writeLong(maximumAllowedValue);
+        output.writeLong(largestValue);
+        output.writeLong(smallestValue);
+        output.writeInt(cursor);
+
+        // Write the packed data in bulk. The shift and mask tables are recomputed on read.
+        data.write(output);
+    }
+
     @Override
     public void write(Kryo kryo, Output output)
     {
@@ -25,6 +25,9 @@ import com.telenav.kivakit.core.language.Hash;
 import com.telenav.kivakit.core.language.Objects;
 import com.telenav.kivakit.core.value.count.BitCount;
 import com.telenav.kivakit.core.value.count.Count;
+import com.telenav.kivakit.primitive.collections.ChannelInput;
+import com.telenav.kivakit.primitive.collections.ChannelOutput;
+import com.telenav.kivakit.primitive.collections.ChannelSerializable;
 import com.telenav.kivakit.primitive.collections.CompressibleCollection;
 import com.telenav.kivakit.primitive.collections.PrimitiveCollection;
 import com.telenav.kivakit.primitive.collections.array.PrimitiveSplitArray;
@@ -37,6 +40,7 @@ import com.telenav.kivakit.primitive.collections.lexakai.DiagramPrimitiveSplitAr
 import com.telenav.lexakai.annotations.UmlClassDiagram;
 
 import java.util.Arrays;
+import java.util.Spliterator;
 
 import static com.telenav.kivakit.core.ensure.Ensure.ensure;
 import static com.telenav.kivakit.core.ensure.Ensure.unsupported;
@@ -57,7 +61,8 @@ import static com.telenav.kivakit.core.ensure.Ensure.unsupported;
 @SuppressWarnings("DuplicatedCode") @UmlClassDiagram(diagram = DiagramPrimitiveSplitArray.class)
 public final class SplitPackedArray extends PrimitiveSplitArray implements
         LongList,
-        PackedPrimitiveArray
+        PackedPrimitiveArray,
+        ChannelSerializable
 {
     // Bit count of packed arrays
     private BitCount bits;
@@ -194,6 +199,47 @@ public final class SplitPackedArray extends PrimitiveSplitArray implements
         return childArray(childIndex).safeGet(index % childSize);
     }
 
+    /**
+     * Unpacks the given number of values, starting at the given index, into the given array
+     */
+    public void get(int index, long[] values, int count)
+    {
+        get(index, values, 0, count);
+    }
+
+    /**
+     * Unpacks the given number of values, starting at the given index, into the given array at the given offset. Each
+     * child's run of values is unpacked in bulk with {@link PackedArray#get(int, long[], int, int)}.
+     */
+    public void get(int index, long[] values, int offset, int count)
+    {
+        assert index >= 0 && count >= 0 : "Invalid range " + index + " (" + count + " values)";
+        assert index + count <= size() : "Range " + index + " (" + count + " values) exceeds size " + size();
+        assert offset >= 0 && offset + count <= values.length;
+
+        var done = 0;
+        while (done < count)
+        {
+            // Find the child holding the next value, and how many of the values left are in that child,
+            var at = index + done;
+            var childIndex = at / childSize;
+            var childOffset = at % childSize;
+            var run = Math.min(count - done, childSize - childOffset);
+
+            // unpack the values the child has,
+            var child = childIndex < children.length ? children[childIndex] : null;
+            var unpacked = child == null ? 0 : Math.max(0, Math.min(run, child.size() - childOffset));
+            if (unpacked > 0)
+            {
+                child.get(childOffset, values, offset + done, unpacked);
+            }
+
+            // and fill in the rest of the run with null, since the child is not fully populated.
+            Arrays.fill(values, offset + done + unpacked, offset + done + run, nullLong());
+            done += run;
+        }
+    }
+
     public boolean getBoolean(int index)
     {
         var value = safeGet(index);
@@ -231,25 +277,13 @@ public final class SplitPackedArray extends PrimitiveSplitArray implements
         this.initializeElements = initializeElements;
     }
 
+    /**
+     * @return An iterator over the non-null values in this array that unpacks values a block at a time
+     */
     @Override
     public LongIterator iterator()
     {
-        return new LongIterator()
-        {
-            final int index = 0;
-
-            @Override
-            public boolean hasNext()
-            {
-                return index < size();
-            }
-
-            @Override
-            public long next()
-            {
-                return get(index);
-            }
-        };
+        return new UnpackingLongIterator(this, this::get);
     }
 
     @Override
@@ -267,13 +301,7 @@ public final class SplitPackedArray extends PrimitiveSplitArray implements
     @Override
     public CompressibleCollection.Method onCompress(CompressibleCollection.Method method)
     {
-        for (var array : children)
-        {
-            if (array != null)
-            {
-                array.compress(method);
-            }
-        }
+        compressChildren(children, method, compressionParallelism());
         return CompressibleCollection.Method.RESIZE;
     }
 
@@ -291,6 +319,32 @@ public final class SplitPackedArray extends PrimitiveSplitArray implements
         return overflow;
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void read(ChannelInput input)
+    {
+        readSettings(input);
+        bits = BitCount.bitCount(input.readInt());
+        overflow = PackedPrimitiveArray.OverflowHandling.values()[input.readByte()];
+        initializeElements = input.readBoolean();
+        cursor = input.readInt();
+        childSize = initialChildSizeAsInt();
+
+        // Read the children one at a time, in the order they were written
+        children = new PackedArray[input.readInt()];
+        for (var index = 0; index < children.length; index++)
+        {
+            if (input.readBoolean())
+            {
+                var child = new PackedArray(objectName() + ".child[" + index + "]");
+                child.read(input);
+                children[index] = child;
+            }
+        }
+    }
+
     @Override
     public void read(Kryo kryo, Input input)
     {
@@ -395,6 +449,16 @@ public final class SplitPackedArray extends PrimitiveSplitArray implements
         set(index, value);
     }
 
+    /**
+     * @return A spliterator over the non-null values in this array, which splits along the boundaries of the children
+     * and unpacks values a block at a time
+     */
+    @Override
+    public Spliterator.OfLong spliterator()
+    {
+        return new UnpackingLongSpliterator(this, this::get, 0, size(), childSize);
+    }
+
     @Override
     public String toString()
     {
@@ -402,6 +466,30 @@ public final class SplitPackedArray extends PrimitiveSplitArray implements
                 toString(index -> Long.toString(get(index)));
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void write(ChannelOutput output)
+    {
+        writeSettings(output);
+        output.writeInt(bits.asInt());
+        output.writeByte((byte) overflow.ordinal());
+        output.writeBoolean(initializeElements);
+        output.writeInt(cursor);
+
+        // Stream the children one at a time, so the array is never copied as a whole
+        output.writeInt(children.length);
+        for (var child : children)
+        {
+            output.writeBoolean(child != null);
+            if (child != null)
+            {
+                child.write(output);
+            }
+        }
+    }
+
     @Override
     public void write(Kryo kryo, Output output)
     {
@@ -0,0 +1,102 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+package com.telenav.kivakit.primitive.collections.array.packed;
+
+import com.telenav.kivakit.primitive.collections.iteration.LongIterator;
+import com.telenav.kivakit.primitive.collections.list.LongList;
+
+/**
+ * A {@link LongIterator} over a packed array that unpacks values a block at a time with a bulk get method, like {@link
+ * PackedArray#get(int, long[], int, int)}, instead of decoding each value separately. Like the default {@link
+ * LongList#iterator()}, null values are skipped.
+ *
+ * @author agent
+ */
+final class UnpackingLongIterator implements LongIterator
+{
+    /** The number of values unpacked at a time */
+    private static final int BLOCK_SIZE = 1_024;
+
+    /**
+     * A bulk get method that unpacks the given number of values, starting at the given index, into the given array at
+     * the given offset
+     */
+    interface Unpacker
+    {
+        void get(int index, long[] values, int offset, int count);
+    }
+
+    /** The list being iterated */
+    private final LongList list;
+
+    /** The method that unpacks blocks of values */
+    private final Unpacker unpacker;
+
+    /** The current block of unpacked values */
+    private final long[] block = new long[BLOCK_SIZE];
+
+    /** The index of the first value in the block */
+    private int blockStart;
+
+    /** The index just past the last value in the block */
+    private int blockEnd;
+
+    /** The index of the next value */
+    private int index;
+
+    UnpackingLongIterator(LongList list, Unpacker unpacker)
+    {
+        this.list = list;
+        this.unpacker = unpacker;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean hasNext()
+    {
+        return index < list.size();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long next()
+    {
+        long next;
+        do
+        {
+            // If the next value is not in the current block,
+            if (index >= blockEnd)
+            {
+                // unpack the next block,
+                blockStart = index;
+                blockEnd = index + Math.min(BLOCK_SIZE, list.size() - index);
+                unpacker.get(blockStart, block, 0, blockEnd - blockStart);
+            }
+
+            // then take the next value, skipping over any null values.
+            next = block[index++ - blockStart];
+        }
+        while (list.isNull(next) && index < list.size());
+        return next;
+    }
+}
@@ -0,0 +1,86 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+
+package com.telenav.kivakit.primitive.collections.array.packed;
+
+import com.telenav.kivakit.primitive.collections.iteration.LongListSpliterator;
+import com.telenav.kivakit.primitive.collections.list.LongList;
+
+import java.util.function.LongConsumer;
+
+/**
+ * A {@link LongListSpliterator} over a packed array that unpacks values a block at a time with a bulk get method when
+ * it traverses its remaining values, like {@link UnpackingLongIterator} does.
+ *
+ * @author agent
+ */
+final class UnpackingLongSpliterator extends LongListSpliterator
+{
+    /** The number of values unpacked at a time */
+    private static final int BLOCK_SIZE = 1_024;
+
+    /** The method that unpacks blocks of values */
+    private final UnpackingLongIterator.Unpacker unpacker;
+
+    UnpackingLongSpliterator(LongList list, UnpackingLongIterator.Unpacker unpacker, int from, int to,
+                             int granularity)
+    {
+        super(list, from, to, granularity);
+        this.unpacker = unpacker;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void forEachRemaining(LongConsumer action)
+    {
+        var list = list();
+        var block = new long[BLOCK_SIZE];
+        var end = end();
+
+        // Go through the remaining values a block at a time,
+        for (var index = index(); index < end; index += BLOCK_SIZE)
+        {
+            // unpacking each block,
+            var count = Math.min(BLOCK_SIZE, end - index);
+            unpacker.get(index, block, 0, count);
+
+            // and passing its non-null values to the action.
+            for (var at = 0; at < count; at++)
+            {
+                var value = block[at];
+                if (!list.isNull(value))
+                {
+                    action.accept(value);
+                }
+            }
+        }
+        index(end);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected LongListSpliterator newSpliterator(int from, int to, int granularity)
+    {
+        return new UnpackingLongSpliterator(list(), unpacker, from, to, granularity);
+    }
+}
@@ -0,0 +1,420 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+package com.telenav.kivakit.primitive.collections.array.scalars;
+
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.KryoSerializable;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+import com.telenav.kivakit.core.value.count.Count;
+import com.telenav.kivakit.primitive.collections.ChannelInput;
+import com.telenav.kivakit.primitive.collections.ChannelOutput;
+import com.telenav.kivakit.primitive.collections.ChannelSerializable;
+import com.telenav.kivakit.primitive.collections.CompressibleCollection;
+import com.telenav.kivakit.primitive.collections.array.PrimitiveSplitArray;
+import com.telenav.kivakit.primitive.collections.iteration.LongIterator;
+import com.telenav.kivakit.primitive.collections.iteration.SplitLongSpliterator;
+import com.telenav.kivakit.primitive.collections.lexakai.DiagramPrimitiveSplitArray;
+import com.telenav.lexakai.annotations.UmlClassDiagram;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Spliterator;
+import java.util.stream.LongStream;
+import java.util.stream.StreamSupport;
+
+/**
+ * A split primitive array of long values that is indexed by long values, so it can hold more than 2^31 values. Like
+ * {@link SplitLongArray}, the values are distributed across an array of child {@link LongArray}s, which are allocated
+ * only when a value is set in their range of indexes, but the number of values is limited only by the number of
+ * children (up to 2^31) times the child size, rather than by {@link #maximumSize()}.
+ * <p>
+ * Since the size of this array can be larger than an int, it is available as a long with {@link #longSize()}, while
+ * {@link #size()} is limited to {@link Integer#MAX_VALUE}.
+ *
+ * @author agent
+ * @see PrimitiveSplitArray
+ * @see SplitLongArray
+ * @see LongArray
+ */
+@SuppressWarnings("DuplicatedCode")
+@UmlClassDiagram(diagram = DiagramPrimitiveSplitArray.class)
+public final class BigSplitLongArray extends PrimitiveSplitArray implements ChannelSerializable
+{
+    /** The largest number of children, which is the largest legal array size */
+    private static final int MAXIMUM_CHILDREN = Integer.MAX_VALUE - 8;
+
+    private int childSize;
+
+    /** The child arrays */
+    private LongArray[] children;
+
+    /** The index at which adding takes place */
+    private long cursor;
+
+    /** The number of values in this array */
+    private long size;
+
+    public BigSplitLongArray(String objectName)
+    {
+        super(objectName);
+    }
+
+    private BigSplitLongArray()
+    {
+    }
+
+    /**
+     * Adds a value, advancing the add cursor
+     */
+    public boolean add(long value)
+    {
+        set(cursor++, value);
+        return true;
+    }
+
+    @Override
+    public Count capacity()
+    {
+        var capacity = 0L;
+        for (var child : children)
+        {
+            if (child != null)
+            {
+                capacity += child.capacity().asLong();
+            }
+        }
+        return Count.count(capacity);
+    }
+
+    public long cursor()
+    {
+        return cursor;
+    }
+
+    public void cursor(long cursor)
+    {
+        this.cursor = cursor;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean equals(Object object)
+    {
+        if (object instanceof BigSplitLongArray)
+        {
+            var that = (BigSplitLongArray) object;
+            return size == that.size && iterator().identical(that.iterator());
+        }
+        return false;
+    }
+
+    /**
+     * @return The value at the given index, which must be less than {@link #longSize()}
+     */
+    public long get(long index)
+    {
+        assert index >= 0;
+        assert index < size;
+
+        return safeGet(index);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int hashCode()
+    {
+        return iterator().hashValue();
+    }
+
+    /**
+     * @return The non-null values in this array, in index order
+     */
+    public LongIterator iterator()
+    {
+        return new LongIterator()
+        {
+            /** The index of the child being iterated */
+            private int childIndex = -1;
+
+            /** The child being iterated */
+            private LongArray child;
+
+            /** The index of the next value in the child */
+            private int index;
+
+            /** True if the next value has been found */
+            private boolean found;
+
+            /** The next value, if it has been found */
+            private long next;
+
+            @Override
+            public boolean hasNext()
+            {
+                while (!found)
+                {
+                    // If we've gone through the current child,
+                    if (child == null || index >= child.size())
+                    {
+                        // move to the next allocated child,
+                        do
+                        {
+                            if (++childIndex >= children.length)
+                            {
+                                return false;
+                            }
+                            child = children[childIndex];
+                        }
+                        while (child == null);
+                        index = 0;
+                    }
+                    else
+                    {
+                        // otherwise, look at the next value in the child.
+                        var value = child.safeGet(index++);
+                        if (!isNull(value))
+                        {
+                            next = value;
+                            found = true;
+                        }
+                    }
+                }
+                return true;
+            }
+
+            @Override
+            public long next()
+            {
+                if (!hasNext())
+                {
+                    throw new NoSuchElementException();
+                }
+                found = false;
+                return next;
+            }
+        };
+    }
+
+    /**
+     * @return A stream of the non-null values in this array, which can be made parallel with {@link
+     * LongStream#parallel()}
+     */
+    public LongStream longStream()
+    {
+        return StreamSupport.longStream(spliterator(), false);
+    }
+
+    /**
+     * @return The number of values in this array, which may be more than {@link #size()} can hold
+     */
+    public long longSize()
+    {
+        return size;
+    }
+
+    @Override
+    public CompressibleCollection.Method onCompress(CompressibleCollection.Method method)
+    {
+        compressChildren(children, method, compressionParallelism());
+        return CompressibleCollection.Method.RESIZE;
+    }
+
+    @Override
+    public void onInitialize()
+    {
+        super.onInitialize();
+        childSize = initialChildSizeAsInt();
+        children = new LongArray[initialChildCountAsInt()];
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void read(ChannelInput input)
+    {
+        readSettings(input);
+        size = input.readLong();
+        cursor = input.readLong();
+        childSize = initialChildSizeAsInt();
+
+        // Read the children one at a time, in the order they were written
+        children = new LongArray[input.readInt()];
+        for (var index = 0; index < children.length; index++)
+        {
+            if (input.readBoolean())
+            {
+                var child = new LongArray(objectName() + ".child[" + index + "]");
+                child.read(input);
+                children[index] = child;
+            }
+        }
+    }
+
+    /**
+     * @see KryoSerializable
+     */
+    @Override
+    public void read(Kryo kryo, Input input)
+    {
+        super.read(kryo, input);
+        size = kryo.readObject(input, long.class);
+        cursor = kryo.readObject(input, long.class);
+        children = kryo.readObject(input, LongArray[].class);
+        childSize = initialChildSizeAsInt();
+    }
+
+    /**
+     * @return The value at the given index, or null if the index is out of range or no value has been set there
+     */
+    public long safeGet(long index)
+    {
+        if (index >= 0 && index < size)
+        {
+            var childIndex = (int) (index / childSize);
+            if (childIndex < children.length)
+            {
+                var child = children[childIndex];
+                if (child != null)
+                {
+                    return child.safeGet((int) (index % childSize));
+                }
+            }
+        }
+        return nullLong();
+    }
+
+    /**
+     * Sets the value at the given index, possibly extending the size of this array
+     */
+    public void set(long index, long value)
+    {
+        assert index >= 0;
+        assert index / childSize < MAXIMUM_CHILDREN : "Index " + index + " is too large";
+
+        // Set the value into the array for the index
+        var childIndex = (int) (index / childSize);
+        childArray(childIndex).set((int) (index % childSize), value);
+
+        // then increase the size if we wrote past the end.
+        if (index >= size)
+        {
+            size(index + 1);
+        }
+    }
+
+    /**
+     * @return A spliterator over the non-null values in this array, which splits along the boundaries of the children
+     */
+    public Spliterator.OfLong spliterator()
+    {
+        return new SplitLongSpliterator(Arrays.stream(children)
+                .filter(Objects::nonNull)
+                .map(LongArray::spliterator)
+                .toArray(Spliterator.OfLong[]::new));
+    }
+
+    @Override
+    public String toString()
+    {
+        return "[" + getClass().getSimpleName() + " name = " + objectName() + ", size = " + size + "]\n" +
+                toString(index -> Long.toString(safeGet(index)));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void write(ChannelOutput output)
+    {
+        writeSettings(output);
+        output.writeLong(size);
+        output.writeLong(cursor);
+
+        // Stream the children one at a time, so the array is never copied as a whole
+        output.writeInt(children.length);
+        for (var child : children)
+        {
+            output.writeBoolean(child != null);
+            if (child != null)
+            {
+                child.write(output);
+            }
+        }
+    }
+
+    /**
+     * @see KryoSerializable
+     */
+    @Override
+    public void write(Kryo kryo, Output output)
+    {
+        super.write(kryo, output);
+        kryo.writeObject(output, size);
+        kryo.writeObject(output, cursor);
+        kryo.writeObject(output, children);
+    }
+
+    /**
+     * @return The child array for the given index
+     */
+    private LongArray childArray(int childIndex)
+    {
+        // If the child index is beyond the length of the children array,
+        if (childIndex >= children.length)
+        {
+            // resize the children array to double the size,
+            children = Arrays.copyOf(children, (int) Math.min(MAXIMUM_CHILDREN, childIndex * 2L));
+        }
+
+        // then get the child array,
+        var array = children[childIndex];
+
+        // and if it's null,
+        if (array == null)
+        {
+            // create a new child
+            array = new LongArray(objectName() + ".child[" + childIndex + "]");
+            array.copySettings(this);
+            array.initialSize(childSize);
+            array.maximumSize(maximumChildSizeAsInt());
+            array.initialize();
+
+            // and add it to the children array.
+            children[childIndex] = array;
+        }
+
+        return array;
+    }
+
+    /**
+     * Sets the size of this array, keeping {@link #size()} as large as it can be
+     */
+    private void size(long size)
+    {
+        this.size = size;
+        size((int) Math.min(Integer.MAX_VALUE, size));
+    }
+}
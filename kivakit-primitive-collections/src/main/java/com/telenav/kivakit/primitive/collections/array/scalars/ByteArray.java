@@ -23,9 +23,14 @@ import com.esotericsoftware.kryo.KryoSerializable;
 import com.esotericsoftware.kryo.io.Input;
 import com.esotericsoftware.kryo.io.Output;
 import com.telenav.kivakit.core.string.StringTo;
+import com.telenav.kivakit.primitive.collections.ChannelInput;
+import com.telenav.kivakit.primitive.collections.ChannelOutput;
+import com.telenav.kivakit.primitive.collections.ChannelSerializable;
 import com.telenav.kivakit.primitive.collections.CompressibleCollection;
 import com.telenav.kivakit.primitive.collections.PrimitiveCollection;
 import com.telenav.kivakit.primitive.collections.array.PrimitiveArray;
+import com.telenav.kivakit.primitive.collections.array.kernels.ArrayKernels;
+import com.telenav.kivakit.primitive.collections.array.kernels.ArrayKernels.BitwiseOperation;
 import com.telenav.kivakit.primitive.collections.list.ByteList;
 import com.telenav.kivakit.primitive.collections.lexakai.DiagramPrimitiveArray;
 import com.telenav.lexakai.annotations.UmlClassDiagram;
@@ -49,7 +54,7 @@ import java.util.Arrays;
  * @see CompressibleCollection
  */
 @SuppressWarnings("DuplicatedCode") @UmlClassDiagram(diagram = DiagramPrimitiveArray.class)
-public class ByteArray extends PrimitiveArray implements ByteList
+public class ByteArray extends PrimitiveArray implements ByteList, ChannelSerializable
 {
     /** The underlying primitive data array */
     private byte[] data;
@@ -115,6 +120,28 @@ public class ByteArray extends PrimitiveArray implements ByteList
         return Arrays.copyOfRange(data, 0, size());
     }
 
+    /**
+     * @return The number of one bits in the given number of bytes, starting at the given index
+     */
+    public long bitCount(int index, int count)
+    {
+        assert index >= 0 && index + count <= size();
+        return ArrayKernels.bitCount(data, index, index + count);
+    }
+
+    /**
+     * Combines the given number of bytes in this array, starting at the given index, with the bytes in the given array,
+     * storing the results in this array
+     */
+    public void bitwise(BitwiseOperation operation, int index, ByteArray that, int thatIndex, int count)
+    {
+        assert isWritable();
+        assert index >= 0 && index + count <= size();
+        assert thatIndex >= 0 && thatIndex + count <= that.size();
+
+        ArrayKernels.bitwise(operation, data, index, that.data, thatIndex, count);
+    }
+
     /**
      * Clears this array
      */
@@ -226,6 +253,21 @@ public class ByteArray extends PrimitiveArray implements ByteList
         data = newByteArray(this, "allocated");
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void read(ChannelInput input)
+    {
+        readSettings(input);
+
+        // Read the values in bulk into an array that holds exactly the values that were written
+        cursor = input.readInt();
+        data = newByteArray(this, "read", size());
+        input.readBytes(data, 0, size());
+        isSubArray = false;
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -361,6 +403,19 @@ public class ByteArray extends PrimitiveArray implements ByteList
                 toHexString() + "\n" + toBinaryString();
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void write(ChannelOutput output)
+    {
+        writeSettings(output);
+
+        // Write only the values in this array, and not any unused capacity
+        output.writeInt(cursor);
+        output.writeBytes(data, 0, size());
+    }
+
     /**
      * {@inheritDoc}
      */
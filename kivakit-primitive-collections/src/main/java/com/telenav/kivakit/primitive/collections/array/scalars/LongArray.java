@@ -27,9 +27,15 @@ import com.telenav.kivakit.core.collections.list.StringList;
 import com.telenav.kivakit.core.messaging.Listener;
 import com.telenav.kivakit.core.string.Separators;
 import com.telenav.kivakit.core.value.count.Maximum;
+import com.telenav.kivakit.primitive.collections.ChannelInput;
+import com.telenav.kivakit.primitive.collections.ChannelOutput;
+import com.telenav.kivakit.primitive.collections.ChannelSerializable;
 import com.telenav.kivakit.primitive.collections.CompressibleCollection;
 import com.telenav.kivakit.primitive.collections.PrimitiveCollection;
 import com.telenav.kivakit.primitive.collections.array.PrimitiveArray;
+import com.telenav.kivakit.primitive.collections.array.kernels.ArrayKernels;
+import com.telenav.kivakit.primitive.collections.array.sorting.ParallelSort;
+import com.telenav.kivakit.primitive.collections.array.sorting.RadixSort;
 import com.telenav.kivakit.primitive.collections.list.LongList;
 import com.telenav.kivakit.primitive.collections.lexakai.DiagramPrimitiveArray;
 import com.telenav.lexakai.annotations.LexakaiJavadoc;
@@ -46,6 +52,13 @@ import java.util.Arrays;
  * <p>
  * A sub-array can be retrieved by specifying the starting index and the length with {@link #subArray(int, int)}. The
  * sub-array is read only and will share data with the underlying parent array for efficiency.
+ * <p>
+ * Values can be sorted in place with {@link #sort()} or {@link #parallelSort()}, and the duplicates in a sorted array
+ * can be removed with {@link #deduplicate()}.
+ * <p>
+ * The whole-array operations {@link #fill(long)}, {@link #indexOf(long)}, {@link #minimum()}, {@link #maximum()},
+ * {@link #sum()} and {@link #equals(Object)} are implemented by {@link ArrayKernels}, which uses SIMD instructions when
+ * the vector API is available.
  *
  * @author jonathanl (shibo)
  * @see PrimitiveCollection
@@ -54,7 +67,7 @@ import java.util.Arrays;
  * @see CompressibleCollection
  */
 @SuppressWarnings("DuplicatedCode") @UmlClassDiagram(diagram = DiagramPrimitiveArray.class)
-public final class LongArray extends PrimitiveArray implements LongList
+public final class LongArray extends PrimitiveArray implements LongList, ChannelSerializable
 {
     /**
      * Converts to and from a {@link LongArray}
@@ -199,6 +212,28 @@ public final class LongArray extends PrimitiveArray implements LongList
         return cursor;
     }
 
+    /**
+     * Removes adjacent duplicate values from this array, which should already be sorted, leaving only distinct values
+     *
+     * @return The new size of this array
+     */
+    public int deduplicate()
+    {
+        assert isWritable();
+
+        // Remove the duplicates,
+        var end = RadixSort.deduplicate(data, offset, offset + size());
+
+        // clear the values that are no longer used,
+        Arrays.fill(data, end, offset + size(), nullLong());
+
+        // and shrink the array.
+        var size = end - offset;
+        size(size);
+        cursor = size;
+        return size;
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -210,12 +245,24 @@ public final class LongArray extends PrimitiveArray implements LongList
             var that = (LongArray) object;
             if (size() == that.size())
             {
-                return iterator().identical(that.iterator());
+                // If the values are identical the arrays are equal, and if not, they may still be equal if their
+                // null values are in different places
+                return ArrayKernels.equals(data, offset, that.data, that.offset, size())
+                        || (hasNullLong() && iterator().identical(that.iterator()));
             }
         }
         return false;
     }
 
+    /**
+     * Sets every value in this array to the given value
+     */
+    public void fill(long value)
+    {
+        assert isWritable();
+        ArrayKernels.fill(data, offset, offset + size(), value);
+    }
+
     /**
      * @return The value at the given logical index.
      */
@@ -237,6 +284,31 @@ public final class LongArray extends PrimitiveArray implements LongList
         return iterator().hashValue();
     }
 
+    /**
+     * @return The index of the first occurrence of the given value in this array, or -1 if it is not found
+     */
+    public int indexOf(long value)
+    {
+        var index = ArrayKernels.indexOf(data, offset, offset + size(), value);
+        return index < 0 ? -1 : index - offset;
+    }
+
+    /**
+     * @return The largest value in this array, including any null values, or Long.MIN_VALUE if the array is empty
+     */
+    public long maximum()
+    {
+        return ArrayKernels.maximum(data, offset, offset + size());
+    }
+
+    /**
+     * @return The smallest value in this array, including any null values, or Long.MAX_VALUE if the array is empty
+     */
+    public long minimum()
+    {
+        return ArrayKernels.minimum(data, offset, offset + size());
+    }
+
     @Override
     public CompressibleCollection.Method onCompress(CompressibleCollection.Method method)
     {
@@ -258,6 +330,34 @@ public final class LongArray extends PrimitiveArray implements LongList
         data = newLongArray(this, "allocated");
     }
 
+    /**
+     * Sorts the values in this array in parallel on the fork-join common pool
+     *
+     * @see ParallelSort
+     */
+    public void parallelSort()
+    {
+        assert isWritable();
+
+        ParallelSort.sort(data, offset, offset + size());
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void read(ChannelInput input)
+    {
+        readSettings(input);
+
+        // Read the values in bulk into an array that holds exactly the values that were written
+        cursor = input.readInt();
+        data = newLongArray(this, "read", size());
+        input.readLongs(data, 0, size());
+        offset = 0;
+        isSubArray = false;
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -348,6 +448,18 @@ public final class LongArray extends PrimitiveArray implements LongList
         set(index, value);
     }
 
+    /**
+     * Sorts the values in this array in place, on this thread
+     *
+     * @see RadixSort
+     */
+    public void sort()
+    {
+        assert isWritable();
+
+        RadixSort.sort(data, offset, offset + size());
+    }
+
     /**
      * @return A read-only sub-array which shares underlying data with this array.
      */
@@ -360,6 +472,14 @@ public final class LongArray extends PrimitiveArray implements LongList
         return array;
     }
 
+    /**
+     * @return The sum of the values in this array, including any null values
+     */
+    public long sum()
+    {
+        return ArrayKernels.sum(data, offset, offset + size());
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -370,6 +490,31 @@ public final class LongArray extends PrimitiveArray implements LongList
                 toString(index -> Long.toString(get(index)));
     }
 
+    /**
+     * Unpacks values of the given bit width, which are packed into the longs in this array, into the given array
+     *
+     * @param bitIndex The index of the first bit of the first value, where bit zero is the high bit of the first long
+     * @see ArrayKernels#unpack(long[], long, int, long[], int, int)
+     */
+    public void unpack(long bitIndex, int bits, long[] values, int offset, int count)
+    {
+        assert bitIndex + (long) count * bits <= (long) size() * Long.SIZE;
+        ArrayKernels.unpack(data, this.offset * (long) Long.SIZE + bitIndex, bits, values, offset, count);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void write(ChannelOutput output)
+    {
+        writeSettings(output);
+
+        // Write only the values in this array (or sub-array), and not any unused capacity
+        output.writeInt(cursor);
+        output.writeLongs(data, offset, size());
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -384,6 +529,16 @@ public final class LongArray extends PrimitiveArray implements LongList
         kryo.writeObject(output, cursor);
     }
 
+    /**
+     * @return The array holding the values of this array, which split arrays sort and deduplicate directly. This array
+     * must not be a sub-array, so its first value is at index zero.
+     */
+    long[] data()
+    {
+        assert offset == 0;
+        return data;
+    }
+
     /** Returns true if this is not a read-only sub-array */
     private boolean isWritable()
     {
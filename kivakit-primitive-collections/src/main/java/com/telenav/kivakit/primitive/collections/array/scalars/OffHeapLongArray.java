@@ -0,0 +1,380 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+package com.telenav.kivakit.primitive.collections.array.scalars;
+
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.KryoSerializable;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+import com.telenav.kivakit.core.value.count.Count;
+import com.telenav.kivakit.primitive.collections.ChannelInput;
+import com.telenav.kivakit.primitive.collections.ChannelOutput;
+import com.telenav.kivakit.primitive.collections.ChannelSerializable;
+import com.telenav.kivakit.primitive.collections.CompressibleCollection;
+import com.telenav.kivakit.primitive.collections.PrimitiveCollection;
+import com.telenav.kivakit.primitive.collections.array.PrimitiveArray;
+import com.telenav.kivakit.primitive.collections.lexakai.DiagramPrimitiveArray;
+import com.telenav.kivakit.primitive.collections.list.LongList;
+import com.telenav.lexakai.annotations.UmlClassDiagram;
+
+import java.nio.ByteBuffer;
+import java.nio.LongBuffer;
+
+import static com.telenav.kivakit.core.ensure.Ensure.ensure;
+
+/**
+ * A dynamic array of primitive long values stored in native memory, outside the Java heap. Supports the same indexing
+ * operations in {@link LongList} as {@link LongArray}, but since the values are not in a long[], the garbage collector
+ * never scans or copies them. This allows very large arrays to be held without the heap having to be sized for them.
+ * <p>
+ * Values are stored in a direct buffer in native byte order. The array grows geometrically, and when it grows or is
+ * compressed, the native memory of the old buffer is released right away rather than when the garbage collector gets
+ * around to it. Since a direct buffer is limited to 2GB, a single array can hold at most {@link #MAXIMUM_SIZE} values,
+ * and like the heap arrays, it never grows past {@link #maximumSize()}.
+ * <p>
+ * <b>Direct Memory</b>
+ * <p>
+ * The JVM limits the total size of all direct buffers with -XX:MaxDirectMemorySize, which defaults to the maximum
+ * heap size (-Xmx). Applications holding large off-heap arrays will usually need to raise this limit. When it is
+ * reached, allocation fails with a message naming the option.
+ * Larger arrays can be built with {@link SplitOffHeapLongArray}.
+ * <p>
+ * Like other primitive collections, this array observes the settings in {@link PrimitiveCollection}, it can be trimmed
+ * to its size with {@link #compress(Method)}, and it is {@link KryoSerializable}.
+ *
+ * @author agent
+ * @see LongArray
+ * @see SplitOffHeapLongArray
+ */
+@SuppressWarnings("DuplicatedCode") @UmlClassDiagram(diagram = DiagramPrimitiveArray.class)
+public final class OffHeapLongArray extends PrimitiveArray implements LongList, ChannelSerializable
+{
+    /** The maximum number of values in a single off-heap array */
+    public static final int MAXIMUM_SIZE = Integer.MAX_VALUE / Long.BYTES;
+
+    /** The native memory holding the values */
+    private ByteBuffer memory;
+
+    /** The values, in native memory */
+    private LongBuffer data;
+
+    /** The index where {@link #add(long)} will add values */
+    private int cursor;
+
+    public OffHeapLongArray(String objectName)
+    {
+        super(objectName);
+    }
+
+    private OffHeapLongArray()
+    {
+    }
+
+    /**
+     * Adds a value, advancing the add cursor
+     */
+    @Override
+    public boolean add(long value)
+    {
+        if (ensureHasRoomFor(1))
+        {
+            set(cursor++, value);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * This off-heap array as a primitive array on the heap
+     */
+    public long[] asArray()
+    {
+        var array = new long[size()];
+        data.get(0, array);
+        return array;
+    }
+
+    @Override
+    public Count capacity()
+    {
+        return Count.count(data.capacity());
+    }
+
+    /**
+     * Clears this array
+     */
+    @Override
+    public void clear()
+    {
+        super.clear();
+        cursor = 0;
+    }
+
+    /**
+     * Sets the element at the given index to the current null value
+     */
+    @Override
+    public void clear(int index)
+    {
+        set(index, nullLong());
+    }
+
+    /**
+     * Positions the add cursor
+     */
+    @Override
+    public void cursor(int cursor)
+    {
+        this.cursor = cursor;
+    }
+
+    /**
+     * @return The index of the add cursor
+     */
+    @Override
+    public int cursor()
+    {
+        return cursor;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean equals(Object object)
+    {
+        if (object instanceof OffHeapLongArray)
+        {
+            var that = (OffHeapLongArray) object;
+            if (size() == that.size())
+            {
+                return iterator().identical(that.iterator());
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return The value at the given index
+     */
+    @Override
+    public long get(int index)
+    {
+        assert index >= 0;
+        assert index < size();
+
+        return data.get(index);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int hashCode()
+    {
+        return iterator().hashValue();
+    }
+
+    @Override
+    public CompressibleCollection.Method onCompress(CompressibleCollection.Method method)
+    {
+        if (size() < data.capacity())
+        {
+            resize(size());
+        }
+
+        return CompressibleCollection.Method.RESIZE;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void onInitialize()
+    {
+        super.onInitialize();
+        allocate("allocated", Math.min(initialSizeAsInt(), maximumCapacity()));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void read(ChannelInput input)
+    {
+        readSettings(input);
+
+        // Read values in bulk straight into native memory
+        cursor = input.readInt();
+        allocate("read", size());
+        input.readLongs(data, 0, size());
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void read(Kryo kryo, Input input)
+    {
+        super.read(kryo, input);
+
+        cursor = kryo.readObject(input, int.class);
+
+        // Read values straight into native memory, so the array is never copied onto the heap
+        var size = kryo.readObject(input, int.class);
+        allocate("read", size);
+        for (var index = 0; index < size; index++)
+        {
+            data.put(index, input.readLong());
+        }
+    }
+
+    /**
+     * @return The value at the given index or the null value if the index is out of bounds
+     */
+    @Override
+    public long safeGet(int index)
+    {
+        if (index >= 0 && index < size())
+        {
+            return data.get(index);
+        }
+        return nullLong();
+    }
+
+    @Override
+    public long safeGetPrimitive(int index)
+    {
+        return safeGet(index);
+    }
+
+    /**
+     * Sets a value at the given index, possibly extending the array size.
+     */
+    @Override
+    public void set(int index, long value)
+    {
+        var newSize = index + 1;
+        var size = size();
+
+        // If the given index is past the end of storage,
+        if (newSize > data.capacity())
+        {
+            // resize the array, never growing past the maximum size,
+            ensure(newSize <= maximumCapacity(), "Index $ exceeds the maximum size $ of $", index, maximumCapacity(), objectName());
+            resize(Math.min(maximumCapacity(), PrimitiveCollection.increasedCapacity(newSize)));
+        }
+
+        // then store the value at the given index,
+        data.put(index, value);
+
+        // and possibly increase the size if we've written past the end of the previous size.
+        if (newSize > size)
+        {
+            size(newSize);
+        }
+
+        cursor(newSize);
+    }
+
+    @Override
+    public void setPrimitive(int index, long value)
+    {
+        set(index, value);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString()
+    {
+        return "[" + getClass().getSimpleName() + " name = " + objectName() + ", size = " + size() + "]\n" +
+                toString(index -> Long.toString(get(index)));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void write(ChannelOutput output)
+    {
+        writeSettings(output);
+
+        // Write values in bulk straight from native memory
+        output.writeInt(cursor);
+        output.writeLongs(data, 0, size());
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void write(Kryo kryo, Output output)
+    {
+        super.write(kryo, output);
+
+        kryo.writeObject(output, cursor);
+
+        // Write values straight from native memory
+        var size = size();
+        kryo.writeObject(output, size);
+        for (var index = 0; index < size; index++)
+        {
+            output.writeLong(data.get(index));
+        }
+    }
+
+    /** Allocates native memory for the given number of values, filled with the null value */
+    private void allocate(String why, int size)
+    {
+        memory = newOffHeapBuffer(this, why, size, Long.BYTES);
+        data = memory.asLongBuffer();
+        if (nullLong() != 0)
+        {
+            for (var index = 0; index < size; index++)
+            {
+                data.put(index, nullLong());
+            }
+        }
+    }
+
+    /** The largest number of values this array can hold */
+    private int maximumCapacity()
+    {
+        return Math.min(MAXIMUM_SIZE, maximumSizeAsInt());
+    }
+
+    /** Resizes this array to the given size */
+    private void resize(int size)
+    {
+        assert size >= size();
+
+        // Allocate new native memory of the right size,
+        var oldMemory = memory;
+        var oldData = data;
+        allocate("resized", size);
+
+        // copy the values from the old memory to the new memory,
+        data.put(0, oldData, 0, size());
+
+        // and release the old native memory right away, since nothing else refers to it.
+        freeOffHeapBuffer(oldMemory);
+    }
+}
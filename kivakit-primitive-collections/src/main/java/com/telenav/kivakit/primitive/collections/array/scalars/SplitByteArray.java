@@ -24,6 +24,9 @@ import com.esotericsoftware.kryo.io.Input;
 import com.esotericsoftware.kryo.io.Output;
 import com.telenav.kivakit.core.value.count.Count;
 import com.telenav.kivakit.primitive.collections.ByteCollection;
+import com.telenav.kivakit.primitive.collections.ChannelInput;
+import com.telenav.kivakit.primitive.collections.ChannelOutput;
+import com.telenav.kivakit.primitive.collections.ChannelSerializable;
 import com.telenav.kivakit.primitive.collections.array.PrimitiveSplitArray;
 import com.telenav.kivakit.primitive.collections.list.ByteList;
 import com.telenav.kivakit.primitive.collections.lexakai.DiagramPrimitiveSplitArray;
@@ -48,7 +51,7 @@ import java.util.Arrays;
  * @see ByteArray
  */
 @SuppressWarnings("DuplicatedCode") @UmlClassDiagram(diagram = DiagramPrimitiveSplitArray.class)
-public final class SplitByteArray extends PrimitiveSplitArray implements ByteList
+public final class SplitByteArray extends PrimitiveSplitArray implements ByteList, ChannelSerializable
 {
     /** The child arrays */
     private ByteArray[] children;
@@ -154,17 +157,7 @@ public final class SplitByteArray extends PrimitiveSplitArray implements ByteLis
     @Override
     public Method onCompress(Method method)
     {
-        // Go through our children,
-        for (var child : children)
-        {
-            // and if the child is not null (this is a sparse array)
-            if (child != null)
-            {
-                // then compress the child array.
-                child.compress(method);
-            }
-        }
-
+        compressChildren(children, method, compressionParallelism());
         return Method.RESIZE;
     }
 
@@ -176,6 +169,29 @@ public final class SplitByteArray extends PrimitiveSplitArray implements ByteLis
         children = new ByteArray[initialChildCountAsInt()];
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void read(ChannelInput input)
+    {
+        readSettings(input);
+        cursor = input.readInt();
+        childSize = initialChildSizeAsInt();
+
+        // Read the children one at a time, in the order they were written
+        children = new ByteArray[input.readInt()];
+        for (var index = 0; index < children.length; index++)
+        {
+            if (input.readBoolean())
+            {
+                var child = new ByteArray(objectName() + ".child[" + index + "]");
+                child.read(input);
+                children[index] = child;
+            }
+        }
+    }
+
     /**
      * @see KryoSerializable
      */
@@ -290,6 +306,27 @@ public final class SplitByteArray extends PrimitiveSplitArray implements ByteLis
                 toString(index -> Long.toString(get(index)));
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void write(ChannelOutput output)
+    {
+        writeSettings(output);
+        output.writeInt(cursor);
+
+        // Stream the children one at a time, so the array is never copied as a whole
+        output.writeInt(children.length);
+        for (var child : children)
+        {
+            output.writeBoolean(child != null);
+            if (child != null)
+            {
+                child.write(output);
+            }
+        }
+    }
+
     /**
      * @see KryoSerializable
      */
@@ -137,17 +137,7 @@ public final class SplitCharArray extends PrimitiveSplitArray implements CharLis
     @Override
     public CompressibleCollection.Method onCompress(CompressibleCollection.Method method)
     {
-        // Go through our children,
-        for (var child : children)
-        {
-            // and if the child is not null (this is a sparse array)
-            if (child != null)
-            {
-                // then compress the child array.
-                child.compress(method);
-            }
-        }
-
+        compressChildren(children, method, compressionParallelism());
         return CompressibleCollection.Method.RESIZE;
     }
 
@@ -23,14 +23,21 @@ import com.esotericsoftware.kryo.KryoSerializable;
 import com.esotericsoftware.kryo.io.Input;
 import com.esotericsoftware.kryo.io.Output;
 import com.telenav.kivakit.core.value.count.Count;
+import com.telenav.kivakit.primitive.collections.ChannelInput;
+import com.telenav.kivakit.primitive.collections.ChannelOutput;
+import com.telenav.kivakit.primitive.collections.ChannelSerializable;
 import com.telenav.kivakit.primitive.collections.CompressibleCollection;
 import com.telenav.kivakit.primitive.collections.LongCollection;
 import com.telenav.kivakit.primitive.collections.array.PrimitiveSplitArray;
+import com.telenav.kivakit.primitive.collections.array.sorting.ParallelSort;
+import com.telenav.kivakit.primitive.collections.array.sorting.RadixSort;
+import com.telenav.kivakit.primitive.collections.iteration.LongListSpliterator;
 import com.telenav.kivakit.primitive.collections.lexakai.DiagramPrimitiveSplitArray;
 import com.telenav.kivakit.primitive.collections.list.LongList;
 import com.telenav.lexakai.annotations.UmlClassDiagram;
 
 import java.util.Arrays;
+import java.util.Spliterator;
 
 /**
  * A split primitive array of long values. A split array has one key (an index) so it is one-dimensional, although it
@@ -50,7 +57,7 @@ import java.util.Arrays;
  */
 @SuppressWarnings("DuplicatedCode")
 @UmlClassDiagram(diagram = DiagramPrimitiveSplitArray.class)
-public final class SplitLongArray extends PrimitiveSplitArray implements LongList
+public final class SplitLongArray extends PrimitiveSplitArray implements LongList, ChannelSerializable
 {
     private int childSize;
 
@@ -109,6 +116,60 @@ public final class SplitLongArray extends PrimitiveSplitArray implements LongLis
         this.cursor = cursor;
     }
 
+    /**
+     * Removes adjacent duplicate values from this array, which should already be sorted, leaving only distinct values.
+     * Children after the new end of the array are released.
+     *
+     * @return The new size of this array
+     */
+    public int deduplicate()
+    {
+        var size = size();
+        if (size < 2)
+        {
+            return size;
+        }
+
+        // Working on the child arrays directly, move each value that differs from the value before it down to the
+        // end of the distinct values,
+        var target = filledChildArray(0, Math.min(childSize, size)).data();
+        var targetChild = 0;
+        var targetOffset = 1;
+        var last = target[0];
+        var count = (size - 1) / childSize + 1;
+        for (var childIndex = 0; childIndex < count; childIndex++)
+        {
+            var childEnd = Math.min(childSize, size - childIndex * childSize);
+            var values = filledChildArray(childIndex, childEnd).data();
+            for (var at = childIndex == 0 ? 1 : 0; at < childEnd; at++)
+            {
+                var value = values[at];
+                if (value != last)
+                {
+                    if (targetOffset == childSize)
+                    {
+                        target = children[++targetChild].data();
+                        targetOffset = 0;
+                    }
+                    target[targetOffset++] = value;
+                    last = value;
+                }
+            }
+        }
+
+        // clear the values that are no longer used in the last child,
+        Arrays.fill(target, targetOffset, Math.min(childSize, size - targetChild * childSize), nullLong());
+
+        // release the children after it,
+        Arrays.fill(children, targetChild + 1, children.length, null);
+
+        // and shrink the array.
+        var end = targetChild * childSize + targetOffset;
+        size(end);
+        cursor = end;
+        return end;
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -153,16 +214,7 @@ public final class SplitLongArray extends PrimitiveSplitArray implements LongLis
     @Override
     public CompressibleCollection.Method onCompress(CompressibleCollection.Method method)
     {
-        // Go through our children,
-        for (var child : children)
-        {
-            // and if the child is not null (this is a sparse array)
-            if (child != null)
-            {
-                // then trim the child array.
-                child.compress(method);
-            }
-        }
+        compressChildren(children, method, compressionParallelism());
         return CompressibleCollection.Method.RESIZE;
     }
 
@@ -174,6 +226,40 @@ public final class SplitLongArray extends PrimitiveSplitArray implements LongLis
         children = new LongArray[initialChildCountAsInt()];
     }
 
+    /**
+     * Sorts the values in this array in place, on the fork-join common pool. The values are moved between children
+     * into buckets by their most significant digit, and the buckets are then sorted in parallel.
+     *
+     * @see ParallelSort
+     */
+    public void parallelSort()
+    {
+        sort(true);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void read(ChannelInput input)
+    {
+        readSettings(input);
+        cursor = input.readInt();
+        childSize = initialChildSizeAsInt();
+
+        // Read the children one at a time, in the order they were written
+        children = new LongArray[input.readInt()];
+        for (var index = 0; index < children.length; index++)
+        {
+            if (input.readBoolean())
+            {
+                var child = new LongArray(objectName() + ".child[" + index + "]");
+                child.read(input);
+                children[index] = child;
+            }
+        }
+    }
+
     /**
      * @see KryoSerializable
      */
@@ -233,6 +319,27 @@ public final class SplitLongArray extends PrimitiveSplitArray implements LongLis
         set(index, value);
     }
 
+    /**
+     * Sorts the values in this array in place, on this thread. The values are moved between children into buckets
+     * by their most significant digit until each bucket is small enough to radix sort in a bounded buffer, so no
+     * second copy of the children is made.
+     *
+     * @see RadixSort
+     */
+    public void sort()
+    {
+        sort(false);
+    }
+
+    /**
+     * @return A spliterator over the non-null values in this array, which splits along the boundaries of the children
+     */
+    @Override
+    public Spliterator.OfLong spliterator()
+    {
+        return new LongListSpliterator(this, 0, size(), childSize);
+    }
+
     @Override
     public String toString()
     {
@@ -240,6 +347,27 @@ public final class SplitLongArray extends PrimitiveSplitArray implements LongLis
                 toString(index -> Long.toString(get(index)));
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void write(ChannelOutput output)
+    {
+        writeSettings(output);
+        output.writeInt(cursor);
+
+        // Stream the children one at a time, so the array is never copied as a whole
+        output.writeInt(children.length);
+        for (var child : children)
+        {
+            output.writeBoolean(child != null);
+            if (child != null)
+            {
+                child.write(output);
+            }
+        }
+    }
+
     /**
      * @see KryoSerializable
      */
@@ -269,11 +397,7 @@ public final class SplitLongArray extends PrimitiveSplitArray implements LongLis
         if (array == null)
         {
             // create a new child
-            array = new LongArray(objectName() + ".child[" + childIndex + "]");
-            array.copySettings(this);
-            array.initialSize(childSize);
-            array.maximumSize(maximumChildSizeAsInt());
-            array.initialize();
+            array = newChildArray(childIndex);
 
             // and add it to the children array.
             children[childIndex] = array;
@@ -281,4 +405,93 @@ public final class SplitLongArray extends PrimitiveSplitArray implements LongLis
 
         return array;
     }
+
+    /**
+     * @return The child array for the given index, holding at least the given number of values. Values that have not
+     * been set are null.
+     */
+    private LongArray filledChildArray(int childIndex, int size)
+    {
+        var child = childArray(childIndex);
+        if (child.size() < size)
+        {
+            child.set(size - 1, nullLong());
+        }
+        return child;
+    }
+
+    /**
+     * @return A new child array for the given index
+     */
+    private LongArray newChildArray(int childIndex)
+    {
+        var array = new LongArray(objectName() + ".child[" + childIndex + "]");
+        array.copySettings(this);
+        array.initialSize(childSize);
+        array.maximumSize(maximumChildSizeAsInt());
+        array.initialize();
+        return array;
+    }
+
+    /**
+     * Sorts the values in this array in place, working on the child arrays directly
+     */
+    private void sort(boolean parallel)
+    {
+        var size = size();
+        if (size == 0)
+        {
+            return;
+        }
+
+        // If there's only one child,
+        var count = (size - 1) / childSize + 1;
+        if (count == 1)
+        {
+            // just sort it,
+            var child = filledChildArray(0, size);
+            if (parallel)
+            {
+                child.parallelSort();
+            }
+            else
+            {
+                child.sort();
+            }
+        }
+        else
+        {
+            // otherwise, fill each child that holds values in this array, so every index has a value,
+            var values = new long[count][];
+            for (var index = 0; index < count; index++)
+            {
+                values[index] = filledChildArray(index, Math.min(childSize, size - index * childSize)).data();
+            }
+
+            // and sort the values in all the children as one range.
+            var childSize = this.childSize;
+            var indexed = new RadixSort.LongValues()
+            {
+                @Override
+                public long get(int index)
+                {
+                    return values[index / childSize][index % childSize];
+                }
+
+                @Override
+                public void set(int index, long value)
+                {
+                    values[index / childSize][index % childSize] = value;
+                }
+            };
+            if (parallel)
+            {
+                ParallelSort.sort(indexed, 0, size);
+            }
+            else
+            {
+                RadixSort.sort(indexed, 0, size);
+            }
+        }
+    }
 }
@@ -0,0 +1,332 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+package com.telenav.kivakit.primitive.collections.array.scalars;
+
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.KryoSerializable;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+import com.telenav.kivakit.core.value.count.Count;
+import com.telenav.kivakit.primitive.collections.ChannelInput;
+import com.telenav.kivakit.primitive.collections.ChannelOutput;
+import com.telenav.kivakit.primitive.collections.ChannelSerializable;
+import com.telenav.kivakit.primitive.collections.CompressibleCollection;
+import com.telenav.kivakit.primitive.collections.LongCollection;
+import com.telenav.kivakit.primitive.collections.array.PrimitiveSplitArray;
+import com.telenav.kivakit.primitive.collections.iteration.LongListSpliterator;
+import com.telenav.kivakit.primitive.collections.lexakai.DiagramPrimitiveSplitArray;
+import com.telenav.kivakit.primitive.collections.list.LongList;
+import com.telenav.lexakai.annotations.UmlClassDiagram;
+
+import java.util.Arrays;
+import java.util.Spliterator;
+
+/**
+ * A split primitive array of long values stored in native memory, outside the Java heap. This array works just like
+ * {@link SplitLongArray}, but its children are {@link OffHeapLongArray}s, so the garbage collector never scans or
+ * copies the values. Since each child is a separate allocation, this array is not limited by the 2GB maximum size of a
+ * single direct buffer.
+ * <p>
+ * Supports the operations of {@link LongCollection}, except {@link #clear()}. Indexing operations in {@link LongList}
+ * are supported just as in {@link LongArray}, but the values are distributed across an array of child {@link
+ * OffHeapLongArray} objects.
+ *
+ * @author agent
+ * @see PrimitiveSplitArray
+ * @see SplitLongArray
+ * @see OffHeapLongArray
+ */
+@SuppressWarnings("DuplicatedCode")
+@UmlClassDiagram(diagram = DiagramPrimitiveSplitArray.class)
+public final class SplitOffHeapLongArray extends PrimitiveSplitArray implements LongList, ChannelSerializable
+{
+    private int childSize;
+
+    /** The child arrays */
+    private OffHeapLongArray[] children;
+
+    /** The index at which adding takes place */
+    private int cursor;
+
+    /**
+     * Convenience method that uses selects a default child size
+     */
+    public SplitOffHeapLongArray(String objectName)
+    {
+        super(objectName);
+    }
+
+    private SplitOffHeapLongArray()
+    {
+    }
+
+    /**
+     * Adds a value, advancing the add cursor
+     */
+    @Override
+    public boolean add(long value)
+    {
+        assert ensureHasRoomFor(1);
+        set(cursor++, value);
+        return true;
+    }
+
+    @Override
+    public Count capacity()
+    {
+        var capacity = 0;
+        for (var child : children)
+        {
+            if (child != null)
+            {
+                capacity += child.capacity().asInt();
+            }
+        }
+        return Count.count(capacity);
+    }
+
+    @Override
+    public int cursor()
+    {
+        return cursor;
+    }
+
+    @Override
+    public void cursor(int cursor)
+    {
+        this.cursor = cursor;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean equals(Object object)
+    {
+        if (object instanceof SplitOffHeapLongArray)
+        {
+            var that = (SplitOffHeapLongArray) object;
+            return size() == that.size() && iterator().identical(that.iterator());
+        }
+        return false;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long get(int index)
+    {
+        var childIndex = index / childSize;
+        if (childIndex < children.length)
+        {
+            var child = children[childIndex];
+            if (child != null)
+            {
+                return child.get(index % childSize);
+            }
+        }
+        return childArray(childIndex).get(index % childSize);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int hashCode()
+    {
+        return iterator().hashValue();
+    }
+
+    @Override
+    public CompressibleCollection.Method onCompress(CompressibleCollection.Method method)
+    {
+        compressChildren(children, method, compressionParallelism());
+        return CompressibleCollection.Method.RESIZE;
+    }
+
+    @Override
+    public void onInitialize()
+    {
+        super.onInitialize();
+        childSize = initialChildSizeAsInt();
+        children = new OffHeapLongArray[initialChildCountAsInt()];
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void read(ChannelInput input)
+    {
+        readSettings(input);
+        cursor = input.readInt();
+        childSize = initialChildSizeAsInt();
+
+        // Read the children one at a time, in the order they were written
+        children = new OffHeapLongArray[input.readInt()];
+        for (var index = 0; index < children.length; index++)
+        {
+            if (input.readBoolean())
+            {
+                var child = new OffHeapLongArray(objectName() + ".child[" + index + "]");
+                child.read(input);
+                children[index] = child;
+            }
+        }
+    }
+
+    /**
+     * @see KryoSerializable
+     */
+    @Override
+    public void read(Kryo kryo, Input input)
+    {
+        super.read(kryo, input);
+        children = kryo.readObject(input, OffHeapLongArray[].class);
+        childSize = initialChildSizeAsInt();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long safeGet(int index)
+    {
+        var childIndex = index / childSize;
+        if (childIndex < children.length)
+        {
+            var child = children[childIndex];
+            if (child != null)
+            {
+                return child.safeGet(index % childSize);
+            }
+        }
+        return childArray(childIndex).safeGet(index % childSize);
+    }
+
+    @Override
+    public long safeGetPrimitive(int index)
+    {
+        return safeGet(index);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void set(int index, long value)
+    {
+        // Set the value into the array for the index
+        int childIndex = index / childSize;
+        childArray(childIndex).set(index % childSize, value);
+
+        // then increase the size if we wrote past the end.
+        var size = index + 1;
+        if (size > size())
+        {
+            size(size);
+        }
+    }
+
+    @Override
+    public void setPrimitive(int index, long value)
+    {
+        set(index, value);
+    }
+
+    /**
+     * @return A spliterator over the non-null values in this array, which splits along the boundaries of the children
+     */
+    @Override
+    public Spliterator.OfLong spliterator()
+    {
+        return new LongListSpliterator(this, 0, size(), childSize);
+    }
+
+    @Override
+    public String toString()
+    {
+        return "[" + getClass().getSimpleName() + " name = " + objectName() + ", size = " + size() + "]\n" +
+                toString(index -> Long.toString(get(index)));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void write(ChannelOutput output)
+    {
+        writeSettings(output);
+        output.writeInt(cursor);
+
+        // Stream the children one at a time, so the array is never copied as a whole
+        output.writeInt(children.length);
+        for (var child : children)
+        {
+            output.writeBoolean(child != null);
+            if (child != null)
+            {
+                child.write(output);
+            }
+        }
+    }
+
+    /**
+     * @see KryoSerializable
+     */
+    @Override
+    public void write(Kryo kryo, Output output)
+    {
+        super.write(kryo, output);
+        kryo.writeObject(output, children);
+    }
+
+    /**
+     * @return The child array for the given index
+     */
+    private OffHeapLongArray childArray(int childIndex)
+    {
+        // If the child index is beyond the length of the children array,
+        if (childIndex >= children.length)
+        {
+            // resize the children array to double the size,
+            children = Arrays.copyOf(children, childIndex * 2);
+        }
+
+        // then get the child array,
+        var array = children[childIndex];
+
+        // and if it's null,
+        if (array == null)
+        {
+            // create a new child
+            array = new OffHeapLongArray(objectName() + ".child[" + childIndex + "]");
+            array.copySettings(this);
+            array.initialSize(childSize);
+            array.maximumSize(maximumChildSizeAsInt());
+            array.initialize();
+
+            // and add it to the children array.
+            children[childIndex] = array;
+        }
+
+        return array;
+    }
+}
@@ -0,0 +1,430 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+
+package com.telenav.kivakit.primitive.collections.array.sorting;
+
+import com.telenav.kivakit.primitive.collections.lexakai.DiagramPrimitiveArray;
+import com.telenav.lexakai.annotations.UmlClassDiagram;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.stream.IntStream;
+
+/**
+ * Parallel sorts of primitive long and int arrays on the fork-join common pool. A range is split in half until the
+ * halves are small enough to {@link RadixSort} on a single thread, and sorted halves are merged by recursively
+ * splitting the merge around the middle value of the longer half, so merges are parallel as well. One scratch array the
+ * size of the range is allocated.
+ * <p>
+ * Values that are not held in one array, like the children of a split array, are sorted in place with {@link
+ * #sort(RadixSort.LongValues, int, int)} or {@link #sort(RadixSort.IntValues, int, int)}. These move the values into
+ * buckets by their most significant digit on the calling thread and then sort the buckets in parallel, without
+ * allocating a scratch array the size of the range.
+ *
+ * @author agent
+ * @see RadixSort
+ */
+@SuppressWarnings("DuplicatedCode")
+@UmlClassDiagram(diagram = DiagramPrimitiveArray.class)
+public final class ParallelSort
+{
+    /** Ranges no longer than this are radix sorted on a single thread */
+    private static final int SEQUENTIAL_SORT_SIZE = 1 << 16;
+
+    /** Merges of no more than this many values are done on a single thread */
+    private static final int SEQUENTIAL_MERGE_SIZE = 1 << 14;
+
+    /**
+     * Sorts the given values in parallel
+     */
+    public static void sort(long[] values)
+    {
+        sort(values, 0, values.length);
+    }
+
+    /**
+     * Sorts the given values in parallel
+     */
+    public static void sort(int[] values)
+    {
+        sort(values, 0, values.length);
+    }
+
+    /**
+     * Sorts the given range of values in parallel
+     */
+    public static void sort(long[] values, int from, int to)
+    {
+        if (to - from <= SEQUENTIAL_SORT_SIZE || ForkJoinPool.getCommonPoolParallelism() < 2)
+        {
+            RadixSort.sort(values, from, to);
+        }
+        else
+        {
+            ForkJoinPool.commonPool().invoke(new LongSortTask(values, new long[to - from], from, from, to));
+        }
+    }
+
+    /**
+     * Sorts the given range of values in parallel
+     */
+    public static void sort(int[] values, int from, int to)
+    {
+        if (to - from <= SEQUENTIAL_SORT_SIZE || ForkJoinPool.getCommonPoolParallelism() < 2)
+        {
+            RadixSort.sort(values, from, to);
+        }
+        else
+        {
+            ForkJoinPool.commonPool().invoke(new IntSortTask(values, new int[to - from], from, from, to));
+        }
+    }
+
+    /**
+     * Sorts the given range of indexed values in place and in parallel. Different indexes of the values must be safe to
+     * set from different threads at once.
+     */
+    public static void sort(RadixSort.LongValues values, int from, int to)
+    {
+        if (to - from <= SEQUENTIAL_SORT_SIZE || ForkJoinPool.getCommonPoolParallelism() < 2)
+        {
+            RadixSort.sort(values, from, to);
+        }
+        else
+        {
+            // Move the values into buckets by their most significant digit,
+            var bounds = RadixSort.partition(values, from, to);
+            if (bounds != null)
+            {
+                // and sort the buckets in parallel.
+                IntStream.range(0, bounds.length - 1)
+                        .parallel()
+                        .forEach(bucket -> RadixSort.sort(values, bounds[bucket], bounds[bucket + 1]));
+            }
+        }
+    }
+
+    /**
+     * Sorts the given range of indexed values in place and in parallel. Different indexes of the values must be safe to
+     * set from different threads at once.
+     */
+    public static void sort(RadixSort.IntValues values, int from, int to)
+    {
+        if (to - from <= SEQUENTIAL_SORT_SIZE || ForkJoinPool.getCommonPoolParallelism() < 2)
+        {
+            RadixSort.sort(values, from, to);
+        }
+        else
+        {
+            // Move the values into buckets by their most significant digit,
+            var bounds = RadixSort.partition(values, from, to);
+            if (bounds != null)
+            {
+                // and sort the buckets in parallel.
+                IntStream.range(0, bounds.length - 1)
+                        .parallel()
+                        .forEach(bucket -> RadixSort.sort(values, bounds[bucket], bounds[bucket + 1]));
+            }
+        }
+    }
+
+    /**
+     * Sorts a range of values by sorting its halves in parallel and merging them
+     */
+    private static class IntSortTask extends RecursiveAction
+    {
+        private final int[] values;
+
+        private final int[] scratch;
+
+        /** The index in the values array of the start of the scratch array */
+        private final int base;
+
+        private final int from;
+
+        private final int to;
+
+        IntSortTask(int[] values, int[] scratch, int base, int from, int to)
+        {
+            this.values = values;
+            this.scratch = scratch;
+            this.base = base;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute()
+        {
+            // If the range is small enough,
+            if (to - from <= SEQUENTIAL_SORT_SIZE)
+            {
+                // radix sort it on this thread,
+                RadixSort.sort(values, from, to, scratch, from - base);
+            }
+            else
+            {
+                // otherwise, sort each half in parallel,
+                var middle = (from + to) >>> 1;
+                invokeAll(new IntSortTask(values, scratch, base, from, middle),
+                        new IntSortTask(values, scratch, base, middle, to));
+
+                // merge the halves into the scratch array,
+                new IntMergeTask(values, from, middle, middle, to, scratch, from - base).invoke();
+
+                // and copy the merged values back.
+                System.arraycopy(scratch, from - base, values, from, to - from);
+            }
+        }
+    }
+
+    /**
+     * Merges two sorted ranges by splitting them around the middle value of the longer range and merging each side in
+     * parallel
+     */
+    private static class IntMergeTask extends RecursiveAction
+    {
+        private final int[] source;
+
+        private final int aFrom, aTo, bFrom, bTo;
+
+        private final int[] target;
+
+        private final int targetFrom;
+
+        IntMergeTask(int[] source, int aFrom, int aTo, int bFrom, int bTo, int[] target, int targetFrom)
+        {
+            this.source = source;
+            this.aFrom = aFrom;
+            this.aTo = aTo;
+            this.bFrom = bFrom;
+            this.bTo = bTo;
+            this.target = target;
+            this.targetFrom = targetFrom;
+        }
+
+        @Override
+        protected void compute()
+        {
+            var aSize = aTo - aFrom;
+            var bSize = bTo - bFrom;
+
+            // If the ranges are small enough,
+            if (aSize + bSize <= SEQUENTIAL_MERGE_SIZE)
+            {
+                // merge them on this thread,
+                var a = aFrom;
+                var b = bFrom;
+                var at = targetFrom;
+                while (a < aTo && b < bTo)
+                {
+                    target[at++] = source[a] <= source[b] ? source[a++] : source[b++];
+                }
+                System.arraycopy(source, a, target, at, aTo - a);
+                System.arraycopy(source, b, target, at + aTo - a, bTo - b);
+            }
+            else if (aSize < bSize)
+            {
+                // otherwise, if the second range is longer, split around its middle instead,
+                new IntMergeTask(source, bFrom, bTo, aFrom, aTo, target, targetFrom).compute();
+            }
+            else
+            {
+                // otherwise, find where the middle value of the first range falls in the second range,
+                var aMiddle = (aFrom + aTo) >>> 1;
+                var pivot = source[aMiddle];
+                var bMiddle = lowerBound(source, bFrom, bTo, pivot);
+
+                // store it in its final position,
+                var targetMiddle = targetFrom + (aMiddle - aFrom) + (bMiddle - bFrom);
+                target[targetMiddle] = pivot;
+
+                // and merge the values on either side of it in parallel.
+                invokeAll(new IntMergeTask(source, aFrom, aMiddle, bFrom, bMiddle, target, targetFrom),
+                        new IntMergeTask(source, aMiddle + 1, aTo, bMiddle, bTo, target, targetMiddle + 1));
+            }
+        }
+    }
+
+    /**
+     * Sorts a range of values by sorting its halves in parallel and merging them
+     */
+    private static class LongSortTask extends RecursiveAction
+    {
+        private final long[] values;
+
+        private final long[] scratch;
+
+        /** The index in the values array of the start of the scratch array */
+        private final int base;
+
+        private final int from;
+
+        private final int to;
+
+        LongSortTask(long[] values, long[] scratch, int base, int from, int to)
+        {
+            this.values = values;
+            this.scratch = scratch;
+            this.base = base;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute()
+        {
+            // If the range is small enough,
+            if (to - from <= SEQUENTIAL_SORT_SIZE)
+            {
+                // radix sort it on this thread,
+                RadixSort.sort(values, from, to, scratch, from - base);
+            }
+            else
+            {
+                // otherwise, sort each half in parallel,
+                var middle = (from + to) >>> 1;
+                invokeAll(new LongSortTask(values, scratch, base, from, middle),
+                        new LongSortTask(values, scratch, base, middle, to));
+
+                // merge the halves into the scratch array,
+                new LongMergeTask(values, from, middle, middle, to, scratch, from - base).invoke();
+
+                // and copy the merged values back.
+                System.arraycopy(scratch, from - base, values, from, to - from);
+            }
+        }
+    }
+
+    /**
+     * Merges two sorted ranges by splitting them around the middle value of the longer range and merging each side in
+     * parallel
+     */
+    private static class LongMergeTask extends RecursiveAction
+    {
+        private final long[] source;
+
+        private final int aFrom, aTo, bFrom, bTo;
+
+        private final long[] target;
+
+        private final int targetFrom;
+
+        LongMergeTask(long[] source, int aFrom, int aTo, int bFrom, int bTo, long[] target, int targetFrom)
+        {
+            this.source = source;
+            this.aFrom = aFrom;
+            this.aTo = aTo;
+            this.bFrom = bFrom;
+            this.bTo = bTo;
+            this.target = target;
+            this.targetFrom = targetFrom;
+        }
+
+        @Override
+        protected void compute()
+        {
+            var aSize = aTo - aFrom;
+            var bSize = bTo - bFrom;
+
+            // If the ranges are small enough,
+            if (aSize + bSize <= SEQUENTIAL_MERGE_SIZE)
+            {
+                // merge them on this thread,
+                var a = aFrom;
+                var b = bFrom;
+                var at = targetFrom;
+                while (a < aTo && b < bTo)
+                {
+                    target[at++] = source[a] <= source[b] ? source[a++] : source[b++];
+                }
+                System.arraycopy(source, a, target, at, aTo - a);
+                System.arraycopy(source, b, target, at + aTo - a, bTo - b);
+            }
+            else if (aSize < bSize)
+            {
+                // otherwise, if the second range is longer, split around its middle instead,
+                new LongMergeTask(source, bFrom, bTo, aFrom, aTo, target, targetFrom).compute();
+            }
+            else
+            {
+                // otherwise, find where the middle value of the first range falls in the second range,
+                var aMiddle = (aFrom + aTo) >>> 1;
+                var pivot = source[aMiddle];
+                var bMiddle = lowerBound(source, bFrom, bTo, pivot);
+
+                // store it in its final position,
+                var targetMiddle = targetFrom + (aMiddle - aFrom) + (bMiddle - bFrom);
+                target[targetMiddle] = pivot;
+
+                // and merge the values on either side of it in parallel.
+                invokeAll(new LongMergeTask(source, aFrom, aMiddle, bFrom, bMiddle, target, targetFrom),
+                        new LongMergeTask(source, aMiddle + 1, aTo, bMiddle, bTo, target, targetMiddle + 1));
+            }
+        }
+    }
+
+    /**
+     * @return The index of the first value in the given sorted range that is not less than the given value
+     */
+    private static int lowerBound(int[] values, int from, int to, int value)
+    {
+        var low = from;
+        var high = to;
+        while (low < high)
+        {
+            var middle = (low + high) >>> 1;
+            if (values[middle] < value)
+            {
+                low = middle + 1;
+            }
+            else
+            {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * @return The index of the first value in the given sorted range that is not less than the given value
+     */
+    private static int lowerBound(long[] values, int from, int to, long value)
+    {
+        var low = from;
+        var high = to;
+        while (low < high)
+        {
+            var middle = (low + high) >>> 1;
+            if (values[middle] < value)
+            {
+                low = middle + 1;
+            }
+            else
+            {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private ParallelSort()
+    {
+    }
+}
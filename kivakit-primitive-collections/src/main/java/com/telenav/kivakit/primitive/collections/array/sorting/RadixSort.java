@@ -0,0 +1,846 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+
+package com.telenav.kivakit.primitive.collections.array.sorting;
+
+import com.telenav.kivakit.primitive.collections.lexakai.DiagramPrimitiveArray;
+import com.telenav.lexakai.annotations.UmlClassDiagram;
+
+import java.util.Arrays;
+
+/**
+ * In-place least-significant-digit radix sorts of primitive long and int arrays, ordering values as signed numbers.
+ * Each sort makes one pass over the values to count the digits of every value, and then one pass per 8-bit digit to
+ * distribute the values into a scratch array and back. A digit that is the same for every value is skipped, so values
+ * that only use their low bits (such as identifiers) take fewer passes.
+ * <p>
+ * Keys can be sorted together with a parallel array of values with {@link #sort(long[], long[], int, int)}, {@link
+ * #sort(long[], int[], int, int)} and {@link #sort(int[], int[], int, int)}, which is how maps are frozen. Once sorted,
+ * adjacent duplicates can be removed with {@link #deduplicate(long[], int, int)} and {@link #deduplicate(int[], int,
+ * int)}.
+ * <p>
+ * Ranges shorter than {@link #MINIMUM_RADIX_SIZE} are sorted by comparison instead.
+ * <p>
+ * Values that are not held in one array, like the children of a split array or the fields of a packed array, can be
+ * sorted in place through {@link LongValues} or {@link IntValues}. These sorts work from the most significant digit
+ * down, moving each value into its bucket by swapping (an American flag sort), until a bucket is small enough to be
+ * copied into a buffer and sorted there, so they allocate no more than {@link #BUFFERED_SORT_SIZE} values twice over,
+ * however many values are sorted.
+ *
+ * @author agent
+ * @see ParallelSort
+ */
+@SuppressWarnings("DuplicatedCode")
+@UmlClassDiagram(diagram = DiagramPrimitiveArray.class)
+public final class RadixSort
+{
+    /**
+     * Indexed int values that can be sorted in place with {@link #sort(IntValues, int, int)}
+     */
+    public interface IntValues
+    {
+        int get(int index);
+
+        void set(int index, int value);
+    }
+
+    /**
+     * Indexed long values that can be sorted in place with {@link #sort(LongValues, int, int)}
+     */
+    public interface LongValues
+    {
+        long get(int index);
+
+        void set(int index, long value);
+    }
+
+    /** Indexed values in ranges no longer than this are copied into a buffer and sorted there */
+    public static final int BUFFERED_SORT_SIZE = 1 << 16;
+
+    /** Ranges shorter than this are sorted by comparison, since counting digits would cost more than it saves */
+    public static final int MINIMUM_RADIX_SIZE = 256;
+
+    /** The number of bits in each digit */
+    private static final int DIGIT_BITS = 8;
+
+    /** The number of distinct digits */
+    private static final int BUCKETS = 1 << DIGIT_BITS;
+
+    /** Mask for a digit */
+    private static final int DIGIT_MASK = BUCKETS - 1;
+
+    /** Flips the sign bit of the most significant digit, so negative values are ordered before positive ones */
+    private static final int SIGN_FLIP = BUCKETS >>> 1;
+
+    /**
+     * Removes adjacent duplicates from the given sorted range of values, moving the remaining values down
+     *
+     * @return The end of the range of distinct values, which is never greater than the end of the given range
+     */
+    public static int deduplicate(int[] values, int from, int to)
+    {
+        if (to - from < 2)
+        {
+            return to;
+        }
+
+        var end = from + 1;
+        for (var at = from + 1; at < to; at++)
+        {
+            if (values[at] != values[end - 1])
+            {
+                values[end++] = values[at];
+            }
+        }
+        return end;
+    }
+
+    /**
+     * Removes adjacent duplicates from the given sorted range of values, moving the remaining values down
+     *
+     * @return The end of the range of distinct values, which is never greater than the end of the given range
+     */
+    public static int deduplicate(long[] values, int from, int to)
+    {
+        if (to - from < 2)
+        {
+            return to;
+        }
+
+        var end = from + 1;
+        for (var at = from + 1; at < to; at++)
+        {
+            if (values[at] != values[end - 1])
+            {
+                values[end++] = values[at];
+            }
+        }
+        return end;
+    }
+
+    /**
+     * Sorts the given values
+     */
+    public static void sort(long[] values)
+    {
+        sort(values, 0, values.length);
+    }
+
+    /**
+     * Sorts the given values
+     */
+    public static void sort(int[] values)
+    {
+        sort(values, 0, values.length);
+    }
+
+    /**
+     * Sorts the given range of values
+     */
+    public static void sort(long[] values, int from, int to)
+    {
+        if (to - from < MINIMUM_RADIX_SIZE)
+        {
+            Arrays.sort(values, from, to);
+        }
+        else
+        {
+            sort(values, from, to, new long[to - from], 0);
+        }
+    }
+
+    /**
+     * Sorts the given range of values
+     */
+    public static void sort(int[] values, int from, int to)
+    {
+        if (to - from < MINIMUM_RADIX_SIZE)
+        {
+            Arrays.sort(values, from, to);
+        }
+        else
+        {
+            sort(values, from, to, new int[to - from], 0);
+        }
+    }
+
+    /**
+     * Sorts the given range of indexed values in place
+     */
+    public static void sort(LongValues values, int from, int to)
+    {
+        if (to - from > 1)
+        {
+            var size = Math.min(to - from, BUFFERED_SORT_SIZE);
+            sort(values, from, to, new long[size], new long[size]);
+        }
+    }
+
+    /**
+     * Sorts the given range of indexed values in place
+     */
+    public static void sort(IntValues values, int from, int to)
+    {
+        if (to - from > 1)
+        {
+            var size = Math.min(to - from, BUFFERED_SORT_SIZE);
+            sort(values, from, to, new int[size], new int[size]);
+        }
+    }
+
+    /**
+     * Sorts the given range of keys, moving the value at the same index as each key along with it
+     */
+    public static void sort(long[] keys, long[] values, int from, int to)
+    {
+        var size = to - from;
+        if (size < MINIMUM_RADIX_SIZE)
+        {
+            insertionSort(keys, values, from, to);
+            return;
+        }
+
+        var counts = histogram(keys, from, to);
+        var keyScratch = new long[size];
+        var valueScratch = new long[size];
+
+        // For each digit from the least to the most significant,
+        long[] sourceKeys = keys, targetKeys = keyScratch;
+        long[] sourceValues = values, targetValues = valueScratch;
+        int sourceOffset = from, targetOffset = 0;
+        for (var digit = 0; digit < Long.BYTES; digit++)
+        {
+            // skip the digit if every key has the same value for it,
+            var count = counts[digit];
+            if (isTrivial(count, size))
+            {
+                continue;
+            }
+
+            // otherwise, distribute the keys and values by the digit,
+            var shift = digit * DIGIT_BITS;
+            var flip = digit == Long.BYTES - 1 ? SIGN_FLIP : 0;
+            offsets(count, targetOffset);
+            for (var at = sourceOffset; at < sourceOffset + size; at++)
+            {
+                var key = sourceKeys[at];
+                var index = count[(int) ((key >>> shift) & DIGIT_MASK) ^ flip]++;
+                targetKeys[index] = key;
+                targetValues[index] = sourceValues[at];
+            }
+
+            // and swap source and target.
+            var keySwap = sourceKeys;
+            sourceKeys = targetKeys;
+            targetKeys = keySwap;
+            var valueSwap = sourceValues;
+            sourceValues = targetValues;
+            targetValues = valueSwap;
+            var offsetSwap = sourceOffset;
+            sourceOffset = targetOffset;
+            targetOffset = offsetSwap;
+        }
+
+        // If the sorted values ended up in the scratch arrays, copy them back.
+        if (sourceKeys != keys)
+        {
+            System.arraycopy(sourceKeys, sourceOffset, keys, from, size);
+            System.arraycopy(sourceValues, sourceOffset, values, from, size);
+        }
+    }
+
+    /**
+     * Sorts the given range of keys, moving the value at the same index as each key along with it
+     */
+    public static void sort(long[] keys, int[] values, int from, int to)
+    {
+        var size = to - from;
+        if (size < MINIMUM_RADIX_SIZE)
+        {
+            insertionSort(keys, values, from, to);
+            return;
+        }
+
+        var counts = histogram(keys, from, to);
+        var keyScratch = new long[size];
+        var valueScratch = new int[size];
+
+        // For each digit from the least to the most significant,
+        long[] sourceKeys = keys, targetKeys = keyScratch;
+        int[] sourceValues = values, targetValues = valueScratch;
+        int sourceOffset = from, targetOffset = 0;
+        for (var digit = 0; digit < Long.BYTES; digit++)
+        {
+            // skip the digit if every key has the same value for it,
+            var count = counts[digit];
+            if (isTrivial(count, size))
+            {
+                continue;
+            }
+
+            // otherwise, distribute the keys and values by the digit,
+            var shift = digit * DIGIT_BITS;
+            var flip = digit == Long.BYTES - 1 ? SIGN_FLIP : 0;
+            offsets(count, targetOffset);
+            for (var at = sourceOffset; at < sourceOffset + size; at++)
+            {
+                var key = sourceKeys[at];
+                var index = count[(int) ((key >>> shift) & DIGIT_MASK) ^ flip]++;
+                targetKeys[index] = key;
+                targetValues[index] = sourceValues[at];
+            }
+
+            // and swap source and target.
+            var keySwap = sourceKeys;
+            sourceKeys = targetKeys;
+            targetKeys = keySwap;
+            var valueSwap = sourceValues;
+            sourceValues = targetValues;
+            targetValues = valueSwap;
+            var offsetSwap = sourceOffset;
+            sourceOffset = targetOffset;
+            targetOffset = offsetSwap;
+        }
+
+        // If the sorted values ended up in the scratch arrays, copy them back.
+        if (sourceKeys != keys)
+        {
+            System.arraycopy(sourceKeys, sourceOffset, keys, from, size);
+            System.arraycopy(sourceValues, sourceOffset, values, from, size);
+        }
+    }
+
+    /**
+     * Sorts the given range of keys, moving the value at the same index as each key along with it
+     */
+    public static void sort(int[] keys, int[] values, int from, int to)
+    {
+        var size = to - from;
+        if (size < MINIMUM_RADIX_SIZE)
+        {
+            insertionSort(keys, values, from, to);
+            return;
+        }
+
+        var counts = histogram(keys, from, to);
+        var keyScratch = new int[size];
+        var valueScratch = new int[size];
+
+        // For each digit from the least to the most significant,
+        int[] sourceKeys = keys, targetKeys = keyScratch;
+        int[] sourceValues = values, targetValues = valueScratch;
+        int sourceOffset = from, targetOffset = 0;
+        for (var digit = 0; digit < Integer.BYTES; digit++)
+        {
+            // skip the digit if every key has the same value for it,
+            var count = counts[digit];
+            if (isTrivial(count, size))
+            {
+                continue;
+            }
+
+            // otherwise, distribute the keys and values by the digit,
+            var shift = digit * DIGIT_BITS;
+            var flip = digit == Integer.BYTES - 1 ? SIGN_FLIP : 0;
+            offsets(count, targetOffset);
+            for (var at = sourceOffset; at < sourceOffset + size; at++)
+            {
+                var key = sourceKeys[at];
+                var index = count[((key >>> shift) & DIGIT_MASK) ^ flip]++;
+                targetKeys[index] = key;
+                targetValues[index] = sourceValues[at];
+            }
+
+            // and swap source and target.
+            var keySwap = sourceKeys;
+            sourceKeys = targetKeys;
+            targetKeys = keySwap;
+            var valueSwap = sourceValues;
+            sourceValues = targetValues;
+            targetValues = valueSwap;
+            var offsetSwap = sourceOffset;
+            sourceOffset = targetOffset;
+            targetOffset = offsetSwap;
+        }
+
+        // If the sorted values ended up in the scratch arrays, copy them back.
+        if (sourceKeys != keys)
+        {
+            System.arraycopy(sourceKeys, sourceOffset, keys, from, size);
+            System.arraycopy(sourceValues, sourceOffset, values, from, size);
+        }
+    }
+
+    /**
+     * Moves each of the given range of indexed values into the bucket for the most significant digit that is not the
+     * same for every value, so that every value in a bucket is less than every value in the buckets after it
+     *
+     * @return The start of each bucket followed by the end of the last one, or null if the range is now sorted
+     */
+    static int[] partition(LongValues values, int from, int to)
+    {
+        // Find the most significant bit that differs between the smallest and largest values,
+        var smallest = Long.MAX_VALUE;
+        var largest = Long.MIN_VALUE;
+        for (var at = from; at < to; at++)
+        {
+            var value = values.get(at);
+            smallest = Math.min(smallest, value);
+            largest = Math.max(largest, value);
+        }
+        if (smallest == largest)
+        {
+            return null;
+        }
+        var shift = Math.max(0, Long.SIZE - Long.numberOfLeadingZeros(smallest ^ largest) - DIGIT_BITS);
+
+        // count the values with each digit that ends at that bit,
+        var bounds = new int[BUCKETS + 1];
+        for (var at = from; at < to; at++)
+        {
+            bounds[digit(values.get(at), shift) + 1]++;
+        }
+        bounds[0] = from;
+        for (var bucket = 0; bucket < BUCKETS; bucket++)
+        {
+            bounds[bucket + 1] += bounds[bucket];
+        }
+
+        // and swap each value into the next free slot of its bucket until every bucket is full.
+        var next = Arrays.copyOf(bounds, BUCKETS);
+        for (var bucket = 0; bucket < BUCKETS; bucket++)
+        {
+            while (next[bucket] < bounds[bucket + 1])
+            {
+                var value = values.get(next[bucket]);
+                var digit = digit(value, shift);
+                while (digit != bucket)
+                {
+                    var at = next[digit]++;
+                    var displaced = values.get(at);
+                    values.set(at, value);
+                    value = displaced;
+                    digit = digit(value, shift);
+                }
+                values.set(next[bucket]++, value);
+            }
+        }
+        return shift == 0 ? null : bounds;
+    }
+
+    /**
+     * Moves each of the given range of indexed values into the bucket for the most significant digit that is not the
+     * same for every value, so that every value in a bucket is less than every value in the buckets after it
+     *
+     * @return The start of each bucket followed by the end of the last one, or null if the range is now sorted
+     */
+    static int[] partition(IntValues values, int from, int to)
+    {
+        // Find the most significant bit that differs between the smallest and largest values,
+        var smallest = Integer.MAX_VALUE;
+        var largest = Integer.MIN_VALUE;
+        for (var at = from; at < to; at++)
+        {
+            var value = values.get(at);
+            smallest = Math.min(smallest, value);
+            largest = Math.max(largest, value);
+        }
+        if (smallest == largest)
+        {
+            return null;
+        }
+        var shift = Math.max(0, Integer.SIZE - Integer.numberOfLeadingZeros(smallest ^ largest) - DIGIT_BITS);
+
+        // count the values with each digit that ends at that bit,
+        var bounds = new int[BUCKETS + 1];
+        for (var at = from; at < to; at++)
+        {
+            bounds[digit(values.get(at), shift) + 1]++;
+        }
+        bounds[0] = from;
+        for (var bucket = 0; bucket < BUCKETS; bucket++)
+        {
+            bounds[bucket + 1] += bounds[bucket];
+        }
+
+        // and swap each value into the next free slot of its bucket until every bucket is full.
+        var next = Arrays.copyOf(bounds, BUCKETS);
+        for (var bucket = 0; bucket < BUCKETS; bucket++)
+        {
+            while (next[bucket] < bounds[bucket + 1])
+            {
+                var value = values.get(next[bucket]);
+                var digit = digit(value, shift);
+                while (digit != bucket)
+                {
+                    var at = next[digit]++;
+                    var displaced = values.get(at);
+                    values.set(at, value);
+                    value = displaced;
+                    digit = digit(value, shift);
+                }
+                values.set(next[bucket]++, value);
+            }
+        }
+        return shift == 0 ? null : bounds;
+    }
+
+    /**
+     * Sorts the given range of indexed values in place, using the given buffer and scratch array, which must be the
+     * same size
+     */
+    static void sort(LongValues values, int from, int to, long[] buffer, long[] scratch)
+    {
+        // If the range fits in the buffer,
+        var size = to - from;
+        if (size <= buffer.length)
+        {
+            // copy it there, sort it and copy it back,
+            for (var index = 0; index < size; index++)
+            {
+                buffer[index] = values.get(from + index);
+            }
+            sort(buffer, 0, size, scratch, 0);
+            for (var index = 0; index < size; index++)
+            {
+                values.set(from + index, buffer[index]);
+            }
+        }
+        else
+        {
+            // otherwise, move the values into buckets by their most significant digit
+            var bounds = partition(values, from, to);
+            if (bounds != null)
+            {
+                // and sort each bucket.
+                for (var bucket = 0; bucket < BUCKETS; bucket++)
+                {
+                    if (bounds[bucket + 1] - bounds[bucket] > 1)
+                    {
+                        sort(values, bounds[bucket], bounds[bucket + 1], buffer, scratch);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Sorts the given range of indexed values in place, using the given buffer and scratch array, which must be the
+     * same size
+     */
+    static void sort(IntValues values, int from, int to, int[] buffer, int[] scratch)
+    {
+        // If the range fits in the buffer,
+        var size = to - from;
+        if (size <= buffer.length)
+        {
+            // copy it there, sort it and copy it back,
+            for (var index = 0; index < size; index++)
+            {
+                buffer[index] = values.get(from + index);
+            }
+            sort(buffer, 0, size, scratch, 0);
+            for (var index = 0; index < size; index++)
+            {
+                values.set(from + index, buffer[index]);
+            }
+        }
+        else
+        {
+            // otherwise, move the values into buckets by their most significant digit
+            var bounds = partition(values, from, to);
+            if (bounds != null)
+            {
+                // and sort each bucket.
+                for (var bucket = 0; bucket < BUCKETS; bucket++)
+                {
+                    if (bounds[bucket + 1] - bounds[bucket] > 1)
+                    {
+                        sort(values, bounds[bucket], bounds[bucket + 1], buffer, scratch);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Sorts the given range of values using the given scratch array, which must hold at least to - from values
+     * starting at the given scratch offset
+     */
+    static void sort(long[] values, int from, int to, long[] scratch, int scratchOffset)
+    {
+        var size = to - from;
+        assert scratchOffset + size <= scratch.length;
+
+        if (size < MINIMUM_RADIX_SIZE)
+        {
+            Arrays.sort(values, from, to);
+            return;
+        }
+
+        var counts = histogram(values, from, to);
+
+        // For each digit from the least to the most significant,
+        long[] source = values, target = scratch;
+        int sourceOffset = from, targetOffset = scratchOffset;
+        for (var digit = 0; digit < Long.BYTES; digit++)
+        {
+            // skip the digit if every value has the same value for it,
+            var count = counts[digit];
+            if (isTrivial(count, size))
+            {
+                continue;
+            }
+
+            // otherwise, distribute the values by the digit,
+            var shift = digit * DIGIT_BITS;
+            var flip = digit == Long.BYTES - 1 ? SIGN_FLIP : 0;
+            offsets(count, targetOffset);
+            for (var at = sourceOffset; at < sourceOffset + size; at++)
+            {
+                var value = source[at];
+                target[count[(int) ((value >>> shift) & DIGIT_MASK) ^ flip]++] = value;
+            }
+
+            // and swap source and target.
+            var swap = source;
+            source = target;
+            target = swap;
+            var offsetSwap = sourceOffset;
+            sourceOffset = targetOffset;
+            targetOffset = offsetSwap;
+        }
+
+        // If the sorted values ended up in the scratch array, copy them back.
+        if (source != values)
+        {
+            System.arraycopy(source, sourceOffset, values, from, size);
+        }
+    }
+
+    /**
+     * Sorts the given range of values using the given scratch array, which must hold at least to - from values
+     * starting at the given scratch offset
+     */
+    static void sort(int[] values, int from, int to, int[] scratch, int scratchOffset)
+    {
+        var size = to - from;
+        assert scratchOffset + size <= scratch.length;
+
+        if (size < MINIMUM_RADIX_SIZE)
+        {
+            Arrays.sort(values, from, to);
+            return;
+        }
+
+        var counts = histogram(values, from, to);
+
+        // For each digit from the least to the most significant,
+        int[] source = values, target = scratch;
+        int sourceOffset = from, targetOffset = scratchOffset;
+        for (var digit = 0; digit < Integer.BYTES; digit++)
+        {
+            // skip the digit if every value has the same value for it,
+            var count = counts[digit];
+            if (isTrivial(count, size))
+            {
+                continue;
+            }
+
+            // otherwise, distribute the values by the digit,
+            var shift = digit * DIGIT_BITS;
+            var flip = digit == Integer.BYTES - 1 ? SIGN_FLIP : 0;
+            offsets(count, targetOffset);
+            for (var at = sourceOffset; at < sourceOffset + size; at++)
+            {
+                var value = source[at];
+                target[count[((value >>> shift) & DIGIT_MASK) ^ flip]++] = value;
+            }
+
+            // and swap source and target.
+            var swap = source;
+            source = target;
+            target = swap;
+            var offsetSwap = sourceOffset;
+            sourceOffset = targetOffset;
+            targetOffset = offsetSwap;
+        }
+
+        // If the sorted values ended up in the scratch array, copy them back.
+        if (source != values)
+        {
+            System.arraycopy(source, sourceOffset, values, from, size);
+        }
+    }
+
+    /**
+     * @return The number of values with each digit, for every digit of the given values
+     */
+    private static int[][] histogram(long[] values, int from, int to)
+    {
+        var counts = new int[Long.BYTES][BUCKETS];
+        for (var at = from; at < to; at++)
+        {
+            var value = values[at];
+            for (var digit = 0; digit < Long.BYTES; digit++)
+            {
+                counts[digit][(int) ((value >>> (digit * DIGIT_BITS)) & DIGIT_MASK)]++;
+            }
+        }
+        flipSign(counts[Long.BYTES - 1]);
+        return counts;
+    }
+
+    /**
+     * @return The number of values with each digit, for every digit of the given values
+     */
+    private static int[][] histogram(int[] values, int from, int to)
+    {
+        var counts = new int[Integer.BYTES][BUCKETS];
+        for (var at = from; at < to; at++)
+        {
+            var value = values[at];
+            for (var digit = 0; digit < Integer.BYTES; digit++)
+            {
+                counts[digit][(value >>> (digit * DIGIT_BITS)) & DIGIT_MASK]++;
+            }
+        }
+        flipSign(counts[Integer.BYTES - 1]);
+        return counts;
+    }
+
+    /**
+     * @return The digit of the given value that starts at the given bit, with the sign bit flipped so that negative
+     * values are ordered first
+     */
+    private static int digit(long value, int shift)
+    {
+        return (int) (((value ^ Long.MIN_VALUE) >>> shift) & DIGIT_MASK);
+    }
+
+    /**
+     * @return The digit of the given value that starts at the given bit, with the sign bit flipped so that negative
+     * values are ordered first
+     */
+    private static int digit(int value, int shift)
+    {
+        return ((value ^ Integer.MIN_VALUE) >>> shift) & DIGIT_MASK;
+    }
+
+    /**
+     * Swaps the lower and upper halves of the counts for the most significant digit, so that digits with the sign bit
+     * set come first
+     */
+    private static void flipSign(int[] counts)
+    {
+        for (var bucket = 0; bucket < SIGN_FLIP; bucket++)
+        {
+            var swap = counts[bucket];
+            counts[bucket] = counts[bucket + SIGN_FLIP];
+            counts[bucket + SIGN_FLIP] = swap;
+        }
+    }
+
+    private static void insertionSort(long[] keys, long[] values, int from, int to)
+    {
+        for (var at = from + 1; at < to; at++)
+        {
+            var key = keys[at];
+            var value = values[at];
+            var before = at - 1;
+            while (before >= from && keys[before] > key)
+            {
+                keys[before + 1] = keys[before];
+                values[before + 1] = values[before];
+                before--;
+            }
+            keys[before + 1] = key;
+            values[before + 1] = value;
+        }
+    }
+
+    private static void insertionSort(long[] keys, int[] values, int from, int to)
+    {
+        for (var at = from + 1; at < to; at++)
+        {
+            var key = keys[at];
+            var value = values[at];
+            var before = at - 1;
+            while (before >= from && keys[before] > key)
+            {
+                keys[before + 1] = keys[before];
+                values[before + 1] = values[before];
+                before--;
+            }
+            keys[before + 1] = key;
+            values[before + 1] = value;
+        }
+    }
+
+    private static void insertionSort(int[] keys, int[] values, int from, int to)
+    {
+        for (var at = from + 1; at < to; at++)
+        {
+            var key = keys[at];
+            var value = values[at];
+            var before = at - 1;
+            while (before >= from && keys[before] > key)
+            {
+                keys[before + 1] = keys[before];
+                values[before + 1] = values[before];
+                before--;
+            }
+            keys[before + 1] = key;
+            values[before + 1] = value;
+        }
+    }
+
+    /**
+     * @return True if every one of the given number of values falls in the same bucket
+     */
+    private static boolean isTrivial(int[] counts, int size)
+    {
+        for (var count : counts)
+        {
+            if (count != 0)
+            {
+                return count == size;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Turns the given counts into the offset of the first value with each digit
+     */
+    private static void offsets(int[] counts, int base)
+    {
+        var offset = base;
+        for (var bucket = 0; bucket < BUCKETS; bucket++)
+        {
+            var count = counts[bucket];
+            counts[bucket] = offset;
+            offset += count;
+        }
+    }
+
+    private RadixSort()
+    {
+    }
+}
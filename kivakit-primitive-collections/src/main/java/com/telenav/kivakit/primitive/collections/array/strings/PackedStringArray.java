@@ -38,6 +38,11 @@ import com.telenav.kivakit.primitive.collections.array.scalars.SplitCharArray;
 import com.telenav.kivakit.primitive.collections.lexakai.DiagramPrimitiveArray;
 import com.telenav.lexakai.annotations.UmlClassDiagram;
 
+import java.util.Objects;
+
+import static com.telenav.kivakit.core.ensure.Ensure.ensure;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
 /**
  * A store of strings that can be added to that is packed according to information content, using 8 or 16 bit storage
  * for ASCII and Unicode characters, respectively. Strings are added with {@link #add(String)}, which returns an
@@ -46,6 +51,24 @@ import com.telenav.lexakai.annotations.UmlClassDiagram;
  * In addition to reducing space by storing ASCII strings as bytes, this store performs string pooling. Adding a string
  * that has been added in the past N (65,536 by default) additions will return the identifier of the previously added
  * string instead of adding a new string.
+ * <p>
+ * <b>UTF-8 Storage</b>
+ * <p>
+ * If {@link #utf8(boolean)} is enabled before the array is initialized, all strings are instead encoded as UTF-8 in a
+ * single arena of bytes, each preceded by a small header giving its length. Strings are then pooled through an
+ * open-addressed hash index of arena offsets, so every distinct string is stored exactly once, no matter how many
+ * strings are added. The index is kept when the array is compressed with {@link Method#RESIZE}, so strings can continue
+ * to be added, and it is rebuilt from the arena if a string is added after the array is frozen or deserialized.
+ * <p>
+ * In this mode, strings can also be accessed without copying them into a new {@link String}:
+ * <ul>
+ *     <li>{@link #charSequence(int)} - A {@link CharSequence} view of the string, decoded on access</li>
+ *     <li>{@link #compareTo(int, String)} - Compares the string with the given string</li>
+ *     <li>{@link #equals(int, String)} - Determines if the string is equal to the given string</li>
+ *     <li>{@link #copy(int, byte[], int)} - Copies the UTF-8 bytes of the string into a byte array</li>
+ *     <li>{@link #utf8Length(int)} - The number of UTF-8 bytes in the string</li>
+ * </ul>
+ * These methods also work for arrays that are not in UTF-8 mode, but they materialize the string to do so.
  *
  * @author jonathanl (shibo)
  */
@@ -60,6 +83,12 @@ public class PackedStringArray extends PrimitiveArray
 
     private static final int TYPE_SHIFT = 32 - 1 - BitCount.bitCount(Type.UNICODE.ordinal()).asInt();
 
+    /** The initial number of slots in the UTF-8 string index */
+    private static final int INITIAL_INDEX_SLOTS = 1024;
+
+    /** The maximum number of slots in the UTF-8 string index */
+    private static final int MAXIMUM_INDEX_SLOTS = 1 << 30;
+
     private enum Type
     {
         ASCII,
@@ -101,6 +130,31 @@ public class PackedStringArray extends PrimitiveArray
      */
     private int characterIndex = 1;
 
+    /**
+     * True if strings are stored as UTF-8 in the utf8Characters arena
+     */
+    private boolean utf8;
+
+    /**
+     * All strings in this string array encoded as UTF-8 and laid out end-to-end, each preceded by a header
+     */
+    private SplitByteArray utf8Characters;
+
+    /**
+     * Insert index to the utf8Characters array
+     */
+    private int utf8CharacterIndex = 1;
+
+    /**
+     * Open-addressed hash index of the identifiers of the strings in the UTF-8 arena, where zero marks an empty slot
+     */
+    private transient int[] utf8Identifiers;
+
+    /**
+     * The hash of the string in each slot of the UTF-8 index
+     */
+    private transient int[] utf8Hashes;
+
     /**
      * The size of this array
      */
@@ -142,6 +196,12 @@ public class PackedStringArray extends PrimitiveArray
         }
         string = AsciiArt.clip(string, maximumStringLength);
 
+        // If strings are stored as UTF-8, the index pools all strings
+        if (utf8)
+        {
+            return addUtf8(string);
+        }
+
         // Look in pool for an already-stored index
         var pooledIndex = pool.get(string);
         if (pooledIndex != null)
@@ -180,6 +240,70 @@ public class PackedStringArray extends PrimitiveArray
         return index;
     }
 
+    /**
+     * @return A view of the string for the given identifier (returned by add). If this array stores UTF-8, the view
+     * decodes characters from the arena as they are accessed, without copying the string.
+     */
+    public CharSequence charSequence(int identifier)
+    {
+        if (utf8)
+        {
+            return new Utf8CharSequence(utf8Start(identifier), utf8Length(identifier), utf8CharacterCount(identifier));
+        }
+        return get(identifier);
+    }
+
+    /**
+     * @return The lexicographic comparison of the string for the given identifier (returned by add) with the given
+     * string, as defined by {@link String#compareTo(String)}
+     */
+    public int compareTo(int identifier, String that)
+    {
+        return CharSequence.compare(charSequence(identifier), that);
+    }
+
+    /**
+     * Copies the UTF-8 bytes of the string for the given identifier (returned by add) into the given array
+     *
+     * @param identifier The string identifier
+     * @param destination The array to copy into, which must have room for {@link #utf8Length(int)} bytes
+     * @param offset The offset in the destination array to copy to
+     * @return The number of bytes copied
+     */
+    public int copy(int identifier, byte[] destination, int offset)
+    {
+        // If this array doesn't store UTF-8,
+        if (!utf8)
+        {
+            // encode the string and copy it.
+            var bytes = get(identifier).getBytes(UTF_8);
+            ensure(offset + bytes.length <= destination.length, "Cannot copy $ bytes to offset $ of a $ byte array",
+                    bytes.length, offset, destination.length);
+            System.arraycopy(bytes, 0, destination, offset, bytes.length);
+            return bytes.length;
+        }
+
+        // Copy the bytes directly from the arena.
+        var length = utf8Length(identifier);
+        ensure(offset + length <= destination.length, "Cannot copy $ bytes to offset $ of a $ byte array",
+                length, offset, destination.length);
+        var start = utf8Start(identifier);
+        for (var i = 0; i < length; i++)
+        {
+            destination[offset + i] = utf8Characters.get(start + i);
+        }
+        return length;
+    }
+
+    /**
+     * @return True if the string for the given identifier (returned by add) is equal to the given string
+     */
+    public boolean equals(int identifier, String that)
+    {
+        var sequence = charSequence(identifier);
+        return sequence.length() == that.length() && CharSequence.compare(sequence, that) == 0;
+    }
+
     /**
      * @return The string for the given identifier (returned by add)
      */
@@ -203,8 +327,21 @@ public class PackedStringArray extends PrimitiveArray
     {
         pool = null;
 
-        asciiCharacters.compress(method);
-        unicodeCharacters.compress(method);
+        if (utf8)
+        {
+            // Keep the index unless the array is frozen, so strings can still be pooled as they are added
+            if (method == CompressibleCollection.Method.FREEZE)
+            {
+                utf8Identifiers = null;
+                utf8Hashes = null;
+            }
+            utf8Characters.compress(method);
+        }
+        else
+        {
+            asciiCharacters.compress(method);
+            unicodeCharacters.compress(method);
+        }
 
         return CompressibleCollection.Method.RESIZE;
     }
@@ -213,20 +350,41 @@ public class PackedStringArray extends PrimitiveArray
     public void onInitialize()
     {
         super.onInitialize();
-        asciiCharacters = new SplitByteArray(objectName() + ".ascii");
-        asciiCharacters.initialSize(Estimate._65536).initialize();
 
-        unicodeCharacters = new SplitCharArray(objectName() + ".unicode");
-        unicodeCharacters.initialSize(1024).initialize();
+        if (utf8)
+        {
+            utf8Characters = new SplitByteArray(objectName() + ".utf8");
+            utf8Characters.initialSize(Estimate._65536).initialize();
+
+            utf8Identifiers = new int[INITIAL_INDEX_SLOTS];
+            utf8Hashes = new int[INITIAL_INDEX_SLOTS];
+        }
+        else
+        {
+            asciiCharacters = new SplitByteArray(objectName() + ".ascii");
+            asciiCharacters.initialSize(Estimate._65536).initialize();
+
+            unicodeCharacters = new SplitCharArray(objectName() + ".unicode");
+            unicodeCharacters.initialSize(1024).initialize();
+        }
     }
 
     @Override
     public void read(Kryo kryo, Input input)
     {
         super.read(kryo, input);
-        asciiCharacters = kryo.readObject(input, SplitByteArray.class);
-        unicodeCharacters = kryo.readObject(input, SplitCharArray.class);
         size = kryo.readObject(input, int.class);
+        utf8 = kryo.readObject(input, boolean.class);
+        if (utf8)
+        {
+            utf8Characters = kryo.readObject(input, SplitByteArray.class);
+            utf8CharacterIndex = kryo.readObject(input, int.class);
+        }
+        else
+        {
+            asciiCharacters = kryo.readObject(input, SplitByteArray.class);
+            unicodeCharacters = kryo.readObject(input, SplitCharArray.class);
+        }
     }
 
     /**
@@ -234,6 +392,17 @@ public class PackedStringArray extends PrimitiveArray
      */
     public String safeGet(int identifier)
     {
+        if (utf8)
+        {
+            if (identifier <= 0 || identifier >= utf8CharacterIndex)
+            {
+                return null;
+            }
+            var bytes = new byte[utf8Length(identifier)];
+            copy(identifier, bytes, 0);
+            return new String(bytes, UTF_8);
+        }
+
         var type = type(identifier);
         var start = index(identifier);
         switch (type)
@@ -255,13 +424,270 @@ public class PackedStringArray extends PrimitiveArray
         return size;
     }
 
+    /**
+     * Stores strings in this array as UTF-8 in a single arena, pooling all strings through a hash index. This must be
+     * called before the array is initialized.
+     */
+    public void utf8(boolean utf8)
+    {
+        ensure(!isInitialized(), "Storage must be selected before $ is initialized", objectName());
+        this.utf8 = utf8;
+    }
+
+    /**
+     * @return The number of bytes in the UTF-8 encoding of the string for the given identifier (returned by add)
+     */
+    public int utf8Length(int identifier)
+    {
+        if (utf8)
+        {
+            return utf8Header(identifier) >>> 1;
+        }
+        return get(identifier).getBytes(UTF_8).length;
+    }
+
     @Override
     public void write(Kryo kryo, Output output)
     {
         super.write(kryo, output);
-        kryo.writeObject(output, asciiCharacters);
-        kryo.writeObject(output, unicodeCharacters);
         kryo.writeObject(output, size);
+        kryo.writeObject(output, utf8);
+        if (utf8)
+        {
+            kryo.writeObject(output, utf8Characters);
+            kryo.writeObject(output, utf8CharacterIndex);
+        }
+        else
+        {
+            kryo.writeObject(output, asciiCharacters);
+            kryo.writeObject(output, unicodeCharacters);
+        }
+    }
+
+    /**
+     * A view of a UTF-8 string in the arena. Characters are decoded as they are accessed, and the position of the last
+     * character decoded is remembered, so that sequential access to a string that is not ASCII takes linear time.
+     */
+    private class Utf8CharSequence implements CharSequence
+    {
+        /** The arena offset of the first byte of the string */
+        private final int start;
+
+        /** The number of UTF-8 bytes in the string */
+        private final int bytes;
+
+        /** The number of characters in the string */
+        private final int length;
+
+        /** The index of the character at the byte cursor */
+        private int characterCursor;
+
+        /** The arena offset of the code point containing the character at the character cursor */
+        private int byteCursor;
+
+        Utf8CharSequence(int start, int bytes, int length)
+        {
+            this.start = start;
+            this.bytes = bytes;
+            this.length = length;
+            byteCursor = start;
+        }
+
+        @Override
+        public char charAt(int index)
+        {
+            Objects.checkIndex(index, length);
+
+            // If the string is ASCII, each byte is a character,
+            if (bytes == length)
+            {
+                return (char) utf8Characters.get(start + index);
+            }
+
+            // otherwise, if the character is before the cursor, go back to the start of the string,
+            if (index < characterCursor)
+            {
+                characterCursor = 0;
+                byteCursor = start;
+            }
+
+            // then decode code points until we reach the one containing the character.
+            while (true)
+            {
+                var lead = utf8Characters.get(byteCursor);
+                var codePoint = codePoint(byteCursor, lead);
+                var characters = Character.charCount(codePoint);
+                if (index < characterCursor + characters)
+                {
+                    if (characters == 1)
+                    {
+                        return (char) codePoint;
+                    }
+                    return index == characterCursor
+                            ? Character.highSurrogate(codePoint)
+                            : Character.lowSurrogate(codePoint);
+                }
+                characterCursor += characters;
+                byteCursor += sequenceLength(lead);
+            }
+        }
+
+        @Override
+        public int length()
+        {
+            return length;
+        }
+
+        @Override
+        public CharSequence subSequence(int start, int end)
+        {
+            Objects.checkFromToIndex(start, end, length);
+
+            // An ASCII sub-sequence is a view of part of this view
+            if (bytes == length)
+            {
+                return new Utf8CharSequence(this.start + start, end - start, end - start);
+            }
+            return toString().substring(start, end);
+        }
+
+        @Override
+        public String toString()
+        {
+            var bytes = new byte[this.bytes];
+            for (var i = 0; i < bytes.length; i++)
+            {
+                bytes[i] = utf8Characters.get(start + i);
+            }
+            return new String(bytes, UTF_8);
+        }
+    }
+
+    /**
+     * Adds the given string to the UTF-8 arena, unless it is already in the index
+     *
+     * @return The identifier of the string
+     */
+    private int addUtf8(String string)
+    {
+        // Rebuild the index if it was discarded,
+        if (utf8Identifiers == null)
+        {
+            reindexUtf8();
+        }
+
+        // then look for the encoded string in the index.
+        var bytes = string.getBytes(UTF_8);
+        var hash = hash(bytes);
+        var mask = utf8Identifiers.length - 1;
+        for (var slot = hash & mask; ; slot = (slot + 1) & mask)
+        {
+            var identifier = utf8Identifiers[slot];
+
+            // If we reach an empty slot, the string isn't in the index,
+            if (identifier == 0)
+            {
+                // so append it to the arena and add it to the index.
+                identifier = appendUtf8(bytes, string.length());
+                utf8Identifiers[slot] = identifier;
+                utf8Hashes[slot] = hash;
+                size++;
+                if (size * 3L >= utf8Identifiers.length * 2L)
+                {
+                    resizeUtf8Index(utf8Identifiers.length * 2);
+                }
+                return identifier;
+            }
+
+            // If the slot has the string, return its identifier.
+            if (utf8Hashes[slot] == hash && utf8Equals(identifier, bytes))
+            {
+                return identifier;
+            }
+        }
+    }
+
+    /**
+     * Appends the given UTF-8 bytes to the arena, preceded by a header, which is a variable length integer holding the
+     * byte length shifted left by one, with the low bit set if the string is not ASCII, in which case it is followed by
+     * a variable length integer holding the number of characters in the string.
+     *
+     * @return The identifier of the string
+     */
+    private int appendUtf8(byte[] bytes, int characters)
+    {
+        ensure(utf8CharacterIndex + bytes.length + 10L <= Integer.MAX_VALUE, "$ is full", objectName());
+
+        var identifier = utf8CharacterIndex;
+        var ascii = bytes.length == characters;
+        writeVarint((bytes.length << 1) | (ascii ? 0 : 1));
+        if (!ascii)
+        {
+            writeVarint(characters);
+        }
+        for (var value : bytes)
+        {
+            utf8Characters.set(utf8CharacterIndex++, value);
+        }
+        return identifier;
+    }
+
+    /**
+     * @return The code point encoded at the given arena offset, which has the given lead byte
+     */
+    private int codePoint(int offset, byte lead)
+    {
+        switch (sequenceLength(lead))
+        {
+            case 1:
+                return lead;
+
+            case 2:
+                return ((lead & 0x1f) << 6) | continuation(offset + 1);
+
+            case 3:
+                return ((lead & 0x0f) << 12) | (continuation(offset + 1) << 6) | continuation(offset + 2);
+
+            default:
+                return ((lead & 0x07) << 18) | (continuation(offset + 1) << 12)
+                        | (continuation(offset + 2) << 6) | continuation(offset + 3);
+        }
+    }
+
+    /**
+     * @return The six payload bits of the UTF-8 continuation byte at the given arena offset
+     */
+    private int continuation(int offset)
+    {
+        return utf8Characters.get(offset) & 0x3f;
+    }
+
+    /**
+     * @return The finalized FNV-1a hash of the given bytes, which must match {@link #hash(int)}
+     */
+    private int hash(byte[] bytes)
+    {
+        var hash = 0x811c9dc5;
+        for (var value : bytes)
+        {
+            hash = (hash ^ (value & 0xff)) * 0x01000193;
+        }
+        return mix(hash);
+    }
+
+    /**
+     * @return The finalized FNV-1a hash of the bytes of the string in the arena with the given identifier
+     */
+    private int hash(int identifier)
+    {
+        var start = utf8Start(identifier);
+        var end = start + utf8Length(identifier);
+        var hash = 0x811c9dc5;
+        for (var offset = start; offset < end; offset++)
+        {
+            hash = (hash ^ (utf8Characters.get(offset) & 0xff)) * 0x01000193;
+        }
+        return mix(hash);
     }
 
     private int index(int index)
@@ -274,6 +700,110 @@ public class PackedStringArray extends PrimitiveArray
         return (type.ordinal() << TYPE_SHIFT) | index;
     }
 
+    /**
+     * Inserts the given identifier into the UTF-8 index, which must not already contain it
+     */
+    private void insertUtf8(int[] identifiers, int[] hashes, int identifier, int hash)
+    {
+        var mask = identifiers.length - 1;
+        var slot = hash & mask;
+        while (identifiers[slot] != 0)
+        {
+            slot = (slot + 1) & mask;
+        }
+        identifiers[slot] = identifier;
+        hashes[slot] = hash;
+    }
+
+    /**
+     * @return The given hash with its bits mixed, so that the low bits used to select a slot depend on all the bytes
+     */
+    private int mix(int hash)
+    {
+        hash ^= hash >>> 16;
+        hash *= 0x85ebca6b;
+        hash ^= hash >>> 13;
+        hash *= 0xc2b2ae35;
+        return hash ^ (hash >>> 16);
+    }
+
+    /**
+     * @return The variable length integer at the given arena offset
+     */
+    private int readVarint(int offset)
+    {
+        var value = 0;
+        for (var shift = 0; ; shift += 7)
+        {
+            var next = utf8Characters.get(offset++);
+            value |= (next & 0x7f) << shift;
+            if ((next & 0x80) == 0)
+            {
+                return value;
+            }
+        }
+    }
+
+    /**
+     * Rebuilds the UTF-8 index by walking the strings in the arena
+     */
+    private void reindexUtf8()
+    {
+        var slots = INITIAL_INDEX_SLOTS;
+        while (size * 3L >= slots * 2L)
+        {
+            slots *= 2;
+        }
+        utf8Identifiers = new int[slots];
+        utf8Hashes = new int[slots];
+
+        for (var identifier = 1; identifier < utf8CharacterIndex; identifier = utf8Start(identifier) + utf8Length(identifier))
+        {
+            insertUtf8(utf8Identifiers, utf8Hashes, identifier, hash(identifier));
+        }
+    }
+
+    /**
+     * Moves the entries in the UTF-8 index to a new index with the given number of slots
+     */
+    private void resizeUtf8Index(int slots)
+    {
+        ensure(slots <= MAXIMUM_INDEX_SLOTS, "$ cannot index more than $ strings", objectName(), MAXIMUM_INDEX_SLOTS / 3 * 2);
+
+        var identifiers = new int[slots];
+        var hashes = new int[slots];
+        for (var slot = 0; slot < utf8Identifiers.length; slot++)
+        {
+            var identifier = utf8Identifiers[slot];
+            if (identifier != 0)
+            {
+                insertUtf8(identifiers, hashes, identifier, utf8Hashes[slot]);
+            }
+        }
+        utf8Identifiers = identifiers;
+        utf8Hashes = hashes;
+    }
+
+    /**
+     * @return The number of bytes in the UTF-8 sequence that starts with the given lead byte
+     */
+    private int sequenceLength(byte lead)
+    {
+        if (lead >= 0)
+        {
+            return 1;
+        }
+        if ((lead & 0xe0) == 0xc0)
+        {
+            return 2;
+        }
+        if ((lead & 0xf0) == 0xe0)
+        {
+            return 3;
+        }
+        return 4;
+    }
+
     private String string(SplitCharArray array, int index)
     {
         var builder = new StringBuilder();
@@ -319,4 +849,85 @@ public class PackedStringArray extends PrimitiveArray
         }
         return Type.UNICODE;
     }
+
+    /**
+     * @return The number of characters in the UTF-8 string with the given identifier
+     */
+    private int utf8CharacterCount(int identifier)
+    {
+        var header = utf8Header(identifier);
+        if ((header & 1) == 0)
+        {
+            return header >>> 1;
+        }
+        return readVarint(identifier + varintLength(header));
+    }
+
+    /**
+     * @return True if the UTF-8 string with the given identifier has the given bytes
+     */
+    private boolean utf8Equals(int identifier, byte[] bytes)
+    {
+        if (utf8Length(identifier) != bytes.length)
+        {
+            return false;
+        }
+        var start = utf8Start(identifier);
+        for (var i = 0; i < bytes.length; i++)
+        {
+            if (utf8Characters.get(start + i) != bytes[i])
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return The first header value of the UTF-8 string with the given identifier
+     */
+    private int utf8Header(int identifier)
+    {
+        return readVarint(identifier);
+    }
+
+    /**
+     * @return The arena offset of the first byte of the UTF-8 string with the given identifier
+     */
+    private int utf8Start(int identifier)
+    {
+        var header = utf8Header(identifier);
+        var start = identifier + varintLength(header);
+        if ((header & 1) != 0)
+        {
+            start += varintLength(readVarint(start));
+        }
+        return start;
+    }
+
+    /**
+     * @return The number of bytes in the variable length encoding of the given value
+     */
+    private int varintLength(int value)
+    {
+        var length = 1;
+        while ((value >>>= 7) != 0)
+        {
+            length++;
+        }
+        return length;
+    }
+
+    /**
+     * Writes the given value to the end of the arena as a variable length integer
+     */
+    private void writeVarint(int value)
+    {
+        while ((value & ~0x7f) != 0)
+        {
+            utf8Characters.set(utf8CharacterIndex++, (byte) ((value & 0x7f) | 0x80));
+            value >>>= 7;
+        }
+        utf8Characters.set(utf8CharacterIndex++, (byte) value);
+    }
 }
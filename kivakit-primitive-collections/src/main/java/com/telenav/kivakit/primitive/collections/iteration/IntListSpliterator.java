@@ -0,0 +1,199 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+
+package com.telenav.kivakit.primitive.collections.iteration;
+
+import com.telenav.kivakit.primitive.collections.lexakai.DiagramPrimitiveCollection;
+import com.telenav.kivakit.primitive.collections.list.IntList;
+import com.telenav.lexakai.annotations.UmlClassDiagram;
+
+import java.util.Spliterator;
+import java.util.function.IntConsumer;
+
+/**
+ * A {@link Spliterator} over a range of indexes in an {@link IntList}. Like the default {@link IntList#iterator()},
+ * null values are skipped. Ranges are split near their middle, but at a multiple of the given granularity when there
+ * is one in the range, so a split array can be divided along the boundaries of its children, and each thread reads
+ * from its own children.
+ *
+ * @author agent
+ */
+@UmlClassDiagram(diagram = DiagramPrimitiveCollection.class)
+public class IntListSpliterator implements Spliterator.OfInt
+{
+    /** Ranges with fewer indexes than this are not split */
+    private static final int MINIMUM_SPLIT_SIZE = 1_024;
+
+    /** The list being iterated */
+    private final IntList list;
+
+    /** Ranges are split at multiples of this value when possible */
+    private final int granularity;
+
+    /** The index of the next value */
+    private int index;
+
+    /** The index just past the last value */
+    private final int end;
+
+    /**
+     * @param list The list to iterate
+     * @param from The first index to iterate
+     * @param to The index just past the last index to iterate
+     * @param granularity Ranges are split at multiples of this value, such as the child size of a split array
+     */
+    public IntListSpliterator(IntList list, int from, int to, int granularity)
+    {
+        assert from >= 0 && from <= to;
+        assert granularity > 0;
+
+        this.list = list;
+        this.index = from;
+        this.end = to;
+        this.granularity = granularity;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int characteristics()
+    {
+        return ORDERED;
+    }
+
+    /**
+     * @return The number of indexes remaining, which is more than the number of values if any of them are null
+     */
+    @Override
+    public long estimateSize()
+    {
+        return end - index;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void forEachRemaining(IntConsumer action)
+    {
+        var list = this.list;
+        for (; index < end; index++)
+        {
+            var value = list.safeGet(index);
+            if (!list.isNull(value))
+            {
+                action.accept(value);
+            }
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean tryAdvance(IntConsumer action)
+    {
+        while (index < end)
+        {
+            var value = list.safeGet(index++);
+            if (!list.isNull(value))
+            {
+                action.accept(value);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public IntListSpliterator trySplit()
+    {
+        // If the range is too small to be worth splitting,
+        var size = end - index;
+        if (size < MINIMUM_SPLIT_SIZE)
+        {
+            // don't split it,
+            return null;
+        }
+
+        // otherwise, find the middle of the range,
+        var middle = index + size / 2;
+
+        // and the multiples of the granularity on either side of it,
+        var below = middle - middle % granularity;
+        var above = below + granularity;
+
+        // then split at the nearest one that is inside the range, or at the middle if neither one is.
+        if (below > index && (middle - below <= above - middle || above >= end))
+        {
+            middle = below;
+        }
+        else if (above < end)
+        {
+            middle = above;
+        }
+        var prefix = newSpliterator(index, middle, granularity);
+        index = middle;
+        return prefix;
+    }
+
+    /**
+     * @return The index just past the last value
+     */
+    protected int end()
+    {
+        return end;
+    }
+
+    /**
+     * @return The index of the next value
+     */
+    protected int index()
+    {
+        return index;
+    }
+
+    /**
+     * Sets the index of the next value
+     */
+    protected void index(int index)
+    {
+        this.index = index;
+    }
+
+    /**
+     * @return The list being iterated
+     */
+    protected IntList list()
+    {
+        return list;
+    }
+
+    /**
+     * @return A spliterator of the same kind as this one over the given range of the list
+     */
+    protected IntListSpliterator newSpliterator(int from, int to, int granularity)
+    {
+        return new IntListSpliterator(list, from, to, granularity);
+    }
+}
@@ -0,0 +1,158 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+
+package com.telenav.kivakit.primitive.collections.iteration;
+
+import com.telenav.kivakit.primitive.collections.lexakai.DiagramPrimitiveCollection;
+import com.telenav.lexakai.annotations.UmlClassDiagram;
+
+import java.util.Spliterator;
+import java.util.function.IntConsumer;
+
+/**
+ * A {@link Spliterator} over the values of the children of a split collection, such as the keys or values of a split
+ * map. The children are divided in half until only one is left, and then the last child's own spliterator is split, so
+ * each thread works through whole children. Values are produced in no particular order.
+ *
+ * @author agent
+ */
+@UmlClassDiagram(diagram = DiagramPrimitiveCollection.class)
+public final class SplitIntSpliterator implements Spliterator.OfInt
+{
+    /** The spliterators of the children, which must not be null */
+    private final Spliterator.OfInt[] children;
+
+    /** The index of the next child to iterate */
+    private int next;
+
+    /** The index just past the last child to iterate */
+    private final int end;
+
+    /** The spliterator of the child being iterated, if any */
+    private Spliterator.OfInt current;
+
+    /**
+     * @param children The spliterators of the children, which must not be null
+     */
+    public SplitIntSpliterator(Spliterator.OfInt[] children)
+    {
+        this(children, 0, children.length);
+    }
+
+    private SplitIntSpliterator(Spliterator.OfInt[] children, int from, int to)
+    {
+        this.children = children;
+        this.next = from;
+        this.end = to;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int characteristics()
+    {
+        return 0;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long estimateSize()
+    {
+        var size = current == null ? 0L : current.estimateSize();
+        for (var index = next; index < end; index++)
+        {
+            size += children[index].estimateSize();
+        }
+        return size;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void forEachRemaining(IntConsumer action)
+    {
+        if (current != null)
+        {
+            current.forEachRemaining(action);
+            current = null;
+        }
+        for (; next < end; next++)
+        {
+            children[next].forEachRemaining(action);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean tryAdvance(IntConsumer action)
+    {
+        while (true)
+        {
+            // If the current child has another value,
+            if (current != null && current.tryAdvance(action))
+            {
+                // we're done,
+                return true;
+            }
+
+            // otherwise, if there are no more children,
+            if (next >= end)
+            {
+                // there are no more values,
+                return false;
+            }
+
+            // otherwise, move on to the next child.
+            current = children[next++];
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Spliterator.OfInt trySplit()
+    {
+        // If there are at least two children left,
+        if (end - next >= 2)
+        {
+            // give away the first half of them,
+            var middle = (next + end) >>> 1;
+            var prefix = new SplitIntSpliterator(children, next, middle);
+            next = middle;
+            return prefix;
+        }
+
+        // otherwise, if there's one child left that we haven't started,
+        if (current == null && next < end)
+        {
+            // start it,
+            current = children[next++];
+        }
+
+        // and split the child we're on.
+        return current == null ? null : current.trySplit();
+    }
+}
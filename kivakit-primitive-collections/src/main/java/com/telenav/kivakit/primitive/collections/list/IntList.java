@@ -20,9 +20,14 @@ package com.telenav.kivakit.primitive.collections.list;
 
 import com.telenav.kivakit.primitive.collections.IntCollection;
 import com.telenav.kivakit.primitive.collections.iteration.IntIterator;
+import com.telenav.kivakit.primitive.collections.iteration.IntListSpliterator;
 import com.telenav.kivakit.primitive.collections.lexakai.DiagramPrimitiveList;
 import com.telenav.lexakai.annotations.UmlClassDiagram;
 
+import java.util.Spliterator;
+import java.util.stream.IntStream;
+import java.util.stream.StreamSupport;
+
 /**
  * A int collection supporting indexed operations. The first and last values in the list can be retrieved with {@link
  * #first()} and {@link #last()}. Values at a given index can be altered and retrieved with {@link #clear(int)}, {@link
@@ -31,7 +36,8 @@ import com.telenav.lexakai.annotations.UmlClassDiagram;
  * If the list is sorted, it can be searched with {@link #binarySearch(int)}, which returns the index of the value if it
  * is found and a value less than zero if it is not.
  * <p>
- * A default iterator implementation is provided by {@link #iterator()}.
+ * A default iterator implementation is provided by {@link #iterator()}, and the values can be streamed, sequentially or
+ * in parallel, with {@link #intStream()}.
  *
  * @author jonathanl (shibo)
  * @see IntCollection
@@ -155,11 +161,28 @@ public interface IntList extends IntCollection, PrimitiveList
         return get(size() - 1);
     }
 
+    /**
+     * @return A stream of the non-null values in this list, in order. The stream can be made parallel with {@link
+     * IntStream#parallel()}, in which case it is divided up by {@link #spliterator()}.
+     */
+    default IntStream intStream()
+    {
+        return StreamSupport.intStream(spliterator(), false);
+    }
+
     /**
      * @return The value at the given index, but if the index is out of range, null is returned.
      */
     int safeGet(int index);
 
+    /**
+     * @return A spliterator over the non-null values in this list, which splits the list into ranges of indexes
+     */
+    default Spliterator.OfInt spliterator()
+    {
+        return new IntListSpliterator(this, 0, size(), 1);
+    }
+
     /**
      * Sets the list entry at the given index to the given value
      */
@@ -29,6 +29,7 @@ import com.telenav.kivakit.primitive.collections.lexakai.DiagramPrimitiveList;
 import com.telenav.lexakai.annotations.UmlClassDiagram;
 
 import java.util.List;
+import java.util.function.LongConsumer;
 
 /**
  * Stores linked lists of int values in a space efficient way.
@@ -130,6 +131,86 @@ public class IntLinkedListStore extends PrimitiveListStore
         return values.capacity().plus(next.capacity());
     }
 
+    /**
+     * Copies the values in the identified list into the given array, widened to longs. If the array is too small, only
+     * as many values as fit are copied.
+     *
+     * @return The number of values in the list
+     */
+    public int copy(int list, long[] values)
+    {
+        return copy(list, values, 0);
+    }
+
+    /**
+     * Copies the values in the identified list into the given array, widened to longs, starting at the given offset. If
+     * the array is too small, only as many values as fit are copied.
+     *
+     * @return The number of values in the list
+     */
+    public int copy(int list, long[] values, int offset)
+    {
+        var count = 0;
+        for (var index = list; index != END_OF_LIST; index = next.get(index))
+        {
+            if (offset + count < values.length)
+            {
+                values[offset + count] = this.values.get(index);
+            }
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * Copies the values in the identified list into the given array, starting at the given offset. If the array is too
+     * small, only as many values as fit are copied.
+     *
+     * @return The number of values in the list
+     */
+    public int copy(int list, int[] values, int offset)
+    {
+        var count = 0;
+        for (var index = list; index != END_OF_LIST; index = next.get(index))
+        {
+            if (offset + count < values.length)
+            {
+                values[offset + count] = this.values.get(index);
+            }
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * Calls the consumer with each value in the identified list, widened to a long
+     *
+     * @return The number of values in the list
+     */
+    public int forEach(int list, LongConsumer consumer)
+    {
+        var count = 0;
+        for (var index = list; index != END_OF_LIST; index = next.get(index))
+        {
+            consumer.accept(values.get(index));
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * @return The number of values in the identified list
+     */
+    public int length(int list)
+    {
+        var count = 0;
+        for (var index = list; index != END_OF_LIST; index = next.get(index))
+        {
+            count++;
+        }
+        return count;
+    }
+
     /**
      * @return An iterator over the values in the identifier list
      */
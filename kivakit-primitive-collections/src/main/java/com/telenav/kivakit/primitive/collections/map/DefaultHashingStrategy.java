@@ -95,6 +95,12 @@ public final class DefaultHashingStrategy implements HashingStrategy
         return new DefaultHashingStrategy(capacity, maximumOccupancy);
     }
 
+    @Override
+    public HashingStrategy withCapacity(Estimate capacity, Percent maximumOccupancy)
+    {
+        return new DefaultHashingStrategy(capacity, maximumOccupancy);
+    }
+
     @Override
     public HashingStrategy withIncreasedCapacity()
     {
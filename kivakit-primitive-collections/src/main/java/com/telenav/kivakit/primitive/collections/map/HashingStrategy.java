@@ -32,6 +32,14 @@ import com.telenav.lexakai.annotations.UmlClassDiagram;
 @UmlClassDiagram(diagram = DiagramPrimitiveMap.class)
 public interface HashingStrategy
 {
+    /**
+     * @return True if this strategy always recommends a power of two size, so that slots can be found with a bit mask
+     */
+    default boolean isPowerOfTwo()
+    {
+        return false;
+    }
+
     /**
      * @return The occupancy level for rehashing
      */
@@ -53,6 +61,11 @@ public interface HashingStrategy
      */
     HashingStrategy withCapacity(Estimate size);
 
+    /**
+     * @return With the given capacity and maximum occupancy
+     */
+    HashingStrategy withCapacity(Estimate size, Percent maximumOccupancy);
+
     /**
      * @return With an acceptable increased capacity
      */
@@ -0,0 +1,399 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+package com.telenav.kivakit.primitive.collections.map;
+
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.KryoSerializable;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+import com.telenav.kivakit.primitive.collections.lexakai.DiagramPrimitiveMap;
+import com.telenav.lexakai.annotations.UmlClassDiagram;
+
+import java.util.Arrays;
+
+/**
+ * A minimal perfect hash function over a fixed set of long keys, which maps each of the <i>n</i> keys to a distinct
+ * index from 0 to <i>n</i> - 1. Frozen maps and sets use this index to find keys in constant time, instead of by
+ * binary search (see {@link PrimitiveMap#perfectHashing(boolean)}).
+ *
+ * <p><b>Construction</b></p>
+ *
+ * <p>
+ * The function is built with {@link #of(long[])} or {@link #of(int[])} in the style of BBHash. Each level is a bit
+ * array twice as long as the number of keys that reach it. Every key is hashed to a bit in the level, and keys that
+ * hash to a bit by themselves set it, while keys that collide with another key go on to the next level. The few
+ * keys that still collide after {@link #MAXIMUM_LEVELS} levels are kept in a small sorted array. The index of a key
+ * is the number of bits set before its bit in the concatenated levels, which is found with a table of cumulative bit
+ * counts at every {@link #RANK_BLOCK_BITS} bits. The function takes about four bits per key.
+ * </p>
+ *
+ * <p><b>Lookup</b></p>
+ *
+ * <p>
+ * {@link #index(long)} returns the index of a key in the set, but may return any index or -1 for a key that is not
+ * in the set, so callers must check the key stored at the index. The entries of a frozen map can be moved to the
+ * index of their keys with one of the <i>reorder</i> methods.
+ * </p>
+ *
+ * @author agent
+ */
+@UmlClassDiagram(diagram = DiagramPrimitiveMap.class)
+public final class PerfectHash implements KryoSerializable
+{
+    /** The number of levels to try before keys are stored in the fallback array */
+    public static final int MAXIMUM_LEVELS = 32;
+
+    /** The number of bits between cumulative bit counts */
+    public static final int RANK_BLOCK_BITS = 512;
+
+    /** The number of words in a rank block */
+    private static final int RANK_BLOCK_WORDS = RANK_BLOCK_BITS / Long.SIZE;
+
+    /** The ratio of level size in bits to keys */
+    private static final int GAMMA = 2;
+
+    /**
+     * @return A minimal perfect hash function for the given distinct keys
+     */
+    public static PerfectHash of(int[] keys)
+    {
+        var widened = new long[keys.length];
+        for (var i = 0; i < keys.length; i++)
+        {
+            widened[i] = keys[i];
+        }
+        return build(widened);
+    }
+
+    /**
+     * @return A minimal perfect hash function for the given distinct keys
+     */
+    public static PerfectHash of(long[] keys)
+    {
+        return build(keys.clone());
+    }
+
+    /**
+     * Builds the function, reusing the given array to hold the keys that collide on each level
+     */
+    private static PerfectHash build(long[] remaining)
+    {
+        var hash = new PerfectHash();
+        hash.size = remaining.length;
+
+        var levels = new long[MAXIMUM_LEVELS][];
+        var levelCount = 0;
+        var count = remaining.length;
+
+        // While there are keys left that collided on every level so far,
+        while (count > 0 && levelCount < MAXIMUM_LEVELS)
+        {
+            // hash each key to a bit in a new level,
+            var words = (int) ((GAMMA * (long) count + Long.SIZE - 1) / Long.SIZE);
+            var bits = (long) words * Long.SIZE;
+            var seen = new long[words];
+            var collided = new long[words];
+            for (var i = 0; i < count; i++)
+            {
+                var position = position(remaining[i], levelCount, bits);
+                var word = (int) (position >>> 6);
+                var mask = 1L << position;
+                if ((seen[word] & mask) != 0)
+                {
+                    collided[word] |= mask;
+                }
+                seen[word] |= mask;
+            }
+
+            // keep only the bits that a single key hashed to,
+            for (var i = 0; i < words; i++)
+            {
+                seen[i] &= ~collided[i];
+            }
+            levels[levelCount] = seen;
+
+            // and pass the keys that collided on to the next level.
+            var next = 0;
+            for (var i = 0; i < count; i++)
+            {
+                var position = position(remaining[i], levelCount, bits);
+                if ((collided[(int) (position >>> 6)] & (1L << position)) != 0)
+                {
+                    remaining[next++] = remaining[i];
+                }
+            }
+            count = next;
+            levelCount++;
+        }
+
+        // Concatenate the levels,
+        hash.levelWords = new int[levelCount];
+        var totalWords = 0;
+        for (var level = 0; level < levelCount; level++)
+        {
+            hash.levelWords[level] = levels[level].length;
+            totalWords += levels[level].length;
+        }
+        hash.bits = new long[totalWords];
+        var at = 0;
+        for (var level = 0; level < levelCount; level++)
+        {
+            System.arraycopy(levels[level], 0, hash.bits, at, levels[level].length);
+            at += levels[level].length;
+        }
+
+        // keep any keys that collided on every level,
+        hash.fallback = Arrays.copyOf(remaining, count);
+        Arrays.sort(hash.fallback);
+
+        // and count the bits in each rank block.
+        hash.initialize();
+        return hash;
+    }
+
+    /**
+     * @return The position in a level of the given size in bits for the given key
+     */
+    private static long position(long key, int level, long bits)
+    {
+        // Mix the key with a seed for the level (the finalizer of MurmurHash3),
+        var hash = key ^ (0x9E3779B97F4A7C15L * (level + 1));
+        hash = (hash ^ (hash >>> 33)) * 0xFF51AFD7ED558CCDL;
+        hash = (hash ^ (hash >>> 33)) * 0xC4CEB9FE1A85EC53L;
+        hash ^= hash >>> 33;
+
+        // and scale the high 32 bits of the hash to the size of the level.
+        return ((hash >>> 32) * bits) >>> 32;
+    }
+
+    /** The bits of all levels, concatenated */
+    private long[] bits;
+
+    /** The sorted keys that collided on every level */
+    private long[] fallback;
+
+    /** The index of the first fallback key, which is the number of bits set in all levels */
+    private int fallbackIndex;
+
+    /** The offset of each level in bits, in words */
+    private int[] levelOffsets;
+
+    /** The size of each level, in words */
+    private int[] levelWords;
+
+    /** The number of bits set before each rank block */
+    private int[] ranks;
+
+    /** The number of keys */
+    private int size;
+
+    private PerfectHash()
+    {
+    }
+
+    /**
+     * @return The index of the given key from 0 to {@link #size()} - 1 if the key is in the set this function was
+     * built from, otherwise any index or -1
+     */
+    public int index(long key)
+    {
+        // Go through the levels,
+        var levelWords = this.levelWords;
+        for (var level = 0; level < levelWords.length; level++)
+        {
+            // and if the key's bit is set in the level,
+            var position = ((long) levelOffsets[level] << 6) + position(key, level, (long) levelWords[level] << 6);
+            var word = (int) (position >>> 6);
+            var mask = 1L << position;
+            var value = bits[word];
+            if ((value & mask) != 0)
+            {
+                // the index is the number of bits set before it.
+                var rank = ranks[word / RANK_BLOCK_WORDS];
+                for (var at = word - word % RANK_BLOCK_WORDS; at < word; at++)
+                {
+                    rank += Long.bitCount(bits[at]);
+                }
+                return rank + Long.bitCount(value & (mask - 1));
+            }
+        }
+
+        // If the key collided on every level, it may be in the fallback array.
+        var index = Arrays.binarySearch(fallback, key);
+        return index < 0 ? -1 : fallbackIndex + index;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void read(Kryo kryo, Input input)
+    {
+        size = kryo.readObject(input, int.class);
+        levelWords = kryo.readObject(input, int[].class);
+        bits = kryo.readObject(input, long[].class);
+        fallback = kryo.readObject(input, long[].class);
+        initialize();
+    }
+
+    /**
+     * Moves each key to its index, so that the index of a key can be checked by comparing it with the key stored
+     * there
+     */
+    public void reorder(long[] keys)
+    {
+        assert keys.length == size;
+        for (var i = 0; i < keys.length; i++)
+        {
+            // Swap the key at i to its index until the key that belongs at i arrives
+            for (var index = index(keys[i]); index != i; index = index(keys[i]))
+            {
+                var key = keys[i];
+                keys[i] = keys[index];
+                keys[index] = key;
+            }
+        }
+    }
+
+    /**
+     * Moves each key to its index, taking the value at the same position with it
+     */
+    public void reorder(long[] keys, long[] values)
+    {
+        assert keys.length == size && values.length == size;
+        for (var i = 0; i < keys.length; i++)
+        {
+            for (var index = index(keys[i]); index != i; index = index(keys[i]))
+            {
+                var key = keys[i];
+                keys[i] = keys[index];
+                keys[index] = key;
+
+                var value = values[i];
+                values[i] = values[index];
+                values[index] = value;
+            }
+        }
+    }
+
+    /**
+     * Moves each key to its index, taking the value at the same position with it
+     */
+    public void reorder(long[] keys, int[] values)
+    {
+        assert keys.length == size && values.length == size;
+        for (var i = 0; i < keys.length; i++)
+        {
+            for (var index = index(keys[i]); index != i; index = index(keys[i]))
+            {
+                var key = keys[i];
+                keys[i] = keys[index];
+                keys[index] = key;
+
+                var value = values[i];
+                values[i] = values[index];
+                values[index] = value;
+            }
+        }
+    }
+
+    /**
+     * Moves each key to its index, taking the value at the same position with it
+     */
+    public void reorder(int[] keys, int[] values)
+    {
+        assert keys.length == size && values.length == size;
+        for (var i = 0; i < keys.length; i++)
+        {
+            for (var index = index(keys[i]); index != i; index = index(keys[i]))
+            {
+                var key = keys[i];
+                keys[i] = keys[index];
+                keys[index] = key;
+
+                var value = values[i];
+                values[i] = values[index];
+                values[index] = value;
+            }
+        }
+    }
+
+    /**
+     * @return The number of keys
+     */
+    public int size()
+    {
+        return size;
+    }
+
+    /**
+     * @return The size of this function in bits
+     */
+    public long sizeInBits()
+    {
+        return ((long) bits.length + fallback.length) * Long.SIZE
+                + ((long) ranks.length + levelWords.length * 2L) * Integer.SIZE;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString()
+    {
+        return "[PerfectHash size = " + size + ", levels = " + levelWords.length + ", fallback = " + fallback.length
+                + ", bitsPerKey = " + (size == 0 ? 0 : sizeInBits() / (double) size) + "]";
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void write(Kryo kryo, Output output)
+    {
+        kryo.writeObject(output, size);
+        kryo.writeObject(output, levelWords);
+        kryo.writeObject(output, bits);
+        kryo.writeObject(output, fallback);
+    }
+
+    /**
+     * Computes the offset of each level and the number of bits set before each rank block
+     */
+    private void initialize()
+    {
+        levelOffsets = new int[levelWords.length];
+        for (var level = 1; level < levelWords.length; level++)
+        {
+            levelOffsets[level] = levelOffsets[level - 1] + levelWords[level - 1];
+        }
+
+        ranks = new int[(bits.length + RANK_BLOCK_WORDS - 1) / RANK_BLOCK_WORDS];
+        var rank = 0;
+        for (var word = 0; word < bits.length; word++)
+        {
+            if (word % RANK_BLOCK_WORDS == 0)
+            {
+                ranks[word / RANK_BLOCK_WORDS] = rank;
+            }
+            rank += Long.bitCount(bits[word]);
+        }
+        fallbackIndex = rank;
+        assert fallbackIndex + fallback.length == size;
+    }
+}
@@ -0,0 +1,174 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+package com.telenav.kivakit.primitive.collections.map;
+
+import com.telenav.kivakit.core.value.count.Count;
+import com.telenav.kivakit.core.value.count.Estimate;
+import com.telenav.kivakit.core.value.level.Percent;
+import com.telenav.kivakit.primitive.collections.PrimitiveCollection;
+import com.telenav.kivakit.primitive.collections.lexakai.DiagramPrimitiveMap;
+import com.telenav.lexakai.annotations.UmlClassDiagram;
+
+import static com.telenav.kivakit.core.ensure.Ensure.fail;
+
+/**
+ * A hashing strategy that sizes tables to powers of two, so that {@link PrimitiveMap} can find the slot for a hash code
+ * with a bit mask instead of an integer division. Since masking keeps only the low bits of a hash code, keys are
+ * scrambled with the murmur3 finalizers in {@link #mix(long)} and {@link #mix(int)} before masking.
+ * <p>
+ * This strategy is opt-in. It can be given to a map before it is initialized with {@link
+ * PrimitiveMap#initialHashingStrategy(HashingStrategy)}:
+ *
+ * <pre>
+ * var map = new LongToIntMap("map");
+ * map.initialHashingStrategy(PowerOfTwoHashingStrategy.DEFAULT);
+ * map.initialize();
+ * </pre>
+ * <p>
+ * Tables cannot grow beyond {@link #MAXIMUM_SIZE} slots, so {@link #withIncreasedCapacity()} fails once a table of
+ * that size is full.
+ *
+ * @author agent
+ */
+@UmlClassDiagram(diagram = DiagramPrimitiveMap.class)
+public final class PowerOfTwoHashingStrategy implements HashingStrategy
+{
+    public static final HashingStrategy DEFAULT = of(Estimate._1024);
+
+    /** The largest power of two that is a legal array size */
+    static final int MAXIMUM_SIZE = 1 << 30;
+
+    /** The smallest table size */
+    private static final int MINIMUM_SIZE = 16;
+
+    /**
+     * @return The given key scrambled with the murmur3 64-bit finalizer, so that every bit of the key affects the low
+     * bits of the result
+     */
+    public static int mix(long key)
+    {
+        key = (key ^ (key >>> 33)) * 0xff51afd7ed558ccdL;
+        key = (key ^ (key >>> 33)) * 0xc4ceb9fe1a85ec53L;
+        return (int) (key ^ (key >>> 33));
+    }
+
+    /**
+     * @return The given key scrambled with the murmur3 32-bit finalizer, so that every bit of the key affects the low
+     * bits of the result
+     */
+    public static int mix(int key)
+    {
+        key = (key ^ (key >>> 16)) * 0x85ebca6b;
+        key = (key ^ (key >>> 13)) * 0xc2b2ae35;
+        return key ^ (key >>> 16);
+    }
+
+    public static PowerOfTwoHashingStrategy of(Estimate capacity)
+    {
+        return of(capacity, DefaultHashingStrategy.defaultMaximumOccupancy());
+    }
+
+    public static PowerOfTwoHashingStrategy of(Estimate capacity, Percent maximumOccupancy)
+    {
+        return new PowerOfTwoHashingStrategy(capacity, maximumOccupancy);
+    }
+
+    /** The capacity to allocate, which is always a power of two */
+    private Estimate recommendedSize;
+
+    /** The threshold at which we should resize */
+    private Count rehashThreshold;
+
+    /** The maximum occupancy, used internally when increasing capacity */
+    private Percent maximumOccupancy;
+
+    private PowerOfTwoHashingStrategy()
+    {
+    }
+
+    private PowerOfTwoHashingStrategy(Estimate capacity, Percent maximumOccupancy)
+    {
+        this.maximumOccupancy = maximumOccupancy;
+
+        // Round the capacity up to the next power of two,
+        var size = (int) Math.min(MAXIMUM_SIZE, Math.max(MINIMUM_SIZE, capacity.asLong()));
+        if (Integer.bitCount(size) != 1)
+        {
+            size = Integer.highestOneBit(size) << 1;
+        }
+        recommendedSize = Estimate.estimate(size);
+
+        // and always leave at least one free slot, so that linear probing for a missing key terminates
+        var threshold = recommendedSize.percent(maximumOccupancy).asInt();
+        rehashThreshold = Count.count(Math.min(threshold, size - 1));
+    }
+
+    @Override
+    public boolean isPowerOfTwo()
+    {
+        return true;
+    }
+
+    @Override
+    public Percent maximumOccupancy()
+    {
+        return maximumOccupancy;
+    }
+
+    @Override
+    public Estimate recommendedSize()
+    {
+        return recommendedSize.asEstimate();
+    }
+
+    @Override
+    public Count rehashThreshold()
+    {
+        return rehashThreshold;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "[PowerOfTwoHashingStrategy capacity = " + recommendedSize + ", threshold = " + rehashThreshold + "]";
+    }
+
+    @Override
+    public HashingStrategy withCapacity(Estimate capacity)
+    {
+        return new PowerOfTwoHashingStrategy(capacity, maximumOccupancy);
+    }
+
+    @Override
+    public HashingStrategy withCapacity(Estimate capacity, Percent maximumOccupancy)
+    {
+        return new PowerOfTwoHashingStrategy(capacity, maximumOccupancy);
+    }
+
+    @Override
+    public HashingStrategy withIncreasedCapacity()
+    {
+        // If the table is already as large as it can be, we can't grow it
+        if (recommendedSize.asLong() >= MAXIMUM_SIZE)
+        {
+            return fail("Cannot grow a power of two hash table beyond $ slots", MAXIMUM_SIZE);
+        }
+        return withCapacity(Estimate.estimate(PrimitiveCollection.increasedCapacity(recommendedSize.asInt())));
+    }
+}
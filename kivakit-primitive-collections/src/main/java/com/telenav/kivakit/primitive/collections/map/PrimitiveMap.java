@@ -28,6 +28,7 @@ import com.telenav.kivakit.core.messaging.Debug;
 import com.telenav.kivakit.core.progress.ProgressReporter;
 import com.telenav.kivakit.core.progress.reporters.BroadcastingProgressReporter;
 import com.telenav.kivakit.core.string.Indent;
+import com.telenav.kivakit.core.time.Duration;
 import com.telenav.kivakit.core.value.count.Count;
 import com.telenav.kivakit.core.value.level.Percent;
 import com.telenav.kivakit.interfaces.naming.NamedObject;
@@ -37,11 +38,15 @@ import com.telenav.kivakit.primitive.collections.iteration.IntIterator;
 import com.telenav.kivakit.primitive.collections.iteration.LongIterator;
 import com.telenav.kivakit.primitive.collections.iteration.PrimitiveIterator;
 import com.telenav.kivakit.primitive.collections.lexakai.DiagramPrimitiveMap;
+import com.telenav.kivakit.primitive.collections.metrics.CollectionMetricsRegistry;
 import com.telenav.lexakai.annotations.UmlClassDiagram;
 import org.jetbrains.annotations.MustBeInvokedByOverriders;
 
 import java.util.Arrays;
 import java.util.Iterator;
+import java.util.Spliterator;
+import java.util.function.IntConsumer;
+import java.util.function.LongConsumer;
 
 import static com.telenav.kivakit.core.ensure.Ensure.fail;
 import static com.telenav.kivakit.core.ensure.Ensure.illegalState;
@@ -55,16 +60,40 @@ public abstract class PrimitiveMap extends PrimitiveCollection
 
     private static final Debug DEBUG = new Debug(LOGGER);
 
-    /** Tombstone value that marks a removed key */
+    /** The number of keys that batched lookups resolve together */
+    protected static final int BATCH_SIZE = 64;
+
+    /**
+     * The default bound on the average number of slots examined by a lookup, above which a map is rehashed. Zero
+     * disables adaptive rehashing, so maps only count probes when asked to.
+     */
+    private static final double DEFAULT_MAXIMUM_AVERAGE_PROBE_LENGTH = 0;
+
+    /** The number of lookups over which the average probe length is measured */
+    private static final int PROBE_WINDOW = 1_024;
+
+    /** The load factor below which long probe sequences in a table of mixed keys don't justify a larger table */
+    private static final double MINIMUM_ADAPTIVE_LOAD_FACTOR = 0.25;
+
+    /**
+     * Serialization format version written in place of the rehash threshold (as a negative number) when a map has
+     * state that the original format can't hold. Maps in the original format start with a non-negative threshold.
+     */
+    private static final int FORMAT_VERSION = 1;
+
+    /** Ranges of slots smaller than this are not split by spliterators */
+    private static final int MINIMUM_SPLIT_SLOTS = 4_096;
+
+    /** Tombstone value that marks a removed key in maps written before removal stopped leaving tombstones */
     protected static final long TOMBSTONE_LONG = Long.MIN_VALUE + 1;
 
-    /** Tombstone value that marks a removed key */
+    /** Tombstone value that marks a removed key in maps written before removal stopped leaving tombstones */
     protected static final int TOMBSTONE_INT = Integer.MIN_VALUE + 1;
 
-    /** Tombstone value that marks a removed key */
+    /** Tombstone value that marks a removed key in maps written before removal stopped leaving tombstones */
     protected static final int TOMBSTONE_BYTE = Byte.MIN_VALUE + 1;
 
-    /** Tombstone String value that marks a removed key */
+    /** Tombstone String value that marks a removed key in maps written before removal stopped leaving tombstones */
     protected static final String TOMBSTONE_STRING = "Tombstone";
 
     protected interface MapToString
@@ -72,12 +101,203 @@ public abstract class PrimitiveMap extends PrimitiveCollection
         String toString(long key, long value);
     }
 
+    /**
+     * A spliterator over the non-empty slots of a hash table of int values, which splits the table into ranges of slots
+     */
+    private class NonEmptyIntSpliterator implements Spliterator.OfInt
+    {
+        private final int[] values;
+
+        private int index;
+
+        private final int end;
+
+        NonEmptyIntSpliterator(int[] values, int from, int to)
+        {
+            this.values = values;
+            this.index = from;
+            this.end = to;
+        }
+
+        @Override
+        public int characteristics()
+        {
+            return 0;
+        }
+
+        @Override
+        public long estimateSize()
+        {
+            // Estimate the number of values in the remaining slots from the fraction of slots that are full
+            return values.length == 0 ? 0 : (long) size() * (end - index) / values.length;
+        }
+
+        @Override
+        public void forEachRemaining(IntConsumer action)
+        {
+            var values = this.values;
+            for (; index < end; index++)
+            {
+                var value = values[index];
+                if (!isEmpty(value))
+                {
+                    action.accept(value);
+                }
+            }
+        }
+
+        @Override
+        public boolean tryAdvance(IntConsumer action)
+        {
+            while (index < end)
+            {
+                var value = values[index++];
+                if (!isEmpty(value))
+                {
+                    action.accept(value);
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public Spliterator.OfInt trySplit()
+        {
+            var middle = (index + end) >>> 1;
+            if (end - index < MINIMUM_SPLIT_SLOTS)
+            {
+                return null;
+            }
+            var prefix = new NonEmptyIntSpliterator(values, index, middle);
+            index = middle;
+            return prefix;
+        }
+    }
+
+    /**
+     * A spliterator over the non-empty slots of a hash table of long values, which splits the table into ranges of
+     * slots
+     */
+    private class NonEmptyLongSpliterator implements Spliterator.OfLong
+    {
+        private final long[] values;
+
+        private int index;
+
+        private final int end;
+
+        NonEmptyLongSpliterator(long[] values, int from, int to)
+        {
+            this.values = values;
+            this.index = from;
+            this.end = to;
+        }
+
+        @Override
+        public int characteristics()
+        {
+            return 0;
+        }
+
+        @Override
+        public long estimateSize()
+        {
+            // Estimate the number of values in the remaining slots from the fraction of slots that are full
+            return values.length == 0 ? 0 : (long) size() * (end - index) / values.length;
+        }
+
+        @Override
+        public void forEachRemaining(LongConsumer action)
+        {
+            var values = this.values;
+            for (; index < end; index++)
+            {
+                var value = values[index];
+                if (!isEmpty(value))
+                {
+                    action.accept(value);
+                }
+            }
+        }
+
+        @Override
+        public boolean tryAdvance(LongConsumer action)
+        {
+            while (index < end)
+            {
+                var value = values[index++];
+                if (!isEmpty(value))
+                {
+                    action.accept(value);
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public Spliterator.OfLong trySplit()
+        {
+            var middle = (index + end) >>> 1;
+            if (end - index < MINIMUM_SPLIT_SLOTS)
+            {
+                return null;
+            }
+            var prefix = new NonEmptyLongSpliterator(values, index, middle);
+            index = middle;
+            return prefix;
+        }
+    }
+
     /** The current hashingStrategy of this map */
     private HashingStrategy hashingStrategy;
 
     /** The threshold at which we should resize */
     private int rehashThreshold;
 
+    /** Mask that finds the slot for a hash code when the hashing strategy is a power of two, otherwise zero */
+    private int mask;
+
+    /** True if this map should build a perfect hash index of its keys when it is frozen */
+    private boolean perfectHashing;
+
+    /** The perfect hash index of the keys of this frozen map, or null if keys are found by binary search */
+    private PerfectHash perfectHash;
+
+    /** The average probe length above which this map is rehashed, or zero if it is only rehashed when full */
+    private double maximumAverageProbeLength = DEFAULT_MAXIMUM_AVERAGE_PROBE_LENGTH;
+
+    /** True if lookups in this map may record the number of slots they examine */
+    private transient boolean probeCounting = true;
+
+    /**
+     * True if lookups in this map record the number of slots they examine, which is only worth doing when the counts
+     * are read, by collection metrics or adaptive rehashing
+     */
+    private transient boolean countingProbes;
+
+    /** The number of lookups made since this map was last rehashed */
+    private transient long lookups;
+
+    /** The total number of slots examined by lookups since this map was last rehashed */
+    private transient long probes;
+
+    /** The length of the longest probe sequence since this map was last rehashed */
+    private transient int maximumProbeLength;
+
+    /** The number of times this map has been rehashed */
+    private transient int rehashes;
+
+    /** The total time spent rehashing this map, in nanoseconds */
+    private transient long rehashNanoseconds;
+
+    /** The number of lookups when the current probe length measurement window started */
+    private transient long windowLookups;
+
+    /** The number of probes when the current probe length measurement window started */
+    private transient long windowProbes;
+
     protected PrimitiveMap(String name)
     {
         super(name);
@@ -87,12 +307,37 @@ public abstract class PrimitiveMap extends PrimitiveCollection
     {
     }
 
+    /**
+     * @return The average number of slots examined by each lookup since this map was last rehashed
+     */
+    public double averageProbeLength()
+    {
+        return lookups == 0 ? 0 : (double) probes / lookups;
+    }
+
     @Override
     public Count capacity()
     {
         return hashingStrategy.rehashThreshold();
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void copySettings(PrimitiveCollection that)
+    {
+        super.copySettings(that);
+
+        // Child maps hash and index their keys the same way as their parent
+        if (that instanceof PrimitiveMap && !isInitialized())
+        {
+            hashingStrategy = ((PrimitiveMap) that).hashingStrategy;
+            perfectHashing = ((PrimitiveMap) that).perfectHashing;
+            maximumAverageProbeLength = ((PrimitiveMap) that).maximumAverageProbeLength;
+        }
+    }
+
     /**
      * @return True if this set contains the given value
      */
@@ -100,7 +345,7 @@ public abstract class PrimitiveMap extends PrimitiveCollection
     {
         if (compressionMethod() == Method.FREEZE)
         {
-            return Arrays.binarySearch(values, value) >= 0;
+            return frozenIndex(values, value) >= 0;
         }
         else
         {
@@ -115,7 +360,7 @@ public abstract class PrimitiveMap extends PrimitiveCollection
     {
         if (compressionMethod() == Method.FREEZE)
         {
-            return Arrays.binarySearch(values, value) >= 0;
+            return frozenIndex(values, value) >= 0;
         }
         else
         {
@@ -138,6 +383,27 @@ public abstract class PrimitiveMap extends PrimitiveCollection
         }
     }
 
+    /**
+     * @return True if this map has been frozen into arrays that hold its keys in ascending order, so that visiting its
+     * entries visits them in key order
+     */
+    public boolean hasSortedKeys()
+    {
+        return compressionMethod() == Method.FREEZE && perfectHash == null;
+    }
+
+    /**
+     * Sets the hashing strategy to use when this map is initialized, such as {@link PowerOfTwoHashingStrategy}. The
+     * strategy is resized to the initial size of this map, so only its kind and its maximum occupancy matter. Maps
+     * use {@link DefaultHashingStrategy} if no strategy is given.
+     */
+    public PrimitiveMap initialHashingStrategy(HashingStrategy hashingStrategy)
+    {
+        assert !isInitialized();
+        this.hashingStrategy = hashingStrategy;
+        return this;
+    }
+
     public boolean isEmpty(int key)
     {
         return isNull(key) || isTombstone(key);
@@ -158,6 +424,50 @@ public abstract class PrimitiveMap extends PrimitiveCollection
         return key == null || isTombstone(key);
     }
 
+    /**
+     * @return The fraction of the slots in the hash table of this map that are in use, or one if the map has been
+     * frozen into arrays that are exactly its size
+     */
+    public double loadFactor()
+    {
+        if (compressionMethod() == Method.FREEZE)
+        {
+            return 1.0;
+        }
+        var slots = hashingStrategy.recommendedSize().asInt();
+        return slots == 0 ? 0 : (double) size() / slots;
+    }
+
+    /**
+     * Sets the bound on the average number of slots examined by a lookup, above which this map is rehashed even if it
+     * is not full. Linear probing degrades badly when keys cluster, as strided or sequential identifiers can under
+     * modulo hashing, and this happens well below the maximum occupancy of the hashing strategy. The average is
+     * measured over each window of 1,024 lookups and checked whenever a key is added. If the bound is exceeded, a map
+     * that finds slots by division switches to a {@link PowerOfTwoHashingStrategy} of the same capacity, which mixes
+     * every bit of a key into its slot, while a map that already mixes its keys grows to a larger table.
+     * <p>
+     * Adaptive rehashing is opt-in: the default bound is zero, which disables it. Measuring probe lengths makes every
+     * lookup write to the map, so a map with a bound should not be read by several threads at once. Also, a map that
+     * switches to a {@link PowerOfTwoHashingStrategy} is no longer serialized in the original format, so older readers
+     * can't read it. Unless {@link CollectionMetricsRegistry} is enabled, a bound of zero stops lookups from counting
+     * the slots they examine.
+     */
+    public PrimitiveMap maximumAverageProbeLength(double maximumAverageProbeLength)
+    {
+        assert maximumAverageProbeLength >= 0;
+        this.maximumAverageProbeLength = maximumAverageProbeLength;
+        updateCountingProbes();
+        return this;
+    }
+
+    /**
+     * @return The length of the longest sequence of slots examined by a lookup since this map was last rehashed
+     */
+    public int maximumProbeLength()
+    {
+        return maximumProbeLength;
+    }
+
     @Override
     public Method onCompress(Method method)
     {
@@ -166,8 +476,8 @@ public abstract class PrimitiveMap extends PrimitiveCollection
             // We temporarily use a maximum occupancy of 100% during rehashing  to ensure that
             // adding elements during the rehash for trimming a collection does not cause another resize.
             var maximumOccupancy = hashingStrategy().maximumOccupancy();
-            rehash(DefaultHashingStrategy.of(count().asEstimate(), Percent._100));
-            hashingStrategy(DefaultHashingStrategy.of(count().asEstimate(), maximumOccupancy));
+            rehash(hashingStrategy().withCapacity(count().asEstimate(), Percent._100));
+            hashingStrategy(hashingStrategy().withCapacity(count().asEstimate(), maximumOccupancy));
             return Method.RESIZE;
         }
 
@@ -178,20 +488,94 @@ public abstract class PrimitiveMap extends PrimitiveCollection
     @MustBeInvokedByOverriders
     public void onInitialize()
     {
-        hashingStrategy = DefaultHashingStrategy.of(initialSize());
+        // Size any hashing strategy we were given (or the default strategy) to our initial size
+        hashingStrategy = hashingStrategy == null
+                ? DefaultHashingStrategy.of(initialSize())
+                : hashingStrategy.withCapacity(initialSize());
         initialSize(hashingStrategy.recommendedSize());
         rehashThreshold = hashingStrategy.rehashThreshold().asInt();
+        mask = mask(hashingStrategy);
+        updateCountingProbes();
 
         super.onInitialize();
     }
 
+    /**
+     * Sets whether this map builds a {@link PerfectHash} index of its keys when it is frozen with {@link
+     * Method#FREEZE}. Frozen maps find keys by binary search, which takes a cache miss per step on large maps, while
+     * the index finds them in constant time, using about four bits per key. Only maps and sets with scalar keys that
+     * are frozen into sorted arrays support the index (currently {@link
+     * com.telenav.kivakit.primitive.collections.map.scalars.IntToIntMap}, {@link
+     * com.telenav.kivakit.primitive.collections.map.scalars.LongToIntMap}, {@link
+     * com.telenav.kivakit.primitive.collections.map.scalars.LongToLongMap} and {@link
+     * com.telenav.kivakit.primitive.collections.set.LongSet}). Indexed maps store their entries in index order
+     * rather than key order.
+     */
+    public PrimitiveMap perfectHashing(boolean perfectHashing)
+    {
+        assert compressionMethod() != Method.FREEZE;
+        this.perfectHashing = perfectHashing;
+        return this;
+    }
+
+    /**
+     * Sets whether lookups in this map record the number of slots they examine. Counting writes to this map on every
+     * lookup, so maps that are read by several threads at once, like the children of the concurrent split maps, must
+     * turn it off. A map that does not count probes reports no probe lengths and is never rehashed adaptively.
+     */
+    public PrimitiveMap probeCounting(boolean probeCounting)
+    {
+        this.probeCounting = probeCounting;
+        updateCountingProbes();
+        return this;
+    }
+
     @Override
     public void read(Kryo kryo, Input input)
     {
         super.read(kryo, input);
 
-        rehashThreshold = kryo.readObject(input, int.class);
-        hashingStrategy = kryo.readObject(input, DefaultHashingStrategy.class);
+        // If the map was written in the original format, which starts with a non-negative rehash threshold,
+        var threshold = kryo.readObject(input, int.class);
+        if (threshold >= 0)
+        {
+            // read the threshold and the default hashing strategy that follows it,
+            rehashThreshold = threshold;
+            hashingStrategy = kryo.readObject(input, DefaultHashingStrategy.class);
+            perfectHashing = false;
+            perfectHash = null;
+        }
+        else
+        {
+            // otherwise, the threshold is the negated version of the format that follows.
+            var version = -threshold;
+            if (version > FORMAT_VERSION)
+            {
+                illegalState("Cannot read map $ written in format version $", objectName(), version);
+            }
+            rehashThreshold = kryo.readObject(input, int.class);
+            hashingStrategy = (HashingStrategy) kryo.readClassAndObject(input);
+            perfectHashing = kryo.readObject(input, boolean.class);
+            perfectHash = kryo.readObjectOrNull(input, PerfectHash.class);
+        }
+        mask = mask(hashingStrategy);
+        updateCountingProbes();
+    }
+
+    /**
+     * @return The number of times this map has been rehashed to a new size
+     */
+    public int rehashes()
+    {
+        return rehashes;
+    }
+
+    /**
+     * @return The total time spent rehashing this map
+     */
+    public Duration rehashTime()
+    {
+        return Duration.milliseconds(rehashNanoseconds / 1_000_000.0);
     }
 
     @Override
@@ -199,8 +583,22 @@ public abstract class PrimitiveMap extends PrimitiveCollection
     {
         super.write(kryo, output);
 
-        kryo.writeObject(output, rehashThreshold);
-        kryo.writeObject(output, hashingStrategy);
+        // If the map can be written in the original format,
+        if (hashingStrategy instanceof DefaultHashingStrategy && !perfectHashing && perfectHash == null)
+        {
+            // write the rehash threshold and hashing strategy exactly as it was written before,
+            kryo.writeObject(output, rehashThreshold);
+            kryo.writeObject(output, hashingStrategy);
+        }
+        else
+        {
+            // otherwise, write the negated format version where the threshold would be, followed by the new fields.
+            kryo.writeObject(output, -FORMAT_VERSION);
+            kryo.writeObject(output, rehashThreshold);
+            kryo.writeClassAndObject(output, hashingStrategy);
+            kryo.writeObject(output, perfectHashing);
+            kryo.writeObjectOrNull(output, perfectHash, PerfectHash.class);
+        }
     }
 
     protected void compare(PrimitiveMap that)
@@ -213,12 +611,73 @@ public abstract class PrimitiveMap extends PrimitiveCollection
 
         rehashThreshold = that.rehashThreshold;
         hashingStrategy = that.hashingStrategy;
+        mask = that.mask;
 
         initialSize(hashingStrategy.recommendedSize());
     }
 
     protected abstract void copyEntries(PrimitiveMap that, ProgressReporter reporter);
 
+    /**
+     * @return The index of the given key in the given keys of this frozen map, or a negative value if the key is not
+     * in the map
+     */
+    protected final int frozenIndex(int[] keys, int key)
+    {
+        // If the keys are indexed by a perfect hash,
+        if (perfectHash != null)
+        {
+            // the key can only be at its index,
+            var index = perfectHash.index(key);
+            return index >= 0 && keys[index] == key ? index : -1;
+        }
+
+        // otherwise, the keys are sorted.
+        return Arrays.binarySearch(keys, key);
+    }
+
+    /**
+     * @return The index of the given key in the given keys of this frozen map, or a negative value if the key is not
+     * in the map
+     */
+    protected final int frozenIndex(long[] keys, long key)
+    {
+        // If the keys are indexed by a perfect hash,
+        if (perfectHash != null)
+        {
+            // the key can only be at its index,
+            var index = perfectHash.index(key);
+            return index >= 0 && keys[index] == key ? index : -1;
+        }
+
+        // otherwise, the keys are sorted.
+        return Arrays.binarySearch(keys, key);
+    }
+
+    /**
+     * Builds a perfect hash index of the given sorted keys of a map that is being frozen, if perfect hashing is
+     * enabled. The caller must then reorder its entries with one of the <i>reorder</i> methods of the index.
+     *
+     * @return The index, or null if perfect hashing is not enabled
+     */
+    protected final PerfectHash indexFrozenKeys(int[] keys)
+    {
+        perfectHash = perfectHashing ? PerfectHash.of(keys) : null;
+        return perfectHash;
+    }
+
+    /**
+     * Builds a perfect hash index of the given sorted keys of a map that is being frozen, if perfect hashing is
+     * enabled. The caller must then reorder its entries with one of the <i>reorder</i> methods of the index.
+     *
+     * @return The index, or null if perfect hashing is not enabled
+     */
+    protected final PerfectHash indexFrozenKeys(long[] keys)
+    {
+        perfectHash = perfectHashing ? PerfectHash.of(keys) : null;
+        return perfectHash;
+    }
+
     /**
      * @return Hash of value
      */
@@ -246,6 +705,7 @@ public abstract class PrimitiveMap extends PrimitiveCollection
     {
         this.hashingStrategy = hashingStrategy;
         rehashThreshold = hashingStrategy.rehashThreshold().asInt();
+        mask = mask(hashingStrategy);
 
         // The hashing strategy may change the estimated size given to it, for example, to a prime number
         initialSize(hashingStrategy.recommendedSize());
@@ -263,20 +723,47 @@ public abstract class PrimitiveMap extends PrimitiveCollection
             // rehash to a larger size
             rehash(hashingStrategy().withIncreasedCapacity());
         }
+        else
+        {
+            // otherwise, rehash if keys are clustering
+            adaptToProbeLengths();
+        }
     }
 
     protected final int index(int index)
     {
-        return Math.abs(index % slots());
+        var mask = this.mask;
+        return mask != 0 ? index & mask : Math.abs(index % slots());
     }
 
     /**
      * @return The index of the given value, resolved with linear probing
      */
     protected int index(int[] values, int value)
+    {
+        return index(values, value, firstSlot(value));
+    }
+
+    protected final long index(long hash)
+    {
+        return Math.abs(hash % slots());
+    }
+
+    /**
+     * @return The index of the given value, resolved with linear probing
+     */
+    protected int index(long[] values, long value)
+    {
+        return index(values, value, firstSlot(value));
+    }
+
+    /**
+     * @return The index of the given value, resolved with linear probing
+     */
+    protected int index(Object[] values, Object value)
     {
         // Linear probe resolution is quite efficient due to chip caching
-        var index = index(hash(value));
+        var index = firstSlot(value);
         var tombstoneIndex = -1;
         for (var offset = 0; offset < values.length; offset++)
         {
@@ -286,13 +773,15 @@ public abstract class PrimitiveMap extends PrimitiveCollection
             if (current == value)
             {
                 // return the index we're at
+                probed(offset + 1);
                 return at;
             }
 
             // If we're looking for a non-null value and the value we're at is null,
-            if (!isNull(value) && isNull(current))
+            if (current == null)
             {
                 // then we didn't find the value, so we return the first free index we encountered
+                probed(offset + 1);
                 return tombstoneIndex != -1 ? tombstoneIndex : at;
             }
 
@@ -305,90 +794,181 @@ public abstract class PrimitiveMap extends PrimitiveCollection
         }
 
         // The set should never be this full
-        return illegalState("Internal error (index = $, size = $). Check the null value being used to initialize keys and values.", index, size());
+        fail("Internal error (index = " + index + ", size = " + size() + ")");
+        return -1;
     }
 
-    protected final long index(long hash)
+    /**
+     * Finds the index of each of the given number of keys, starting at the given offset, as {@link #index(int[], int)}
+     * would. The first slot of every key in the batch is computed before any slot is read, so the cache misses for
+     * the keys in a batch are outstanding at the same time instead of one after another.
+     */
+    protected final void indexes(int[] values, int[] keys, int offset, int count, int[] indexes)
     {
-        return Math.abs(hash % slots());
+        // Compute the first slot of each key,
+        for (var i = 0; i < count; i++)
+        {
+            indexes[i] = firstSlot(keys[offset + i]);
+        }
+
+        // then go through the keys again,
+        for (var i = 0; i < count; i++)
+        {
+            // and if a key is not in its first slot,
+            var key = keys[offset + i];
+            var slot = indexes[i];
+            if (values[slot] != key)
+            {
+                // resolve it with linear probing.
+                indexes[i] = index(values, key, slot);
+            }
+            else
+            {
+                probed(1);
+            }
+        }
     }
 
     /**
-     * @return The index of the given value, resolved with linear probing
+     * Finds the index of each of the given number of keys, starting at the given offset, as {@link #index(long[],
+     * long)} would. The first slot of every key in the batch is computed before any slot is read, so the cache misses
+     * for the keys in a batch are outstanding at the same time instead of one after another.
      */
-    protected int index(long[] values, long value)
+    protected final void indexes(long[] values, long[] keys, int offset, int count, int[] indexes)
     {
-        // Linear probe resolution is quite efficient due to chip caching
-        var index = index(hash(value));
-        var tombstoneIndex = -1;
-        boolean isNull = isNull(value);
-        for (var offset = 0; offset < values.length; offset++)
+        // Compute the first slot of each key,
+        for (var i = 0; i < count; i++)
         {
-            // If we find the value we're looking for,
-            var at = index(index + offset);
-            var current = values[at];
-            if (current == value)
+            indexes[i] = firstSlot(keys[offset + i]);
+        }
+
+        // then go through the keys again,
+        for (var i = 0; i < count; i++)
+        {
+            // and if a key is not in its first slot,
+            var key = keys[offset + i];
+            var slot = indexes[i];
+            if (values[slot] != key)
             {
-                // return the index we're at
-                return at;
+                // resolve it with linear probing.
+                indexes[i] = index(values, key, slot);
+            }
+            else
+            {
+                probed(1);
             }
+        }
+    }
 
-            // If we're looking for a non-null value and the value we're at is null,
-            if (!isNull && isNull(current))
+    /**
+     * Removes the key at the given index by moving back any later keys in its probe sequence that are allowed to move
+     * closer to their first slot (Knuth's "Algorithm R" for linear probing). Unlike writing a tombstone, this leaves
+     * the table exactly as if the key had never been added, so probe lengths don't degrade under add / remove churn.
+     * Subclasses move values along with their keys in {@link #moveValue(int, int)} and then clear the value at the
+     * returned index.
+     *
+     * @return The index of the slot that was finally vacated
+     */
+    protected final int removeAt(int[] keys, int index)
+    {
+        var hole = index;
+        for (var offset = 1; offset < keys.length; offset++)
+        {
+            // Go to the next slot in the probe sequence,
+            var at = index(index + offset);
+            var key = keys[at];
+
+            // and if it's empty, the probe sequence has ended,
+            if (isNull(key))
             {
-                // then we didn't find the value, so we return the first free index we encountered
-                return tombstoneIndex != -1 ? tombstoneIndex : at;
+                break;
             }
 
-            // If we haven't already found a tombstone, and we're looking at one,
-            if (tombstoneIndex == -1 && isTombstone(current))
+            // otherwise, if the key could not have been placed in the hole,
+            if (!isTombstone(key) && !isCyclicallyBetween(hole, firstSlot(key), at))
             {
-                // save the index, so we can return it later as an empty slot
-                tombstoneIndex = at;
+                // move it back into the hole, leaving a new hole where it was.
+                keys[hole] = key;
+                moveValue(at, hole);
+                hole = at;
             }
         }
-
-        // The set should never be this full
-        return illegalState("Internal error (index = $, size = $). Check the null value being used to initialize keys and values.", index, size());
+        keys[hole] = nullInt();
+        return hole;
     }
 
     /**
-     * @return The index of the given value, resolved with linear probing
+     * Removes the key at the given index without leaving a tombstone, as described in {@link #removeAt(int[], int)}
+     *
+     * @return The index of the slot that was finally vacated
      */
-    protected int index(Object[] values, Object value)
+    protected final int removeAt(long[] keys, int index)
     {
-        // Linear probe resolution is quite efficient due to chip caching
-        var index = index(value.hashCode());
-        var tombstoneIndex = -1;
-        for (var offset = 0; offset < values.length; offset++)
+        var hole = index;
+        for (var offset = 1; offset < keys.length; offset++)
         {
-            // If we find the value we're looking for,
+            // Go to the next slot in the probe sequence,
             var at = index(index + offset);
-            var current = values[at];
-            if (current == value)
+            var key = keys[at];
+
+            // and if it's empty, the probe sequence has ended,
+            if (isNull(key))
             {
-                // return the index we're at
-                return at;
+                break;
             }
 
-            // If we're looking for a non-null value and the value we're at is null,
-            if (current == null)
+            // otherwise, if the key could not have been placed in the hole,
+            if (!isTombstone(key) && !isCyclicallyBetween(hole, firstSlot(key), at))
             {
-                // then we didn't find the value, so we return the first free index we encountered
-                return tombstoneIndex != -1 ? tombstoneIndex : at;
+                // move it back into the hole, leaving a new hole where it was.
+                keys[hole] = key;
+                moveValue(at, hole);
+                hole = at;
             }
+        }
+        keys[hole] = nullLong();
+        return hole;
+    }
 
-            // If we haven't already found a tombstone, and we're looking at one,
-            if (tombstoneIndex == -1 && isTombstone(current))
+    /**
+     * Removes the key at the given index without leaving a tombstone, as described in {@link #removeAt(int[], int)}
+     *
+     * @return The index of the slot that was finally vacated
+     */
+    protected final <T> int removeAt(T[] keys, int index)
+    {
+        var hole = index;
+        for (var offset = 1; offset < keys.length; offset++)
+        {
+            // Go to the next slot in the probe sequence,
+            var at = index(index + offset);
+            var key = keys[at];
+
+            // and if it's empty, the probe sequence has ended,
+            if (key == null)
             {
-                // save the index, so we can return it later as an empty slot
-                tombstoneIndex = at;
+                break;
+            }
+
+            // otherwise, if the key could not have been placed in the hole,
+            if (!isTombstone(key) && !isCyclicallyBetween(hole, firstSlot(key), at))
+            {
+                // move it back into the hole, leaving a new hole where it was.
+                keys[hole] = key;
+                moveValue(at, hole);
+                hole = at;
             }
         }
+        keys[hole] = null;
+        return hole;
+    }
 
-        // The set should never be this full
-        fail("Internal error (index = " + index + ", size = " + size() + ")");
-        return -1;
+    /**
+     * Called by removeAt() to move the value for the key at index "from" to index "to". Maps with values override
+     * this method. Sets have only keys and don't need to.
+     */
+    protected void moveValue(int from, int to)
+    {
     }
 
     protected final boolean isTombstone(int key)
@@ -587,6 +1167,24 @@ public abstract class PrimitiveMap extends PrimitiveCollection
         };
     }
 
+    /**
+     * @return A spliterator over the non-empty values in the given hash table, which can be split into ranges of slots
+     */
+    protected Spliterator.OfInt nonEmptySpliterator(int[] values)
+    {
+        var table = values == null ? new int[0] : values;
+        return new NonEmptyIntSpliterator(table, 0, table.length);
+    }
+
+    /**
+     * @return A spliterator over the non-empty values in the given hash table, which can be split into ranges of slots
+     */
+    protected Spliterator.OfLong nonEmptySpliterator(long[] values)
+    {
+        var table = values == null ? new long[0] : values;
+        return new NonEmptyLongSpliterator(table, 0, table.length);
+    }
+
     protected ByteIterator nonEmptyValues(byte[] values)
     {
         return new ByteIterator()
@@ -669,6 +1267,25 @@ public abstract class PrimitiveMap extends PrimitiveCollection
         };
     }
 
+    /**
+     * Records a lookup that examined the given number of slots, for {@link #averageProbeLength()} and {@link
+     * #maximumProbeLength()}. Lookups are only recorded if collection metrics are enabled or this map rehashes
+     * adaptively, which is off by default, so that other maps don't write to memory on every lookup. The counters are
+     * not synchronized, so a map that records lookups must not be read by several threads at once.
+     */
+    protected final void probed(int slots)
+    {
+        if (countingProbes)
+        {
+            lookups++;
+            probes += slots;
+            if (slots > maximumProbeLength)
+            {
+                maximumProbeLength = slots;
+            }
+        }
+    }
+
     protected int slots()
     {
         return unsupported();
@@ -718,9 +1335,175 @@ public abstract class PrimitiveMap extends PrimitiveCollection
         return builder.toString();
     }
 
+    /**
+     * Rehashes this map if lookups in the last window of {@link #PROBE_WINDOW} lookups examined more than {@link
+     * #maximumAverageProbeLength} slots on average
+     */
+    private void adaptToProbeLengths()
+    {
+        // If adaptive rehashing is enabled and a window of lookups has been made,
+        var lookups = this.lookups - windowLookups;
+        if (maximumAverageProbeLength > 0 && lookups >= PROBE_WINDOW)
+        {
+            // measure the average probe length of the window and start a new one,
+            var average = (double) (probes - windowProbes) / lookups;
+            windowLookups = this.lookups;
+            windowProbes = probes;
+
+            // and if the average is too long,
+            if (average > maximumAverageProbeLength)
+            {
+                // and slots are found by division,
+                if (mask == 0)
+                {
+                    // switch to a table of the same capacity that mixes keys,
+                    DEBUG.trace("Mixing keys of $ (average probe length $)", objectName(), average);
+                    rehash(PowerOfTwoHashingStrategy.of(hashingStrategy.recommendedSize(),
+                            hashingStrategy.maximumOccupancy()));
+                }
+                else if (loadFactor() >= MINIMUM_ADAPTIVE_LOAD_FACTOR
+                        && slots() < PowerOfTwoHashingStrategy.MAXIMUM_SIZE)
+                {
+                    // otherwise, keys are already mixed, so reduce clustering with a larger table.
+                    DEBUG.trace("Growing $ (average probe length $)", objectName(), average);
+                    rehash(hashingStrategy.withIncreasedCapacity());
+                }
+            }
+        }
+    }
+
+    /**
+     * @return The slot where probing for the given key starts
+     */
+    private int firstSlot(int key)
+    {
+        var mask = this.mask;
+        return mask != 0 ? PowerOfTwoHashingStrategy.mix(key) & mask : index(hash(key));
+    }
+
+    /**
+     * @return The slot where probing for the given key starts
+     */
+    private int firstSlot(long key)
+    {
+        var mask = this.mask;
+        return mask != 0 ? PowerOfTwoHashingStrategy.mix(key) & mask : index(hash(key));
+    }
+
+    /**
+     * @return The slot where probing for the given key starts
+     */
+    private int firstSlot(Object key)
+    {
+        var mask = this.mask;
+        return mask != 0 ? PowerOfTwoHashingStrategy.mix(key.hashCode()) & mask : index(key.hashCode());
+    }
+
+    /**
+     * @return The index of the given value, resolved with linear probing from the given first slot
+     */
+    private int index(int[] values, int value, int slot)
+    {
+        // Linear probe resolution is quite efficient due to chip caching
+        var index = slot;
+        var tombstoneIndex = -1;
+        for (var offset = 0; offset < values.length; offset++)
+        {
+            // If we find the value we're looking for,
+            var at = index(index + offset);
+            var current = values[at];
+            if (current == value)
+            {
+                // return the index we're at
+                probed(offset + 1);
+                return at;
+            }
+
+            // If we're looking for a non-null value and the value we're at is null,
+            if (!isNull(value) && isNull(current))
+            {
+                // then we didn't find the value, so we return the first free index we encountered
+                probed(offset + 1);
+                return tombstoneIndex != -1 ? tombstoneIndex : at;
+            }
+
+            // If we haven't already found a tombstone, and we're looking at one,
+            if (tombstoneIndex == -1 && isTombstone(current))
+            {
+                // save the index, so we can return it later as an empty slot
+                tombstoneIndex = at;
+            }
+        }
+
+        // The set should never be this full
+        return illegalState("Internal error (index = $, size = $). Check the null value being used to initialize keys and values.", index, size());
+    }
+
+    /**
+     * @return The index of the given value, resolved with linear probing from the given first slot
+     */
+    private int index(long[] values, long value, int slot)
+    {
+        // Linear probe resolution is quite efficient due to chip caching
+        var index = slot;
+        var tombstoneIndex = -1;
+        boolean isNull = isNull(value);
+        for (var offset = 0; offset < values.length; offset++)
+        {
+            // If we find the value we're looking for,
+            var at = index(index + offset);
+            var current = values[at];
+            if (current == value)
+            {
+                // return the index we're at
+                probed(offset + 1);
+                return at;
+            }
+
+            // If we're looking for a non-null value and the value we're at is null,
+            if (!isNull && isNull(current))
+            {
+                // then we didn't find the value, so we return the first free index we encountered
+                probed(offset + 1);
+                return tombstoneIndex != -1 ? tombstoneIndex : at;
+            }
+
+            // If we haven't already found a tombstone, and we're looking at one,
+            if (tombstoneIndex == -1 && isTombstone(current))
+            {
+                // save the index, so we can return it later as an empty slot
+                tombstoneIndex = at;
+            }
+        }
+
+        // The set should never be this full
+        return illegalState("Internal error (index = $, size = $). Check the null value being used to initialize keys and values.", index, size());
+    }
+
+    /**
+     * @return True if the given index is in the range (start, end], where the range can wrap around the end of the
+     * table
+     */
+    private boolean isCyclicallyBetween(int start, int index, int end)
+    {
+        return start <= end
+                ? start < index && index <= end
+                : start < index || index <= end;
+    }
+
+    /**
+     * @return The mask for finding slots with the given hashing strategy, or zero if it must be done by division
+     */
+    private int mask(HashingStrategy hashingStrategy)
+    {
+        return hashingStrategy.isPowerOfTwo() ? hashingStrategy.recommendedSize().asInt() - 1 : 0;
+    }
+
     @SuppressWarnings("SpellCheckingInspection")
     private void rehash(HashingStrategy hasher)
     {
+        var start = System.nanoTime();
+
         // Create a new map and assign a hashing strategy with increased capacity,
         var copy = newMap();
         copy.hashingStrategy(hasher);
@@ -731,6 +1514,9 @@ public abstract class PrimitiveMap extends PrimitiveCollection
         // then copy all the configuration fields like null values from this object into the copy
         copy.copyNullValues(this);
 
+        // and keep the copy from rehashing itself adaptively while it's being filled,
+        copy.maximumAverageProbeLength = 0;
+
         // then copy the entries from this object into the copy
         copy.initialize();
         var progress = size() > 10_000_000
@@ -754,5 +1540,24 @@ public abstract class PrimitiveMap extends PrimitiveCollection
         // and we can copy the copy's fields back into this object
         copy(copy);
         allocated(this, "resized", this, copy.size());
+
+        // then record the rehash and start measuring probe lengths in the new table.
+        rehashes++;
+        rehashNanoseconds += System.nanoTime() - start;
+        lookups = 0;
+        probes = 0;
+        maximumProbeLength = 0;
+        windowLookups = 0;
+        windowProbes = 0;
+    }
+
+    /**
+     * Decides whether lookups count the slots they examine, once rather than on every lookup. Metrics are checked when
+     * this map is initialized or read, so a map initialized before metrics are enabled only counts if it rehashes
+     * adaptively.
+     */
+    private void updateCountingProbes()
+    {
+        countingProbes = probeCounting && (CollectionMetricsRegistry.isEnabled() || maximumAverageProbeLength > 0);
     }
 }
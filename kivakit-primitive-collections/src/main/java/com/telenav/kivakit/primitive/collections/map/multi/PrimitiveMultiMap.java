@@ -22,13 +22,29 @@ import com.telenav.kivakit.core.progress.ProgressReporter;
 import com.telenav.kivakit.core.string.Indent;
 import com.telenav.kivakit.interfaces.collection.Keyed;
 import com.telenav.kivakit.primitive.collections.PrimitiveCollection;
+import com.telenav.kivakit.primitive.collections.iteration.LongIterator;
 import com.telenav.kivakit.primitive.collections.iteration.PrimitiveIterator;
 import com.telenav.kivakit.primitive.collections.map.PrimitiveMap;
 import com.telenav.kivakit.primitive.collections.lexakai.DiagramPrimitiveMultiMap;
 import com.telenav.lexakai.annotations.UmlClassDiagram;
 
+import java.util.function.LongConsumer;
+
 import static com.telenav.kivakit.core.ensure.Ensure.unsupported;
 
+/**
+ * Base class for maps from a key to a list of values.
+ * <p>
+ * Besides the list-returning get methods of subclasses, which allocate a new list on every call, all multi-maps support
+ * allocation-free access to the values for a key:
+ * <ul>
+ *     <li>{@link #forEachValue(long, LongConsumer)} - visits each value for a key</li>
+ *     <li>{@link #copyValues(long, long[])} - copies the values for a key into a caller-supplied array</li>
+ *     <li>{@link #cursor()} - returns a {@link ValueCursor} that can be positioned on one key after another</li>
+ * </ul>
+ *
+ * @author jonathanl (shibo)
+ */
 @UmlClassDiagram(diagram = DiagramPrimitiveMultiMap.class)
 public abstract class PrimitiveMultiMap extends PrimitiveMap
 {
@@ -37,6 +53,72 @@ public abstract class PrimitiveMultiMap extends PrimitiveMap
         String toString(long key, PrimitiveIterator value);
     }
 
+    /**
+     * A reusable iterator over the values for a key. Calling {@link #seek(long)} positions the cursor on the values
+     * for a new key, copying them into a buffer that is only reallocated when a key has more values than any key
+     * before it.
+     *
+     * @author jonathanl (shibo)
+     */
+    public final class ValueCursor implements LongIterator
+    {
+        /** The values for the current key */
+        private long[] values = new long[16];
+
+        /** The number of values for the current key */
+        private int size;
+
+        /** The index of the next value to return */
+        private int index;
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public boolean hasNext()
+        {
+            return index < size;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public long next()
+        {
+            return values[index++];
+        }
+
+        /**
+         * Positions this cursor on the values for the given key
+         *
+         * @return This cursor
+         */
+        public ValueCursor seek(long key)
+        {
+            // Copy the values for the key into the buffer,
+            size = copyValues(key, values);
+
+            // and if they didn't all fit,
+            if (size > values.length)
+            {
+                // grow the buffer and copy them again.
+                values = new long[Math.max(size, values.length * 2)];
+                size = copyValues(key, values);
+            }
+            index = 0;
+            return this;
+        }
+
+        /**
+         * @return The number of values for the current key
+         */
+        public int size()
+        {
+            return size;
+        }
+    }
+
     protected PrimitiveMultiMap(String name)
     {
         super(name);
@@ -46,6 +128,30 @@ public abstract class PrimitiveMultiMap extends PrimitiveMap
     {
     }
 
+    /**
+     * Copies the values for the given key into the given array, widened to longs. If the array is too small to hold
+     * all the values, only as many as fit are copied, so the caller can compare the return value with the array length
+     * and try again with a larger array.
+     *
+     * @return The number of values for the given key, or zero if the key is not in this map
+     */
+    public abstract int copyValues(long key, long[] values);
+
+    /**
+     * @return A new reusable cursor over the values for a key in this map
+     */
+    public ValueCursor cursor()
+    {
+        return new ValueCursor();
+    }
+
+    /**
+     * Calls the consumer with each value for the given key, widened to a long, without allocating a list of values
+     *
+     * @return The number of values visited, or zero if the key is not in this map
+     */
+    public abstract int forEachValue(long key, LongConsumer consumer);
+
     @Override
     protected final void copyEntries(PrimitiveMap that, ProgressReporter reporter)
     {
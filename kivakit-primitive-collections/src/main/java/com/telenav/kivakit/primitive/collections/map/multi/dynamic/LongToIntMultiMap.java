@@ -36,9 +36,18 @@ import com.telenav.kivakit.primitive.collections.lexakai.DiagramPrimitiveMultiMa
 import com.telenav.lexakai.annotations.UmlClassDiagram;
 
 import java.util.List;
+import java.util.function.LongConsumer;
+
+import static com.telenav.kivakit.core.ensure.Ensure.ensure;
 
 /**
- * A map from long -&gt; list of longs.
+ * A map from long -&gt; list of ints.
+ * <p>
+ * While the map is being built, the values for each key are stored as a linked list in a {@link IntLinkedListStore}.
+ * Freezing the map with {@link #compress(Method)} rewrites these lists into a compressed-sparse-row layout: the values
+ * for all keys laid out end-to-end in a single array, with the values for each key found through an array of row
+ * offsets. Once frozen, the values for a key are read sequentially rather than by following next pointers, but no more
+ * values can be added.
  */
 @SuppressWarnings("DuplicatedCode") @UmlClassDiagram(diagram = DiagramPrimitiveMultiMap.class)
 public final class LongToIntMultiMap extends PrimitiveMultiMap implements
@@ -48,9 +57,15 @@ public final class LongToIntMultiMap extends PrimitiveMultiMap implements
     /** The array of arrays */
     private IntLinkedListStore values;
 
-    /** Map from key to lists index */
+    /** Map from key to lists index, or to row number once frozen */
     private SplitLongToIntMap indexes;
 
+    /** Start of each row in frozenValues, indexed by row number, with the end of the last row at the end */
+    private int[] frozenOffsets;
+
+    /** The values for every key laid out end-to-end, once frozen */
+    private int[] frozenValues;
+
     public LongToIntMultiMap(String objectName)
     {
         super(objectName);
@@ -65,6 +80,8 @@ public final class LongToIntMultiMap extends PrimitiveMultiMap implements
      */
     public void add(long key, int value)
     {
+        assert !isFrozen();
+
         if (ensureHasRoomFor(1))
         {
             var indexes = this.indexes;
@@ -84,6 +101,54 @@ public final class LongToIntMultiMap extends PrimitiveMultiMap implements
         return !indexes.isNull(indexes.get(key));
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int copyValues(long key, long[] values)
+    {
+        var index = indexes.get(key);
+        if (indexes.isNull(index))
+        {
+            return 0;
+        }
+        if (isFrozen())
+        {
+            var start = frozenOffsets[index];
+            var count = frozenOffsets[index + 1] - start;
+            for (var i = 0; i < Math.min(count, values.length); i++)
+            {
+                values[i] = frozenValues[start + i];
+            }
+            return count;
+        }
+        return this.values.copy(index, values);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int forEachValue(long key, LongConsumer consumer)
+    {
+        var index = indexes.get(key);
+        if (indexes.isNull(index))
+        {
+            return 0;
+        }
+        if (isFrozen())
+        {
+            var start = frozenOffsets[index];
+            var end = frozenOffsets[index + 1];
+            for (var i = start; i < end; i++)
+            {
+                consumer.accept(frozenValues[i]);
+            }
+            return end - start;
+        }
+        return values.forEach(index, consumer);
+    }
+
     /**
      * @return An array of longs for the given key. This method is convenient in some cases, but it is less efficient
      * than {@link #iterator(long)}.
@@ -126,6 +191,27 @@ public final class LongToIntMultiMap extends PrimitiveMultiMap implements
         var index = indexes.get(key);
         if (!indexes.isNull(index))
         {
+            if (isFrozen())
+            {
+                var start = frozenOffsets[index];
+                var end = frozenOffsets[index + 1];
+                return new IntIterator()
+                {
+                    private int at = start;
+
+                    @Override
+                    public boolean hasNext()
+                    {
+                        return at < end;
+                    }
+
+                    @Override
+                    public int next()
+                    {
+                        return frozenValues[at++];
+                    }
+                };
+            }
             return values.list(index);
         }
         return null;
@@ -144,15 +230,20 @@ public final class LongToIntMultiMap extends PrimitiveMultiMap implements
     {
         if (method == CompressibleCollection.Method.RESIZE)
         {
-            return super.onCompress(method);
-        }
-        else
-        {
+            // Resizing the map itself would require rehashing into a new map, which multi-maps don't support, so we
+            // resize the index map and list store instead
             indexes.compress(method);
             values.compress(method);
 
             return method;
         }
+        else
+        {
+            freeze();
+            indexes.compress(CompressibleCollection.Method.FREEZE);
+
+            return CompressibleCollection.Method.FREEZE;
+        }
     }
 
     @Override
@@ -174,6 +265,8 @@ public final class LongToIntMultiMap extends PrimitiveMultiMap implements
      */
     public void putAll(long key, int[] values)
     {
+        assert !isFrozen();
+
         if (ensureHasRoomFor(1))
         {
             var indexes = this.indexes;
@@ -187,6 +280,8 @@ public final class LongToIntMultiMap extends PrimitiveMultiMap implements
     @Override
     public void putAll(long key, List<? extends Quantizable> values)
     {
+        assert !isFrozen();
+
         if (ensureHasRoomFor(1))
         {
             var indexes = this.indexes;
@@ -203,6 +298,8 @@ public final class LongToIntMultiMap extends PrimitiveMultiMap implements
     @Override
     public void putAll(long key, IntArray values)
     {
+        assert !isFrozen();
+
         if (ensureHasRoomFor(1))
         {
             var indexes = this.indexes;
@@ -233,7 +330,15 @@ public final class LongToIntMultiMap extends PrimitiveMultiMap implements
     {
         super.read(kryo, input);
 
-        values = kryo.readObject(input, IntLinkedListStore.class);
+        if (compressionMethod() == CompressibleCollection.Method.FREEZE)
+        {
+            frozenOffsets = kryo.readObject(input, int[].class);
+            frozenValues = kryo.readObject(input, int[].class);
+        }
+        else
+        {
+            values = kryo.readObject(input, IntLinkedListStore.class);
+        }
         indexes = kryo.readObject(input, SplitLongToIntMap.class);
     }
 
@@ -266,7 +371,60 @@ public final class LongToIntMultiMap extends PrimitiveMultiMap implements
     {
         super.write(kryo, output);
 
-        kryo.writeObject(output, values);
+        if (isFrozen())
+        {
+            kryo.writeObject(output, frozenOffsets);
+            kryo.writeObject(output, frozenValues);
+        }
+        else
+        {
+            kryo.writeObject(output, values);
+        }
         kryo.writeObject(output, indexes);
     }
+
+    /**
+     * Rewrites the linked lists of values into a compressed-sparse-row layout, replacing the list head for each key in
+     * the index map with a row number
+     */
+    private void freeze()
+    {
+        // Get the keys and the head of each key's list,
+        var size = size();
+        var keys = new long[size];
+        var heads = new int[size];
+        var iterator = indexes.keys();
+        for (var i = 0; iterator.hasNext(); i++)
+        {
+            keys[i] = iterator.next();
+            heads[i] = indexes.get(keys[i]);
+        }
+
+        // then find where each row starts, numbering rows from one because zero is the null value of the index map,
+        var offsets = new int[size + 2];
+        for (var i = 0; i < size; i++)
+        {
+            var end = (long) offsets[i + 1] + values.length(heads[i]);
+            ensure(end <= Integer.MAX_VALUE, "Too many values to freeze $", objectName());
+            offsets[i + 2] = (int) end;
+        }
+
+        // copy each list into its row, in the same order the list was iterated in,
+        var frozen = new int[offsets[size + 1]];
+        for (var i = 0; i < size; i++)
+        {
+            values.copy(heads[i], frozen, offsets[i + 1]);
+            indexes.put(keys[i], i + 1);
+        }
+
+        // and drop the linked lists.
+        frozenOffsets = offsets;
+        frozenValues = frozen;
+        values = null;
+    }
+
+    private boolean isFrozen()
+    {
+        return frozenValues != null;
+    }
 }
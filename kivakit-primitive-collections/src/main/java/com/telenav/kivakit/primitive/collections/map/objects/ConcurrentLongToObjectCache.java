@@ -0,0 +1,413 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+package com.telenav.kivakit.primitive.collections.map.objects;
+
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+import com.telenav.kivakit.core.value.count.Count;
+import com.telenav.kivakit.primitive.collections.CompressibleCollection;
+import com.telenav.kivakit.primitive.collections.lexakai.DiagramPrimitiveMap;
+import com.telenav.kivakit.primitive.collections.map.SplitPrimitiveMap;
+import com.telenav.lexakai.annotations.UmlClassDiagram;
+
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.LongFunction;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
+
+import static com.telenav.kivakit.core.ensure.Ensure.ensure;
+
+/**
+ * A thread-safe cache from long keys to objects. Keys are partitioned by hash across a fixed number of {@link
+ * LongToObjectCache} stripes, each guarded by its own lock and given an equal share of the budget, so threads working
+ * with different stripes never contend. Since a lookup updates the reference bit of the entry it finds, {@link
+ * #get(long)} takes the exclusive lock of one stripe, like {@link #put(long, Object)} and {@link #remove(long)}, and
+ * only {@link #containsKey(long)} and the statistics take shared locks.
+ * <p>
+ * The budget is set as for {@link LongToObjectCache}, with {@link #maximumSize(int)}, {@link #maximumWeight(long)} and
+ * {@link #weigher(ToIntFunction)}, and divided exactly between the stripes, whose number can be set with {@link
+ * #stripes(int)}. Each stripe evicts its own entries with the CLOCK algorithm, so eviction order is only approximately
+ * least-recently-used across the whole cache. Stripes don't count probes, so that lookups under a shared lock don't
+ * write to them.
+ * <p>
+ * Like {@link LongToObjectCache}, this cache is {@link com.esotericsoftware.kryo.KryoSerializable}, and a cache that
+ * weighs its values must be given its weigher again after it is read.
+ *
+ * @author agent
+ * @see LongToObjectCache
+ */
+@UmlClassDiagram(diagram = DiagramPrimitiveMap.class)
+public final class ConcurrentLongToObjectCache<T> extends SplitPrimitiveMap
+{
+    /** The stripes */
+    private LongToObjectCache<T>[] children;
+
+    /** A lock for each stripe */
+    private StampedLock[] locks;
+
+    /** The number of entries in all stripes */
+    private LongAdder size = new LongAdder();
+
+    /** The number of stripes */
+    private int stripes = Runtime.getRuntime().availableProcessors() * 4;
+
+    /** Function giving the weight of a value, or null if every value weighs one */
+    private transient ToIntFunction<T> weigher;
+
+    /** The maximum total weight of the values in this cache */
+    private long maximumWeight = Long.MAX_VALUE;
+
+    public ConcurrentLongToObjectCache(String objectName)
+    {
+        super(objectName);
+    }
+
+    private ConcurrentLongToObjectCache()
+    {
+    }
+
+    @Override
+    public Count capacity()
+    {
+        return Count.count(sum(child -> child.capacity().asLong()));
+    }
+
+    /**
+     * Removes all entries from this cache. The statistics are not reset.
+     */
+    @Override
+    public void clear()
+    {
+        super.clear();
+        for (var childIndex = 0; childIndex < children.length; childIndex++)
+        {
+            var lock = locks[childIndex];
+            var stamp = lock.writeLock();
+            try
+            {
+                var child = children[childIndex];
+                size.add(-child.size());
+                child.clear();
+            }
+            finally
+            {
+                lock.unlockWrite(stamp);
+            }
+        }
+    }
+
+    /**
+     * @return True if this cache contains the given key. This is not counted as a hit or a miss, and it doesn't make
+     * the entry less likely to be evicted.
+     */
+    public boolean containsKey(long key)
+    {
+        var childIndex = childIndex(key);
+        var lock = locks[childIndex];
+        var stamp = lock.readLock();
+        try
+        {
+            return children[childIndex].containsKey(key);
+        }
+        finally
+        {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * @return The number of entries evicted to make room for new entries
+     */
+    public long evictions()
+    {
+        return sum(LongToObjectCache::evictions);
+    }
+
+    /**
+     * @return The value for the given key, or null if it is not in this cache
+     */
+    public T get(long key)
+    {
+        var childIndex = childIndex(key);
+        var lock = locks[childIndex];
+        var stamp = lock.writeLock();
+        try
+        {
+            return children[childIndex].get(key);
+        }
+        finally
+        {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * @return The value for the given key, loading it with the given loader and adding it to this cache if it is not
+     * already there. The loader is called without holding any lock, so a slow load doesn't block other threads, but
+     * threads that miss on the same key at the same time may each load it. Null values returned by the loader are not
+     * cached.
+     */
+    public T get(long key, LongFunction<? extends T> loader)
+    {
+        var value = get(key);
+        if (value == null)
+        {
+            value = loader.apply(key);
+            if (value != null)
+            {
+                put(key, value);
+            }
+        }
+        return value;
+    }
+
+    /**
+     * @return The number of lookups that found a value
+     */
+    public long hits()
+    {
+        return sum(LongToObjectCache::hits);
+    }
+
+    /**
+     * Sets the maximum total weight of the values in this cache, which is divided between the stripes
+     */
+    public ConcurrentLongToObjectCache<T> maximumWeight(long maximumWeight)
+    {
+        assert !isInitialized();
+        assert maximumWeight > 0;
+        this.maximumWeight = maximumWeight;
+        return this;
+    }
+
+    /**
+     * @return The number of lookups that didn't find a value
+     */
+    public long misses()
+    {
+        return sum(LongToObjectCache::misses);
+    }
+
+    /**
+     * Caches have a fixed budget, so they are never resized or frozen
+     */
+    @Override
+    public CompressibleCollection.Method onCompress(CompressibleCollection.Method method)
+    {
+        return CompressibleCollection.Method.NONE;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void onInitialize()
+    {
+        super.onInitialize();
+
+        var maximumSize = maximumSizeAsInt();
+        ensure(maximumSize > 0 && maximumSize < Integer.MAX_VALUE,
+                "The maximum size of cache $ must be set", objectName());
+
+        // Divide the budget between the stripes, so that each has at least one entry and a weight of one,
+        var stripes = (int) Math.min(this.stripes, Math.min(maximumSize, maximumWeight));
+        children = new LongToObjectCache[stripes];
+        for (var index = 0; index < stripes; index++)
+        {
+            // giving the remainder of each division to the first stripes, so the shares add up to the whole budget.
+            var child = new LongToObjectCache<T>(objectName() + ".stripe[" + index + "]");
+            child.copyNullValues(this);
+            child.maximumSize(maximumSize / stripes + (index < maximumSize % stripes ? 1 : 0));
+            child.maximumWeight(maximumWeight / stripes + (index < maximumWeight % stripes ? 1 : 0));
+            child.weigher(weigher);
+            child.probeCounting(false);
+            child.initialize();
+            children[index] = child;
+        }
+        locks = locks(stripes);
+    }
+
+    /**
+     * Stores the given value under the given key, first evicting entries from the key's stripe as necessary to stay
+     * within the stripe's share of the budget
+     *
+     * @return True if the value was stored
+     */
+    public boolean put(long key, T value)
+    {
+        var childIndex = childIndex(key);
+        var lock = locks[childIndex];
+        var stamp = lock.writeLock();
+        try
+        {
+            var child = children[childIndex];
+            var before = child.size();
+            var stored = child.put(key, value);
+            size.add(child.size() - before);
+            return stored;
+        }
+        finally
+        {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void read(Kryo kryo, Input input)
+    {
+        super.read(kryo, input);
+
+        children = kryo.readObject(input, LongToObjectCache[].class);
+        for (var child : children)
+        {
+            child.probeCounting(false);
+        }
+        locks = locks(children.length);
+        size = new LongAdder();
+        size.add(kryo.readObject(input, int.class));
+    }
+
+    /**
+     * Removes the given key from this cache
+     *
+     * @return True if the key was removed, false if it was not found
+     */
+    public boolean remove(long key)
+    {
+        var childIndex = childIndex(key);
+        var lock = locks[childIndex];
+        var stamp = lock.writeLock();
+        try
+        {
+            if (children[childIndex].remove(key))
+            {
+                size.decrement();
+                return true;
+            }
+            return false;
+        }
+        finally
+        {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int size()
+    {
+        return size.intValue();
+    }
+
+    /**
+     * Sets the number of stripes, which should be large enough to spread contention across threads
+     */
+    public ConcurrentLongToObjectCache<T> stripes(int stripes)
+    {
+        assert !isInitialized();
+        assert stripes > 0;
+        this.stripes = stripes;
+        return this;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "[" + getClass().getSimpleName() + " name = " + objectName() + ", size = " + size()
+                + ", stripes = " + children.length + ", weight = " + weight() + ", hits = " + hits()
+                + ", misses = " + misses() + ", evictions = " + evictions() + "]";
+    }
+
+    /**
+     * Sets the function that gives the weight of each value. If no weigher is given, every value weighs one. A cache
+     * that was read with weights must be given its weigher again.
+     */
+    public ConcurrentLongToObjectCache<T> weigher(ToIntFunction<T> weigher)
+    {
+        this.weigher = weigher;
+        if (children != null)
+        {
+            for (var child : children)
+            {
+                child.weigher(weigher);
+            }
+        }
+        return this;
+    }
+
+    /**
+     * @return The total weight of the values in this cache
+     */
+    public long weight()
+    {
+        return sum(LongToObjectCache::weight);
+    }
+
+    @Override
+    public void write(Kryo kryo, Output output)
+    {
+        super.write(kryo, output);
+
+        kryo.writeObject(output, children);
+        kryo.writeObject(output, size());
+    }
+
+    /**
+     * @return The index of the stripe that holds the given key
+     */
+    private int childIndex(long key)
+    {
+        return Math.floorMod(hash(key), children.length);
+    }
+
+    private StampedLock[] locks(int count)
+    {
+        var locks = new StampedLock[count];
+        for (var index = 0; index < count; index++)
+        {
+            locks[index] = new StampedLock();
+        }
+        return locks;
+    }
+
+    /**
+     * @return The sum of the given statistic over all stripes, each read while holding its shared lock
+     */
+    private long sum(ToLongFunction<LongToObjectCache<T>> statistic)
+    {
+        var sum = 0L;
+        for (var childIndex = 0; childIndex < children.length; childIndex++)
+        {
+            var lock = locks[childIndex];
+            var stamp = lock.readLock();
+            try
+            {
+                sum += statistic.applyAsLong(children[childIndex]);
+            }
+            finally
+            {
+                lock.unlockRead(stamp);
+            }
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,274 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+package com.telenav.kivakit.primitive.collections.map.objects;
+
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+import com.telenav.kivakit.core.progress.ProgressReporter;
+import com.telenav.kivakit.primitive.collections.iteration.LongIterator;
+import com.telenav.kivakit.primitive.collections.lexakai.DiagramPrimitiveMap;
+import com.telenav.kivakit.primitive.collections.map.PrimitiveMap;
+import com.telenav.lexakai.annotations.UmlClassDiagram;
+
+import java.util.Objects;
+import java.util.function.LongFunction;
+
+/**
+ * A cache from primitive long keys to objects, with the same open addressing layout as {@link LongToObjectMap}. The
+ * hash table is allocated once, when the cache is initialized, and never grows, so the memory used by the cache is
+ * fixed: 13 bytes per slot (17 if entries are weighed), with between 1.4 and 2.9 slots per entry, compared to about
+ * 80 bytes per entry for a {@link java.util.LinkedHashMap} of boxed keys. The budget, CLOCK eviction and statistics
+ * are described in {@link PrimitiveCache}.
+ * <p>
+ * This class is not thread-safe. {@link ConcurrentLongToObjectCache} divides a budget between independently locked
+ * caches.
+ *
+ * @author agent
+ * @see PrimitiveCache
+ * @see LongToObjectMap
+ * @see ConcurrentLongToObjectCache
+ */
+@UmlClassDiagram(diagram = DiagramPrimitiveMap.class)
+public final class LongToObjectCache<T> extends PrimitiveCache<T>
+{
+    /** The keys */
+    private long[] keys;
+
+    public LongToObjectCache(String objectName)
+    {
+        super(objectName);
+    }
+
+    private LongToObjectCache()
+    {
+    }
+
+    /**
+     * Removes all entries from this cache. The statistics are not reset.
+     */
+    @Override
+    public void clear()
+    {
+        super.clear();
+        clear(keys);
+    }
+
+    /**
+     * @return True if this cache contains the given key. This is not counted as a hit or a miss, and it doesn't make
+     * the entry less likely to be evicted.
+     */
+    public boolean containsKey(long key)
+    {
+        return contains(keys, key);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean equals(Object object)
+    {
+        if (object instanceof LongToObjectCache)
+        {
+            if (object == this)
+            {
+                return true;
+            }
+            var that = (LongToObjectCache<?>) object;
+            if (size() != that.size())
+            {
+                return false;
+            }
+            var indexes = nonEmptyIndexes(keys);
+            while (indexes.hasNext())
+            {
+                var index = indexes.next();
+                var thatIndex = that.index(that.keys, keys[index]);
+                if (that.isEmptySlot(thatIndex) || !Objects.equals(value(index), that.value(thatIndex)))
+                {
+                    return false;
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * @return The value for the given key, or null if it is not in this cache
+     */
+    public T get(long key)
+    {
+        var index = index(keys, key);
+        return isEmpty(keys[index]) ? miss() : hit(index);
+    }
+
+    /**
+     * @return The value for the given key, loading it with the given loader and adding it to this cache if it is not
+     * already there. Null values returned by the loader are not cached.
+     */
+    public T get(long key, LongFunction<? extends T> loader)
+    {
+        var value = get(key);
+        if (value == null)
+        {
+            value = loader.apply(key);
+            if (value != null)
+            {
+                put(key, value);
+            }
+        }
+        return value;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int hashCode()
+    {
+        return keys().hash();
+    }
+
+    /**
+     * @return The keys in this cache
+     */
+    public LongIterator keys()
+    {
+        return nonEmptyValues(keys);
+    }
+
+    @Override
+    public void onInitialize()
+    {
+        super.onInitialize();
+        keys = newLongArray(this, "allocated");
+    }
+
+    /**
+     * Stores the given value under the given key, first evicting entries as necessary to stay within the budget of
+     * this cache. A value that weighs more than the maximum weight is not stored, and leaves any existing value for
+     * the key in place.
+     *
+     * @return True if the value was stored
+     */
+    public boolean put(long key, T value)
+    {
+        assert !isNull(key);
+        assert value != null;
+
+        // If the value can never fit, we're done,
+        var weight = weigh(value);
+        if (weight < 0)
+        {
+            return false;
+        }
+
+        // otherwise, remove any existing entry, since the new value may weigh differently,
+        var index = index(keys, key);
+        if (!isEmpty(keys[index]))
+        {
+            removeSlot(index);
+        }
+
+        // evict entries until there's room for the new one,
+        makeRoom(weight);
+
+        // then find the slot to put it in (evictions may have moved entries around),
+        index = index(keys, key);
+
+        // and store it unreferenced.
+        keys[index] = key;
+        store(index, value, weight, false);
+        return true;
+    }
+
+    @Override
+    public void read(Kryo kryo, Input input)
+    {
+        super.read(kryo, input);
+        keys = kryo.readObject(input, long[].class);
+    }
+
+    /**
+     * Removes the given key from this cache
+     *
+     * @return True if the key was removed, false if it was not found
+     */
+    public boolean remove(long key)
+    {
+        var index = index(keys, key);
+        if (!isEmpty(keys[index]))
+        {
+            removeSlot(index);
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public void write(Kryo kryo, Output output)
+    {
+        super.write(kryo, output);
+        kryo.writeObject(output, keys);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    protected void copyEntries(PrimitiveMap uncast, ProgressReporter reporter)
+    {
+        var that = (LongToObjectCache<T>) uncast;
+        var indexes = nonEmptyIndexes(that.keys);
+        while (indexes.hasNext())
+        {
+            var index = indexes.next();
+            var key = that.keys[index];
+            var slot = index(keys, key);
+            keys[slot] = key;
+            copySlot(that, index, slot);
+            reporter.next();
+        }
+    }
+
+    @Override
+    protected boolean isEmptySlot(int slot)
+    {
+        return isEmpty(keys[slot]);
+    }
+
+    @Override
+    protected LongToObjectCache<T> newMap()
+    {
+        var cache = new LongToObjectCache<T>(objectName());
+        cache.copyBudget(this);
+        return cache;
+    }
+
+    @Override
+    protected int removeKey(int slot)
+    {
+        return removeAt(keys, slot);
+    }
+
+    @Override
+    protected int slots()
+    {
+        return keys.length;
+    }
+}
@@ -223,11 +223,11 @@ public final class LongToObjectMap<T> extends PrimitiveMap
         var index = index(keys, key);
 
         // If the key was found,
-        if (!isNull(keys[index]))
+        if (!isEmpty(keys[index]))
         {
-            // remove it
-            keys[index] = TOMBSTONE_LONG;
-            values[index] = null;
+            // remove it, moving back any keys that were displaced by it, so that no tombstone is left
+            var hole = removeAt(keys, index);
+            values[hole] = null;
             decreaseSize(1);
         }
     }
@@ -280,6 +280,12 @@ public final class LongToObjectMap<T> extends PrimitiveMap
         }
     }
 
+    @Override
+    protected void moveValue(int from, int to)
+    {
+        values[to] = values[from];
+    }
+
     @Override
     protected PrimitiveMap newMap()
     {
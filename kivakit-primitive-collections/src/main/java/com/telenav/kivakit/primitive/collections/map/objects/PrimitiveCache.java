@@ -0,0 +1,432 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+package com.telenav.kivakit.primitive.collections.map.objects;
+
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+import com.telenav.kivakit.core.value.count.Count;
+import com.telenav.kivakit.primitive.collections.CompressibleCollection;
+import com.telenav.kivakit.primitive.collections.lexakai.DiagramPrimitiveMap;
+import com.telenav.kivakit.primitive.collections.map.PowerOfTwoHashingStrategy;
+import com.telenav.kivakit.primitive.collections.map.PrimitiveMap;
+import com.telenav.lexakai.annotations.UmlClassDiagram;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.function.ToIntFunction;
+
+import static com.telenav.kivakit.core.ensure.Ensure.ensure;
+
+/**
+ * Base class for caches from primitive keys to objects, like {@link LongToObjectCache} and {@link IntToObjectCache}.
+ * Subclasses hold the keys of the cache's hash table and implement lookups with them, while this class holds the
+ * values, the budget and the statistics, and evicts entries with the CLOCK algorithm.
+ * <p>
+ * <b>Budget</b>
+ * <ul>
+ *     <li>{@link #maximumSize(int)} - The maximum number of entries, which must be set before initialization</li>
+ *     <li>{@link #weigher(ToIntFunction)} - An optional function giving the weight of a value, such as its size</li>
+ *     <li>{@link #maximumWeight(long)} - The maximum total weight of the values in the cache</li>
+ * </ul>
+ * <p>
+ * When adding an entry would exceed the budget, entries are evicted with the CLOCK algorithm, which approximates
+ * least-recently-used eviction without reordering anything on a hit. Each slot has a reference bit that is set when
+ * its entry is read. A clock hand sweeps through the slots, clearing reference bits, and evicts the first entry whose
+ * bit is already clear. New entries start unreferenced, so a scan of keys that are read only once displaces entries
+ * that have been read again.
+ * <p>
+ * <b>Statistics</b>
+ * <ul>
+ *     <li>{@link #hits()}</li>
+ *     <li>{@link #misses()}</li>
+ *     <li>{@link #evictions()}</li>
+ *     <li>{@link #weight()}</li>
+ * </ul>
+ * <p>
+ * Caches are {@link com.esotericsoftware.kryo.KryoSerializable}, with their reference bits and statistics, but a
+ * weigher is a function and isn't written, so a cache that weighs its values must be given its weigher again after it
+ * is read.
+ *
+ * @author agent
+ * @see LongToObjectCache
+ * @see IntToObjectCache
+ */
+@UmlClassDiagram(diagram = DiagramPrimitiveMap.class)
+public abstract class PrimitiveCache<T> extends PrimitiveMap
+{
+    /** The values */
+    private T[] values;
+
+    /** One if the entry in a slot has been read since the clock hand last passed it, zero otherwise */
+    private byte[] referenced;
+
+    /** The weight of the entry in each slot, or null if entries are not weighed */
+    private int[] weights;
+
+    /** Function giving the weight of a value, or null if every value weighs one */
+    private transient ToIntFunction<T> weigher;
+
+    /** The maximum total weight of the values in this cache */
+    private long maximumWeight = Long.MAX_VALUE;
+
+    /** The total weight of the values in this cache */
+    private long weight;
+
+    /** The slot the clock hand will examine next */
+    private int hand;
+
+    /** The number of lookups that found a value */
+    private long hits;
+
+    /** The number of lookups that didn't find a value */
+    private long misses;
+
+    /** The number of entries evicted to stay within budget */
+    private long evictions;
+
+    protected PrimitiveCache(String objectName)
+    {
+        super(objectName);
+    }
+
+    protected PrimitiveCache()
+    {
+    }
+
+    @Override
+    public Count capacity()
+    {
+        return Count.count(slots());
+    }
+
+    /**
+     * Removes all entries from this cache. The statistics are not reset.
+     */
+    @Override
+    public void clear()
+    {
+        super.clear();
+        Arrays.fill(values, null);
+        Arrays.fill(referenced, (byte) 0);
+        if (weights != null)
+        {
+            Arrays.fill(weights, 0);
+        }
+        weight = 0;
+        hand = 0;
+    }
+
+    /**
+     * @return The number of entries evicted to make room for new entries
+     */
+    public long evictions()
+    {
+        return evictions;
+    }
+
+    /**
+     * @return The number of lookups that found a value
+     */
+    public long hits()
+    {
+        return hits;
+    }
+
+    /**
+     * Sets the maximum total weight of the values in this cache, as given by the {@link #weigher(ToIntFunction)}, or
+     * the maximum number of values if there is no weigher
+     */
+    public PrimitiveCache<T> maximumWeight(long maximumWeight)
+    {
+        assert maximumWeight > 0;
+        this.maximumWeight = maximumWeight;
+        return this;
+    }
+
+    /**
+     * @return The number of lookups that didn't find a value
+     */
+    public long misses()
+    {
+        return misses;
+    }
+
+    /**
+     * Caches have a fixed budget, so they are never resized or frozen
+     */
+    @Override
+    public CompressibleCollection.Method onCompress(CompressibleCollection.Method method)
+    {
+        return CompressibleCollection.Method.NONE;
+    }
+
+    @Override
+    public void onInitialize()
+    {
+        var maximumSize = maximumSizeAsInt();
+        ensure(maximumSize > 0 && maximumSize < Integer.MAX_VALUE,
+                "The maximum size of cache $ must be set", objectName());
+
+        // Allocate enough slots that the maximum number of entries stays below the maximum occupancy of the table,
+        if (hashingStrategy() == null)
+        {
+            initialHashingStrategy(PowerOfTwoHashingStrategy.DEFAULT);
+        }
+        initialSize((int) Math.min(Integer.MAX_VALUE - 8, maximumSize * 10L / 7 + 1));
+
+        // which is never rehashed, so lookups have no reason to count probes.
+        maximumAverageProbeLength(0);
+        super.onInitialize();
+
+        values = newObjectArray(this, "allocated");
+        referenced = newByteArray(this, "allocated");
+        weights = weigher == null ? null : newIntArray(this, "allocated");
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void read(Kryo kryo, Input input)
+    {
+        super.read(kryo, input);
+        maximumAverageProbeLength(0);
+
+        values = (T[]) kryo.readClassAndObject(input);
+        referenced = kryo.readObject(input, byte[].class);
+        weights = kryo.readObjectOrNull(input, int[].class);
+        maximumWeight = kryo.readObject(input, long.class);
+        weight = kryo.readObject(input, long.class);
+        hand = kryo.readObject(input, int.class);
+        hits = kryo.readObject(input, long.class);
+        misses = kryo.readObject(input, long.class);
+        evictions = kryo.readObject(input, long.class);
+    }
+
+    @Override
+    public String toString()
+    {
+        return "[" + getClass().getSimpleName() + " name = " + objectName() + ", size = " + size()
+                + ", weight = " + weight + ", hits = " + hits + ", misses = " + misses
+                + ", evictions = " + evictions + "]";
+    }
+
+    /**
+     * @return The values in this cache
+     */
+    public Iterator<T> values()
+    {
+        return nonEmptyValues(values);
+    }
+
+    /**
+     * Sets the function that gives the weight of each value. If no weigher is given, every value weighs one. A cache
+     * that was read with weights must be given its weigher again.
+     */
+    public PrimitiveCache<T> weigher(ToIntFunction<T> weigher)
+    {
+        assert !isInitialized() || weights != null;
+        this.weigher = weigher;
+        return this;
+    }
+
+    /**
+     * @return The total weight of the values in this cache
+     */
+    public long weight()
+    {
+        return weight;
+    }
+
+    @Override
+    public void write(Kryo kryo, Output output)
+    {
+        super.write(kryo, output);
+
+        kryo.writeClassAndObject(output, values);
+        kryo.writeObject(output, referenced);
+        kryo.writeObjectOrNull(output, weights, int[].class);
+        kryo.writeObject(output, maximumWeight);
+        kryo.writeObject(output, weight);
+        kryo.writeObject(output, hand);
+        kryo.writeObject(output, hits);
+        kryo.writeObject(output, misses);
+        kryo.writeObject(output, evictions);
+    }
+
+    /**
+     * Copies the settings of the given cache into this new cache, so it can be filled with the given cache's entries
+     */
+    protected void copyBudget(PrimitiveCache<T> that)
+    {
+        copyNullValues(that);
+        maximumSize(that.maximumSizeAsInt());
+        maximumWeight = that.maximumWeight;
+        weigher = that.weigher;
+    }
+
+    /**
+     * Copies the entry in the given slot of the given cache into the given slot of this cache, whose key has already
+     * been set
+     */
+    protected final void copySlot(PrimitiveCache<T> that, int from, int to)
+    {
+        store(to, that.values[from], that.weights == null ? 1 : that.weights[from], that.referenced[from] != 0);
+    }
+
+    /**
+     * @return The value in the given slot, recording a hit and marking the entry as referenced, so the clock hand
+     * passes over it the next time it comes around
+     */
+    protected final T hit(int slot)
+    {
+        hits++;
+        referenced[slot] = 1;
+        return values[slot];
+    }
+
+    /**
+     * @return True if the entry in the given slot is empty
+     */
+    protected abstract boolean isEmptySlot(int slot);
+
+    /**
+     * Evicts entries until there's room for a value of the given weight
+     */
+    protected final void makeRoom(int weight)
+    {
+        while (size() >= maximumSizeAsInt() || this.weight + weight > maximumWeight)
+        {
+            evict();
+        }
+    }
+
+    /**
+     * @return Null, recording a miss
+     */
+    protected final T miss()
+    {
+        misses++;
+        return null;
+    }
+
+    @Override
+    protected final void moveValue(int from, int to)
+    {
+        values[to] = values[from];
+        referenced[to] = referenced[from];
+        if (weights != null)
+        {
+            weights[to] = weights[from];
+        }
+    }
+
+    /**
+     * Removes the key in the given slot, moving back any keys that were displaced by it
+     *
+     * @return The slot left empty
+     */
+    protected abstract int removeKey(int slot);
+
+    /**
+     * Removes the entry in the given slot, moving back any entries that were displaced by it
+     */
+    protected final void removeSlot(int slot)
+    {
+        weight -= weights == null ? 1 : weights[slot];
+        var hole = removeKey(slot);
+        values[hole] = null;
+        referenced[hole] = 0;
+        if (weights != null)
+        {
+            weights[hole] = 0;
+        }
+        decreaseSize(1);
+    }
+
+    /**
+     * Stores the given value in the given slot, whose key has already been set
+     */
+    protected final void store(int slot, T value, int weight, boolean referenced)
+    {
+        values[slot] = value;
+        this.referenced[slot] = (byte) (referenced ? 1 : 0);
+        if (weights != null)
+        {
+            weights[slot] = weight;
+        }
+        this.weight += weight;
+        incrementSize();
+    }
+
+    /**
+     * @return The value in the given slot, without recording a hit
+     */
+    protected final T value(int slot)
+    {
+        return values[slot];
+    }
+
+    /**
+     * @return The weight of the given value, or -1 if it weighs more than the maximum weight, so it can never be
+     * stored
+     */
+    protected final int weigh(T value)
+    {
+        var weight = 1;
+        if (weights != null)
+        {
+            ensure(weigher != null, "Cache $ must be given its weigher after it is read", objectName());
+            weight = weigher.applyAsInt(value);
+            assert weight >= 0;
+        }
+        return weight > maximumWeight ? -1 : weight;
+    }
+
+    /**
+     * Moves the clock hand forward until it finds an unreferenced entry, clearing the reference bits it passes, and
+     * evicts that entry
+     */
+    private void evict()
+    {
+        while (true)
+        {
+            var slot = hand;
+            hand = slot + 1 == slots() ? 0 : slot + 1;
+
+            // If the slot has an entry,
+            if (!isEmptySlot(slot))
+            {
+                // and it has been referenced since the hand last passed,
+                if (referenced[slot] != 0)
+                {
+                    // give it another chance,
+                    referenced[slot] = 0;
+                }
+                else
+                {
+                    // otherwise, evict it, and look at this slot again next time, since removing the entry may
+                    // have moved another entry into it.
+                    removeSlot(slot);
+                    evictions++;
+                    hand = slot;
+                    return;
+                }
+            }
+        }
+    }
+}
@@ -327,9 +327,9 @@ public final class IntToByteMap extends PrimitiveMap implements PrimitiveScalarM
         // If the key was found,
         if (!isEmpty(keys[index]))
         {
-            // remove it
-            keys[index] = TOMBSTONE_INT;
-            values[index] = nullByte();
+            // remove it, moving back any keys that were displaced by it, so that no tombstone is left
+            var hole = removeAt(keys, index);
+            values[hole] = nullByte();
             decreaseSize(1);
             return true;
         }
@@ -400,6 +400,15 @@ public final class IntToByteMap extends PrimitiveMap implements PrimitiveScalarM
         }
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void moveValue(int from, int to)
+    {
+        values[to] = values[from];
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -329,9 +329,9 @@ public final class IntToLongMap extends PrimitiveMap implements PrimitiveScalarM
         // If the key was found,
         if (!isEmpty(keys[index]))
         {
-            // remove it
-            keys[index] = TOMBSTONE_INT;
-            values[index] = nullLong();
+            // remove it, moving back any keys that were displaced by it, so that no tombstone is left
+            var hole = removeAt(keys, index);
+            values[hole] = nullLong();
             decreaseSize(1);
             return true;
         }
@@ -402,6 +402,15 @@ public final class IntToLongMap extends PrimitiveMap implements PrimitiveScalarM
         }
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void moveValue(int from, int to)
+    {
+        values[to] = values[from];
+    }
+
     /**
      * {@inheritDoc}
      */
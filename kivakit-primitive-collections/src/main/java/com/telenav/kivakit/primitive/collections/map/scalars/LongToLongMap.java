@@ -25,6 +25,7 @@ import com.esotericsoftware.kryo.io.Output;
 import com.telenav.kivakit.core.progress.ProgressReporter;
 import com.telenav.kivakit.core.value.count.Count;
 import com.telenav.kivakit.primitive.collections.CompressibleCollection;
+import com.telenav.kivakit.primitive.collections.array.sorting.RadixSort;
 import com.telenav.kivakit.primitive.collections.iteration.LongIterator;
 import com.telenav.kivakit.primitive.collections.map.PrimitiveMap;
 import com.telenav.kivakit.primitive.collections.map.PrimitiveScalarMap;
@@ -32,7 +33,9 @@ import com.telenav.kivakit.primitive.collections.lexakai.DiagramPrimitiveMap;
 import com.telenav.lexakai.annotations.LexakaiJavadoc;
 import com.telenav.lexakai.annotations.UmlClassDiagram;
 
-import java.util.Arrays;
+import java.util.Spliterator;
+import java.util.stream.LongStream;
+import java.util.stream.StreamSupport;
 
 /**
  * A map from long keys to long values. Supports typical map functions:
@@ -164,7 +167,7 @@ public final class LongToLongMap extends PrimitiveMap implements PrimitiveScalar
     {
         if (compressionMethod() == CompressibleCollection.Method.FREEZE)
         {
-            var index = Arrays.binarySearch(keys, key);
+            var index = frozenIndex(keys, key);
             return index < 0 ? nullLong() : values[index];
         }
         else
@@ -173,6 +176,53 @@ public final class LongToLongMap extends PrimitiveMap implements PrimitiveScalar
         }
     }
 
+    /**
+     * Gets the values of the given keys, storing the value of each key at the same position in the values array. The
+     * value of a missing key is null, which can be checked with {@link #isNull(long)}.
+     */
+    public void getAll(long[] keys, long[] values)
+    {
+        getAll(keys, 0, keys.length, values);
+    }
+
+    /**
+     * Gets the values of the given number of keys, starting at the given offset, storing the value of each key at the
+     * same position in the values array. Keys are looked up in batches, finding the first slot of every key in a batch
+     * before probing any of them, so that their cache misses overlap.
+     */
+    public void getAll(long[] keys, int offset, int count, long[] values)
+    {
+        assert offset >= 0 && count >= 0;
+        assert offset + count <= keys.length && offset + count <= values.length;
+
+        // If the map is frozen,
+        if (compressionMethod() == CompressibleCollection.Method.FREEZE)
+        {
+            // look up each key in turn,
+            for (var i = offset; i < offset + count; i++)
+            {
+                values[i] = get(keys[i]);
+            }
+        }
+        else
+        {
+            // otherwise, go through the keys a batch at a time,
+            var indexes = new int[BATCH_SIZE];
+            for (var start = offset; start < offset + count; start += BATCH_SIZE)
+            {
+                // find the index of each key in the batch,
+                var batch = Math.min(BATCH_SIZE, offset + count - start);
+                indexes(this.keys, keys, start, batch, indexes);
+
+                // and copy out the values.
+                for (var i = 0; i < batch; i++)
+                {
+                    values[start + i] = this.values[indexes[i]];
+                }
+            }
+        }
+    }
+
     @Override
     public long getScalar(long key)
     {
@@ -210,6 +260,23 @@ public final class LongToLongMap extends PrimitiveMap implements PrimitiveScalar
         return isNull(value);
     }
 
+    /**
+     * @return A spliterator over the keys in this map, which splits the hash table into ranges of slots
+     */
+    public Spliterator.OfLong keySpliterator()
+    {
+        return nonEmptySpliterator(keys);
+    }
+
+    /**
+     * @return A stream of the keys in this map in an undefined order, which can be made parallel with {@link
+     * LongStream#parallel()}
+     */
+    public LongStream keyStream()
+    {
+        return StreamSupport.longStream(keySpliterator(), false);
+    }
+
     /**
      * @return The keys in this map in an undefined order
      */
@@ -231,17 +298,27 @@ public final class LongToLongMap extends PrimitiveMap implements PrimitiveScalar
         }
         else
         {
+            // Copy the keys and values out of the hash table,
             var frozenKeys = newLongArray(this, "froze", size());
             var frozenValues = newLongArray(this, "froze", size());
-            var keys = keys();
-            for (var i = 0; keys.hasNext(); i++)
+            var indexes = nonEmptyIndexes(keys);
+            for (var i = 0; indexes.hasNext(); i++)
             {
-                frozenKeys[i] = keys.next();
+                var index = indexes.next();
+                frozenKeys[i] = keys[index];
+                frozenValues[i] = values[index];
             }
-            Arrays.sort(frozenKeys);
-            for (var i = 0; i < frozenValues.length; i++)
+
+            // and if perfect hashing is enabled, move each entry to the index of its key,
+            var index = indexFrozenKeys(frozenKeys);
+            if (index != null)
+            {
+                index.reorder(frozenKeys, frozenValues);
+            }
+            else
             {
-                frozenValues[i] = get(frozenKeys[i]);
+                // otherwise, sort them together by key, so the values don't have to be looked up again.
+                RadixSort.sort(frozenKeys, frozenValues, 0, frozenKeys.length);
             }
             this.keys = frozenKeys;
             values = frozenValues;
@@ -295,6 +372,84 @@ public final class LongToLongMap extends PrimitiveMap implements PrimitiveScalar
         }
     }
 
+    /**
+     * Stores the given values under the given keys, as if by calling {@link #put(long, long)} for each key in turn
+     *
+     * @return The number of keys that were not already in the map
+     */
+    public int putAll(long[] keys, long[] values)
+    {
+        return putAll(keys, 0, keys.length, values);
+    }
+
+    /**
+     * Stores the given number of values under the given keys, starting at the given offset. Keys are stored in
+     * batches, finding the first slot of every key in a batch before probing any of them, so that their cache misses
+     * overlap.
+     *
+     * @return The number of keys that were not already in the map
+     */
+    public int putAll(long[] keys, int offset, int count, long[] values)
+    {
+        assert offset >= 0 && count >= 0;
+        assert offset + count <= keys.length && offset + count <= values.length;
+        assert compressionMethod() != CompressibleCollection.Method.FREEZE;
+
+        var added = 0;
+        var indexes = new int[BATCH_SIZE];
+        var end = offset + count;
+        var start = offset;
+        while (start < end)
+        {
+            // Find the index of each key in the next batch,
+            var batch = Math.min(BATCH_SIZE, end - start);
+            var slotKeys = this.keys;
+            var slotValues = this.values;
+            indexes(slotKeys, keys, start, batch, indexes);
+
+            // then go through the batch,
+            var i = 0;
+            while (i < batch)
+            {
+                var key = keys[start + i];
+                var value = values[start + i];
+                assert !isEmpty(value);
+                var index = indexes[i++];
+
+                // and if an earlier key in the batch took the slot found for this key,
+                var current = slotKeys[index];
+                if (current != key && !isEmpty(current))
+                {
+                    // find the index again.
+                    index = index(slotKeys, key);
+                }
+
+                // If the slot at the index is empty,
+                if (isEmpty(slotKeys[index]))
+                {
+                    // then we're adding a new key/value pair,
+                    slotKeys[index] = key;
+                    slotValues[index] = value;
+                    increaseSize();
+                    added++;
+
+                    // and if that rehashed the map, the rest of the batch has stale indexes, so start a new batch.
+                    if (this.keys != slotKeys)
+                    {
+                        break;
+                    }
+                }
+                else
+                {
+                    // otherwise, we're just changing the value
+                    slotValues[index] = value;
+                }
+            }
+            start += i;
+        }
+        return added;
+    }
+
     @Override
     public void putScalar(long key, long value)
     {
@@ -327,9 +482,9 @@ public final class LongToLongMap extends PrimitiveMap implements PrimitiveScalar
         // If the key was found,
         if (!isEmpty(keys[index]))
         {
-            // remove it
-            keys[index] = TOMBSTONE_INT;
-            values[index] = nullLong();
+            // remove it, moving back any keys that were displaced by it, so that no tombstone is left
+            var hole = removeAt(keys, index);
+            values[hole] = nullLong();
             decreaseSize(1);
             return true;
         }
@@ -346,6 +501,23 @@ public final class LongToLongMap extends PrimitiveMap implements PrimitiveScalar
                 toString(keys(), values(), (key, value) -> key + " -> " + value);
     }
 
+    /**
+     * @return A spliterator over the values in this map, which splits the hash table into ranges of slots
+     */
+    public Spliterator.OfLong valueSpliterator()
+    {
+        return nonEmptySpliterator(values);
+    }
+
+    /**
+     * @return A stream of the values in this map in an undefined order, which can be made parallel with {@link
+     * LongStream#parallel()}
+     */
+    public LongStream valueStream()
+    {
+        return StreamSupport.longStream(valueSpliterator(), false);
+    }
+
     /**
      * @return The values in this map in an undefined order
      */
@@ -400,6 +572,15 @@ public final class LongToLongMap extends PrimitiveMap implements PrimitiveScalar
         }
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void moveValue(int from, int to)
+    {
+        values[to] = values[from];
+    }
+
     /**
      * {@inheritDoc}
      */
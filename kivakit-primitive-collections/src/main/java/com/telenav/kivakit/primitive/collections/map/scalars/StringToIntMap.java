@@ -260,9 +260,9 @@ public final class StringToIntMap extends PrimitiveMap
         // If the key was found,
         if (!isEmpty(keys[index]))
         {
-            // remove it
-            keys[index] = TOMBSTONE_STRING;
-            values[index] = nullInt();
+            // remove it, moving back any keys that were displaced by it, so that no tombstone is left
+            var hole = removeAt(keys, index);
+            values[hole] = nullInt();
             decreaseSize(1);
             return true;
         }
@@ -332,6 +332,15 @@ public final class StringToIntMap extends PrimitiveMap
         }
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void moveValue(int from, int to)
+    {
+        values[to] = values[from];
+    }
+
     /**
      * {@inheritDoc}
      */
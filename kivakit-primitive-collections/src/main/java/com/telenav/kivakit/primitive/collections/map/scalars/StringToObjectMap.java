@@ -289,9 +289,9 @@ public final class StringToObjectMap<T> extends PrimitiveMap
         // If the key was found,
         if (!isEmpty(keys[index]))
         {
-            // remove it
-            keys[index] = TOMBSTONE_STRING;
-            values[index] = null;
+            // remove it, moving back any keys that were displaced by it, so that no tombstone is left
+            var hole = removeAt(keys, index);
+            values[hole] = null;
             decreaseSize(1);
             return true;
         }
@@ -375,6 +375,15 @@ public final class StringToObjectMap<T> extends PrimitiveMap
         }
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void moveValue(int from, int to)
+    {
+        values[to] = values[from];
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -0,0 +1,794 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+package com.telenav.kivakit.primitive.collections.map.scalars;
+
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+import com.telenav.kivakit.core.progress.ProgressReporter;
+import com.telenav.kivakit.core.value.count.Count;
+import com.telenav.kivakit.core.value.count.Estimate;
+import com.telenav.kivakit.primitive.collections.CompressibleCollection;
+import com.telenav.kivakit.primitive.collections.array.scalars.SplitByteArray;
+import com.telenav.kivakit.primitive.collections.iteration.IntIterator;
+import com.telenav.kivakit.primitive.collections.map.PrimitiveMap;
+import com.telenav.kivakit.primitive.collections.lexakai.DiagramPrimitiveMap;
+import com.telenav.lexakai.annotations.UmlClassDiagram;
+
+import java.util.Iterator;
+
+import static com.telenav.kivakit.core.ensure.Ensure.ensure;
+import static com.telenav.kivakit.core.ensure.Ensure.illegalState;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Base class for maps with string keys that are stored as UTF-8 bytes rather than as {@link String} objects. The bytes
+ * of all keys are laid out end-to-end in a single {@link SplitByteArray} arena, each preceded by its length, and the
+ * hash table holds only the arena offset and the cached hash of each key in parallel int arrays. A key costs its UTF-8
+ * bytes plus about 9 bytes for its length and slot, instead of the 40 or more bytes of overhead for a {@link String}.
+ * <p>
+ * Keys can be given as any {@link CharSequence} or as a slice of a UTF-8 byte array. Neither form of key is copied or
+ * encoded into a new array when it is looked up, and a {@link CharSequence} key is only encoded into the arena when it
+ * is added. Because keys are compared by their UTF-8 encoding, an unpaired surrogate character matches '?', as it does
+ * in {@link String#getBytes(java.nio.charset.Charset)}.
+ * <p>
+ * Since cached hashes are kept, rehashing moves slots without reading key bytes, and the arena is shared with the
+ * rehashed table rather than copied. The bytes of removed keys stay in the arena until the map is compressed, when the
+ * live keys are copied into a new arena. Clearing the map starts a new, empty arena.
+ * <p>
+ * The arena is indexed by int, so a map can hold up to 2GB of key bytes. This is deliberate: int offsets keep a slot
+ * to 8 bytes (its offset and hash), where long offsets would make it 12, for every key in every map. Since the slot
+ * arrays are themselves indexed by int, 2GB still allows hundreds of millions of keys of typical length. If the arena
+ * fills up, the bytes of removed keys are reclaimed before adding another key fails. Larger key sets should be
+ * partitioned across several maps.
+ *
+ * @author agent
+ * @see Utf8ToIntMap
+ * @see Utf8ToLongMap
+ */
+@SuppressWarnings("DuplicatedCode") @UmlClassDiagram(diagram = DiagramPrimitiveMap.class)
+public abstract class Utf8KeyedMap extends PrimitiveMap
+{
+    /** The bytes of all keys, each preceded by a variable length integer giving its length */
+    private SplitByteArray keyBytes;
+
+    /** Insert index to the key bytes array, starting at one, so that no key has offset zero */
+    private int keyBytesIndex = 1;
+
+    /** The arena offset of the key in each slot, or null if the slot is empty */
+    private int[] keys;
+
+    /** The hash of the key in each slot */
+    private int[] hashes;
+
+    protected Utf8KeyedMap(String objectName)
+    {
+        super(objectName);
+    }
+
+    protected Utf8KeyedMap()
+    {
+    }
+
+    @Override
+    public Count capacity()
+    {
+        return Count.count(keys.length);
+    }
+
+    /**
+     * Clears all key/value pairs from this map, replacing the arena holding their bytes with an empty one
+     */
+    @Override
+    public void clear()
+    {
+        super.clear();
+        clear(keys);
+        keyBytes = newKeyBytes();
+        keyBytesIndex = 1;
+    }
+
+    /**
+     * @return True if this map contains the given key
+     */
+    public boolean containsKey(CharSequence key)
+    {
+        return keySlot(key) >= 0;
+    }
+
+    /**
+     * @return True if this map contains the key with the given UTF-8 bytes
+     */
+    public boolean containsKey(byte[] key, int offset, int length)
+    {
+        return keySlot(key, offset, length) >= 0;
+    }
+
+    /**
+     * @return The keys in this map, which are decoded into new strings
+     */
+    public Iterator<String> keys()
+    {
+        var slots = nonEmptyIndexes(keys);
+        return new Iterator<>()
+        {
+            @Override
+            public boolean hasNext()
+            {
+                return slots.hasNext();
+            }
+
+            @Override
+            public String next()
+            {
+                return key(slots.next());
+            }
+        };
+    }
+
+    @Override
+    public CompressibleCollection.Method onCompress(CompressibleCollection.Method method)
+    {
+        // Copy the live keys to a new arena, leaving behind the bytes of removed keys, and trim it. The key bytes
+        // stay writable, so keys can still be added,
+        compactKeyBytes();
+        keyBytes.compress(CompressibleCollection.Method.RESIZE);
+
+        // and a frozen map is the same as a trimmed map, since it is still a hash table.
+        return super.onCompress(CompressibleCollection.Method.RESIZE);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void onInitialize()
+    {
+        super.onInitialize();
+
+        keyBytes = newKeyBytes();
+
+        keys = newIntArray(objectName() + ".keys", "allocated");
+        hashes = newIntArray(objectName() + ".hashes", "allocated");
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void read(Kryo kryo, Input input)
+    {
+        super.read(kryo, input);
+
+        keyBytes = kryo.readObject(input, SplitByteArray.class);
+        keyBytesIndex = kryo.readObject(input, int.class);
+        keys = kryo.readObject(input, int[].class);
+        hashes = kryo.readObject(input, int[].class);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString()
+    {
+        return "[" + getClass().getSimpleName() + " name = " + objectName() + ", size = " + size() + "]";
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void write(Kryo kryo, Output output)
+    {
+        super.write(kryo, output);
+
+        kryo.writeObject(output, keyBytes);
+        kryo.writeObject(output, keyBytesIndex);
+        kryo.writeObject(output, keys);
+        kryo.writeObject(output, hashes);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void copy(PrimitiveMap uncast)
+    {
+        super.copy(uncast);
+
+        var that = (Utf8KeyedMap) uncast;
+        keyBytes = that.keyBytes;
+        keyBytesIndex = that.keyBytesIndex;
+        keys = that.keys;
+        hashes = that.hashes;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void copyEntries(PrimitiveMap uncast, ProgressReporter reporter)
+    {
+        var that = (Utf8KeyedMap) uncast;
+
+        // Share the key bytes of the map we're copying,
+        keyBytes = that.keyBytes;
+        keyBytesIndex = that.keyBytesIndex;
+
+        // then move each of its slots into an empty slot in this map, using the cached hash.
+        var slots = nonEmptyIndexes(that.keys);
+        while (slots.hasNext())
+        {
+            var from = slots.next();
+            var hash = that.hashes[from];
+            var to = emptySlot(hash);
+            keys[to] = that.keys[from];
+            hashes[to] = hash;
+            copyValue(that, from, to);
+            increaseSize();
+            reporter.next();
+        }
+    }
+
+    /**
+     * Copies the value in the given slot of the given map to the given slot of this map
+     */
+    protected abstract void copyValue(Utf8KeyedMap that, int from, int to);
+
+    /**
+     * @return The hash of the keys and values in this map, combined in an order-independent way
+     */
+    protected final int entriesHash(int[] values)
+    {
+        var hash = 0;
+        var slots = nonEmptyIndexes(keys);
+        while (slots.hasNext())
+        {
+            var slot = slots.next();
+            hash += hashes[slot] * 31 + values[slot];
+        }
+        return hash;
+    }
+
+    /**
+     * @return The hash of the keys and values in this map, combined in an order-independent way
+     */
+    protected final int entriesHash(long[] values)
+    {
+        var hash = 0;
+        var slots = nonEmptyIndexes(keys);
+        while (slots.hasNext())
+        {
+            var slot = slots.next();
+            hash += hashes[slot] * 31 + Long.hashCode(values[slot]);
+        }
+        return hash;
+    }
+
+    /**
+     * @return The slot in this map holding the key in the given slot of the given map, or -1 if this map doesn't have
+     * the key
+     */
+    protected final int keySlot(Utf8KeyedMap that, int thatSlot)
+    {
+        var hash = that.hashes[thatSlot];
+        var thatStart = that.keyStart(that.keys[thatSlot]);
+        var length = that.keyLength(that.keys[thatSlot]);
+        var first = index(hash);
+        for (var offset = 0; offset < keys.length; offset++)
+        {
+            var at = index(first + offset);
+            var key = keys[at];
+            if (isNull(key))
+            {
+                return -1;
+            }
+            if (hashes[at] == hash && keyLength(key) == length
+                    && equals(keyStart(key), that.keyBytes, thatStart, length))
+            {
+                return at;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @return The slot holding the given key, or -1 if it is not in this map
+     */
+    protected final int keySlot(CharSequence key)
+    {
+        var slot = slot(key, hash(key));
+        return isNull(keys[slot]) ? -1 : slot;
+    }
+
+    /**
+     * @return The slot holding the key with the given UTF-8 bytes, or -1 if it is not in this map
+     */
+    protected final int keySlot(byte[] key, int offset, int length)
+    {
+        var slot = slot(key, offset, length, hash(key, offset, length));
+        return isNull(keys[slot]) ? -1 : slot;
+    }
+
+    /**
+     * @return The slots in this map that hold keys
+     */
+    protected final IntIterator nonEmptySlots()
+    {
+        return nonEmptyIndexes(keys);
+    }
+
+    /**
+     * Finds the slot for the given key, adding the key to the arena and the slot if it is not in this map. The caller
+     * must store the value in the slot and then call {@link #increaseSize()} if the key was added.
+     *
+     * @return The slot holding the key if it was already in this map, or (-slot - 1) if it was added
+     */
+    protected final int putKey(CharSequence key)
+    {
+        var hash = hash(key);
+        var slot = slot(key, hash);
+        if (!isNull(keys[slot]))
+        {
+            return slot;
+        }
+
+        // Append the key to the arena as it is encoded.
+        var offset = appendLength(utf8Length(key));
+        for (var i = 0; i < key.length(); )
+        {
+            var codePoint = codePointAt(key, i);
+            var length = utf8Length(codePoint);
+            for (var j = 0; j < length; j++)
+            {
+                keyBytes.set(keyBytesIndex++, utf8Byte(codePoint, length, j));
+            }
+            i += Character.charCount(codePoint);
+        }
+        keys[slot] = offset;
+        hashes[slot] = hash;
+        return -slot - 1;
+    }
+
+    /**
+     * Finds the slot for the key with the given UTF-8 bytes, adding the key to the arena and the slot if it is not in
+     * this map, as {@link #putKey(CharSequence)} does
+     *
+     * @return The slot holding the key if it was already in this map, or (-slot - 1) if it was added
+     */
+    protected final int putKey(byte[] key, int offset, int length)
+    {
+        var hash = hash(key, offset, length);
+        var slot = slot(key, offset, length, hash);
+        if (!isNull(keys[slot]))
+        {
+            return slot;
+        }
+
+        // Append the key to the arena.
+        var start = appendLength(length);
+        for (var i = 0; i < length; i++)
+        {
+            keyBytes.set(keyBytesIndex++, key[offset + i]);
+        }
+        keys[slot] = start;
+        hashes[slot] = hash;
+        return -slot - 1;
+    }
+
+    /**
+     * Removes the key in the given slot, moving back any later keys in its probe sequence that are allowed to move
+     * closer to their first slot, as {@link #removeAt(int[], int)} does. The caller must clear the value in the
+     * returned slot and call {@link #decreaseSize(int)}.
+     *
+     * @return The index of the slot that was finally vacated
+     */
+    protected final int removeSlot(int slot)
+    {
+        var hole = slot;
+        for (var offset = 1; offset < keys.length; offset++)
+        {
+            // Go to the next slot in the probe sequence,
+            var at = index(slot + offset);
+
+            // and if it's empty, the probe sequence has ended,
+            if (isNull(keys[at]))
+            {
+                break;
+            }
+
+            // otherwise, if the key could not have been placed in the hole,
+            var first = index(hashes[at]);
+            var between = hole <= at
+                    ? hole < first && first <= at
+                    : hole < first || first <= at;
+            if (!between)
+            {
+                // move it back into the hole, leaving a new hole where it was.
+                keys[hole] = keys[at];
+                hashes[hole] = hashes[at];
+                moveValue(at, hole);
+                hole = at;
+            }
+        }
+        keys[hole] = nullInt();
+        return hole;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected int slots()
+    {
+        return keys.length;
+    }
+
+    /**
+     * Writes the given key length to the end of the arena as a variable length integer
+     *
+     * @return The arena offset of the key
+     */
+    private int appendLength(int length)
+    {
+        // If the arena is full, reclaim the bytes of any removed keys before giving up.
+        if (keyBytesIndex + length + 5L > Integer.MAX_VALUE)
+        {
+            compactKeyBytes();
+        }
+        ensure(keyBytesIndex + length + 5L <= Integer.MAX_VALUE, "$ has no room for more keys in its 2GB key arena",
+                objectName());
+
+        var offset = keyBytesIndex;
+        var value = length;
+        while ((value & ~0x7f) != 0)
+        {
+            keyBytes.set(keyBytesIndex++, (byte) ((value & 0x7f) | 0x80));
+            value >>>= 7;
+        }
+        keyBytes.set(keyBytesIndex++, (byte) value);
+        return offset;
+    }
+
+    /**
+     * @return The code point at the given index in the given sequence, or '?' if the character there is an unpaired
+     * surrogate
+     */
+    private int codePointAt(CharSequence sequence, int index)
+    {
+        var character = sequence.charAt(index);
+        if (Character.isHighSurrogate(character) && index + 1 < sequence.length())
+        {
+            var low = sequence.charAt(index + 1);
+            if (Character.isLowSurrogate(low))
+            {
+                return Character.toCodePoint(character, low);
+            }
+        }
+        return Character.isSurrogate(character) ? '?' : character;
+    }
+
+    /**
+     * Copies the bytes of the keys in this map to a new arena, if removed keys have left bytes behind in the current
+     * one. The current arena is not modified, since it may still be shared with the table this map was rehashed from.
+     */
+    private void compactKeyBytes()
+    {
+        // Count the bytes of the keys in this map,
+        var live = 0L;
+        var slots = nonEmptyIndexes(keys);
+        while (slots.hasNext())
+        {
+            var key = keys[slots.next()];
+            live += keyStart(key) + keyLength(key) - key;
+        }
+
+        // and if removed keys have left bytes behind,
+        if (live < keyBytesIndex - 1)
+        {
+            // copy each key and its length to the end of a new arena,
+            var compacted = newKeyBytes();
+            var index = 1;
+            slots = nonEmptyIndexes(keys);
+            while (slots.hasNext())
+            {
+                var slot = slots.next();
+                var key = keys[slot];
+                var end = keyStart(key) + keyLength(key);
+                keys[slot] = index;
+                for (var at = key; at < end; at++)
+                {
+                    compacted.set(index++, keyBytes.get(at));
+                }
+            }
+
+            // then use the new arena in place of the old one.
+            keyBytes = compacted;
+            keyBytesIndex = index;
+        }
+    }
+
+    /**
+     * @return The first empty slot in the probe sequence for the given hash
+     */
+    private int emptySlot(int hash)
+    {
+        var at = index(hash);
+        while (!isNull(keys[at]))
+        {
+            at = index(at + 1);
+        }
+        return at;
+    }
+
+    /**
+     * @return True if the bytes at the given offset in the arena are the same as the given bytes
+     */
+    private boolean equals(int start, byte[] bytes, int offset, int length)
+    {
+        for (var i = 0; i < length; i++)
+        {
+            if (keyBytes.get(start + i) != bytes[offset + i])
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return True if the bytes at the given offset in the arena are the same as the bytes at the given offset in the
+     * given arena
+     */
+    private boolean equals(int start, SplitByteArray bytes, int offset, int length)
+    {
+        for (var i = 0; i < length; i++)
+        {
+            if (keyBytes.get(start + i) != bytes.get(offset + i))
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return True if the key at the given offset in the arena is the UTF-8 encoding of the given sequence
+     */
+    private boolean equals(int key, CharSequence sequence)
+    {
+        var at = keyStart(key);
+        var end = at + keyLength(key);
+        for (var i = 0; i < sequence.length(); )
+        {
+            var codePoint = codePointAt(sequence, i);
+            var length = utf8Length(codePoint);
+            if (at + length > end)
+            {
+                return false;
+            }
+            for (var j = 0; j < length; j++)
+            {
+                if (keyBytes.get(at++) != utf8Byte(codePoint, length, j))
+                {
+                    return false;
+                }
+            }
+            i += Character.charCount(codePoint);
+        }
+        return at == end;
+    }
+
+    /**
+     * @return The non-negative FNV-1a hash of the UTF-8 encoding of the given sequence, which is the same as the hash
+     * of the encoded bytes
+     */
+    private int hash(CharSequence sequence)
+    {
+        var hash = 0x811c9dc5;
+        for (var i = 0; i < sequence.length(); )
+        {
+            var codePoint = codePointAt(sequence, i);
+            var length = utf8Length(codePoint);
+            for (var j = 0; j < length; j++)
+            {
+                hash = (hash ^ (utf8Byte(codePoint, length, j) & 0xff)) * 0x01000193;
+            }
+            i += Character.charCount(codePoint);
+        }
+        return mix(hash);
+    }
+
+    /**
+     * @return The non-negative FNV-1a hash of the given bytes
+     */
+    private int hash(byte[] bytes, int offset, int length)
+    {
+        var hash = 0x811c9dc5;
+        for (var i = offset; i < offset + length; i++)
+        {
+            hash = (hash ^ (bytes[i] & 0xff)) * 0x01000193;
+        }
+        return mix(hash);
+    }
+
+    /**
+     * @return The key at the given arena offset, decoded into a new string
+     */
+    private String key(int slot)
+    {
+        var key = keys[slot];
+        var bytes = new byte[keyLength(key)];
+        var start = keyStart(key);
+        for (var i = 0; i < bytes.length; i++)
+        {
+            bytes[i] = keyBytes.get(start + i);
+        }
+        return new String(bytes, UTF_8);
+    }
+
+    /**
+     * @return The number of bytes in the key at the given arena offset
+     */
+    private int keyLength(int key)
+    {
+        var length = 0;
+        for (var shift = 0; ; shift += 7)
+        {
+            var next = keyBytes.get(key++);
+            length |= (next & 0x7f) << shift;
+            if ((next & 0x80) == 0)
+            {
+                return length;
+            }
+        }
+    }
+
+    /**
+     * @return The arena offset of the first byte of the key at the given arena offset
+     */
+    private int keyStart(int key)
+    {
+        while ((keyBytes.get(key) & 0x80) != 0)
+        {
+            key++;
+        }
+        return key + 1;
+    }
+
+    /**
+     * @return The given hash with its bits mixed, so the slot selected by its low bits depends on every byte, and with
+     * the sign bit cleared
+     */
+    private int mix(int hash)
+    {
+        hash ^= hash >>> 16;
+        hash *= 0x85ebca6b;
+        hash ^= hash >>> 13;
+        hash *= 0xc2b2ae35;
+        hash ^= hash >>> 16;
+        return hash & Integer.MAX_VALUE;
+    }
+
+    /**
+     * @return A new, empty arena for key bytes
+     */
+    private SplitByteArray newKeyBytes()
+    {
+        var keyBytes = new SplitByteArray(objectName() + ".keyBytes");
+        keyBytes.initialSize(Estimate._1024).initialize();
+        return keyBytes;
+    }
+
+    /**
+     * @return The slot holding the given key, or the empty slot where it would be added
+     */
+    private int slot(CharSequence key, int hash)
+    {
+        var first = index(hash);
+        for (var offset = 0; offset < keys.length; offset++)
+        {
+            var at = index(first + offset);
+            var current = keys[at];
+            if (isNull(current) || (hashes[at] == hash && equals(current, key)))
+            {
+                probed(offset + 1);
+                return at;
+            }
+        }
+        return illegalState("Internal error (size = $)", size());
+    }
+
+    /**
+     * @return The slot holding the key with the given UTF-8 bytes, or the empty slot where it would be added
+     */
+    private int slot(byte[] key, int offset, int length, int hash)
+    {
+        var first = index(hash);
+        for (var probe = 0; probe < keys.length; probe++)
+        {
+            var at = index(first + probe);
+            var current = keys[at];
+            if (isNull(current) || (hashes[at] == hash && keyLength(current) == length
+                    && equals(keyStart(current), key, offset, length)))
+            {
+                probed(probe + 1);
+                return at;
+            }
+        }
+        return illegalState("Internal error (size = $)", size());
+    }
+
+    /**
+     * @return The given byte of the UTF-8 encoding of the given code point, which has the given length
+     */
+    private byte utf8Byte(int codePoint, int length, int index)
+    {
+        var shift = 6 * (length - 1 - index);
+        if (index > 0)
+        {
+            return (byte) (0x80 | ((codePoint >>> shift) & 0x3f));
+        }
+        switch (length)
+        {
+            case 1:
+                return (byte) codePoint;
+
+            case 2:
+                return (byte) (0xc0 | (codePoint >>> shift));
+
+            case 3:
+                return (byte) (0xe0 | (codePoint >>> shift));
+
+            default:
+                return (byte) (0xf0 | (codePoint >>> shift));
+        }
+    }
+
+    /**
+     * @return The number of bytes in the UTF-8 encoding of the given code point
+     */
+    private int utf8Length(int codePoint)
+    {
+        if (codePoint < 0x80)
+        {
+            return 1;
+        }
+        if (codePoint < 0x800)
+        {
+            return 2;
+        }
+        return codePoint < 0x10000 ? 3 : 4;
+    }
+
+    /**
+     * @return The number of bytes in the UTF-8 encoding of the given sequence
+     */
+    private int utf8Length(CharSequence sequence)
+    {
+        var length = 0;
+        for (var i = 0; i < sequence.length(); )
+        {
+            var codePoint = codePointAt(sequence, i);
+            length += utf8Length(codePoint);
+            i += Character.charCount(codePoint);
+        }
+        return length;
+    }
+}
@@ -0,0 +1,297 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+package com.telenav.kivakit.primitive.collections.map.scalars;
+
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.KryoSerializable;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+import com.telenav.kivakit.primitive.collections.CompressibleCollection;
+import com.telenav.kivakit.primitive.collections.iteration.IntIterator;
+import com.telenav.kivakit.primitive.collections.map.PrimitiveMap;
+import com.telenav.kivakit.primitive.collections.lexakai.DiagramPrimitiveMap;
+import com.telenav.lexakai.annotations.UmlClassDiagram;
+
+import static com.telenav.kivakit.core.ensure.Ensure.ensure;
+
+/**
+ * A map from string keys to int values, where the keys are stored as UTF-8 bytes in an arena, as described in {@link
+ * Utf8KeyedMap}. Keys can be given as any {@link CharSequence}, or as a slice of a byte array holding UTF-8. Supports
+ * typical map functions:
+ * <p>
+ * <b>Access</b>
+ * <ul>
+ *     <li>{@link #get(CharSequence)}, {@link #get(byte[], int, int)}</li>
+ *     <li>{@link #put(CharSequence, int)}, {@link #put(byte[], int, int, int)}</li>
+ *     <li>{@link #remove(CharSequence)}, {@link #remove(byte[], int, int)}</li>
+ *     <li>{@link #clear()}</li>
+ * </ul>
+ * <p>
+ * <b>Keys and Values</b>
+ * <ul>
+ *     <li>{@link #keys()}</li>
+ *     <li>{@link #values()}</li>
+ * </ul>
+ * <p>
+ * This class supports the {@link #hashCode()} / {@link #equals(Object)} contract and is {@link KryoSerializable}.
+ *
+ * @author agent
+ * @see Utf8KeyedMap
+ * @see KryoSerializable
+ */
+@SuppressWarnings("DuplicatedCode") @UmlClassDiagram(diagram = DiagramPrimitiveMap.class)
+public final class Utf8ToIntMap extends Utf8KeyedMap
+{
+    /** The values */
+    private int[] values;
+
+    public Utf8ToIntMap(String objectName)
+    {
+        super(objectName);
+    }
+
+    private Utf8ToIntMap()
+    {
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean equals(Object object)
+    {
+        if (object instanceof Utf8ToIntMap)
+        {
+            if (object == this)
+            {
+                return true;
+            }
+            var that = (Utf8ToIntMap) object;
+            if (size() != that.size())
+            {
+                return false;
+            }
+            var slots = that.nonEmptySlots();
+            while (slots.hasNext())
+            {
+                var slot = slots.next();
+                var index = keySlot(that, slot);
+                if (index < 0 || values[index] != that.values[slot])
+                {
+                    return false;
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * @return The value for the given key. The returned value should be checked with {@link #isNull(int)} to determine
+     * if it represents a null value.
+     */
+    public int get(CharSequence key)
+    {
+        var slot = keySlot(key);
+        return slot < 0 ? nullInt() : values[slot];
+    }
+
+    /**
+     * @return The value for the key with the given UTF-8 bytes. The returned value should be checked with {@link
+     * #isNull(int)} to determine if it represents a null value.
+     */
+    public int get(byte[] key, int offset, int length)
+    {
+        var slot = keySlot(key, offset, length);
+        return slot < 0 ? nullInt() : values[slot];
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int hashCode()
+    {
+        return entriesHash(values);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void onInitialize()
+    {
+        super.onInitialize();
+
+        values = newIntArray(objectName() + ".values", "allocated");
+    }
+
+    /**
+     * Stores the given value under the given key
+     *
+     * @return True if the key was added, false if its value was changed
+     */
+    public boolean put(CharSequence key, int value)
+    {
+        assert compressionMethod() != CompressibleCollection.Method.FREEZE;
+        ensure(!isEmpty(value));
+
+        return putValue(putKey(key), value);
+    }
+
+    /**
+     * Stores the given value under the key with the given UTF-8 bytes
+     *
+     * @return True if the key was added, false if its value was changed
+     */
+    public boolean put(byte[] key, int offset, int length, int value)
+    {
+        assert compressionMethod() != CompressibleCollection.Method.FREEZE;
+        ensure(!isEmpty(value));
+
+        return putValue(putKey(key, offset, length), value);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void read(Kryo kryo, Input input)
+    {
+        super.read(kryo, input);
+        values = kryo.readObject(input, int[].class);
+    }
+
+    /**
+     * Removes the key value pair for the given key
+     *
+     * @return True if removal succeeded, false if the key was not found
+     */
+    public boolean remove(CharSequence key)
+    {
+        return removeValue(keySlot(key));
+    }
+
+    /**
+     * Removes the key value pair for the key with the given UTF-8 bytes
+     *
+     * @return True if removal succeeded, false if the key was not found
+     */
+    public boolean remove(byte[] key, int offset, int length)
+    {
+        return removeValue(keySlot(key, offset, length));
+    }
+
+    /**
+     * @return Iterator over the values in this map
+     */
+    public IntIterator values()
+    {
+        return nonEmptyValues(values);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void write(Kryo kryo, Output output)
+    {
+        super.write(kryo, output);
+
+        kryo.writeObject(output, values);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void copy(PrimitiveMap uncast)
+    {
+        super.copy(uncast);
+
+        var that = (Utf8ToIntMap) uncast;
+        values = that.values;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void copyValue(Utf8KeyedMap that, int from, int to)
+    {
+        values[to] = ((Utf8ToIntMap) that).values[from];
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void moveValue(int from, int to)
+    {
+        values[to] = values[from];
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected PrimitiveMap newMap()
+    {
+        return new Utf8ToIntMap(objectName());
+    }
+
+    /**
+     * Stores the given value in the slot returned by {@link #putKey(CharSequence)}
+     */
+    private boolean putValue(int slot, int value)
+    {
+        // If the key was added,
+        if (slot < 0)
+        {
+            // store the value in its slot and increase the size of the map, which may cause it to resize
+            values[-slot - 1] = value;
+            increaseSize();
+            return true;
+        }
+        else
+        {
+            // otherwise, we're just changing the value
+            values[slot] = value;
+            return false;
+        }
+    }
+
+    /**
+     * Removes the key in the given slot, if it was found
+     */
+    private boolean removeValue(int slot)
+    {
+        assert compressionMethod() != CompressibleCollection.Method.FREEZE;
+
+        // If the key was found,
+        if (slot >= 0)
+        {
+            // remove it, moving back any keys that were displaced by it, so that no tombstone is left
+            var hole = removeSlot(slot);
+            values[hole] = nullInt();
+            decreaseSize(1);
+            return true;
+        }
+        return false;
+    }
+}
@@ -34,6 +34,7 @@ import com.telenav.kivakit.primitive.collections.lexakai.DiagramPrimitiveMultiMa
 import com.telenav.lexakai.annotations.UmlClassDiagram;
 
 import java.util.List;
+import java.util.function.LongConsumer;
 
 /**
  * A compact multi-map which allows one-time put of a fixed list of values. Adding more values is not supported.
@@ -72,6 +73,60 @@ public final class IntToByteFixedMultiMap extends PrimitiveMultiMap implements P
         return !indexes.isNull(indexes.get(key));
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int copyValues(long key, long[] values)
+    {
+        var count = 0;
+        var index = indexes.get((int) key);
+        if (!indexes.isNull(index))
+        {
+            // Copy values until the list terminator, counting any that don't fit
+            var size = this.values.size();
+            for (var i = index; i < size; i++)
+            {
+                var value = this.values.get(i);
+                if (value == TERMINATOR)
+                {
+                    break;
+                }
+                if (count < values.length)
+                {
+                    values[count] = value;
+                }
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int forEachValue(long key, LongConsumer consumer)
+    {
+        var count = 0;
+        var index = indexes.get((int) key);
+        if (!indexes.isNull(index))
+        {
+            var size = values.size();
+            for (var i = index; i < size; i++)
+            {
+                var value = values.get(i);
+                if (value == TERMINATOR)
+                {
+                    break;
+                }
+                consumer.accept(value);
+                count++;
+            }
+        }
+        return count;
+    }
+
     /**
      * @return A byte array for the given key
      */
@@ -38,6 +38,7 @@ import com.telenav.kivakit.primitive.collections.lexakai.DiagramPrimitiveMultiMa
 import com.telenav.lexakai.annotations.UmlClassDiagram;
 
 import java.util.List;
+import java.util.function.LongConsumer;
 
 /**
  * A compact multi-map which allows one-time put of a fixed list of values. Adding more values is not supported.
@@ -87,6 +88,116 @@ public final class IntToPackedArrayFixedMultiMap extends PrimitiveMultiMap imple
         return !indexes.isNull(indexes.get(key));
     }
 
+    /**
+     * Copies the signed values for the given key into the given array, like {@link #copyValues(long, long[])}
+     *
+     * @return The number of values for the given key, or zero if the key is not in this map
+     */
+    public int copySignedValues(long key, long[] values)
+    {
+        var count = 0;
+        var index = indexes.get((int) key);
+        if (!indexes.isNull(index))
+        {
+            // Copy values until the list terminator, counting any that don't fit
+            var size = this.values.size();
+            for (var i = index; i < size; i++)
+            {
+                var value = this.values.getSigned(i);
+                if (value == listTerminator)
+                {
+                    break;
+                }
+                if (count < values.length)
+                {
+                    values[count] = value;
+                }
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int copyValues(long key, long[] values)
+    {
+        var count = 0;
+        var index = indexes.get((int) key);
+        if (!indexes.isNull(index))
+        {
+            // Copy values until the list terminator, counting any that don't fit
+            var size = this.values.size();
+            for (var i = index; i < size; i++)
+            {
+                var value = this.values.get(i);
+                if (value == listTerminator)
+                {
+                    break;
+                }
+                if (count < values.length)
+                {
+                    values[count] = value;
+                }
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Calls the consumer with each signed value for the given key, like {@link #forEachValue(long, LongConsumer)}
+     *
+     * @return The number of values visited, or zero if the key is not in this map
+     */
+    public int forEachSignedValue(long key, LongConsumer consumer)
+    {
+        var count = 0;
+        var index = indexes.get((int) key);
+        if (!indexes.isNull(index))
+        {
+            var size = values.size();
+            for (var i = index; i < size; i++)
+            {
+                var value = values.getSigned(i);
+                if (value == listTerminator)
+                {
+                    break;
+                }
+                consumer.accept(value);
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int forEachValue(long key, LongConsumer consumer)
+    {
+        var count = 0;
+        var index = indexes.get((int) key);
+        if (!indexes.isNull(index))
+        {
+            var size = values.size();
+            for (var i = index; i < size; i++)
+            {
+                var value = values.get(i);
+                if (value == listTerminator)
+                {
+                    break;
+                }
+                consumer.accept(value);
+                count++;
+            }
+        }
+        return count;
+    }
+
     /**
      * @return A long array for the given key
      */
@@ -0,0 +1,552 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+package com.telenav.kivakit.primitive.collections.map.split;
+
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.KryoSerializable;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+import com.telenav.kivakit.core.value.count.Count;
+import com.telenav.kivakit.primitive.collections.CompressibleCollection;
+import com.telenav.kivakit.primitive.collections.iteration.IntIterator;
+import com.telenav.kivakit.primitive.collections.iteration.PrimitiveIterator;
+import com.telenav.kivakit.primitive.collections.map.PrimitiveScalarMap;
+import com.telenav.kivakit.primitive.collections.map.SplitPrimitiveMap;
+import com.telenav.kivakit.primitive.collections.map.scalars.IntToIntMap;
+import com.telenav.kivakit.primitive.collections.lexakai.DiagramPrimitiveMap;
+import com.telenav.lexakai.annotations.UmlClassDiagram;
+
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Function;
+
+/**
+ * A thread-safe map from int keys to int values. Like {@link SplitIntToIntMap}, keys are partitioned by hash
+ * across child maps, but each child is guarded by its own lock, so threads working on different children never
+ * contend. Lookups take a shared read lock on one child and updates take an exclusive write lock on one child, so
+ * concurrent {@link #get(int)} and {@link #put(int, int)} calls scale with the number of cores. The children keep
+ * the same compact primitive layout as {@link IntToIntMap}.
+ * <p>
+ * <b>Access</b>
+ * <ul>
+ *     <li>{@link #get(int)} </li>
+ *     <li>{@link #put(int, int)}</li>
+ *     <li>{@link #remove(int)}</li>
+ *     <li>{@link #clear()}</li>
+ * </ul>
+ * <p>
+ * <b>Keys and Values</b>
+ * <ul>
+ *     <li>{@link #keys()}</li>
+ *     <li>{@link #values()}</li>
+ *     <li>{@link #entries(IntToIntMap.EntryVisitor)} </li>
+ *     <li>{@link #containsKey(int)}</li>
+ * </ul>
+ * <p>
+ * Iteration is weakly consistent: each child is copied under its read lock as it is reached, so iterating never
+ * fails, but it may or may not reflect updates made while it is in progress. The number of children is fixed when the
+ * map is initialized, so it should be large enough to spread contention across threads.
+ * <p>
+ * This class supports the {@link #hashCode()} / {@link #equals(Object)} contract and is {@link KryoSerializable}.
+ *
+ * @author agent
+ * @see SplitIntToIntMap
+ * @see KryoSerializable
+ */
+@SuppressWarnings("DuplicatedCode") @UmlClassDiagram(diagram = DiagramPrimitiveMap.class)
+public final class ConcurrentSplitIntToIntMap extends SplitPrimitiveMap implements PrimitiveScalarMap
+{
+    /** The child maps */
+    private IntToIntMap[] children;
+
+    /** A lock for each child map */
+    private transient StampedLock[] locks;
+
+    /** The number of entries in all children */
+    private transient LongAdder size = new LongAdder();
+
+    public ConcurrentSplitIntToIntMap(String objectName)
+    {
+        super(objectName);
+    }
+
+    private ConcurrentSplitIntToIntMap()
+    {
+    }
+
+    @Override
+    public Count capacity()
+    {
+        var capacity = 0L;
+        for (var childIndex = 0; childIndex < children.length; childIndex++)
+        {
+            var lock = locks[childIndex];
+            var stamp = lock.readLock();
+            try
+            {
+                var child = children[childIndex];
+                if (child != null)
+                {
+                    capacity += child.capacity().asLong();
+                }
+            }
+            finally
+            {
+                lock.unlockRead(stamp);
+            }
+        }
+
+        // The children together can hold more than an int can count, so clamp the total
+        return Count.count(Math.min(capacity, Integer.MAX_VALUE));
+    }
+
+    /**
+     * Removes all entries from this map
+     */
+    @Override
+    public void clear()
+    {
+        super.clear();
+        for (var childIndex = 0; childIndex < children.length; childIndex++)
+        {
+            var lock = locks[childIndex];
+            var stamp = lock.writeLock();
+            try
+            {
+                var child = children[childIndex];
+                if (child != null)
+                {
+                    size.add(-child.size());
+                    child.clear();
+                }
+            }
+            finally
+            {
+                lock.unlockWrite(stamp);
+            }
+        }
+    }
+
+    /**
+     * @return True if this map contains the given key
+     */
+    public boolean containsKey(int key)
+    {
+        var childIndex = childIndex(key);
+        var lock = locks[childIndex];
+        var stamp = lock.readLock();
+        try
+        {
+            var child = children[childIndex];
+            return child != null && child.containsKey(key);
+        }
+        finally
+        {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Calls the visitor with each key / value pair in the map. Each child is visited while holding its read lock, so
+     * the visitor should not modify this map.
+     */
+    public void entries(IntToIntMap.EntryVisitor visitor)
+    {
+        for (var childIndex = 0; childIndex < children.length; childIndex++)
+        {
+            var lock = locks[childIndex];
+            var stamp = lock.readLock();
+            try
+            {
+                var child = children[childIndex];
+                if (child != null)
+                {
+                    child.entries(visitor);
+                }
+            }
+            finally
+            {
+                lock.unlockRead(stamp);
+            }
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean equals(Object object)
+    {
+        if (object instanceof ConcurrentSplitIntToIntMap)
+        {
+            var that = (ConcurrentSplitIntToIntMap) object;
+            if (size() != that.size())
+            {
+                return false;
+            }
+            var keys = keys();
+            while (keys.hasNext())
+            {
+                var key = keys.next();
+                var value = get(key);
+                if (value != that.get(key))
+                {
+                    return false;
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * @return The value for the given key
+     */
+    public int get(int key)
+    {
+        var childIndex = childIndex(key);
+        var lock = locks[childIndex];
+        var stamp = lock.readLock();
+        try
+        {
+            var child = children[childIndex];
+            return child == null ? nullInt() : child.get(key);
+        }
+        finally
+        {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    @Override
+    public long getScalar(long key)
+    {
+        return get((int) key);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int hashCode()
+    {
+        return keys().hash() ^ values().hash();
+    }
+
+    @Override
+    public boolean isScalarKeyNull(long key)
+    {
+        return isNull((int) key);
+    }
+
+    @Override
+    public boolean isScalarValueNull(long value)
+    {
+        return isNull((int) value);
+    }
+
+    /**
+     * @return The keys in this map in an undefined order
+     */
+    public IntIterator keys()
+    {
+        var keys = snapshots(IntToIntMap::keys);
+        return new IntIterator()
+        {
+            @Override
+            public boolean hasNext()
+            {
+                return keys.hasNext();
+            }
+
+            @Override
+            public int next()
+            {
+                return (int) keys.nextLong();
+            }
+        };
+    }
+
+    @Override
+    public CompressibleCollection.Method onCompress(CompressibleCollection.Method method)
+    {
+        for (var childIndex = 0; childIndex < children.length; childIndex++)
+        {
+            var lock = locks[childIndex];
+            var stamp = lock.writeLock();
+            try
+            {
+                var child = children[childIndex];
+                if (child != null)
+                {
+                    child.compress(method);
+                }
+            }
+            finally
+            {
+                lock.unlockWrite(stamp);
+            }
+        }
+        return method;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void onInitialize()
+    {
+        super.onInitialize();
+        children = new IntToIntMap[initialChildCountAsInt()];
+        locks = locks(children.length);
+    }
+
+    /**
+     * Stores the given value under the given key
+     */
+    public void put(int key, int value)
+    {
+        assert compressionMethod() != CompressibleCollection.Method.FREEZE;
+
+        var childIndex = childIndex(key);
+        var lock = locks[childIndex];
+        var stamp = lock.writeLock();
+        try
+        {
+            if (child(childIndex).put(key, value))
+            {
+                size.increment();
+            }
+        }
+        finally
+        {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public void putScalar(long key, long value)
+    {
+        put((int) key, (int) value);
+    }
+
+    /**
+     * @see KryoSerializable
+     */
+    @Override
+    public void read(Kryo kryo, Input input)
+    {
+        super.read(kryo, input);
+
+        children = kryo.readObject(input, IntToIntMap[].class);
+        for (var child : children)
+        {
+            if (child != null)
+            {
+                child.probeCounting(false);
+            }
+        }
+        locks = locks(children.length);
+        size = new LongAdder();
+        size.add(kryo.readObject(input, int.class));
+    }
+
+    /**
+     * Removes the given key from the map along with its value
+     *
+     * @return True if the key was removed, false if it was not found
+     */
+    public boolean remove(int key)
+    {
+        assert compressionMethod() != CompressibleCollection.Method.FREEZE;
+
+        var childIndex = childIndex(key);
+        var lock = locks[childIndex];
+        var stamp = lock.writeLock();
+        try
+        {
+            var child = children[childIndex];
+            if (child != null && child.remove(key))
+            {
+                size.decrement();
+                return true;
+            }
+            return false;
+        }
+        finally
+        {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int size()
+    {
+        return size.intValue();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString()
+    {
+        return "[" + getClass().getSimpleName() + " name = " + objectName() + ", size = " + size() + "]\n" +
+                toString(keys(), values(), (key, value) -> key + " -> " + value);
+    }
+
+    /**
+     * @return The values in this map in an undefined order
+     */
+    public IntIterator values()
+    {
+        var values = snapshots(IntToIntMap::values);
+        return new IntIterator()
+        {
+            @Override
+            public boolean hasNext()
+            {
+                return values.hasNext();
+            }
+
+            @Override
+            public int next()
+            {
+                return (int) values.nextLong();
+            }
+        };
+    }
+
+    /**
+     * @see KryoSerializable
+     */
+    @Override
+    public void write(Kryo kryo, Output output)
+    {
+        super.write(kryo, output);
+
+        kryo.writeObject(output, children);
+        kryo.writeObject(output, size());
+    }
+
+    /**
+     * @return The child map at the given index, creating it if it doesn't exist. The caller must hold the child's write
+     * lock.
+     */
+    private IntToIntMap child(int childIndex)
+    {
+        // If the child at the given index is null,
+        var child = children[childIndex];
+        if (child == null)
+        {
+            // then allocate and configure the child
+            child = new IntToIntMap(objectName() + ".child[" + childIndex + "]");
+            child.copySettings(this);
+            child.initialSize(initialChildSize());
+            child.maximumSize(Integer.MAX_VALUE);
+            child.probeCounting(false);
+            child.initialize();
+
+            // and assign it to the children array.
+            children[childIndex] = child;
+        }
+
+        return child;
+    }
+
+    /**
+     * @return The index of the child map that holds the given key
+     */
+    private int childIndex(int key)
+    {
+        return Math.floorMod(hash(key), children.length);
+    }
+
+    private StampedLock[] locks(int count)
+    {
+        var locks = new StampedLock[count];
+        for (var index = 0; index < count; index++)
+        {
+            locks[index] = new StampedLock();
+        }
+        return locks;
+    }
+
+    /**
+     * @return An iterator over the values produced by the given function for each child. Each child is copied while
+     * holding its read lock, so the iterator is never affected by concurrent updates.
+     */
+    private PrimitiveIterator snapshots(Function<IntToIntMap, PrimitiveIterator> iterator)
+    {
+        return new PrimitiveIterator()
+        {
+            private int childIndex;
+
+            private int index;
+
+            private long[] snapshot = new long[0];
+
+            @Override
+            public boolean hasNext()
+            {
+                // While we've used up the current snapshot,
+                while (index >= snapshot.length)
+                {
+                    // and there's another child,
+                    if (childIndex >= children.length)
+                    {
+                        return false;
+                    }
+
+                    // copy its values under its read lock.
+                    var lock = locks[childIndex];
+                    var stamp = lock.readLock();
+                    try
+                    {
+                        var child = children[childIndex++];
+                        snapshot = child == null ? new long[0] : new long[child.size()];
+                        if (child != null)
+                        {
+                            var values = iterator.apply(child);
+                            for (var at = 0; values.hasNext(); at++)
+                            {
+                                snapshot[at] = values.nextLong();
+                            }
+                        }
+                        index = 0;
+                    }
+                    finally
+                    {
+                        lock.unlockRead(stamp);
+                    }
+                }
+                return true;
+            }
+
+            @Override
+            public long nextLong()
+            {
+                return snapshot[index++];
+            }
+        };
+    }
+}
@@ -25,12 +25,19 @@ import com.esotericsoftware.kryo.io.Output;
 import com.telenav.kivakit.core.value.count.Count;
 import com.telenav.kivakit.primitive.collections.CompressibleCollection;
 import com.telenav.kivakit.primitive.collections.iteration.IntIterator;
+import com.telenav.kivakit.primitive.collections.iteration.SplitIntSpliterator;
 import com.telenav.kivakit.primitive.collections.map.PrimitiveScalarMap;
 import com.telenav.kivakit.primitive.collections.map.SplitPrimitiveMap;
 import com.telenav.kivakit.primitive.collections.map.scalars.IntToIntMap;
 import com.telenav.kivakit.primitive.collections.lexakai.DiagramPrimitiveMap;
 import com.telenav.lexakai.annotations.UmlClassDiagram;
 
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.Spliterator;
+import java.util.stream.IntStream;
+import java.util.stream.StreamSupport;
+
 /**
  * A map from int keys to int values. Supports typical map functions:
  * <p>
@@ -173,6 +180,26 @@ public final class SplitIntToIntMap extends SplitPrimitiveMap implements Primiti
         return isNull((int) value);
     }
 
+    /**
+     * @return A spliterator over the keys in this map, which splits along the child maps
+     */
+    public Spliterator.OfInt keySpliterator()
+    {
+        return new SplitIntSpliterator(Arrays.stream(children)
+                .filter(Objects::nonNull)
+                .map(IntToIntMap::keySpliterator)
+                .toArray(Spliterator.OfInt[]::new));
+    }
+
+    /**
+     * @return A stream of the keys in this map in an undefined order, which can be made parallel with {@link
+     * IntStream#parallel()}
+     */
+    public IntStream keyStream()
+    {
+        return StreamSupport.intStream(keySpliterator(), false);
+    }
+
     /**
      * @return The keys in this map in an undefined order
      */
@@ -216,13 +243,7 @@ public final class SplitIntToIntMap extends SplitPrimitiveMap implements Primiti
     @Override
     public CompressibleCollection.Method onCompress(CompressibleCollection.Method method)
     {
-        for (var child : children)
-        {
-            if (child != null)
-            {
-                child.compress(method);
-            }
-        }
+        compressChildren(children, method, compressionParallelism());
         return method;
     }
 
@@ -306,6 +327,26 @@ public final class SplitIntToIntMap extends SplitPrimitiveMap implements Primiti
                 toString(keys(), values(), (key, value) -> key + " -> " + value);
     }
 
+    /**
+     * @return A spliterator over the values in this map, which splits along the child maps
+     */
+    public Spliterator.OfInt valueSpliterator()
+    {
+        return new SplitIntSpliterator(Arrays.stream(children)
+                .filter(Objects::nonNull)
+                .map(IntToIntMap::valueSpliterator)
+                .toArray(Spliterator.OfInt[]::new));
+    }
+
+    /**
+     * @return A stream of the values in this map in an undefined order, which can be made parallel with {@link
+     * IntStream#parallel()}
+     */
+    public IntStream valueStream()
+    {
+        return StreamSupport.intStream(valueSpliterator(), false);
+    }
+
     /**
      * @return The values in this map in an undefined order
      */
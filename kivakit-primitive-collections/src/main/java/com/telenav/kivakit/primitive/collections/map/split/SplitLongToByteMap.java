@@ -224,13 +224,7 @@ public final class SplitLongToByteMap extends SplitPrimitiveMap implements Primi
     @Override
     public CompressibleCollection.Method onCompress(CompressibleCollection.Method method)
     {
-        for (var child : children)
-        {
-            if (child != null)
-            {
-                child.compress(method);
-            }
-        }
+        compressChildren(children, method, compressionParallelism());
         return method;
     }
 
@@ -26,12 +26,21 @@ import com.telenav.kivakit.core.value.count.Count;
 import com.telenav.kivakit.primitive.collections.CompressibleCollection;
 import com.telenav.kivakit.primitive.collections.iteration.IntIterator;
 import com.telenav.kivakit.primitive.collections.iteration.LongIterator;
+import com.telenav.kivakit.primitive.collections.iteration.SplitIntSpliterator;
+import com.telenav.kivakit.primitive.collections.iteration.SplitLongSpliterator;
 import com.telenav.kivakit.primitive.collections.map.PrimitiveScalarMap;
 import com.telenav.kivakit.primitive.collections.map.SplitPrimitiveMap;
 import com.telenav.kivakit.primitive.collections.map.scalars.LongToIntMap;
 import com.telenav.kivakit.primitive.collections.lexakai.DiagramPrimitiveMap;
 import com.telenav.lexakai.annotations.UmlClassDiagram;
 
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.Spliterator;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+import java.util.stream.StreamSupport;
+
 /**
  * A map from long keys to int values. Supports typical map functions:
  * <p>
@@ -181,6 +190,26 @@ public final class SplitLongToIntMap extends SplitPrimitiveMap implements Primit
         return isNull((int) value);
     }
 
+    /**
+     * @return A spliterator over the keys in this map, which splits along the child maps
+     */
+    public Spliterator.OfLong keySpliterator()
+    {
+        return new SplitLongSpliterator(Arrays.stream(children)
+                .filter(Objects::nonNull)
+                .map(LongToIntMap::keySpliterator)
+                .toArray(Spliterator.OfLong[]::new));
+    }
+
+    /**
+     * @return A stream of the keys in this map in an undefined order, which can be made parallel with {@link
+     * LongStream#parallel()}
+     */
+    public LongStream keyStream()
+    {
+        return StreamSupport.longStream(keySpliterator(), false);
+    }
+
     /**
      * @return The keys in this map in an undefined order
      */
@@ -224,13 +253,7 @@ public final class SplitLongToIntMap extends SplitPrimitiveMap implements Primit
     @Override
     public CompressibleCollection.Method onCompress(CompressibleCollection.Method method)
     {
-        for (var child : children)
-        {
-            if (child != null)
-            {
-                child.compress(method);
-            }
-        }
+        compressChildren(children, method, compressionParallelism());
         return method;
     }
 
@@ -314,6 +337,26 @@ public final class SplitLongToIntMap extends SplitPrimitiveMap implements Primit
                 toString(keys(), values(), (key, value) -> key + " -> " + value);
     }
 
+    /**
+     * @return A spliterator over the values in this map, which splits along the child maps
+     */
+    public Spliterator.OfInt valueSpliterator()
+    {
+        return new SplitIntSpliterator(Arrays.stream(children)
+                .filter(Objects::nonNull)
+                .map(LongToIntMap::valueSpliterator)
+                .toArray(Spliterator.OfInt[]::new));
+    }
+
+    /**
+     * @return A stream of the values in this map in an undefined order, which can be made parallel with {@link
+     * IntStream#parallel()}
+     */
+    public IntStream valueStream()
+    {
+        return StreamSupport.intStream(valueSpliterator(), false);
+    }
+
     /**
      * @return The values in this map in an undefined order
      */
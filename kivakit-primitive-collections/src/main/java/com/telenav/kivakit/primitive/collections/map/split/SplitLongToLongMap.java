@@ -25,12 +25,19 @@ import com.esotericsoftware.kryo.io.Output;
 import com.telenav.kivakit.core.value.count.Count;
 import com.telenav.kivakit.primitive.collections.CompressibleCollection;
 import com.telenav.kivakit.primitive.collections.iteration.LongIterator;
+import com.telenav.kivakit.primitive.collections.iteration.SplitLongSpliterator;
 import com.telenav.kivakit.primitive.collections.map.PrimitiveScalarMap;
 import com.telenav.kivakit.primitive.collections.map.SplitPrimitiveMap;
 import com.telenav.kivakit.primitive.collections.map.scalars.LongToLongMap;
 import com.telenav.kivakit.primitive.collections.lexakai.DiagramPrimitiveMap;
 import com.telenav.lexakai.annotations.UmlClassDiagram;
 
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.Spliterator;
+import java.util.stream.LongStream;
+import java.util.stream.StreamSupport;
+
 /**
  * A map from long keys to long values. Supports typical map functions:
  * <p>
@@ -59,6 +66,76 @@ import com.telenav.lexakai.annotations.UmlClassDiagram;
 @SuppressWarnings("DuplicatedCode") @UmlClassDiagram(diagram = DiagramPrimitiveMap.class)
 public final class SplitLongToLongMap extends SplitPrimitiveMap implements PrimitiveScalarMap
 {
+    /** The number of keys that bulk operations group by child at a time */
+    private static final int GROUP_SIZE = 65_536;
+
+    /**
+     * Keys (and values) from a bulk operation, grouped by the child map they belong to, so that each child can process
+     * its keys together
+     */
+    private class Grouping
+    {
+        /** The child index of each key being grouped */
+        final int[] childIndexes;
+
+        /** The grouped keys */
+        final long[] keys;
+
+        /** The next free position in the group of each child */
+        final int[] next = new int[children.length];
+
+        /** The position in the caller's arrays that each grouped key came from */
+        final int[] positions;
+
+        /** The start of the group for each child, with an extra element marking the end of the last group */
+        final int[] starts = new int[children.length + 1];
+
+        /** The grouped values */
+        final long[] values;
+
+        Grouping(int size)
+        {
+            childIndexes = new int[size];
+            keys = new long[size];
+            positions = new int[size];
+            values = new long[size];
+        }
+
+        /**
+         * Groups the given number of keys and any values, starting at the given offset, by child
+         */
+        void group(long[] keys, long[] values, int offset, int count)
+        {
+            // Count the number of keys that belong to each child,
+            Arrays.fill(starts, 0);
+            for (var i = 0; i < count; i++)
+            {
+                var childIndex = hash(keys[offset + i]) % children.length;
+                childIndexes[i] = childIndex;
+                starts[childIndex + 1]++;
+            }
+
+            // turn the counts into the start of each child's group,
+            for (var childIndex = 0; childIndex < children.length; childIndex++)
+            {
+                starts[childIndex + 1] += starts[childIndex];
+            }
+
+            // then copy each key into its child's group, remembering where it came from.
+            System.arraycopy(starts, 0, next, 0, children.length);
+            for (var i = 0; i < count; i++)
+            {
+                var at = next[childIndexes[i]]++;
+                this.keys[at] = keys[offset + i];
+                positions[at] = offset + i;
+                if (values != null)
+                {
+                    this.values[at] = values[offset + i];
+                }
+            }
+        }
+    }
+
     private LongToLongMap[] children;
 
     private int size;
@@ -153,6 +230,46 @@ public final class SplitLongToLongMap extends SplitPrimitiveMap implements Primi
         return child == null ? nullLong() : child.get(key);
     }
 
+    /**
+     * Gets the values of the given keys, storing the value of each key at the same position in the values array. Keys
+     * are grouped by child, so that each child map can look up its keys in batches with {@link
+     * LongToLongMap#getAll(long[], int, int, long[])}.
+     */
+    public void getAll(long[] keys, long[] values)
+    {
+        assert values.length >= keys.length;
+
+        var grouping = new Grouping(Math.min(keys.length, GROUP_SIZE));
+        for (var start = 0; start < keys.length; start += GROUP_SIZE)
+        {
+            // Group the next keys by child,
+            var count = Math.min(GROUP_SIZE, keys.length - start);
+            grouping.group(keys, null, start, count);
+
+            // look up each group in its child,
+            for (var childIndex = 0; childIndex < children.length; childIndex++)
+            {
+                var from = grouping.starts[childIndex];
+                var to = grouping.starts[childIndex + 1];
+                var child = children[childIndex];
+                if (child == null)
+                {
+                    Arrays.fill(grouping.values, from, to, nullLong());
+                }
+                else if (from < to)
+                {
+                    child.getAll(grouping.keys, from, to - from, grouping.values);
+                }
+            }
+
+            // and copy each value back to the position of its key.
+            for (var i = 0; i < count; i++)
+            {
+                values[grouping.positions[i]] = grouping.values[i];
+            }
+        }
+    }
+
     @Override
     public long getScalar(long key)
     {
@@ -180,6 +297,26 @@ public final class SplitLongToLongMap extends SplitPrimitiveMap implements Primi
         return isNull(value);
     }
 
+    /**
+     * @return A spliterator over the keys in this map, which splits along the child maps
+     */
+    public Spliterator.OfLong keySpliterator()
+    {
+        return new SplitLongSpliterator(Arrays.stream(children)
+                .filter(Objects::nonNull)
+                .map(LongToLongMap::keySpliterator)
+                .toArray(Spliterator.OfLong[]::new));
+    }
+
+    /**
+     * @return A stream of the keys in this map in an undefined order, which can be made parallel with {@link
+     * LongStream#parallel()}
+     */
+    public LongStream keyStream()
+    {
+        return StreamSupport.longStream(keySpliterator(), false);
+    }
+
     /**
      * @return The keys in this map in an undefined order
      */
@@ -223,13 +360,7 @@ public final class SplitLongToLongMap extends SplitPrimitiveMap implements Primi
     @Override
     public CompressibleCollection.Method onCompress(CompressibleCollection.Method method)
     {
-        for (var child : children)
-        {
-            if (child != null)
-            {
-                child.compress(method);
-            }
-        }
+        compressChildren(children, method, compressionParallelism());
         return method;
     }
 
@@ -256,6 +387,40 @@ public final class SplitLongToLongMap extends SplitPrimitiveMap implements Primi
         }
     }
 
+    /**
+     * Stores the given values under the given keys, as if by calling {@link #put(long, long)} for each key in turn.
+     * Keys are grouped by child, so that each child map can store its keys in batches with {@link
+     * LongToLongMap#putAll(long[], int, int, long[])}.
+     *
+     * @return The number of keys that were not already in the map
+     */
+    public int putAll(long[] keys, long[] values)
+    {
+        assert compressionMethod() != CompressibleCollection.Method.FREEZE;
+        assert values.length >= keys.length;
+
+        var added = 0;
+        var grouping = new Grouping(Math.min(keys.length, GROUP_SIZE));
+        for (var start = 0; start < keys.length; start += GROUP_SIZE)
+        {
+            // Group the next keys and values by child,
+            grouping.group(keys, values, start, Math.min(GROUP_SIZE, keys.length - start));
+
+            // then store each group in its child.
+            for (var childIndex = 0; childIndex < children.length; childIndex++)
+            {
+                var from = grouping.starts[childIndex];
+                var to = grouping.starts[childIndex + 1];
+                if (from < to)
+                {
+                    added += child(childIndex, true).putAll(grouping.keys, from, to - from, grouping.values);
+                }
+            }
+        }
+        size += added;
+        return added;
+    }
+
     @Override
     public void putScalar(long key, long value)
     {
@@ -313,6 +478,26 @@ public final class SplitLongToLongMap extends SplitPrimitiveMap implements Primi
                 toString(keys(), values(), (key, value) -> key + " -> " + value);
     }
 
+    /**
+     * @return A spliterator over the values in this map, which splits along the child maps
+     */
+    public Spliterator.OfLong valueSpliterator()
+    {
+        return new SplitLongSpliterator(Arrays.stream(children)
+                .filter(Objects::nonNull)
+                .map(LongToLongMap::valueSpliterator)
+                .toArray(Spliterator.OfLong[]::new));
+    }
+
+    /**
+     * @return A stream of the values in this map in an undefined order, which can be made parallel with {@link
+     * LongStream#parallel()}
+     */
+    public LongStream valueStream()
+    {
+        return StreamSupport.longStream(valueSpliterator(), false);
+    }
+
     /**
      * @return The values in this map in an undefined order
      */
@@ -371,9 +556,15 @@ public final class SplitLongToLongMap extends SplitPrimitiveMap implements Primi
     private LongToLongMap child(long key, boolean create)
     {
         // Get the child index from the key
-        var childIndex = hash(key) % children.length;
+        return child(hash(key) % children.length, create);
+    }
 
-        // and if the child index is null, and we should create a new child,
+    /**
+     * @return Gets the child map at the given index. If there is no map, one is created if create is true.
+     */
+    private LongToLongMap child(int childIndex, boolean create)
+    {
+        // If the child at the given index is null, and we should create a new child,
         var child = children[childIndex];
         if (child == null && create)
         {
@@ -0,0 +1,125 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+package com.telenav.kivakit.primitive.collections.mapped;
+
+import com.telenav.kivakit.primitive.collections.lexakai.DiagramMappedCollection;
+import com.telenav.lexakai.annotations.UmlClassDiagram;
+
+import java.nio.file.Path;
+
+import static com.telenav.kivakit.core.ensure.Ensure.ensure;
+
+/**
+ * Base class for read-only collections that are queried in place in a memory-mapped {@link MappedFormat} file.
+ * Opening a mapped collection validates the file header and maps the file, which takes constant time regardless of
+ * the size of the collection. Nothing is deserialized or copied onto the heap, so the collection costs only the pages
+ * the operating system has faulted in, and those pages are shared by every process that maps the same file.
+ * <p>
+ * Mapped collections are written from frozen (or fully populated) in-memory collections by static <i>write</i> methods
+ * on each subclass and opened with a static <i>open</i> method.
+ *
+ * @author agent
+ */
+@UmlClassDiagram(diagram = DiagramMappedCollection.class)
+public abstract class MappedCollection
+{
+    /** The mapped file */
+    private final MappedData data;
+
+    /** The kind-specific parameter from the file header */
+    private final int parameter;
+
+    /** The number of elements in this collection */
+    private final int size;
+
+    /** The null key (or null value for arrays and sets) */
+    private final long nullKey;
+
+    /** The null value for maps */
+    private final long nullValue;
+
+    protected MappedCollection(Path path, MappedFormat.Kind kind)
+    {
+        data = MappedData.map(path);
+
+        // Validate the header
+        ensure(data.length() >= MappedFormat.HEADER_SIZE, "File $ is too short to be a mapped collection", path);
+        ensure(data.getInt(MappedFormat.MAGIC_OFFSET) == MappedFormat.MAGIC, "File $ is not a mapped collection", path);
+        var version = data.getInt(MappedFormat.VERSION_OFFSET);
+        ensure(version == MappedFormat.VERSION, "File $ has unsupported version $", path, version);
+        var actual = MappedFormat.Kind.forIdentifier(data.getInt(MappedFormat.KIND_OFFSET));
+        ensure(actual == kind, "File $ contains a $, not a $", path, actual, kind);
+
+        // and read the rest of it.
+        parameter = data.getInt(MappedFormat.PARAMETER_OFFSET);
+        var size = data.getLong(MappedFormat.SIZE_OFFSET);
+        ensure(size >= 0 && size <= Integer.MAX_VALUE, "File $ has an invalid size of $ elements", path, size);
+        this.size = (int) size;
+        nullKey = data.getLong(MappedFormat.NULL_KEY_OFFSET);
+        nullValue = data.getLong(MappedFormat.NULL_VALUE_OFFSET);
+    }
+
+    /**
+     * @return True if this collection has no elements
+     */
+    public boolean isEmpty()
+    {
+        return size == 0;
+    }
+
+    /**
+     * @return The number of elements in this collection
+     */
+    public int size()
+    {
+        return size;
+    }
+
+    /**
+     * @return The mapped file
+     */
+    protected MappedData data()
+    {
+        return data;
+    }
+
+    /**
+     * @return The null key (or null value for arrays and sets) that was stored in the file header
+     */
+    protected long nullKey()
+    {
+        return nullKey;
+    }
+
+    /**
+     * @return The null value for maps that was stored in the file header
+     */
+    protected long nullValue()
+    {
+        return nullValue;
+    }
+
+    /**
+     * @return The kind-specific parameter stored in the file header
+     */
+    protected int parameter()
+    {
+        return parameter;
+    }
+}
@@ -0,0 +1,103 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+package com.telenav.kivakit.primitive.collections.mapped;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+
+import static com.telenav.kivakit.core.ensure.Ensure.fail;
+import static java.nio.channels.FileChannel.MapMode.READ_ONLY;
+import static java.nio.file.StandardOpenOption.READ;
+
+/**
+ * The bytes of a file, mapped into memory. Since a single mapping is limited to 2GB, the file is mapped in regions of
+ * 1GB each. Every value in a {@link MappedFormat} file is aligned to its own size, and region boundaries are multiples
+ * of 8, so no value is ever split across two regions.
+ * <p>
+ * Mapping is lazy, so opening a file takes constant time, no matter its size. Pages are read by the operating system
+ * as they are accessed and are shared between processes mapping the same file.
+ *
+ * @author agent
+ */
+final class MappedData
+{
+    /** Each region is 2^30 bytes */
+    private static final int REGION_BITS = 30;
+
+    private static final long REGION_MASK = (1L << REGION_BITS) - 1;
+
+    /**
+     * @return The given file, mapped read-only into memory
+     */
+    static MappedData map(Path path)
+    {
+        try (var channel = FileChannel.open(path, READ))
+        {
+            // Map each region of the file. Mappings remain valid after the channel is closed.
+            var length = channel.size();
+            var regions = new ByteBuffer[(int) ((length + REGION_MASK) >>> REGION_BITS)];
+            for (var index = 0; index < regions.length; index++)
+            {
+                var start = (long) index << REGION_BITS;
+                var size = Math.min(REGION_MASK + 1, length - start);
+                regions[index] = channel.map(READ_ONLY, start, size).order(ByteOrder.LITTLE_ENDIAN);
+            }
+            return new MappedData(regions, length);
+        }
+        catch (IOException e)
+        {
+            return fail(e, "Unable to map $", path);
+        }
+    }
+
+    /** The length of the file in bytes */
+    private final long length;
+
+    /** The mapped regions of the file */
+    private final ByteBuffer[] regions;
+
+    private MappedData(ByteBuffer[] regions, long length)
+    {
+        this.regions = regions;
+        this.length = length;
+    }
+
+    byte getByte(long offset)
+    {
+        return regions[(int) (offset >>> REGION_BITS)].get((int) (offset & REGION_MASK));
+    }
+
+    int getInt(long offset)
+    {
+        return regions[(int) (offset >>> REGION_BITS)].getInt((int) (offset & REGION_MASK));
+    }
+
+    long getLong(long offset)
+    {
+        return regions[(int) (offset >>> REGION_BITS)].getLong((int) (offset & REGION_MASK));
+    }
+
+    long length()
+    {
+        return length;
+    }
+}
@@ -0,0 +1,122 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+package com.telenav.kivakit.primitive.collections.mapped;
+
+import com.telenav.kivakit.primitive.collections.lexakai.DiagramMappedCollection;
+import com.telenav.lexakai.annotations.UmlClassDiagram;
+
+import static com.telenav.kivakit.core.ensure.Ensure.illegalState;
+
+/**
+ * The on-disk format of memory-mapped collections. A file holds one frozen collection. All values are little-endian.
+ * The file starts with a {@link #HEADER_SIZE} byte header:
+ *
+ * <pre>
+ * offset  type  field
+ * ------  ----  -----------------------------------------------------------------------
+ *  0      int   magic number (the characters "KVPC")
+ *  4      int   format version
+ *  8      int   kind of collection (see {@link Kind})
+ * 12      int   parameter that depends on the kind (bits per value, or key and value widths)
+ * 16      long  number of elements
+ * 24      long  null key (or null value for arrays and sets)
+ * 32      long  null value (maps only)
+ * 40      -     reserved
+ * </pre>
+ * <p>
+ * Data sections follow the header. Each section starts on an 8 byte boundary, so values never straddle the regions a
+ * file is mapped in (see {@link MappedData}).
+ *
+ * @author agent
+ */
+@UmlClassDiagram(diagram = DiagramMappedCollection.class)
+public final class MappedFormat
+{
+    /** The magic number at the start of every file, which is "KVPC" in little-endian order */
+    public static final int MAGIC = 0x4350_564B;
+
+    /** The current version of the format */
+    public static final int VERSION = 1;
+
+    /** The size of the file header, which is also the offset of the first data section */
+    public static final int HEADER_SIZE = 64;
+
+    /** Field offsets */
+    static final int MAGIC_OFFSET = 0;
+
+    static final int VERSION_OFFSET = 4;
+
+    static final int KIND_OFFSET = 8;
+
+    static final int PARAMETER_OFFSET = 12;
+
+    static final int SIZE_OFFSET = 16;
+
+    static final int NULL_KEY_OFFSET = 24;
+
+    static final int NULL_VALUE_OFFSET = 32;
+
+    /**
+     * The kind of collection in a file. Identifiers are stored in files and must never change.
+     */
+    public enum Kind
+    {
+        LONG_ARRAY(1),
+        INT_ARRAY(2),
+        PACKED_ARRAY(3),
+        LONG_SET(4),
+        SCALAR_MAP(5);
+
+        public static Kind forIdentifier(int identifier)
+        {
+            for (var kind : values())
+            {
+                if (kind.identifier == identifier)
+                {
+                    return kind;
+                }
+            }
+            return illegalState("Unrecognized kind of mapped collection: $", identifier);
+        }
+
+        private final int identifier;
+
+        Kind(int identifier)
+        {
+            this.identifier = identifier;
+        }
+
+        public int identifier()
+        {
+            return identifier;
+        }
+    }
+
+    /**
+     * @return The given offset rounded up to the next 8 byte boundary
+     */
+    static long aligned(long offset)
+    {
+        return (offset + 7) & ~7L;
+    }
+
+    private MappedFormat()
+    {
+    }
+}
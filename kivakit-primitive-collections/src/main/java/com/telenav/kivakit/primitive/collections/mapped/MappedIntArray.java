@@ -0,0 +1,114 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+package com.telenav.kivakit.primitive.collections.mapped;
+
+import com.telenav.kivakit.primitive.collections.iteration.IntIterator;
+import com.telenav.kivakit.primitive.collections.lexakai.DiagramMappedCollection;
+import com.telenav.kivakit.primitive.collections.list.IntList;
+import com.telenav.lexakai.annotations.UmlClassDiagram;
+
+import java.nio.file.Path;
+
+/**
+ * A read-only array of ints in a memory-mapped file. Arrays are written with {@link #write(Path, IntList)} and opened
+ * in constant time with {@link #open(Path)}.
+ *
+ * @author agent
+ * @see MappedCollection
+ */
+@UmlClassDiagram(diagram = DiagramMappedCollection.class)
+public final class MappedIntArray extends MappedCollection
+{
+    /**
+     * @return The array in the given file
+     */
+    public static MappedIntArray open(Path path)
+    {
+        return new MappedIntArray(path);
+    }
+
+    /**
+     * Writes the given list to the given file
+     */
+    public static void write(Path path, IntList list)
+    {
+        try (var writer = new MappedWriter(path))
+        {
+            var size = list.size();
+            writer.header(MappedFormat.Kind.INT_ARRAY, 0, size, list.nullInt(), 0);
+            for (var index = 0; index < size; index++)
+            {
+                writer.writeInt(list.get(index));
+            }
+        }
+    }
+
+    private MappedIntArray(Path path)
+    {
+        super(path, MappedFormat.Kind.INT_ARRAY);
+    }
+
+    /**
+     * @return The value at the given index
+     */
+    public int get(int index)
+    {
+        assert index >= 0 && index < size();
+        return data().getInt(MappedFormat.HEADER_SIZE + (long) index * Integer.BYTES);
+    }
+
+    /**
+     * @return True if the given value is the null value of the array that was written
+     */
+    public boolean isNull(int value)
+    {
+        return value == nullKey();
+    }
+
+    /**
+     * @return The values in this array
+     */
+    public IntIterator iterator()
+    {
+        return new IntIterator()
+        {
+            private int index;
+
+            @Override
+            public boolean hasNext()
+            {
+                return index < size();
+            }
+
+            @Override
+            public int next()
+            {
+                return get(index++);
+            }
+        };
+    }
+
+    /**
+     * @return The value at the given index, or the null value if the index is out of range
+     */
+    public int safeGet(int index)
+    {
+        return index >= 0 && index < size() ? get(index) : (int) nullKey();
+    }
+}
@@ -0,0 +1,114 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+package com.telenav.kivakit.primitive.collections.mapped;
+
+import com.telenav.kivakit.primitive.collections.iteration.LongIterator;
+import com.telenav.kivakit.primitive.collections.lexakai.DiagramMappedCollection;
+import com.telenav.kivakit.primitive.collections.list.LongList;
+import com.telenav.lexakai.annotations.UmlClassDiagram;
+
+import java.nio.file.Path;
+
+/**
+ * A read-only array of longs in a memory-mapped file. Arrays are written with {@link #write(Path, LongList)} and opened
+ * in constant time with {@link #open(Path)}.
+ *
+ * @author agent
+ * @see MappedCollection
+ */
+@UmlClassDiagram(diagram = DiagramMappedCollection.class)
+public final class MappedLongArray extends MappedCollection
+{
+    /**
+     * @return The array in the given file
+     */
+    public static MappedLongArray open(Path path)
+    {
+        return new MappedLongArray(path);
+    }
+
+    /**
+     * Writes the given list to the given file
+     */
+    public static void write(Path path, LongList list)
+    {
+        try (var writer = new MappedWriter(path))
+        {
+            var size = list.size();
+            writer.header(MappedFormat.Kind.LONG_ARRAY, 0, size, list.nullLong(), 0);
+            for (var index = 0; index < size; index++)
+            {
+                writer.writeLong(list.get(index));
+            }
+        }
+    }
+
+    private MappedLongArray(Path path)
+    {
+        super(path, MappedFormat.Kind.LONG_ARRAY);
+    }
+
+    /**
+     * @return The value at the given index
+     */
+    public long get(int index)
+    {
+        assert index >= 0 && index < size();
+        return data().getLong(MappedFormat.HEADER_SIZE + (long) index * Long.BYTES);
+    }
+
+    /**
+     * @return True if the given value is the null value of the array that was written
+     */
+    public boolean isNull(long value)
+    {
+        return value == nullKey();
+    }
+
+    /**
+     * @return The values in this array
+     */
+    public LongIterator iterator()
+    {
+        return new LongIterator()
+        {
+            private int index;
+
+            @Override
+            public boolean hasNext()
+            {
+                return index < size();
+            }
+
+            @Override
+            public long next()
+            {
+                return get(index++);
+            }
+        };
+    }
+
+    /**
+     * @return The value at the given index, or the null value if the index is out of range
+     */
+    public long safeGet(int index)
+    {
+        return index >= 0 && index < size() ? get(index) : nullKey();
+    }
+}
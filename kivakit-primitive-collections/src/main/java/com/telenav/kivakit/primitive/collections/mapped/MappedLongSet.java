@@ -0,0 +1,132 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+package com.telenav.kivakit.primitive.collections.mapped;
+
+import com.telenav.kivakit.primitive.collections.iteration.LongIterator;
+import com.telenav.kivakit.primitive.collections.lexakai.DiagramMappedCollection;
+import com.telenav.kivakit.primitive.collections.set.LongSet;
+import com.telenav.lexakai.annotations.UmlClassDiagram;
+
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * A read-only {@link LongSet} in a memory-mapped file. Values are stored in sorted order and found by binary search,
+ * like a frozen {@link LongSet}. Sets are written with {@link #write(Path, LongSet)} and opened in constant time with
+ * {@link #open(Path)}.
+ *
+ * @author agent
+ * @see MappedCollection
+ */
+@UmlClassDiagram(diagram = DiagramMappedCollection.class)
+public final class MappedLongSet extends MappedCollection
+{
+    /**
+     * @return The set in the given file
+     */
+    public static MappedLongSet open(Path path)
+    {
+        return new MappedLongSet(path);
+    }
+
+    /**
+     * Writes the given set to the given file
+     */
+    public static void write(Path path, LongSet set)
+    {
+        // Sort the values in the set,
+        var values = new long[set.size()];
+        var iterator = set.values();
+        for (var index = 0; iterator.hasNext(); index++)
+        {
+            values[index] = iterator.next();
+        }
+        Arrays.sort(values);
+
+        // then write them out.
+        try (var writer = new MappedWriter(path))
+        {
+            writer.header(MappedFormat.Kind.LONG_SET, 0, values.length, set.nullLong(), 0);
+            for (var value : values)
+            {
+                writer.writeLong(value);
+            }
+        }
+    }
+
+    private MappedLongSet(Path path)
+    {
+        super(path, MappedFormat.Kind.LONG_SET);
+    }
+
+    /**
+     * @return True if this set contains the given value
+     */
+    public boolean contains(long value)
+    {
+        var low = 0;
+        var high = size() - 1;
+        while (low <= high)
+        {
+            var middle = (low + high) >>> 1;
+            var at = value(middle);
+            if (at < value)
+            {
+                low = middle + 1;
+            }
+            else if (at > value)
+            {
+                high = middle - 1;
+            }
+            else
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return The values in this set in ascending order
+     */
+    public LongIterator values()
+    {
+        return new LongIterator()
+        {
+            private int index;
+
+            @Override
+            public boolean hasNext()
+            {
+                return index < size();
+            }
+
+            @Override
+            public long next()
+            {
+                return value(index++);
+            }
+        };
+    }
+
+    private long value(int index)
+    {
+        return data().getLong(MappedFormat.HEADER_SIZE + (long) index * Long.BYTES);
+    }
+}
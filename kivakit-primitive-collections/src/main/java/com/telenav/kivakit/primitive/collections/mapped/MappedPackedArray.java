@@ -0,0 +1,148 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+package com.telenav.kivakit.primitive.collections.mapped;
+
+import com.telenav.kivakit.primitive.collections.array.packed.PackedArray;
+import com.telenav.kivakit.primitive.collections.lexakai.DiagramMappedCollection;
+import com.telenav.lexakai.annotations.UmlClassDiagram;
+
+import java.nio.file.Path;
+
+/**
+ * A read-only {@link PackedArray} in a memory-mapped file. Values are packed most significant bit first into
+ * little-endian longs, so a value that straddles two longs is read with two loads, two shifts and an OR. Arrays are
+ * written with {@link #write(Path, PackedArray)} and opened in constant time with {@link #open(Path)}.
+ *
+ * @author agent
+ * @see MappedCollection
+ */
+@UmlClassDiagram(diagram = DiagramMappedCollection.class)
+public final class MappedPackedArray extends MappedCollection
+{
+    /**
+     * @return The packed array in the given file
+     */
+    public static MappedPackedArray open(Path path)
+    {
+        return new MappedPackedArray(path);
+    }
+
+    /**
+     * Writes the given packed array to the given file
+     */
+    public static void write(Path path, PackedArray array)
+    {
+        try (var writer = new MappedWriter(path))
+        {
+            var bits = array.bits().asInt();
+            var size = array.size();
+            var mask = bits == Long.SIZE ? -1L : (1L << bits) - 1;
+            writer.header(MappedFormat.Kind.PACKED_ARRAY, bits, size, array.nullLong(), 0);
+
+            // Pack each value into the current word,
+            var word = 0L;
+            var used = 0;
+            for (var index = 0; index < size; index++)
+            {
+                var value = array.get(index) & mask;
+                var free = Long.SIZE - used;
+                if (bits < free)
+                {
+                    // filling it from the top down,
+                    word |= value << (free - bits);
+                    used += bits;
+                }
+                else
+                {
+                    // and when the word fills up, write it and start a new word with any leftover bits.
+                    var leftover = bits - free;
+                    writer.writeLong(word | (value >>> leftover));
+                    word = leftover == 0 ? 0L : value << (Long.SIZE - leftover);
+                    used = leftover;
+                }
+            }
+
+            // Write any partially filled last word
+            if (used > 0)
+            {
+                writer.writeLong(word);
+            }
+        }
+    }
+
+    /** The number of bits in each value */
+    private final int bits;
+
+    private MappedPackedArray(Path path)
+    {
+        super(path, MappedFormat.Kind.PACKED_ARRAY);
+        bits = parameter();
+    }
+
+    /**
+     * @return The number of bits in each value
+     */
+    public int bits()
+    {
+        return bits;
+    }
+
+    /**
+     * @return The value at the given index
+     */
+    public long get(int index)
+    {
+        assert index >= 0 && index < size();
+
+        // Find the word and bit offset of the value,
+        var bitIndex = (long) index * bits;
+        var word = bitIndex >>> 6;
+        var offset = (int) (bitIndex & 63);
+
+        // shift its high bits to the top of a long,
+        var data = data();
+        var value = data.getLong(MappedFormat.HEADER_SIZE + word * Long.BYTES) << offset;
+
+        // bring in the low bits from the next word if the value straddles two words,
+        if (offset + bits > Long.SIZE)
+        {
+            value |= data.getLong(MappedFormat.HEADER_SIZE + (word + 1) * Long.BYTES) >>> (Long.SIZE - offset);
+        }
+
+        // and shift the value down into place.
+        return value >>> (Long.SIZE - bits);
+    }
+
+    /**
+     * @return The value at the given index, sign extended from the number of bits in each value
+     */
+    public long getSigned(int index)
+    {
+        var signBits = Long.SIZE - bits;
+        return get(index) << signBits >> signBits;
+    }
+
+    /**
+     * @return The value at the given index, or the null value if the index is out of range
+     */
+    public long safeGet(int index)
+    {
+        return index >= 0 && index < size() ? get(index) : nullKey();
+    }
+}
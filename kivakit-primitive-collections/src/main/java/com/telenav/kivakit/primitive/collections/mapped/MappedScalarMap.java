@@ -0,0 +1,285 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+package com.telenav.kivakit.primitive.collections.mapped;
+
+import com.telenav.kivakit.primitive.collections.iteration.PrimitiveIterator;
+import com.telenav.kivakit.primitive.collections.lexakai.DiagramMappedCollection;
+import com.telenav.kivakit.primitive.collections.map.PrimitiveMap;
+import com.telenav.kivakit.primitive.collections.map.PrimitiveScalarMap;
+import com.telenav.kivakit.primitive.collections.map.scalars.IntToByteMap;
+import com.telenav.kivakit.primitive.collections.map.scalars.IntToIntMap;
+import com.telenav.kivakit.primitive.collections.map.scalars.IntToLongMap;
+import com.telenav.kivakit.primitive.collections.map.scalars.LongToByteMap;
+import com.telenav.kivakit.primitive.collections.map.scalars.LongToIntMap;
+import com.telenav.kivakit.primitive.collections.map.scalars.LongToLongMap;
+import com.telenav.lexakai.annotations.UmlClassDiagram;
+
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static com.telenav.kivakit.core.ensure.Ensure.unsupported;
+
+/**
+ * A read-only map from one scalar primitive to another in a memory-mapped file. Any of the scalar maps, like {@link
+ * LongToLongMap} or {@link IntToByteMap}, can be written with one of the <i>write</i> methods, and then opened in
+ * constant time with {@link #open(Path)}.
+ * <p>
+ * Like a frozen map, keys are stored in sorted order and found by binary search. The keys section holds keys at their
+ * original width (4 or 8 bytes) and is followed by the values section, holding values at their original width (1, 4
+ * or 8 bytes) in the same order. The two widths are stored in the parameter field of the file header as
+ * <i>(keyBytes &lt;&lt; 8) | valueBytes</i>.
+ *
+ * @author agent
+ * @see MappedCollection
+ */
+@UmlClassDiagram(diagram = DiagramMappedCollection.class)
+public final class MappedScalarMap extends MappedCollection implements PrimitiveScalarMap
+{
+    /**
+     * Visits the entries of a scalar map, with keys and values widened to long
+     */
+    private interface EntryVisitor
+    {
+        void onEntry(long key, long value);
+    }
+
+    /**
+     * Calls a visitor with each entry of a scalar map, in the order in which the map stores them
+     */
+    private interface Entries
+    {
+        void visit(EntryVisitor visitor);
+    }
+
+    /**
+     * @return The map in the given file
+     */
+    public static MappedScalarMap open(Path path)
+    {
+        return new MappedScalarMap(path);
+    }
+
+    public static void write(Path path, IntToByteMap map)
+    {
+        write(path, map, visitor -> map.entries(visitor::onEntry), map.keys(), map.size(),
+                Integer.BYTES, Byte.BYTES, map.nullInt(), map.nullByte());
+    }
+
+    public static void write(Path path, IntToIntMap map)
+    {
+        write(path, map, visitor -> map.entries(visitor::onEntry), map.keys(), map.size(),
+                Integer.BYTES, Integer.BYTES, map.nullInt(), map.nullInt());
+    }
+
+    public static void write(Path path, IntToLongMap map)
+    {
+        write(path, map, visitor -> map.entries(visitor::onEntry), map.keys(), map.size(),
+                Integer.BYTES, Long.BYTES, map.nullInt(), map.nullLong());
+    }
+
+    public static void write(Path path, LongToByteMap map)
+    {
+        write(path, map, visitor -> map.entries(visitor::onEntry), map.keys(), map.size(),
+                Long.BYTES, Byte.BYTES, map.nullLong(), map.nullByte());
+    }
+
+    public static void write(Path path, LongToIntMap map)
+    {
+        write(path, map, visitor -> map.entries(visitor::onEntry), map.keys(), map.size(),
+                Long.BYTES, Integer.BYTES, map.nullLong(), map.nullInt());
+    }
+
+    public static void write(Path path, LongToLongMap map)
+    {
+        write(path, map, visitor -> map.entries(visitor::onEntry), map.keys(), map.size(),
+                Long.BYTES, Long.BYTES, map.nullLong(), map.nullLong());
+    }
+
+    private static void write(Path path,
+                              PrimitiveMap map,
+                              Entries entries,
+                              PrimitiveIterator iterator,
+                              int size,
+                              int keyBytes,
+                              int valueBytes,
+                              long nullKey,
+                              long nullValue)
+    {
+        try (var writer = new MappedWriter(path))
+        {
+            writer.header(MappedFormat.Kind.SCALAR_MAP, (keyBytes << 8) | valueBytes, size, nullKey, nullValue);
+
+            // If the map is frozen with its keys in ascending order,
+            if (map.hasSortedKeys())
+            {
+                // stream its keys and then its values straight out of its arrays,
+                entries.visit((key, value) -> writer.writeValue(key, keyBytes));
+                writer.align();
+                entries.visit((key, value) -> writer.writeValue(value, valueBytes));
+            }
+            else
+            {
+                // otherwise, sort the keys in the map,
+                var keys = new long[size];
+                for (var index = 0; iterator.hasNext(); index++)
+                {
+                    keys[index] = iterator.nextLong();
+                }
+                Arrays.sort(keys);
+
+                // then write them out, followed by the value for each key.
+                var scalars = (PrimitiveScalarMap) map;
+                for (var key : keys)
+                {
+                    writer.writeValue(key, keyBytes);
+                }
+                writer.align();
+                for (var key : keys)
+                {
+                    writer.writeValue(scalars.getScalar(key), valueBytes);
+                }
+            }
+        }
+    }
+
+    /** The width of each key in bytes */
+    private final int keyBytes;
+
+    /** The width of each value in bytes */
+    private final int valueBytes;
+
+    /** The offset of the values section */
+    private final long valuesOffset;
+
+    private MappedScalarMap(Path path)
+    {
+        super(path, MappedFormat.Kind.SCALAR_MAP);
+        keyBytes = parameter() >>> 8;
+        valueBytes = parameter() & 0xff;
+        valuesOffset = MappedFormat.aligned(MappedFormat.HEADER_SIZE + (long) size() * keyBytes);
+    }
+
+    /**
+     * @return True if this map contains the given key
+     */
+    public boolean containsKey(long key)
+    {
+        return indexOf(key) >= 0;
+    }
+
+    /**
+     * @return The value for the given key, or the null value if there is no such key
+     */
+    @Override
+    public long getScalar(long key)
+    {
+        var index = indexOf(key);
+        return index < 0 ? nullValue() : value(index);
+    }
+
+    @Override
+    public boolean isScalarKeyNull(long key)
+    {
+        return key == nullKey();
+    }
+
+    @Override
+    public boolean isScalarValueNull(long value)
+    {
+        return value == nullValue();
+    }
+
+    /**
+     * @return The keys in this map in ascending order
+     */
+    public PrimitiveIterator keys()
+    {
+        return new PrimitiveIterator()
+        {
+            private int index;
+
+            @Override
+            public boolean hasNext()
+            {
+                return index < size();
+            }
+
+            @Override
+            public long nextLong()
+            {
+                return key(index++);
+            }
+        };
+    }
+
+    @Override
+    public void putScalar(long key, long value)
+    {
+        unsupported();
+    }
+
+    /**
+     * @return The index of the given key, or -1 if it is not in this map
+     */
+    private int indexOf(long key)
+    {
+        var low = 0;
+        var high = size() - 1;
+        while (low <= high)
+        {
+            var middle = (low + high) >>> 1;
+            var at = key(middle);
+            if (at < key)
+            {
+                low = middle + 1;
+            }
+            else if (at > key)
+            {
+                high = middle - 1;
+            }
+            else
+            {
+                return middle;
+            }
+        }
+        return -1;
+    }
+
+    private long key(int index)
+    {
+        var offset = MappedFormat.HEADER_SIZE + (long) index * keyBytes;
+        return keyBytes == Long.BYTES ? data().getLong(offset) : data().getInt(offset);
+    }
+
+    private long value(int index)
+    {
+        var offset = valuesOffset + (long) index * valueBytes;
+        switch (valueBytes)
+        {
+            case Byte.BYTES:
+                return data().getByte(offset);
+
+            case Integer.BYTES:
+                return data().getInt(offset);
+
+            default:
+                return data().getLong(offset);
+        }
+    }
+}
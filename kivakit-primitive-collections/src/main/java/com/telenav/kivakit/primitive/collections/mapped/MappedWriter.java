@@ -0,0 +1,183 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+package com.telenav.kivakit.primitive.collections.mapped;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+
+import static com.telenav.kivakit.core.ensure.Ensure.fail;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+/**
+ * Writes a {@link MappedFormat} file through a buffer, in little-endian order.
+ *
+ * @author agent
+ */
+final class MappedWriter implements AutoCloseable
+{
+    /** The file being written */
+    private final Path path;
+
+    /** The channel to write to */
+    private final FileChannel channel;
+
+    /** Buffer of bytes not yet written */
+    private final ByteBuffer buffer = ByteBuffer.allocate(1 << 16).order(ByteOrder.LITTLE_ENDIAN);
+
+    /** The number of bytes written so far */
+    private long position;
+
+    MappedWriter(Path path)
+    {
+        this.path = path;
+        channel = create(path);
+    }
+
+    /**
+     * Pads the file with zeros to the next 8 byte boundary
+     */
+    void align()
+    {
+        while (position != MappedFormat.aligned(position))
+        {
+            writeByte((byte) 0);
+        }
+    }
+
+    @Override
+    public void close()
+    {
+        try
+        {
+            flush();
+            channel.close();
+        }
+        catch (IOException e)
+        {
+            fail(e, "Unable to close $", path);
+        }
+    }
+
+    /**
+     * Writes the file header
+     */
+    void header(MappedFormat.Kind kind, int parameter, long size, long nullKey, long nullValue)
+    {
+        assert position == 0;
+
+        writeInt(MappedFormat.MAGIC);
+        writeInt(MappedFormat.VERSION);
+        writeInt(kind.identifier());
+        writeInt(parameter);
+        writeLong(size);
+        writeLong(nullKey);
+        writeLong(nullValue);
+        while (position < MappedFormat.HEADER_SIZE)
+        {
+            writeByte((byte) 0);
+        }
+    }
+
+    void writeByte(byte value)
+    {
+        ensureRoomFor(Byte.BYTES);
+        buffer.put(value);
+        position += Byte.BYTES;
+    }
+
+    void writeInt(int value)
+    {
+        ensureRoomFor(Integer.BYTES);
+        buffer.putInt(value);
+        position += Integer.BYTES;
+    }
+
+    void writeLong(long value)
+    {
+        ensureRoomFor(Long.BYTES);
+        buffer.putLong(value);
+        position += Long.BYTES;
+    }
+
+    /**
+     * Writes the given number of bytes from a value that is 1, 4 or 8 bytes wide
+     */
+    void writeValue(long value, int bytes)
+    {
+        switch (bytes)
+        {
+            case Byte.BYTES:
+                writeByte((byte) value);
+                break;
+
+            case Integer.BYTES:
+                writeInt((int) value);
+                break;
+
+            case Long.BYTES:
+                writeLong(value);
+                break;
+
+            default:
+                fail("Unsupported value width: $", bytes);
+        }
+    }
+
+    private static FileChannel create(Path path)
+    {
+        try
+        {
+            return FileChannel.open(path, CREATE, TRUNCATE_EXISTING, WRITE);
+        }
+        catch (IOException e)
+        {
+            return fail(e, "Unable to create $", path);
+        }
+    }
+
+    private void ensureRoomFor(int bytes)
+    {
+        if (buffer.remaining() < bytes)
+        {
+            flush();
+        }
+    }
+
+    private void flush()
+    {
+        try
+        {
+            buffer.flip();
+            while (buffer.hasRemaining())
+            {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+        catch (IOException e)
+        {
+            fail(e, "Unable to write $", path);
+        }
+    }
+}
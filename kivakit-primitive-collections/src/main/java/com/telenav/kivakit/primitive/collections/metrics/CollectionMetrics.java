@@ -0,0 +1,211 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+package com.telenav.kivakit.primitive.collections.metrics;
+
+import com.telenav.kivakit.core.string.Strings;
+import com.telenav.kivakit.core.time.Duration;
+import com.telenav.kivakit.core.value.count.Bytes;
+import com.telenav.kivakit.core.value.count.Count;
+import com.telenav.kivakit.primitive.collections.PrimitiveCollection;
+import com.telenav.kivakit.primitive.collections.lexakai.DiagramPrimitiveCollection;
+import com.telenav.kivakit.primitive.collections.map.PrimitiveMap;
+import com.telenav.lexakai.annotations.UmlClassDiagram;
+
+/**
+ * A snapshot of the size and health of a {@link PrimitiveCollection}, taken by {@link
+ * CollectionMetricsRegistry#snapshot()}. Every collection reports its size, capacity and an estimate of the bytes it
+ * retains, including those of any child collections. {@link PrimitiveMap}s also report their load factor, the average
+ * and maximum number of slots examined by lookups since they were last rehashed, and how many times they have been
+ * rehashed and for how long. These values are zero for other collections, as {@link #isMap()} indicates.
+ *
+ * @author agent
+ * @see CollectionMetricsRegistry
+ */
+@UmlClassDiagram(diagram = DiagramPrimitiveCollection.class)
+public final class CollectionMetrics
+{
+    /** The type of collection */
+    private final Class<?> type;
+
+    /** The name of the collection */
+    private final String objectName;
+
+    /** The number of elements in the collection */
+    private final int size;
+
+    /** The number of elements the collection can hold without resizing */
+    private final Count capacity;
+
+    /** Estimated bytes retained by the collection */
+    private final Bytes retainedSize;
+
+    /** True if the collection is a map */
+    private final boolean isMap;
+
+    /** The fraction of map slots in use */
+    private final double loadFactor;
+
+    /** The average number of slots examined by map lookups */
+    private final double averageProbeLength;
+
+    /** The longest sequence of slots examined by a map lookup */
+    private final int maximumProbeLength;
+
+    /** The number of times the map has been rehashed */
+    private final int rehashes;
+
+    /** The total time spent rehashing the map */
+    private final Duration rehashTime;
+
+    CollectionMetrics(PrimitiveCollection collection, Bytes retainedSize)
+    {
+        type = collection.getClass();
+        objectName = collection.objectName();
+        size = collection.size();
+        capacity = collection.capacity();
+        this.retainedSize = retainedSize;
+
+        // If the collection is a map,
+        isMap = collection instanceof PrimitiveMap;
+        if (isMap)
+        {
+            // record how well it is hashing its keys.
+            var map = (PrimitiveMap) collection;
+            loadFactor = map.loadFactor();
+            averageProbeLength = map.averageProbeLength();
+            maximumProbeLength = map.maximumProbeLength();
+            rehashes = map.rehashes();
+            rehashTime = map.rehashTime();
+        }
+        else
+        {
+            loadFactor = 0;
+            averageProbeLength = 0;
+            maximumProbeLength = 0;
+            rehashes = 0;
+            rehashTime = Duration.milliseconds(0);
+        }
+    }
+
+    /**
+     * @return The average number of slots examined by each lookup since the map was last rehashed
+     */
+    public double averageProbeLength()
+    {
+        return averageProbeLength;
+    }
+
+    /**
+     * @return The number of elements the collection can hold before it must be resized
+     */
+    public Count capacity()
+    {
+        return capacity;
+    }
+
+    /**
+     * @return True if the collection is a {@link PrimitiveMap}, which reports hashing metrics
+     */
+    public boolean isMap()
+    {
+        return isMap;
+    }
+
+    /**
+     * @return The fraction of the slots in the hash table of the map that are in use
+     */
+    public double loadFactor()
+    {
+        return loadFactor;
+    }
+
+    /**
+     * @return The length of the longest sequence of slots examined by a lookup since the map was last rehashed
+     */
+    public int maximumProbeLength()
+    {
+        return maximumProbeLength;
+    }
+
+    /**
+     * @return The name of the collection
+     */
+    public String objectName()
+    {
+        return objectName;
+    }
+
+    /**
+     * @return The number of times the map has been rehashed to a new size
+     */
+    public int rehashes()
+    {
+        return rehashes;
+    }
+
+    /**
+     * @return The total time spent rehashing the map
+     */
+    public Duration rehashTime()
+    {
+        return rehashTime;
+    }
+
+    /**
+     * @return An estimate of the memory retained by the collection and its children. Primitive arrays are measured
+     * exactly and object headers and references are estimated.
+     */
+    public Bytes retainedSize()
+    {
+        return retainedSize;
+    }
+
+    /**
+     * @return The number of elements in the collection
+     */
+    public int size()
+    {
+        return size;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString()
+    {
+        if (isMap)
+        {
+            return Strings.format("$ '$': size = $, capacity = $, retained = $, load = ${double}, "
+                            + "probes = ${double} (max $), rehashes = $ ($)",
+                    type.getSimpleName(), objectName, size, capacity, retainedSize, loadFactor,
+                    averageProbeLength, maximumProbeLength, rehashes, rehashTime);
+        }
+        return Strings.format("$ '$': size = $, capacity = $, retained = $",
+                type.getSimpleName(), objectName, size, capacity, retainedSize);
+    }
+
+    /**
+     * @return The type of collection
+     */
+    public Class<?> type()
+    {
+        return type;
+    }
+}
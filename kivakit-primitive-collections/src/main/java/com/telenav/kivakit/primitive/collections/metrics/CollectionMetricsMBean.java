@@ -0,0 +1,52 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+package com.telenav.kivakit.primitive.collections.metrics;
+
+import com.telenav.kivakit.primitive.collections.lexakai.DiagramPrimitiveCollection;
+import com.telenav.lexakai.annotations.UmlClassDiagram;
+
+import javax.management.openmbean.TabularData;
+
+/**
+ * JMX view of the metrics in {@link CollectionMetricsRegistry}, registered as {@link
+ * CollectionMetricsRegistry#OBJECT_NAME} when metrics are enabled. Each attribute takes a new snapshot of the live
+ * collections when it is read.
+ *
+ * @author agent
+ * @see CollectionMetrics
+ */
+@UmlClassDiagram(diagram = DiagramPrimitiveCollection.class)
+public interface CollectionMetricsMBean
+{
+    /**
+     * @return The number of live top-level collections
+     */
+    int getCollectionCount();
+
+    /**
+     * @return A table with one row of {@link CollectionMetrics} for each live top-level collection, in decreasing
+     * order of retained size
+     */
+    TabularData getCollections();
+
+    /**
+     * @return The estimated number of bytes retained by all live collections
+     */
+    long getRetainedBytes();
+}
@@ -0,0 +1,457 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+package com.telenav.kivakit.primitive.collections.metrics;
+
+import com.telenav.kivakit.core.collections.list.ObjectList;
+import com.telenav.kivakit.core.logging.Logger;
+import com.telenav.kivakit.core.logging.LoggerFactory;
+import com.telenav.kivakit.core.value.count.Bytes;
+import com.telenav.kivakit.primitive.collections.PrimitiveCollection;
+import com.telenav.kivakit.primitive.collections.lexakai.DiagramPrimitiveCollection;
+import com.telenav.lexakai.annotations.UmlClassDiagram;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import javax.management.StandardMBean;
+import javax.management.openmbean.CompositeDataSupport;
+import javax.management.openmbean.CompositeType;
+import javax.management.openmbean.OpenDataException;
+import javax.management.openmbean.OpenType;
+import javax.management.openmbean.SimpleType;
+import javax.management.openmbean.TabularData;
+import javax.management.openmbean.TabularDataSupport;
+import javax.management.openmbean.TabularType;
+import java.lang.management.ManagementFactory;
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.ShortBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Tracks live {@link PrimitiveCollection}s so their {@link CollectionMetrics} can be polled with {@link #snapshot()},
+ * or through JMX with {@link CollectionMetricsMBean}.
+ * <p>
+ * Metrics are disabled by default, since tracking costs a weak reference per collection. They can be enabled by
+ * calling {@link #enable()}, or by setting the Java property KIVAKIT_COLLECTION_METRICS to true, either of which also
+ * registers the MBean as {@link #OBJECT_NAME}. Only collections that are initialized (or deserialized) after metrics
+ * are enabled are tracked.
+ * <p>
+ * Collections held by other tracked collections, such as the children of split arrays and maps, are not reported on
+ * their own. Instead, their memory is included in the retained size of the collection that holds them. The retained
+ * size is found by walking the fields of each collection, so snapshots are intended to be taken occasionally, for
+ * example, by a monitoring system every minute, and not on a hot path. Snapshots are taken without locking, so the
+ * metrics of collections that are being modified are approximate.
+ *
+ * @author agent
+ * @see CollectionMetrics
+ * @see CollectionMetricsMBean
+ */
+@UmlClassDiagram(diagram = DiagramPrimitiveCollection.class)
+public final class CollectionMetricsRegistry
+{
+    /** The JMX object name of the metrics MBean */
+    public static final String OBJECT_NAME = "com.telenav.kivakit:type=PrimitiveCollections";
+
+    private static final Logger LOGGER = LoggerFactory.newLogger();
+
+    /** Estimated size of an object header */
+    private static final int OBJECT_HEADER = 16;
+
+    /** Estimated size of an object reference */
+    private static final int REFERENCE = 4;
+
+    /** The number of registrations between removals of references to collections that have been collected */
+    private static final int PRUNE_INTERVAL = 4_096;
+
+    /** The package of this module, whose objects are included in retained sizes */
+    private static final String PACKAGE = PrimitiveCollection.class.getPackageName();
+
+    /** The live collections */
+    private static final ConcurrentLinkedQueue<WeakReference<PrimitiveCollection>> collections = new ConcurrentLinkedQueue<>();
+
+    /** The number of collections registered */
+    private static final AtomicInteger registrations = new AtomicInteger();
+
+    /** The instance fields of each class that has been measured */
+    private static final ConcurrentHashMap<Class<?>, Field[]> fields = new ConcurrentHashMap<>();
+
+    /** True if collections are being tracked */
+    private static volatile boolean enabled;
+
+    /** True if the MBean has been registered */
+    private static boolean registered;
+
+    static
+    {
+        if (Boolean.parseBoolean(System.getProperty("KIVAKIT_COLLECTION_METRICS")))
+        {
+            enable();
+        }
+    }
+
+    /**
+     * JMX implementation of {@link CollectionMetricsMBean}
+     */
+    private static class MetricsBean implements CollectionMetricsMBean
+    {
+        private static final String[] ITEMS = {
+                "name",
+                "type",
+                "size",
+                "capacity",
+                "retainedBytes",
+                "loadFactor",
+                "averageProbeLength",
+                "maximumProbeLength",
+                "rehashes",
+                "rehashTime"
+        };
+
+        private static final OpenType<?>[] TYPES = {
+                SimpleType.STRING,
+                SimpleType.STRING,
+                SimpleType.INTEGER,
+                SimpleType.INTEGER,
+                SimpleType.LONG,
+                SimpleType.DOUBLE,
+                SimpleType.DOUBLE,
+                SimpleType.INTEGER,
+                SimpleType.INTEGER,
+                SimpleType.STRING
+        };
+
+        private final CompositeType rowType;
+
+        private final TabularType tableType;
+
+        MetricsBean() throws OpenDataException
+        {
+            rowType = new CompositeType("CollectionMetrics", "Metrics of a primitive collection", ITEMS, ITEMS, TYPES);
+            tableType = new TabularType("Collections", "Metrics of live primitive collections", rowType, new String[] { "name", "type" });
+        }
+
+        @Override
+        public int getCollectionCount()
+        {
+            return snapshot().size();
+        }
+
+        @Override
+        public TabularData getCollections()
+        {
+            var table = new TabularDataSupport(tableType);
+            var names = new ConcurrentHashMap<String, Integer>();
+            for (var metrics : snapshot())
+            {
+                // Give collections with the same name and type a unique name
+                var name = metrics.objectName();
+                var duplicates = names.merge(metrics.type().getName() + ":" + name, 1, Integer::sum);
+                if (duplicates > 1)
+                {
+                    name = name + " #" + duplicates;
+                }
+
+                try
+                {
+                    table.put(new CompositeDataSupport(rowType, ITEMS, new Object[]
+                            {
+                                    name,
+                                    metrics.type().getName(),
+                                    metrics.size(),
+                                    metrics.capacity().asInt(),
+                                    metrics.retainedSize().asBytes(),
+                                    metrics.loadFactor(),
+                                    metrics.averageProbeLength(),
+                                    metrics.maximumProbeLength(),
+                                    metrics.rehashes(),
+                                    metrics.rehashTime().toString()
+                            }));
+                }
+                catch (OpenDataException e)
+                {
+                    LOGGER.warning(e, "Unable to convert metrics for $", name);
+                }
+            }
+            return table;
+        }
+
+        @Override
+        public long getRetainedBytes()
+        {
+            var total = 0L;
+            for (var metrics : snapshot())
+            {
+                total += metrics.retainedSize().asBytes();
+            }
+            return total;
+        }
+    }
+
+    /**
+     * Starts tracking collections as they are initialized and registers {@link CollectionMetricsMBean} with the
+     * platform MBean server
+     */
+    public static synchronized void enable()
+    {
+        enabled = true;
+
+        if (!registered)
+        {
+            registered = true;
+            try
+            {
+                var bean = new StandardMBean(new MetricsBean(), CollectionMetricsMBean.class);
+                ManagementFactory.getPlatformMBeanServer().registerMBean(bean, new ObjectName(OBJECT_NAME));
+            }
+            catch (JMException e)
+            {
+                LOGGER.warning(e, "Unable to register $", OBJECT_NAME);
+            }
+        }
+    }
+
+    /**
+     * @return True if collections are being tracked
+     */
+    public static boolean isEnabled()
+    {
+        return enabled;
+    }
+
+    /**
+     * Tracks the given collection if metrics are enabled. This is called by {@link PrimitiveCollection} when a
+     * collection is initialized or deserialized.
+     */
+    public static void register(PrimitiveCollection collection)
+    {
+        if (enabled)
+        {
+            collections.add(new WeakReference<>(collection));
+            if (registrations.incrementAndGet() % PRUNE_INTERVAL == 0)
+            {
+                collections.removeIf(reference -> reference.get() == null);
+            }
+        }
+    }
+
+    /**
+     * @return The metrics of each live top-level collection, in decreasing order of retained size
+     */
+    public static ObjectList<CollectionMetrics> snapshot()
+    {
+        // Get the live collections, removing any that have been collected,
+        var live = new ArrayList<PrimitiveCollection>();
+        var references = collections.iterator();
+        while (references.hasNext())
+        {
+            var collection = references.next().get();
+            if (collection == null)
+            {
+                references.remove();
+            }
+            else
+            {
+                live.add(collection);
+            }
+        }
+
+        // then measure each one, noting any collections they hold,
+        var children = Collections.newSetFromMap(new IdentityHashMap<>());
+        var retained = new IdentityHashMap<PrimitiveCollection, Long>();
+        for (var collection : live)
+        {
+            try
+            {
+                retained.put(collection, retainedSize(collection, Collections.newSetFromMap(new IdentityHashMap<>()), children));
+            }
+            catch (RuntimeException e)
+            {
+                LOGGER.warning(e, "Unable to measure $", collection.objectName());
+            }
+        }
+
+        // and report the collections that are not held by other collections.
+        var snapshot = new ObjectList<CollectionMetrics>();
+        for (var collection : live)
+        {
+            var bytes = retained.get(collection);
+            if (bytes != null && !children.contains(collection))
+            {
+                try
+                {
+                    snapshot.add(new CollectionMetrics(collection, Bytes.bytes(bytes)));
+                }
+                catch (RuntimeException e)
+                {
+                    LOGGER.warning(e, "Unable to get metrics for $", collection.objectName());
+                }
+            }
+        }
+        snapshot.sort(Comparator.comparingLong((CollectionMetrics metrics) -> metrics.retainedSize().asBytes()).reversed());
+        return snapshot;
+    }
+
+    /**
+     * @return The instance fields of the given class and its superclasses that hold references, made accessible
+     */
+    private static Field[] fields(Class<?> type)
+    {
+        return fields.computeIfAbsent(type, ignored ->
+        {
+            var instanceFields = new ArrayList<Field>();
+            for (var at = type; at != null && at != Object.class; at = at.getSuperclass())
+            {
+                for (var field : at.getDeclaredFields())
+                {
+                    if (!Modifier.isStatic(field.getModifiers()) && !field.getType().isPrimitive())
+                    {
+                        field.setAccessible(true);
+                        instanceFields.add(field);
+                    }
+                }
+            }
+            return instanceFields.toArray(new Field[0]);
+        });
+    }
+
+    /**
+     * @return The estimated number of bytes retained by the given object, which are only counted if the object has not
+     * been visited already. Any collections reached are added to the given set of children.
+     */
+    private static long retainedSize(Object object, Set<Object> visited, Set<Object> children)
+    {
+        // If the object is null or has already been counted, it adds nothing,
+        if (object == null || !visited.add(object))
+        {
+            return 0;
+        }
+
+        var type = object.getClass();
+
+        // if it's an array, count its elements and anything its elements retain,
+        if (type.isArray())
+        {
+            var component = type.getComponentType();
+            if (component.isPrimitive())
+            {
+                return OBJECT_HEADER + (long) Array.getLength(object) * width(component);
+            }
+            var elements = (Object[]) object;
+            var size = OBJECT_HEADER + (long) elements.length * REFERENCE;
+            for (var element : elements)
+            {
+                size += retainedSize(element, visited, children);
+            }
+            return size;
+        }
+
+        // if it's a string, count its characters,
+        if (object instanceof String)
+        {
+            return OBJECT_HEADER + REFERENCE + OBJECT_HEADER + ((String) object).length();
+        }
+
+        // if it's a buffer, count its capacity,
+        if (object instanceof Buffer)
+        {
+            return OBJECT_HEADER + (long) ((Buffer) object).capacity() * width((Buffer) object);
+        }
+
+        // and if it's an object in this module, count its fields and anything they retain.
+        if (type.getPackageName().startsWith(PACKAGE))
+        {
+            if (object instanceof PrimitiveCollection && visited.size() > 1)
+            {
+                children.add(object);
+            }
+            var fields = fields(type);
+            var size = OBJECT_HEADER + (long) fields.length * REFERENCE;
+            for (var field : fields)
+            {
+                try
+                {
+                    size += retainedSize(field.get(object), visited, children);
+                }
+                catch (IllegalAccessException ignored)
+                {
+                }
+            }
+            return size;
+        }
+        return 0;
+    }
+
+    /**
+     * @return The number of bytes in each element of the given buffer
+     */
+    private static int width(Buffer buffer)
+    {
+        if (buffer instanceof LongBuffer)
+        {
+            return Long.BYTES;
+        }
+        if (buffer instanceof IntBuffer)
+        {
+            return Integer.BYTES;
+        }
+        if (buffer instanceof CharBuffer || buffer instanceof ShortBuffer)
+        {
+            return Short.BYTES;
+        }
+        return buffer instanceof ByteBuffer ? Byte.BYTES : Long.BYTES;
+    }
+
+    /**
+     * @return The number of bytes in the given primitive type
+     */
+    private static int width(Class<?> primitive)
+    {
+        if (primitive == long.class || primitive == double.class)
+        {
+            return Long.BYTES;
+        }
+        if (primitive == int.class || primitive == float.class)
+        {
+            return Integer.BYTES;
+        }
+        if (primitive == short.class || primitive == char.class)
+        {
+            return Short.BYTES;
+        }
+        return Byte.BYTES;
+    }
+
+    private CollectionMetricsRegistry()
+    {
+    }
+}
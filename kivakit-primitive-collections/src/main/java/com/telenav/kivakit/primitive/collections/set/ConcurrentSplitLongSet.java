@@ -0,0 +1,458 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+package com.telenav.kivakit.primitive.collections.set;
+
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.KryoSerializable;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+import com.telenav.kivakit.core.progress.ProgressReporter;
+import com.telenav.kivakit.core.value.count.Count;
+import com.telenav.kivakit.primitive.collections.iteration.LongIterable;
+import com.telenav.kivakit.primitive.collections.iteration.LongIterator;
+import com.telenav.kivakit.primitive.collections.map.PrimitiveMap;
+import com.telenav.kivakit.primitive.collections.lexakai.DiagramPrimitiveSet;
+import com.telenav.lexakai.annotations.UmlClassDiagram;
+
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.StampedLock;
+
+import static com.telenav.kivakit.core.ensure.Ensure.unsupported;
+
+/**
+ * A thread-safe set of primitive long values. Like {@link SplitLongSet}, values are partitioned by hash across child
+ * sets, but each child is guarded by its own lock, so threads working on different children never contend. Lookups
+ * take a shared read lock on one child and updates take an exclusive write lock on one child.
+ * <p>
+ * <b>Access</b>
+ * <ul>
+ *     <li>{@link #add(long)} </li>
+ *     <li>{@link #contains(long)}</li>
+ *     <li>{@link #remove(long)}</li>
+ *     <li>{@link #clear()}</li>
+ * </ul>
+ * <p>
+ * <b>Values</b>
+ * <ul>
+ *     <li>{@link #values()}</li>
+ * </ul>
+ * <p>
+ * Iteration is weakly consistent: each child is copied under its read lock as it is reached. The number of children
+ * is fixed when the set is initialized.
+ * <p>
+ * This class supports the {@link #hashCode()} / {@link #equals(Object)} contract and is {@link KryoSerializable}.
+ *
+ * @author agent
+ * @see SplitLongSet
+ * @see KryoSerializable
+ */
+@SuppressWarnings("DuplicatedCode") @UmlClassDiagram(diagram = DiagramPrimitiveSet.class)
+public final class ConcurrentSplitLongSet extends PrimitiveSet implements LongIterable
+{
+    /** The child sets */
+    private LongSet[] children;
+
+    /** A lock for each child set */
+    private transient StampedLock[] locks;
+
+    /** The number of values in all children */
+    private transient LongAdder size = new LongAdder();
+
+    public ConcurrentSplitLongSet(String objectName)
+    {
+        super(objectName);
+    }
+
+    private ConcurrentSplitLongSet()
+    {
+    }
+
+    /**
+     * Adds the given value to this set
+     *
+     * @return True if the value was added, false if it was already in the set
+     */
+    @Override
+    public boolean add(long value)
+    {
+        var childIndex = childIndex(value);
+        var lock = locks[childIndex];
+        var stamp = lock.writeLock();
+        try
+        {
+            if (child(childIndex).add(value))
+            {
+                size.increment();
+                return true;
+            }
+            return false;
+        }
+        finally
+        {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public Count capacity()
+    {
+        var capacity = 0L;
+        for (var childIndex = 0; childIndex < children.length; childIndex++)
+        {
+            var lock = locks[childIndex];
+            var stamp = lock.readLock();
+            try
+            {
+                var child = children[childIndex];
+                if (child != null)
+                {
+                    capacity += child.capacity().asLong();
+                }
+            }
+            finally
+            {
+                lock.unlockRead(stamp);
+            }
+        }
+
+        // The children together can hold more than an int can count, so clamp the total
+        return Count.count(Math.min(capacity, Integer.MAX_VALUE));
+    }
+
+    /**
+     * Removes all values from this set
+     */
+    @Override
+    public void clear()
+    {
+        super.clear();
+        for (var childIndex = 0; childIndex < children.length; childIndex++)
+        {
+            var lock = locks[childIndex];
+            var stamp = lock.writeLock();
+            try
+            {
+                var child = children[childIndex];
+                if (child != null)
+                {
+                    size.add(-child.size());
+                    child.clear();
+                }
+            }
+            finally
+            {
+                lock.unlockWrite(stamp);
+            }
+        }
+    }
+
+    /**
+     * @return True if this set contains the value
+     */
+    @Override
+    public boolean contains(long value)
+    {
+        var childIndex = childIndex(value);
+        var lock = locks[childIndex];
+        var stamp = lock.readLock();
+        try
+        {
+            var child = children[childIndex];
+            return child != null && child.contains(value);
+        }
+        finally
+        {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean equals(Object object)
+    {
+        if (object instanceof ConcurrentSplitLongSet)
+        {
+            var that = (ConcurrentSplitLongSet) object;
+            if (size() != that.size())
+            {
+                return false;
+            }
+            var values = values();
+            while (values.hasNext())
+            {
+                if (!that.contains(values.next()))
+                {
+                    return false;
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int hashCode()
+    {
+        return values().hash();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isEmpty()
+    {
+        return size() == 0;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public LongIterator iterator()
+    {
+        return values();
+    }
+
+    @Override
+    public Method onCompress(Method method)
+    {
+        for (var childIndex = 0; childIndex < children.length; childIndex++)
+        {
+            var lock = locks[childIndex];
+            var stamp = lock.writeLock();
+            try
+            {
+                var child = children[childIndex];
+                if (child != null)
+                {
+                    child.compress(method);
+                }
+            }
+            finally
+            {
+                lock.unlockWrite(stamp);
+            }
+        }
+        return method;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void onInitialize()
+    {
+        super.onInitialize();
+        children = new LongSet[initialChildCountAsInt()];
+        locks = locks(children.length);
+    }
+
+    /**
+     * @see KryoSerializable
+     */
+    @Override
+    public void read(Kryo kryo, Input input)
+    {
+        super.read(kryo, input);
+        children = kryo.readObject(input, LongSet[].class);
+        for (var child : children)
+        {
+            if (child != null)
+            {
+                child.probeCounting(false);
+            }
+        }
+        locks = locks(children.length);
+        size = new LongAdder();
+        size.add(kryo.readObject(input, int.class));
+    }
+
+    /**
+     * Removes the given value from this set
+     *
+     * @return True if the value was removed and false if it could not be found
+     */
+    public boolean remove(long value)
+    {
+        var childIndex = childIndex(value);
+        var lock = locks[childIndex];
+        var stamp = lock.writeLock();
+        try
+        {
+            var child = children[childIndex];
+            if (child != null && child.remove(value))
+            {
+                size.decrement();
+                return true;
+            }
+            return false;
+        }
+        finally
+        {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int size()
+    {
+        return size.intValue();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString()
+    {
+        return "[" + getClass().getSimpleName() + " name = " + objectName() + ", size = " + size() + "]\n" +
+                toString(values(), ", ", 10, "\n", Long::toString) + "]";
+    }
+
+    /**
+     * @return The values in this set in an undefined order
+     */
+    public LongIterator values()
+    {
+        return new LongIterator()
+        {
+            private int childIndex;
+
+            private int index;
+
+            private long[] snapshot = new long[0];
+
+            @Override
+            public boolean hasNext()
+            {
+                // While we've used up the current snapshot,
+                while (index >= snapshot.length)
+                {
+                    // and there's another child,
+                    if (childIndex >= children.length)
+                    {
+                        return false;
+                    }
+
+                    // copy its values under its read lock.
+                    var lock = locks[childIndex];
+                    var stamp = lock.readLock();
+                    try
+                    {
+                        var child = children[childIndex++];
+                        snapshot = child == null ? new long[0] : new long[child.size()];
+                        if (child != null)
+                        {
+                            var values = child.values();
+                            for (var at = 0; values.hasNext(); at++)
+                            {
+                                snapshot[at] = values.next();
+                            }
+                        }
+                        index = 0;
+                    }
+                    finally
+                    {
+                        lock.unlockRead(stamp);
+                    }
+                }
+                return true;
+            }
+
+            @Override
+            public long next()
+            {
+                return snapshot[index++];
+            }
+        };
+    }
+
+    /**
+     * @see KryoSerializable
+     */
+    @Override
+    public void write(Kryo kryo, Output output)
+    {
+        super.write(kryo, output);
+        kryo.writeObject(output, children);
+        kryo.writeObject(output, size());
+    }
+
+    @Override
+    protected void copyEntries(PrimitiveMap that, ProgressReporter reporter)
+    {
+        unsupported();
+    }
+
+    @Override
+    protected PrimitiveMap newMap()
+    {
+        return unsupported();
+    }
+
+    /**
+     * @return The child set at the given index, creating it if it doesn't exist. The caller must hold the child's write
+     * lock.
+     */
+    private LongSet child(int childIndex)
+    {
+        // If there's no child at the given index,
+        var child = children[childIndex];
+        if (child == null)
+        {
+            // create one
+            child = new LongSet(objectName() + ".child[" + childIndex + "]");
+            child.initialSize(initialChildSizeAsInt());
+            child.maximumSize(Integer.MAX_VALUE);
+            child.probeCounting(false);
+            child.initialize();
+
+            // and install it in the children array.
+            children[childIndex] = child;
+        }
+        return child;
+    }
+
+    /**
+     * @return The index of the child set that holds the given value
+     */
+    private int childIndex(long value)
+    {
+        return Math.floorMod(hash(value), children.length);
+    }
+
+    private StampedLock[] locks(int count)
+    {
+        var locks = new StampedLock[count];
+        for (var index = 0; index < count; index++)
+        {
+            locks[index] = new StampedLock();
+        }
+        return locks;
+    }
+}
@@ -25,12 +25,15 @@ import com.esotericsoftware.kryo.io.Output;
 import com.telenav.kivakit.core.progress.ProgressReporter;
 import com.telenav.kivakit.core.value.count.Count;
 import com.telenav.kivakit.primitive.collections.LongCollection;
+import com.telenav.kivakit.primitive.collections.array.sorting.RadixSort;
 import com.telenav.kivakit.primitive.collections.iteration.LongIterator;
 import com.telenav.kivakit.primitive.collections.map.PrimitiveMap;
 import com.telenav.kivakit.primitive.collections.lexakai.DiagramPrimitiveSet;
 import com.telenav.lexakai.annotations.UmlClassDiagram;
 
-import java.util.Arrays;
+import java.util.Spliterator;
+import java.util.stream.LongStream;
+import java.util.stream.StreamSupport;
 
 /**
  * A set of primitive long values. Supports typical set functions:
@@ -166,6 +169,15 @@ public final class LongSet extends PrimitiveSet implements LongCollection
         return nonEmptyValues(values);
     }
 
+    /**
+     * @return A stream of the values in this set in an undefined order, which can be made parallel with {@link
+     * LongStream#parallel()}
+     */
+    public LongStream longStream()
+    {
+        return StreamSupport.longStream(spliterator(), false);
+    }
+
     @Override
     public Method onCompress(Method method)
     {
@@ -181,7 +193,17 @@ public final class LongSet extends PrimitiveSet implements LongCollection
             {
                 frozenValues[i] = keys.next();
             }
-            Arrays.sort(frozenValues);
+
+            // If perfect hashing is enabled, move each value to its index, otherwise sort the values
+            var index = indexFrozenKeys(frozenValues);
+            if (index != null)
+            {
+                index.reorder(frozenValues);
+            }
+            else
+            {
+                RadixSort.sort(frozenValues);
+            }
             values = frozenValues;
 
             return method;
@@ -226,8 +248,8 @@ public final class LongSet extends PrimitiveSet implements LongCollection
         // If the value was found,
         if (!isEmpty(values[index]))
         {
-            // remove it
-            values[index] = nullLong();
+            // remove it, moving back any values that were displaced by it, so that probe sequences stay intact
+            removeAt(values, index);
             decreaseSize(1);
             return true;
         }
@@ -244,6 +266,14 @@ public final class LongSet extends PrimitiveSet implements LongCollection
                 toString(values(), ", ", 10, "\n", Long::toString);
     }
 
+    /**
+     * @return A spliterator over the values in this set, which splits the hash table into ranges of slots
+     */
+    public Spliterator.OfLong spliterator()
+    {
+        return nonEmptySpliterator(values);
+    }
+
     /**
      * @return The values in this set
      */
@@ -26,10 +26,17 @@ import com.telenav.kivakit.core.progress.ProgressReporter;
 import com.telenav.kivakit.core.value.count.Count;
 import com.telenav.kivakit.primitive.collections.iteration.LongIterable;
 import com.telenav.kivakit.primitive.collections.iteration.LongIterator;
+import com.telenav.kivakit.primitive.collections.iteration.SplitLongSpliterator;
 import com.telenav.kivakit.primitive.collections.map.PrimitiveMap;
 import com.telenav.kivakit.primitive.collections.lexakai.DiagramPrimitiveSet;
 import com.telenav.lexakai.annotations.UmlClassDiagram;
 
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.Spliterator;
+import java.util.stream.LongStream;
+import java.util.stream.StreamSupport;
+
 import static com.telenav.kivakit.core.ensure.Ensure.unsupported;
 
 /**
@@ -173,16 +180,19 @@ public final class SplitLongSet extends PrimitiveSet implements LongIterable
         return values();
     }
 
+    /**
+     * @return A stream of the values in this set in an undefined order, which can be made parallel with {@link
+     * LongStream#parallel()}
+     */
+    public LongStream longStream()
+    {
+        return StreamSupport.longStream(spliterator(), false);
+    }
+
     @Override
     public Method onCompress(Method method)
     {
-        for (var child : children)
-        {
-            if (child != null)
-            {
-                child.compress(method);
-            }
-        }
+        compressChildren(children, method, compressionParallelism());
         return method;
     }
 
@@ -231,6 +241,17 @@ public final class SplitLongSet extends PrimitiveSet implements LongIterable
                 toString(values(), ", ", 10, "\n", Long::toString) + "]";
     }
 
+    /**
+     * @return A spliterator over the values in this set, which splits along the child sets
+     */
+    public Spliterator.OfLong spliterator()
+    {
+        return new SplitLongSpliterator(Arrays.stream(children)
+                .filter(Objects::nonNull)
+                .map(LongSet::spliterator)
+                .toArray(Spliterator.OfLong[]::new));
+    }
+
     /**
      * @return The values in this map in an undefined order
      */
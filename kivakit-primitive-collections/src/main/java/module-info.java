@@ -5,6 +5,12 @@ open module kivakit.primitive.collections
     requires transitive kivakit.collections;
     requires transitive kivakit.conversion;
 
+    // Java
+    requires java.management;
+
+    // Services
+    uses com.telenav.kivakit.primitive.collections.array.kernels.Kernels;
+
     // Module exports
     exports com.telenav.kivakit.primitive.collections;
     exports com.telenav.kivakit.primitive.collections.array;
@@ -13,8 +19,11 @@ open module kivakit.primitive.collections
     exports com.telenav.kivakit.primitive.collections.array.bits.io.output;
     exports com.telenav.kivakit.primitive.collections.array.bits.io;
     exports com.telenav.kivakit.primitive.collections.array.bits;
+    exports com.telenav.kivakit.primitive.collections.array.bits.compressed;
+    exports com.telenav.kivakit.primitive.collections.array.kernels;
     exports com.telenav.kivakit.primitive.collections.array.packed;
     exports com.telenav.kivakit.primitive.collections.array.scalars;
+    exports com.telenav.kivakit.primitive.collections.array.sorting;
     exports com.telenav.kivakit.primitive.collections.array.strings;
     exports com.telenav.kivakit.primitive.collections.iteration;
     exports com.telenav.kivakit.primitive.collections.list;
@@ -26,6 +35,8 @@ open module kivakit.primitive.collections
     exports com.telenav.kivakit.primitive.collections.map.objects;
     exports com.telenav.kivakit.primitive.collections.map.scalars;
     exports com.telenav.kivakit.primitive.collections.map.split;
+    exports com.telenav.kivakit.primitive.collections.mapped;
+    exports com.telenav.kivakit.primitive.collections.metrics;
     exports com.telenav.kivakit.primitive.collections.set;
     exports com.telenav.kivakit.primitive.collections.map.multi;
     exports com.telenav.kivakit.primitive.collections.lexakai;
@@ -0,0 +1,200 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+package com.telenav.kivakit.primitive.collections;
+
+import com.telenav.kivakit.core.value.count.BitCount;
+import com.telenav.kivakit.primitive.collections.array.packed.PackedArray;
+import com.telenav.kivakit.primitive.collections.array.packed.PackedPrimitiveArray;
+import com.telenav.kivakit.primitive.collections.array.packed.SplitPackedArray;
+import com.telenav.kivakit.primitive.collections.array.scalars.BigSplitLongArray;
+import com.telenav.kivakit.primitive.collections.array.scalars.ByteArray;
+import com.telenav.kivakit.primitive.collections.array.scalars.LongArray;
+import com.telenav.kivakit.primitive.collections.array.scalars.OffHeapIntArray;
+import com.telenav.kivakit.primitive.collections.array.scalars.SplitLongArray;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+public class ChannelSerializableTest extends PrimitiveCollectionsUnitTest
+{
+    @Test
+    public void testBigSplitLongArray()
+    {
+        var array = (BigSplitLongArray) new BigSplitLongArray("test")
+                .nullLong(Long.MIN_VALUE);
+        array.initialize();
+        for (var i = 0; i < 1_000; i++)
+        {
+            array.add(i);
+        }
+        array.set(3_000_000_000L, 99);
+
+        var loaded = new BigSplitLongArray("loaded");
+        saveAndLoad(array, loaded);
+        ensureEqual(array.longSize(), loaded.longSize());
+        ensureEqual(array.cursor(), loaded.cursor());
+        ensureEqual(array, loaded);
+        ensureEqual(99L, loaded.get(3_000_000_000L));
+    }
+
+    @Test
+    public void testByteArray()
+    {
+        var array = new ByteArray("test");
+        array.initialize();
+        for (var i = 0; i < 3_000_000; i++)
+        {
+            array.add((byte) i);
+        }
+
+        var loaded = new ByteArray("loaded");
+        saveAndLoad(array, loaded);
+        ensureEqual(array.size(), loaded.size());
+        for (var i = 0; i < array.size(); i++)
+        {
+            ensureEqual(array.get(i), loaded.get(i));
+        }
+    }
+
+    @Test
+    public void testLongArray()
+    {
+        var array = new LongArray("test");
+        array.initialize();
+        for (var i = 0; i < 500_000; i++)
+        {
+            array.add(i * 0x1_0000_0001L);
+        }
+
+        var loaded = new LongArray("loaded");
+        saveAndLoad(array, loaded);
+        ensureEqual("test", loaded.objectName());
+        ensureEqual(array.size(), loaded.size());
+        ensureEqual(array.cursor(), loaded.cursor());
+        ensureEqual(array, loaded);
+
+        // A loaded array can still grow
+        loaded.add(7);
+        ensureEqual(7L, loaded.get(array.size()));
+    }
+
+    @Test
+    public void testOffHeapIntArray()
+    {
+        var array = new OffHeapIntArray("test");
+        array.initialize();
+        for (var i = 0; i < 500_000; i++)
+        {
+            array.add(i * 31);
+        }
+
+        var loaded = new OffHeapIntArray("loaded");
+        saveAndLoad(array, loaded);
+        ensureEqual(array.size(), loaded.size());
+        for (var i = 0; i < array.size(); i++)
+        {
+            ensureEqual(array.get(i), loaded.get(i));
+        }
+    }
+
+    @Test
+    public void testPackedArray()
+    {
+        var array = new PackedArray("test");
+        array.bits(BitCount._34, PackedPrimitiveArray.OverflowHandling.NO_OVERFLOW);
+        array.initialize();
+        for (var i = 0; i < 10_000; i++)
+        {
+            array.add(i * 1_000_003L);
+        }
+
+        var loaded = new PackedArray("loaded");
+        saveAndLoad(array, loaded);
+        ensureEqual(array.bits(), loaded.bits());
+        ensureEqual(array.size(), loaded.size());
+        for (var i = 0; i < array.size(); i++)
+        {
+            ensureEqual(array.get(i), loaded.get(i));
+        }
+    }
+
+    @Test
+    public void testSplitLongArray()
+    {
+        var array = (SplitLongArray) new SplitLongArray("test")
+                .nullLong(Long.MIN_VALUE)
+                .initialChildSize(100);
+        array.initialize();
+        for (var i = 0; i < 1_000; i++)
+        {
+            // Leave a gap of empty children in the middle of the array
+            if (i < 300 || i >= 700)
+            {
+                array.set(i, i);
+            }
+        }
+
+        var loaded = new SplitLongArray("loaded");
+        saveAndLoad(array, loaded);
+        ensureEqual(array.size(), loaded.size());
+        for (var i = 0; i < array.size(); i++)
+        {
+            ensureEqual(array.safeGet(i), loaded.safeGet(i));
+        }
+    }
+
+    @Test
+    public void testSplitPackedArray()
+    {
+        var array = new SplitPackedArray("test");
+        array.bits(BitCount._11, PackedPrimitiveArray.OverflowHandling.NO_OVERFLOW);
+        array.initialChildSize(1_000);
+        array.initialize();
+        for (var i = 0; i < 10_000; i++)
+        {
+            array.add(i % 2_000);
+        }
+
+        var loaded = new SplitPackedArray("loaded");
+        saveAndLoad(array, loaded);
+        ensureEqual(array.size(), loaded.size());
+        for (var i = 0; i < array.size(); i++)
+        {
+            ensureEqual(array.get(i), loaded.get(i));
+        }
+    }
+
+    private void saveAndLoad(ChannelSerializable collection, ChannelSerializable loaded)
+    {
+        try
+        {
+            var file = Files.createTempFile("collection", ".bin");
+            file.toFile().deleteOnExit();
+            collection.save(file);
+            loaded.load(file);
+            Files.delete(file);
+        }
+        catch (IOException e)
+        {
+            throw new IllegalStateException("Unable to save and load " + collection, e);
+        }
+    }
+}
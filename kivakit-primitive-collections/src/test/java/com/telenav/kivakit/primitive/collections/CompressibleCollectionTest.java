@@ -0,0 +1,120 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+package com.telenav.kivakit.primitive.collections;
+
+import com.telenav.kivakit.core.messaging.Listener;
+import com.telenav.kivakit.primitive.collections.array.scalars.SplitLongArray;
+import com.telenav.kivakit.primitive.collections.map.scalars.LongToLongMap;
+import com.telenav.kivakit.primitive.collections.map.split.SplitLongToLongMap;
+import org.junit.Test;
+
+import static com.telenav.kivakit.primitive.collections.CompressibleCollection.Method.FREEZE;
+import static com.telenav.kivakit.primitive.collections.CompressibleCollection.Method.RESIZE;
+import static com.telenav.kivakit.primitive.collections.CompressibleCollection.Parallelism.PARALLEL;
+
+public class CompressibleCollectionTest extends PrimitiveCollectionsUnitTest
+{
+    @SuppressWarnings({ "FieldCanBeLocal", "unused" })
+    private static class Holder
+    {
+        private final SplitLongArray array = array();
+
+        private final SplitLongArray shared = array;
+
+        private final LongToLongMap map = map();
+
+        private final SplitLongToLongMap splitMap = splitMap();
+    }
+
+    @Test
+    public void testCompressChildren()
+    {
+        var array = array();
+        ensureEqual(RESIZE, array.compress(RESIZE));
+        ensure(array.isCompressed());
+        for (var i = 0; i < 10_000; i++)
+        {
+            ensureEqual(i * 3L, array.get(i));
+        }
+    }
+
+    @Test
+    public void testCompressChildrenInParallel()
+    {
+        var array = array();
+        ensureEqual(RESIZE, array.compress(RESIZE, PARALLEL));
+        ensure(array.isCompressed());
+        for (var i = 0; i < 10_000; i++)
+        {
+            ensureEqual(i * 3L, array.get(i));
+        }
+    }
+
+    @Test
+    public void testCompressReachableObjectsInParallel()
+    {
+        var holder = new Holder();
+        CompressibleCollection.compressReachableObjects(Listener.none(), holder, FREEZE, Listener.none(), PARALLEL);
+
+        ensure(holder.array.isCompressed());
+        ensure(holder.map.isCompressed());
+        ensure(holder.splitMap.isCompressed());
+        for (var i = 0; i < 10_000; i++)
+        {
+            ensureEqual(i * 3L, holder.array.get(i));
+            ensureEqual((i + 1) * 7L, holder.map.get(i + 1));
+            ensureEqual((i + 1) * 7L, holder.splitMap.get(i + 1));
+        }
+    }
+
+    private static SplitLongArray array()
+    {
+        var array = (SplitLongArray) new SplitLongArray("test")
+                .initialChildSize(100);
+        array.initialize();
+        for (var i = 0; i < 10_000; i++)
+        {
+            array.set(i, i * 3L);
+        }
+        return array;
+    }
+
+    private static LongToLongMap map()
+    {
+        var map = new LongToLongMap("test");
+        map.initialize();
+        for (var i = 0; i < 10_000; i++)
+        {
+            map.put(i + 1, (i + 1) * 7L);
+        }
+        return map;
+    }
+
+    private static SplitLongToLongMap splitMap()
+    {
+        var map = (SplitLongToLongMap) new SplitLongToLongMap("test")
+                .initialChildSize(100);
+        map.initialize();
+        for (var i = 0; i < 10_000; i++)
+        {
+            map.put(i + 1, (i + 1) * 7L);
+        }
+        return map;
+    }
+}
@@ -26,6 +26,8 @@ import com.telenav.kivakit.primitive.collections.array.bits.io.BitWriter;
 import com.telenav.kivakit.primitive.collections.PrimitiveCollectionsUnitTest;
 import org.junit.Test;
 
+import java.util.Random;
+
 public class BitArrayTest extends PrimitiveCollectionsUnitTest
 {
     @Test
@@ -67,6 +69,74 @@ public class BitArrayTest extends PrimitiveCollectionsUnitTest
         reader.close();
     }
 
+    @Test
+    public void testBitwise()
+    {
+        var random = new Random(1);
+        var a = new boolean[1_003];
+        var b = new boolean[a.length];
+        for (var i = 0; i < a.length; i++)
+        {
+            a[i] = random.nextBoolean();
+            b[i] = random.nextBoolean();
+        }
+
+        var and = bits(a);
+        and.and(bits(b));
+        var andNot = bits(a);
+        andNot.andNot(bits(b));
+        var or = bits(a);
+        or.or(bits(b));
+        var xor = bits(a);
+        xor.xor(bits(b));
+
+        long count = 0;
+        for (var i = 0; i < a.length; i++)
+        {
+            ensureEqual(a[i] && b[i], and.bit(i));
+            ensureEqual(a[i] && !b[i], andNot.bit(i));
+            ensureEqual(a[i] || b[i], or.bit(i));
+            ensureEqual(a[i] ^ b[i], xor.bit(i));
+            count += a[i] ? 1 : 0;
+        }
+        ensureEqual(count, bits(a).bitCount());
+    }
+
+    @Test
+    public void testBulkRead()
+    {
+        var random = new Random(2);
+        for (var width = 1; width <= 64; width++)
+        {
+            var mask = width == 64 ? -1L : (1L << width) - 1;
+            var expected = new long[100];
+
+            var bits = new BitArray("test");
+            bits.initialize();
+            BitWriter writer = bits.writer();
+            for (var i = 0; i < expected.length; i++)
+            {
+                var value = random.nextLong();
+                expected[i] = value & mask;
+                writer.write(value, width);
+            }
+            IO.close(writer);
+            ensureEqual(width * expected.length, bits.size());
+
+            var values = new long[expected.length];
+            BitReader reader = bits.reader();
+            reader.read(width, values, values.length);
+            ensureEqual((long) width * expected.length, reader.cursor());
+            ensureFalse(reader.hasNext());
+            IO.close(reader);
+
+            for (var i = 0; i < expected.length; i++)
+            {
+                ensureEqual(expected[i], values[i]);
+            }
+        }
+    }
+
     @Test
     public void testExhaustive()
     {
@@ -134,4 +204,37 @@ public class BitArrayTest extends PrimitiveCollectionsUnitTest
         int five = reader.read(5);
         ensureEqual(5, five);
     }
+
+    @Test
+    public void testSet()
+    {
+        var bits = new BitArray("test");
+        bits.initialize();
+        for (var i = 0; i < 1_003; i++)
+        {
+            bits.set(i, i % 3 == 0);
+        }
+        ensureEqual(1_003, bits.size());
+        for (var i = 0; i < 1_003; i++)
+        {
+            ensureEqual(i % 3 == 0, bits.bit(i));
+        }
+
+        // Clearing a bit must leave the other bits in its byte alone
+        bits.set(9, false);
+        ensureFalse(bits.bit(9));
+        ensure(bits.bit(6));
+        ensure(bits.bit(12));
+    }
+
+    private BitArray bits(boolean[] values)
+    {
+        var bits = new BitArray("test");
+        bits.initialize();
+        for (var i = 0; i < values.length; i++)
+        {
+            bits.set(i, values[i]);
+        }
+        return bits;
+    }
 }
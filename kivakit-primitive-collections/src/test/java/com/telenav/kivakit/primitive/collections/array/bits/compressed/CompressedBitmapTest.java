@@ -0,0 +1,158 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+package com.telenav.kivakit.primitive.collections.array.bits.compressed;
+
+import com.telenav.kivakit.primitive.collections.PrimitiveCollectionsUnitTest;
+import org.junit.Test;
+
+import java.util.Random;
+import java.util.TreeSet;
+
+import static com.telenav.kivakit.primitive.collections.CompressibleCollection.Method.RESIZE;
+
+public class CompressedBitmapTest extends PrimitiveCollectionsUnitTest
+{
+    @Test
+    public void testAddRemove()
+    {
+        var bitmap = bitmap();
+        var expected = new TreeSet<Integer>(Integer::compareUnsigned);
+        var random = new Random(1);
+        for (var i = 0; i < 100_000; i++)
+        {
+            // Mix sparse values across the whole range with a dense block that needs a bitmap container
+            var value = i % 2 == 0 ? random.nextInt() : random.nextInt(50_000);
+            ensureEqual(expected.add(value), bitmap.add(value));
+        }
+        for (var i = 0; i < 50_000; i++)
+        {
+            var value = random.nextInt(50_000);
+            ensureEqual(expected.remove(value), bitmap.remove(value));
+        }
+        ensureValues(bitmap, expected);
+    }
+
+    @Test
+    public void testCompress()
+    {
+        var bitmap = bitmap();
+        var expected = new TreeSet<Integer>(Integer::compareUnsigned);
+        for (var i = 0; i < 1_000_000; i++)
+        {
+            bitmap.add(i);
+            expected.add(i);
+        }
+        var before = bitmap.sizeInBytes();
+        bitmap.compress(RESIZE);
+        ensure(bitmap.sizeInBytes().asLong() < before.asLong());
+        ensureValues(bitmap, expected);
+
+        // Run containers can still be modified
+        bitmap.remove(500_000);
+        expected.remove(500_000);
+        ensureValues(bitmap, expected);
+    }
+
+    @Test
+    public void testOperations()
+    {
+        var random = new Random(2);
+        var a = bitmap();
+        var b = bitmap();
+        var expectedA = new TreeSet<Integer>(Integer::compareUnsigned);
+        var expectedB = new TreeSet<Integer>(Integer::compareUnsigned);
+        for (var i = 0; i < 100_000; i++)
+        {
+            var value = random.nextInt(1 << 20);
+            a.add(value);
+            expectedA.add(value);
+
+            value = random.nextInt(1 << 18);
+            b.add(value);
+            expectedB.add(value);
+        }
+
+        var and = new TreeSet<>(expectedA);
+        and.retainAll(expectedB);
+        ensureValues(a.and(b), and);
+
+        var or = new TreeSet<>(expectedA);
+        or.addAll(expectedB);
+        ensureValues(a.or(b), or);
+
+        var andNot = new TreeSet<>(expectedA);
+        andNot.removeAll(expectedB);
+        ensureValues(a.andNot(b), andNot);
+    }
+
+    @Test
+    public void testRankSelect()
+    {
+        var bitmap = bitmap();
+        var random = new Random(3);
+        var expected = new TreeSet<Integer>(Integer::compareUnsigned);
+        for (var i = 0; i < 10_000; i++)
+        {
+            var value = random.nextInt();
+            bitmap.add(value);
+            expected.add(value);
+        }
+
+        var rank = 0L;
+        for (var value : expected)
+        {
+            ensureEqual(rank + 1, bitmap.rank(value));
+            ensureEqual(value, bitmap.select(rank));
+            rank++;
+        }
+    }
+
+    @Test
+    public void testSerialization()
+    {
+        var bitmap = bitmap();
+        var random = new Random(4);
+        for (var i = 0; i < 100_000; i++)
+        {
+            bitmap.add(random.nextInt(1 << 24));
+        }
+        testSerialization(bitmap);
+
+        bitmap.compress(RESIZE);
+        testSerialization(bitmap);
+    }
+
+    private CompressedBitmap bitmap()
+    {
+        var bitmap = new CompressedBitmap("test");
+        bitmap.initialize();
+        return bitmap;
+    }
+
+    private void ensureValues(CompressedBitmap bitmap, TreeSet<Integer> expected)
+    {
+        ensureEqual((long) expected.size(), bitmap.cardinality());
+        var values = bitmap.iterator();
+        for (var value : expected)
+        {
+            ensure(values.hasNext());
+            ensureEqual(value, values.next());
+        }
+        ensureFalse(values.hasNext());
+    }
+}
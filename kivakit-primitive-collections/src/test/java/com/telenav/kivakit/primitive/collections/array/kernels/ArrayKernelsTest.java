@@ -0,0 +1,211 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+package com.telenav.kivakit.primitive.collections.array.kernels;
+
+import com.telenav.kivakit.primitive.collections.PrimitiveCollectionsUnitTest;
+import com.telenav.kivakit.primitive.collections.array.kernels.ArrayKernels.BitwiseOperation;
+import org.junit.Test;
+
+import java.util.Random;
+
+public class ArrayKernelsTest extends PrimitiveCollectionsUnitTest
+{
+    @Test
+    public void testBits()
+    {
+        var random = new Random(1);
+        for (var i = 0; i < 100; i++)
+        {
+            var a = new byte[random.nextInt(1_000) + 1];
+            var b = new byte[a.length];
+            random.nextBytes(a);
+            random.nextBytes(b);
+
+            var from = random.nextInt(a.length);
+            var to = from + random.nextInt(a.length - from + 1);
+            long count = 0;
+            for (var at = from; at < to; at++)
+            {
+                count += Integer.bitCount(a[at] & 0xff);
+            }
+            ensureEqual(count, ArrayKernels.bitCount(a, from, to));
+
+            for (var operation : BitwiseOperation.values())
+            {
+                var result = a.clone();
+                ArrayKernels.bitwise(operation, result, from, b, 0, to - from);
+                for (var at = 0; at < a.length; at++)
+                {
+                    var inRange = at >= from && at < to;
+                    var that = inRange ? b[at - from] : 0;
+                    byte expected;
+                    switch (operation)
+                    {
+                        case AND:
+                            expected = inRange ? (byte) (a[at] & that) : a[at];
+                            break;
+
+                        case AND_NOT:
+                            expected = (byte) (a[at] & ~that);
+                            break;
+
+                        case OR:
+                            expected = (byte) (a[at] | that);
+                            break;
+
+                        default:
+                            expected = (byte) (a[at] ^ that);
+                            break;
+                    }
+                    ensureEqual(expected, result[at]);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testInts()
+    {
+        var random = new Random(2);
+        for (var i = 0; i < 100; i++)
+        {
+            var values = new int[random.nextInt(1_000) + 1];
+            for (var at = 0; at < values.length; at++)
+            {
+                values[at] = random.nextInt(100);
+            }
+            var from = random.nextInt(values.length);
+            var to = from + 1 + random.nextInt(values.length - from);
+
+            long sum = 0;
+            var minimum = Integer.MAX_VALUE;
+            var maximum = Integer.MIN_VALUE;
+            var index = -1;
+            for (var at = from; at < to; at++)
+            {
+                sum += values[at];
+                minimum = Math.min(minimum, values[at]);
+                maximum = Math.max(maximum, values[at]);
+                if (index < 0 && values[at] == 50)
+                {
+                    index = at;
+                }
+            }
+            ensureEqual(sum, ArrayKernels.sum(values, from, to));
+            ensureEqual(minimum, ArrayKernels.minimum(values, from, to));
+            ensureEqual(maximum, ArrayKernels.maximum(values, from, to));
+            ensureEqual(index, ArrayKernels.indexOf(values, from, to, 50));
+
+            var copy = values.clone();
+            ensure(ArrayKernels.equals(values, from, copy, from, to - from));
+            copy[to - 1]++;
+            ensureFalse(ArrayKernels.equals(values, from, copy, from, to - from));
+
+            ArrayKernels.fill(copy, from, to, 7);
+            for (var at = 0; at < copy.length; at++)
+            {
+                ensureEqual(at >= from && at < to ? 7 : values[at] + (at == to - 1 ? 1 : 0), copy[at]);
+            }
+        }
+    }
+
+    @Test
+    public void testLongs()
+    {
+        var random = new Random(3);
+        for (var i = 0; i < 100; i++)
+        {
+            var values = new long[random.nextInt(1_000) + 1];
+            for (var at = 0; at < values.length; at++)
+            {
+                values[at] = random.nextInt(100) - 50L;
+            }
+            var from = random.nextInt(values.length);
+            var to = from + 1 + random.nextInt(values.length - from);
+
+            long sum = 0;
+            var minimum = Long.MAX_VALUE;
+            var maximum = Long.MIN_VALUE;
+            var index = -1;
+            for (var at = from; at < to; at++)
+            {
+                sum += values[at];
+                minimum = Math.min(minimum, values[at]);
+                maximum = Math.max(maximum, values[at]);
+                if (index < 0 && values[at] == 0)
+                {
+                    index = at;
+                }
+            }
+            ensureEqual(sum, ArrayKernels.sum(values, from, to));
+            ensureEqual(minimum, ArrayKernels.minimum(values, from, to));
+            ensureEqual(maximum, ArrayKernels.maximum(values, from, to));
+            ensureEqual(index, ArrayKernels.indexOf(values, from, to, 0L));
+
+            var copy = values.clone();
+            ensure(ArrayKernels.equals(values, from, copy, from, to - from));
+            copy[from]--;
+            ensureFalse(ArrayKernels.equals(values, from, copy, from, to - from));
+
+            ArrayKernels.fill(copy, from, to, 7L);
+            for (var at = from; at < to; at++)
+            {
+                ensureEqual(7L, copy[at]);
+            }
+        }
+    }
+
+    @Test
+    public void testUnpack()
+    {
+        var random = new Random(4);
+        var words = new long[1_000];
+        for (var at = 0; at < words.length; at++)
+        {
+            words[at] = random.nextLong();
+        }
+        for (var bits = 1; bits <= Long.SIZE; bits++)
+        {
+            var count = (int) ((long) words.length * Long.SIZE / bits) - 1;
+            for (var start : new long[] { 0, bits, 3 })
+            {
+                var values = new long[count + 1];
+                var unpacked = (int) Math.min(count, ((long) words.length * Long.SIZE - start) / bits);
+                ArrayKernels.unpack(words, start, bits, values, 1, unpacked);
+                for (var at = 0; at < unpacked; at++)
+                {
+                    ensureEqual(read(words, start + (long) at * bits, bits), values[at + 1]);
+                }
+            }
+        }
+    }
+
+    /**
+     * @return The value of the given number of bits, starting at the given index, read one bit at a time
+     */
+    private long read(long[] words, long bitIndex, int bits)
+    {
+        long value = 0;
+        for (var at = bitIndex; at < bitIndex + bits; at++)
+        {
+            var word = words[(int) (at / Long.SIZE)];
+            value = (value << 1) | ((word >>> (Long.SIZE - 1 - at % Long.SIZE)) & 1);
+        }
+        return value;
+    }
+}
@@ -0,0 +1,133 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+package com.telenav.kivakit.primitive.collections.array.packed;
+
+import com.telenav.kivakit.primitive.collections.PrimitiveCollectionsUnitTest;
+import com.telenav.kivakit.primitive.collections.array.scalars.LongArray;
+import org.junit.Test;
+
+import java.util.Random;
+
+public class EliasFanoLongListTest extends PrimitiveCollectionsUnitTest
+{
+    @Test
+    public void testEmpty()
+    {
+        var list = EliasFanoLongList.of("test", array(new long[0]));
+        ensureEqual(0, list.size());
+        ensureFalse(list.iterator().hasNext());
+        ensureEqual(0, list.nextGEQ(0));
+    }
+
+    @Test
+    public void testGet()
+    {
+        for (var gap : new int[] { 1, 10, 1_000, 1_000_000 })
+        {
+            var values = values(10_000, gap);
+            var list = EliasFanoLongList.of("test", array(values));
+            ensureEqual(values.length, list.size());
+            for (var i = 0; i < values.length; i++)
+            {
+                ensureEqual(values[i], list.get(i));
+            }
+        }
+    }
+
+    @Test
+    public void testIterator()
+    {
+        var values = values(10_000, 100);
+        var iterator = EliasFanoLongList.of("test", array(values)).iterator();
+        for (var value : values)
+        {
+            ensure(iterator.hasNext());
+            ensureEqual(value, iterator.next());
+        }
+        ensureFalse(iterator.hasNext());
+    }
+
+    @Test
+    public void testNextGEQ()
+    {
+        var random = new Random(1);
+        var values = values(10_000, 50);
+        var list = EliasFanoLongList.of("test", array(values));
+        for (var i = 0; i < 10_000; i++)
+        {
+            var target = (long) (random.nextDouble() * (values[values.length - 1] + 2));
+
+            // Find the expected index by linear search
+            var expected = 0;
+            while (expected < values.length && values[expected] < target)
+            {
+                expected++;
+            }
+            ensureEqual(expected, list.nextGEQ(target));
+
+            var index = list.binarySearch(target);
+            if (expected < values.length && values[expected] == target)
+            {
+                ensureEqual(target, list.get(index));
+            }
+            else
+            {
+                ensureEqual(-(expected + 1), index);
+            }
+        }
+    }
+
+    @Test
+    public void testSerialization()
+    {
+        var list = EliasFanoLongList.of("test", array(values(1_000, 1_000)));
+        testSerialization(list);
+    }
+
+    @Test
+    public void testSize()
+    {
+        // Values with small gaps should take a few bits each
+        var list = EliasFanoLongList.of("test", array(values(100_000, 16)));
+        ensure(list.sizeInBytes().asLong() * 8 / list.size() < 8);
+    }
+
+    private LongArray array(long[] values)
+    {
+        var array = new LongArray("test");
+        array.initialize();
+        for (var value : values)
+        {
+            array.add(value);
+        }
+        return array;
+    }
+
+    private long[] values(int count, int gap)
+    {
+        var random = new Random(count + gap);
+        var values = new long[count];
+        var value = 0L;
+        for (var i = 0; i < count; i++)
+        {
+            value += random.nextInt(gap);
+            values[i] = value;
+        }
+        return values;
+    }
+}
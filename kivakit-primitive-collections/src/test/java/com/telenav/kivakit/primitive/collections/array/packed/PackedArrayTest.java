@@ -22,6 +22,9 @@ import com.telenav.kivakit.core.value.count.BitCount;
 import com.telenav.kivakit.primitive.collections.PrimitiveCollectionsUnitTest;
 import org.junit.Test;
 
+import java.util.Arrays;
+import java.util.Random;
+
 public class PackedArrayTest extends PrimitiveCollectionsUnitTest
 {
     @Test
@@ -58,6 +61,47 @@ public class PackedArrayTest extends PrimitiveCollectionsUnitTest
         }
     }
 
+    @Test
+    public void testBulkGet()
+    {
+        // Test each bit length
+        for (var bits = 1; bits <= Long.SIZE; bits++)
+        {
+            var values = new PackedArray("test");
+            values.bits(BitCount.bitCount(bits), PackedPrimitiveArray.OverflowHandling.NO_OVERFLOW);
+            values.hasNullLong(false);
+            values.initialize();
+
+            // Fill the array with random values that fit in the bit length
+            var random = new Random(bits);
+            for (var i = 0; i < 1_000; i++)
+            {
+                values.add(random.nextLong() >>> (Long.SIZE - bits));
+            }
+
+            // then unpack ranges starting at different bit offsets and compare them with single gets,
+            var unpacked = new long[1_000];
+            for (var start = 0; start < 70; start += 7)
+            {
+                var count = values.size() - start - 3;
+                values.get(start, unpacked, 2, count);
+                for (var i = 0; i < count; i++)
+                {
+                    ensureEqual(values.get(start + i), unpacked[2 + i]);
+                }
+            }
+
+            // and iterate through all the values.
+            var iterator = values.iterator();
+            for (var i = 0; i < values.size(); i++)
+            {
+                ensure(iterator.hasNext());
+                ensureEqual(values.get(i), iterator.next());
+            }
+            ensureFalse(iterator.hasNext());
+        }
+    }
+
     @Test
     public void testExhaustive()
     {
@@ -166,4 +210,35 @@ public class PackedArrayTest extends PrimitiveCollectionsUnitTest
             testSerialization(values);
         }
     }
+
+    @Test
+    public void testSort()
+    {
+        var values = new PackedArray("test");
+        values.bits(BitCount.bitCount(12), PackedPrimitiveArray.OverflowHandling.NO_OVERFLOW);
+        values.hasNullLong(false);
+        values.initialize();
+
+        var random = new Random(12);
+        var expected = new long[5_000];
+        for (var i = 0; i < expected.length; i++)
+        {
+            expected[i] = random.nextInt(1 << 12);
+            values.add(expected[i]);
+        }
+        Arrays.sort(expected);
+
+        values.sort();
+        for (var i = 0; i < expected.length; i++)
+        {
+            ensureEqual(expected[i], values.get(i));
+        }
+
+        var distinct = Arrays.stream(expected).distinct().toArray();
+        ensureEqual(distinct.length, values.deduplicate());
+        for (var i = 0; i < distinct.length; i++)
+        {
+            ensureEqual(distinct[i], values.get(i));
+        }
+    }
 }
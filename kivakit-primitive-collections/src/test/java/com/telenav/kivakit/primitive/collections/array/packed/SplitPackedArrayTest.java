@@ -50,6 +50,45 @@ public class SplitPackedArrayTest extends PrimitiveCollectionsUnitTest
         ensureEqual(7L, values.get(22));
     }
 
+    @Test
+    public void bulkGetTest()
+    {
+        var values = new SplitPackedArray("test");
+        values.bits(BitCount._40, PackedPrimitiveArray.OverflowHandling.NO_OVERFLOW);
+        values.initialChildSize(100);
+        values.nullLong(0);
+        values.initialize();
+
+        // Populate two ranges of the array, leaving a gap of missing children between them
+        for (var i = 0; i < 1_000; i++)
+        {
+            if (i < 450 || i >= 700)
+            {
+                values.set(i, i * 1_000_003L + 1);
+            }
+        }
+
+        // then unpack the whole array in bulk, and compare it with single gets
+        var unpacked = new long[values.size()];
+        values.get(0, unpacked, values.size());
+        for (var i = 0; i < values.size(); i++)
+        {
+            ensureEqual(values.safeGet(i), unpacked[i]);
+        }
+
+        // and iterate through the non-null values.
+        var iterator = values.iterator();
+        for (var i = 0; i < 1_000; i++)
+        {
+            if (i < 450 || i >= 700)
+            {
+                ensure(iterator.hasNext());
+                ensureEqual(i * 1_000_003L + 1, iterator.next());
+            }
+        }
+        ensureFalse(iterator.hasNext());
+    }
+
     @Test
     public void exhaustiveTest()
     {
@@ -0,0 +1,75 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+package com.telenav.kivakit.primitive.collections.array.scalars;
+
+import com.telenav.kivakit.primitive.collections.PrimitiveCollectionsUnitTest;
+import org.junit.Test;
+
+public class BigSplitByteArrayTest extends PrimitiveCollectionsUnitTest
+{
+    /** An index that can't be held by an int */
+    private static final long BIG = 3_000_000_000L;
+
+    @Test
+    public void testBigIndexes()
+    {
+        var array = array();
+        for (var i = 0; i < 1_000; i++)
+        {
+            array.add((byte) (i % 100));
+        }
+        array.set(BIG, (byte) 7);
+
+        ensureEqual(BIG + 1, array.longSize());
+        for (var i = 0; i < 1_000; i++)
+        {
+            ensureEqual((byte) (i % 100), array.get(i));
+        }
+        ensureEqual((byte) 7, array.get(BIG));
+
+        var count = 0;
+        var values = array.iterator();
+        while (values.hasNext())
+        {
+            values.next();
+            count++;
+        }
+        ensureEqual(1_001, count);
+    }
+
+    @Test
+    public void testSerialization()
+    {
+        var array = array();
+        for (var i = 0; i < 1_000; i++)
+        {
+            array.add((byte) i);
+        }
+        array.set(BIG, (byte) 99);
+        testSerialization(array);
+    }
+
+    private BigSplitByteArray array()
+    {
+        var array = (BigSplitByteArray) new BigSplitByteArray("test")
+                .nullByte(Byte.MIN_VALUE);
+        array.initialize();
+        return array;
+    }
+}
@@ -0,0 +1,65 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+package com.telenav.kivakit.primitive.collections.array.scalars;
+
+import com.telenav.kivakit.primitive.collections.PrimitiveCollectionsUnitTest;
+import org.junit.Test;
+
+public class BigSplitIntArrayTest extends PrimitiveCollectionsUnitTest
+{
+    /** An index that can't be held by an int */
+    private static final long BIG = 3_000_000_000L;
+
+    @Test
+    public void testBigIndexes()
+    {
+        var array = array();
+        for (var i = 0; i < 1_000; i++)
+        {
+            array.add(i);
+        }
+        array.set(BIG, 7);
+
+        ensureEqual(BIG + 1, array.longSize());
+        for (var i = 0; i < 1_000; i++)
+        {
+            ensureEqual(i, array.get(i));
+        }
+        ensureEqual(7, array.get(BIG));
+        ensure(array.isNull(array.get(BIG - 1)));
+        ensureEqual(499_500L + 7, array.intStream().asLongStream().sum());
+    }
+
+    @Test
+    public void testSerialization()
+    {
+        var array = array();
+        random().intSequence(array::add);
+        array.set(BIG, 99);
+        testSerialization(array);
+    }
+
+    private BigSplitIntArray array()
+    {
+        var array = (BigSplitIntArray) new BigSplitIntArray("test")
+                .nullInt(Integer.MIN_VALUE);
+        array.initialize();
+        return array;
+    }
+}
@@ -0,0 +1,121 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+package com.telenav.kivakit.primitive.collections.array.scalars;
+
+import com.telenav.kivakit.primitive.collections.PrimitiveCollectionsUnitTest;
+import org.junit.Test;
+
+import java.util.ArrayList;
+
+public class BigSplitLongArrayTest extends PrimitiveCollectionsUnitTest
+{
+    /** An index that can't be held by an int */
+    private static final long BIG = 3_000_000_000L;
+
+    @Test
+    public void testAdd()
+    {
+        var array = array();
+        for (var i = 0; i < 100_000; i++)
+        {
+            array.add(i * 3L);
+        }
+        ensureEqual(100_000L, array.longSize());
+        ensureEqual(100_000L, array.cursor());
+        for (var i = 0; i < 100_000; i++)
+        {
+            ensureEqual(i * 3L, array.get(i));
+        }
+    }
+
+    @Test
+    public void testBigIndexes()
+    {
+        var array = array();
+        array.set(0, 1);
+        array.set(BIG, 2);
+        array.set(BIG * 2, 3);
+
+        ensureEqual(BIG * 2 + 1, array.longSize());
+        ensureEqual(Integer.MAX_VALUE, array.size());
+        ensureEqual(1L, array.get(0));
+        ensureEqual(2L, array.get(BIG));
+        ensureEqual(3L, array.get(BIG * 2));
+        ensure(array.isNull(array.get(BIG + 1)));
+        ensure(array.isNull(array.safeGet(BIG * 2 + 1)));
+        ensure(array.isNull(array.safeGet(-1)));
+
+        array.cursor(array.longSize());
+        array.add(4);
+        ensureEqual(4L, array.get(BIG * 2 + 1));
+    }
+
+    @Test
+    public void testEqualsHashCode()
+    {
+        var a = array();
+        var b = array();
+        a.set(BIG, 1);
+        b.set(BIG, 1);
+        ensureEqual(a, b);
+        ensureEqual(a.hashCode(), b.hashCode());
+        b.set(BIG + 1, 2);
+        ensureNotEqual(a, b);
+    }
+
+    @Test
+    public void testIteration()
+    {
+        var array = array();
+        array.add(0);
+        array.add(1);
+        array.set(100, 100);
+        array.set(BIG, 3);
+
+        var values = array.iterator();
+        ensureEqual(0L, values.next());
+        ensureEqual(1L, values.next());
+        ensureEqual(100L, values.next());
+        ensureEqual(3L, values.next());
+        ensure(!values.hasNext());
+
+        var streamed = new ArrayList<Long>();
+        array.longStream().forEach(streamed::add);
+        ensureEqual(4, streamed.size());
+        ensureEqual(3L, streamed.get(3));
+        ensureEqual(104L, array.longStream().parallel().sum());
+    }
+
+    @Test
+    public void testSerialization()
+    {
+        var array = array();
+        random().longSequence(array::add);
+        array.set(BIG, 99);
+        testSerialization(array);
+    }
+
+    private BigSplitLongArray array()
+    {
+        var array = (BigSplitLongArray) new BigSplitLongArray("test")
+                .nullLong(Long.MIN_VALUE);
+        array.initialize();
+        return array;
+    }
+}
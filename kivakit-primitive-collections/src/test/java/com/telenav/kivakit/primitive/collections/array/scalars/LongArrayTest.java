@@ -22,7 +22,9 @@ import com.telenav.kivakit.core.value.mutable.MutableInteger;
 import com.telenav.kivakit.primitive.collections.PrimitiveCollectionsUnitTest;
 import org.junit.Test;
 
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.Random;
 
 import static com.telenav.kivakit.core.test.CoreUnitTest.Repeats.ALLOW_REPEATS;
 import static com.telenav.kivakit.core.test.CoreUnitTest.Repeats.NO_REPEATS;
@@ -233,6 +235,40 @@ public class LongArrayTest extends PrimitiveCollectionsUnitTest
         });
     }
 
+    @Test
+    public void testSort()
+    {
+        for (var parallel : new boolean[] { false, true })
+        {
+            // Fill an array with random values, including duplicates and negative values,
+            var array = array();
+            array.hasNullLong(false);
+            var random = new Random(parallel ? 1 : 2);
+            for (var i = 0; i < 200_000; i++)
+            {
+                array.add(i % 3 == 0 ? random.nextLong() : random.nextInt(1_000) - 500);
+            }
+            var expected = array.asArray();
+            Arrays.sort(expected);
+
+            // sort it,
+            if (parallel)
+            {
+                array.parallelSort();
+            }
+            else
+            {
+                array.sort();
+            }
+            ensure(Arrays.equals(expected, array.asArray()));
+
+            // and remove the duplicates.
+            var distinct = Arrays.stream(expected).distinct().toArray();
+            ensureEqual(distinct.length, array.deduplicate());
+            ensure(Arrays.equals(distinct, array.asArray()));
+        }
+    }
+
     @Test
     public void testSubArray()
     {
@@ -22,7 +22,9 @@ import com.telenav.kivakit.core.value.mutable.MutableInteger;
 import com.telenav.kivakit.primitive.collections.PrimitiveCollectionsUnitTest;
 import org.junit.Test;
 
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.Random;
 
 import static com.telenav.kivakit.core.test.CoreUnitTest.Repeats.ALLOW_REPEATS;
 import static com.telenav.kivakit.core.test.CoreUnitTest.Repeats.NO_REPEATS;
@@ -233,6 +235,70 @@ public class SplitLongArrayTest extends PrimitiveCollectionsUnitTest
         }
     }
 
+    @Test
+    public void testSort()
+    {
+        for (var parallel : new boolean[] { false, true })
+        {
+            // Fill an array with more random values than fit in one sort buffer, spread across many children,
+            var array = array();
+            var random = new Random(parallel ? 1 : 2);
+            var expected = new long[200_000];
+            for (var i = 0; i < expected.length; i++)
+            {
+                expected[i] = i % 3 == 0 ? random.nextLong() : random.nextInt(1_000) - 500;
+                array.add(expected[i]);
+            }
+            Arrays.sort(expected);
+
+            // sort it,
+            if (parallel)
+            {
+                array.parallelSort();
+            }
+            else
+            {
+                array.sort();
+            }
+            ensureEqual(expected.length, array.size());
+            for (var i = 0; i < expected.length; i++)
+            {
+                ensureEqual(expected[i], array.get(i));
+            }
+
+            // and remove the duplicates.
+            var distinct = Arrays.stream(expected).distinct().toArray();
+            ensureEqual(distinct.length, array.deduplicate());
+            for (var i = 0; i < distinct.length; i++)
+            {
+                ensureEqual(distinct[i], array.get(i));
+            }
+        }
+    }
+
+    @Test
+    public void testStream()
+    {
+        var array = array();
+        var random = new Random(3);
+        var sum = 0L;
+        for (var i = 0; i < 100_000; i++)
+        {
+            var value = random.nextInt();
+            array.add(value);
+            sum += value;
+        }
+
+        ensureEqual(sum, array.longStream().sum());
+        ensureEqual(sum, array.longStream().parallel().sum());
+        ensure(Arrays.equals(array.longStream().toArray(), array.longStream().parallel().toArray()));
+
+        var spliterator = array.spliterator();
+        var prefix = spliterator.trySplit();
+        ensure(prefix != null);
+        ensureEqual(0L, prefix.estimateSize() % 100);
+    }
+
     private SplitLongArray array()
     {
         var array = (SplitLongArray) new SplitLongArray("test")
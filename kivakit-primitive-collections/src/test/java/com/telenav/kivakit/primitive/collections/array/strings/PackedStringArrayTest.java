@@ -22,6 +22,10 @@ import com.telenav.kivakit.primitive.collections.CompressibleCollection;
 import com.telenav.kivakit.primitive.collections.PrimitiveCollectionsUnitTest;
 import org.junit.Test;
 
+import java.util.Arrays;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
 public class PackedStringArrayTest extends PrimitiveCollectionsUnitTest
 {
     @SuppressWarnings("SpellCheckingInspection")
@@ -70,4 +74,73 @@ public class PackedStringArrayTest extends PrimitiveCollectionsUnitTest
         a.compress(CompressibleCollection.Method.RESIZE);
         ensureEqual("test", a.get(a1));
     }
+
+    @Test
+    public void testUtf8()
+    {
+        var a = new PackedStringArray("test");
+        a.utf8(true);
+        a.initialize();
+        ensure(a.size() == 0);
+        var a1 = a.add("test");
+        var a2 = a.add("test\u1234");
+        var a3 = a.add("test\ud83d\ude00");
+        var a4 = a.add("test");
+        ensure(a.size() == 3);
+        ensure(a1 == a4);
+        a.compress(CompressibleCollection.Method.RESIZE);
+        ensureEqual(a2, a.add("test\u1234"));
+        ensureEqual("test", a.get(a1));
+        ensureEqual("test\u1234", a.get(a2));
+        ensureEqual("test\ud83d\ude00", a.get(a3));
+    }
+
+    @Test
+    public void testUtf8Pooling()
+    {
+        var a = new PackedStringArray("test");
+        a.utf8(true);
+        a.initialize();
+        var identifiers = new int[100_000];
+        for (var i = 0; i < identifiers.length; i++)
+        {
+            identifiers[i] = a.add("name" + i);
+        }
+        for (var i = 0; i < identifiers.length; i++)
+        {
+            ensureEqual(identifiers[i], a.add("name" + i));
+            ensureEqual("name" + i, a.get(identifiers[i]));
+        }
+        ensure(a.size() == identifiers.length);
+    }
+
+    @Test
+    public void testUtf8Views()
+    {
+        var a = new PackedStringArray("test");
+        a.utf8(true);
+        a.initialize();
+        var string = "na\u00efve \ud83d\ude00 caf\u00e9";
+        var identifier = a.add(string);
+
+        var sequence = a.charSequence(identifier);
+        ensureEqual(string.length(), sequence.length());
+        for (var i = string.length() - 1; i >= 0; i--)
+        {
+            ensureEqual(string.charAt(i), sequence.charAt(i));
+        }
+        ensureEqual(string, sequence.toString());
+
+        ensure(a.equals(identifier, string));
+        ensureFalse(a.equals(identifier, "naive"));
+        ensure(a.compareTo(identifier, string) == 0);
+        ensure(a.compareTo(identifier, "a") > 0);
+        ensure(a.compareTo(identifier, "z") < 0);
+
+        var bytes = string.getBytes(UTF_8);
+        ensureEqual(bytes.length, a.utf8Length(identifier));
+        var copy = new byte[bytes.length + 1];
+        ensureEqual(bytes.length, a.copy(identifier, copy, 1));
+        ensure(Arrays.equals(bytes, Arrays.copyOfRange(copy, 1, copy.length)));
+    }
 }
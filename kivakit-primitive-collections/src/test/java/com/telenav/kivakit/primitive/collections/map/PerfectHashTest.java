@@ -0,0 +1,91 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+package com.telenav.kivakit.primitive.collections.map;
+
+import com.telenav.kivakit.primitive.collections.PrimitiveCollectionsUnitTest;
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.Random;
+
+public class PerfectHashTest extends PrimitiveCollectionsUnitTest
+{
+    @Test
+    public void testEmpty()
+    {
+        var hash = PerfectHash.of(new long[0]);
+        ensureEqual(0, hash.size());
+        ensureEqual(-1, hash.index(7));
+    }
+
+    @Test
+    public void testIndex()
+    {
+        for (var size : new int[] { 1, 2, 100, 100_000 })
+        {
+            var keys = keys(size);
+            var hash = PerfectHash.of(keys);
+            ensureEqual(size, hash.size());
+
+            // Every key should have a distinct index from 0 to size - 1
+            var indexes = new HashSet<Integer>();
+            for (var key : keys)
+            {
+                var index = hash.index(key);
+                ensure(index >= 0 && index < size);
+                ensure(indexes.add(index));
+            }
+        }
+    }
+
+    @Test
+    public void testReorder()
+    {
+        var keys = keys(10_000);
+        var values = new long[keys.length];
+        for (var i = 0; i < keys.length; i++)
+        {
+            values[i] = keys[i] * 3;
+        }
+        var hash = PerfectHash.of(keys);
+        hash.reorder(keys, values);
+        for (var i = 0; i < keys.length; i++)
+        {
+            ensureEqual(i, hash.index(keys[i]));
+            ensureEqual(keys[i] * 3, values[i]);
+        }
+    }
+
+    @Test
+    public void testSize()
+    {
+        var hash = PerfectHash.of(keys(100_000));
+        ensure(hash.sizeInBits() / (double) hash.size() < 5);
+    }
+
+    private long[] keys(int size)
+    {
+        var random = new Random(size);
+        var keys = new HashSet<Long>();
+        while (keys.size() < size)
+        {
+            keys.add(random.nextLong());
+        }
+        return keys.stream().mapToLong(Long::longValue).toArray();
+    }
+}
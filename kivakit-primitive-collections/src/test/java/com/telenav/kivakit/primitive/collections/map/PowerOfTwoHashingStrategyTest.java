@@ -0,0 +1,42 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+package com.telenav.kivakit.primitive.collections.map;
+
+import com.telenav.kivakit.core.value.count.Estimate;
+import com.telenav.kivakit.primitive.collections.PrimitiveCollectionsUnitTest;
+import org.junit.Test;
+
+public class PowerOfTwoHashingStrategyTest extends PrimitiveCollectionsUnitTest
+{
+    @Test
+    public void testIncreasedCapacity()
+    {
+        var strategy = PowerOfTwoHashingStrategy.of(Estimate.estimate(1_000));
+        ensureEqual(1_024L, strategy.recommendedSize().asLong());
+        ensureEqual(2_048L, strategy.withIncreasedCapacity().recommendedSize().asLong());
+    }
+
+    @Test
+    public void testMaximumCapacity()
+    {
+        var strategy = PowerOfTwoHashingStrategy.of(Estimate.estimate(Integer.MAX_VALUE));
+        ensureEqual((long) PowerOfTwoHashingStrategy.MAXIMUM_SIZE, strategy.recommendedSize().asLong());
+        ensureThrows(strategy::withIncreasedCapacity);
+    }
+}
@@ -18,11 +18,103 @@
 
 package com.telenav.kivakit.primitive.collections.map.multi.dynamic;
 
+import com.telenav.kivakit.primitive.collections.CompressibleCollection;
 import com.telenav.kivakit.primitive.collections.PrimitiveCollectionsUnitTest;
 import org.junit.Test;
 
 public class LongToLongMultiMapTest extends PrimitiveCollectionsUnitTest
 {
+    @Test
+    public void testFreeze()
+    {
+        var map = new LongToLongMultiMap("test");
+        map.initialize();
+        for (long i = 1; i <= 100; i++)
+        {
+            for (long j = 0; j < i % 7; j++)
+            {
+                map.add(i, i * 100 + j);
+            }
+        }
+
+        // Remember the values for each key in iteration order before freezing
+        var expected = new long[101][];
+        for (var i = 1; i <= 100; i++)
+        {
+            expected[i] = map.get(i).asArray();
+        }
+
+        ensureEqual(CompressibleCollection.Method.FREEZE, map.compress(CompressibleCollection.Method.FREEZE));
+        ensureEqual(86, map.size());
+
+        var buffer = new long[8];
+        for (var i = 1; i <= 100; i++)
+        {
+            if (i % 7 == 0)
+            {
+                ensureFalse(map.containsKey(i));
+                ensure(map.iterator(i) == null);
+                continue;
+            }
+            ensure(map.containsKey(i));
+            ensureEqual(expected[i].length, map.copyValues(i, buffer));
+            var iterator = map.iterator(i);
+            for (var j = 0; j < expected[i].length; j++)
+            {
+                ensureEqual(expected[i][j], buffer[j]);
+                ensureEqual(expected[i][j], iterator.next());
+            }
+            ensureFalse(iterator.hasNext());
+            ensureEqual(expected[i].length, map.get(i).size());
+        }
+    }
+
+    @Test
+    public void testValueAccess()
+    {
+        var map = new LongToLongMultiMap("test");
+        map.initialize();
+        for (long i = 1; i <= 50; i++)
+        {
+            for (long j = 0; j < i; j++)
+            {
+                map.add(i, j);
+            }
+        }
+
+        var cursor = map.cursor();
+        var buffer = new long[8];
+        for (long i = 1; i <= 50; i++)
+        {
+            // Visit values, which come back in reverse order of addition
+            var expected = new long[] { i - 1 };
+            var visited = map.forEachValue(i, value -> ensureEqual(expected[0]--, value));
+            ensureEqual((int) i, visited);
+
+            // Copy values, which may not all fit in the buffer
+            var count = map.copyValues(i, buffer);
+            ensureEqual((int) i, count);
+            for (var j = 0; j < Math.min(count, buffer.length); j++)
+            {
+                ensureEqual(i - 1 - j, buffer[j]);
+            }
+
+            // and iterate with a reused cursor
+            cursor.seek(i);
+            ensureEqual((int) i, cursor.size());
+            for (var j = i - 1; j >= 0; j--)
+            {
+                ensure(cursor.hasNext());
+                ensureEqual(j, cursor.next());
+            }
+            ensureFalse(cursor.hasNext());
+        }
+
+        ensureEqual(0, map.forEachValue(1000L, value -> ensure(false)));
+        ensureEqual(0, map.copyValues(1000L, buffer));
+        ensureFalse(cursor.seek(1000L).hasNext());
+    }
+
     @Test
     public void test()
     {
@@ -20,6 +20,7 @@ package com.telenav.kivakit.primitive.collections.map.multi.fixed;
 
 import com.telenav.kivakit.primitive.collections.array.scalars.ByteArray;
 import com.telenav.kivakit.primitive.collections.map.scalars.fixed.LongToByteFixedMultiMap;
+import com.telenav.kivakit.primitive.collections.map.scalars.fixed.LongToLongFixedMultiMap;
 import com.telenav.kivakit.primitive.collections.PrimitiveCollectionsUnitTest;
 import org.junit.Test;
 
@@ -42,4 +43,35 @@ public class LongToLongFixedMultiMapTest extends PrimitiveCollectionsUnitTest
         ensureEqual(bytes, map.get(2L));
         ensureEqual(bytes, map.get(3L));
     }
+
+    @Test
+    public void testValueAccess()
+    {
+        var map = new LongToLongFixedMultiMap("map");
+        map.initialize();
+        map.putAll(1L, new long[] { 10, 20, 30 });
+        map.putAll(2L, new long[] { 40 });
+
+        var sum = new long[1];
+        ensureEqual(3, map.forEachValue(1L, value -> sum[0] += value));
+        ensureEqual(60L, sum[0]);
+
+        var buffer = new long[2];
+        ensureEqual(3, map.copyValues(1L, buffer));
+        ensureEqual(10L, buffer[0]);
+        ensureEqual(20L, buffer[1]);
+        ensureEqual(1, map.copyValues(2L, buffer));
+        ensureEqual(40L, buffer[0]);
+        ensureEqual(0, map.copyValues(3L, buffer));
+
+        var cursor = map.cursor();
+        cursor.seek(1L);
+        ensureEqual(10L, cursor.next());
+        ensureEqual(20L, cursor.next());
+        ensureEqual(30L, cursor.next());
+        ensureFalse(cursor.hasNext());
+        cursor.seek(2L);
+        ensureEqual(40L, cursor.next());
+        ensureFalse(cursor.hasNext());
+    }
 }
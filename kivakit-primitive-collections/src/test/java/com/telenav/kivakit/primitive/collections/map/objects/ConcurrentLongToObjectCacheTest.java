@@ -0,0 +1,169 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+package com.telenav.kivakit.primitive.collections.map.objects;
+
+import com.telenav.kivakit.primitive.collections.PrimitiveCollectionsUnitTest;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.IntConsumer;
+
+public class ConcurrentLongToObjectCacheTest extends PrimitiveCollectionsUnitTest
+{
+    private static final int THREADS = 8;
+
+    private static final int KEYS = 20_000;
+
+    private static final int MAXIMUM_SIZE = 1_024;
+
+    @Test
+    public void testBudget()
+    {
+        // Four stripes share a budget of ten entries, so two of them get three entries and two get two,
+        var cache = cache(10, 4);
+        for (var key = 0L; key < 10_000; key++)
+        {
+            cache.put(key, "value" + key);
+        }
+
+        // and once every stripe is full, the cache holds exactly ten entries.
+        ensureEqual(10, cache.size());
+    }
+
+    @Test
+    public void testConcurrentLoad()
+    {
+        var cache = cache();
+        run(thread ->
+        {
+            for (var index = 0; index < 50_000; index++)
+            {
+                var key = (long) ((index * 31 + thread * 7_919) % KEYS);
+                ensureEqual("value" + key, cache.get(key, value -> "value" + value));
+            }
+        });
+        ensure(cache.size() <= MAXIMUM_SIZE);
+        ensureEqual((long) THREADS * 50_000, cache.hits() + cache.misses());
+        ensure(cache.evictions() > 0);
+    }
+
+    @Test
+    public void testConcurrentRemove()
+    {
+        var cache = cache();
+        for (var key = 0L; key < MAXIMUM_SIZE / 2; key++)
+        {
+            cache.put(key, "value" + key);
+        }
+        run(thread ->
+        {
+            for (var key = (long) thread; key < MAXIMUM_SIZE / 2; key += THREADS)
+            {
+                cache.remove(key);
+            }
+        });
+        ensure(cache.isEmpty());
+    }
+
+    @Test
+    public void testGetPut()
+    {
+        var cache = cache();
+        for (var key = 0L; key < 100; key++)
+        {
+            ensure(cache.put(key, "value" + key));
+        }
+        ensureEqual(100, cache.size());
+        for (var key = 0L; key < 100; key++)
+        {
+            ensureEqual("value" + key, cache.get(key));
+        }
+        cache.clear();
+        ensure(cache.isEmpty());
+        ensureFalse(cache.containsKey(1));
+    }
+
+    @Test
+    public void testNegativeHash()
+    {
+        // The key 2^31 hashes to Integer.MIN_VALUE, which has a negative remainder when divided by three
+        var cache = cache(30, 3);
+        var key = 1L << 31;
+        ensure(cache.put(key, "value"));
+        ensure(cache.containsKey(key));
+        ensureEqual("value", cache.get(key));
+        ensure(cache.remove(key));
+    }
+
+    private ConcurrentLongToObjectCache<String> cache()
+    {
+        return cache(MAXIMUM_SIZE, 4);
+    }
+
+    @SuppressWarnings("unchecked")
+    private ConcurrentLongToObjectCache<String> cache(int maximumSize, int stripes)
+    {
+        var cache = (ConcurrentLongToObjectCache<String>) new ConcurrentLongToObjectCache<String>("test")
+                .nullLong(Long.MIN_VALUE)
+                .maximumSize(maximumSize);
+        cache.stripes(stripes).initialize();
+        return cache;
+    }
+
+    private void run(IntConsumer code)
+    {
+        // Start the threads, capturing the first failure of any of them,
+        var failure = new AtomicReference<Throwable>();
+        var threads = new ArrayList<Thread>();
+        for (var index = 0; index < THREADS; index++)
+        {
+            var thread = index;
+            threads.add(new Thread(() ->
+            {
+                try
+                {
+                    code.accept(thread);
+                }
+                catch (Throwable e)
+                {
+                    failure.compareAndSet(null, e);
+                }
+            }));
+        }
+        threads.forEach(Thread::start);
+
+        // then wait for them to finish.
+        for (var thread : threads)
+        {
+            try
+            {
+                thread.join();
+            }
+            catch (InterruptedException e)
+            {
+                throw new IllegalStateException(e);
+            }
+        }
+        if (failure.get() != null)
+        {
+            throw new IllegalStateException("Thread failed", failure.get());
+        }
+    }
+}
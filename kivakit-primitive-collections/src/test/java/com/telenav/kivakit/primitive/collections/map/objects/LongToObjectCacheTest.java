@@ -0,0 +1,184 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+package com.telenav.kivakit.primitive.collections.map.objects;
+
+import com.telenav.kivakit.primitive.collections.PrimitiveCollectionsUnitTest;
+import org.junit.Test;
+
+public class LongToObjectCacheTest extends PrimitiveCollectionsUnitTest
+{
+    @Test
+    public void testClear()
+    {
+        var cache = cache(100);
+        for (var key = 0L; key < 50; key++)
+        {
+            cache.put(key, "value" + key);
+        }
+        ensureEqual(50, cache.size());
+        cache.clear();
+        ensure(cache.isEmpty());
+        ensureFalse(cache.containsKey(1));
+        ensureEqual(0L, cache.hits());
+        ensureEqual(0L, cache.misses());
+    }
+
+    @Test
+    public void testClockKeepsReferencedEntries()
+    {
+        var cache = cache(10);
+        for (var key = 0L; key < 1_000; key++)
+        {
+            cache.put(key, "value" + key);
+            ensureEqual("value0", cache.get(0));
+        }
+        ensure(cache.containsKey(0));
+        ensureEqual(10, cache.size());
+    }
+
+    @Test
+    public void testEviction()
+    {
+        var cache = cache(100);
+        for (var key = 0L; key < 1_000; key++)
+        {
+            cache.put(key, "value" + key);
+            ensure(cache.size() <= 100);
+        }
+        ensureEqual(100, cache.size());
+        ensureEqual(900L, cache.evictions());
+
+        // Every entry that survived eviction should still map to its own value
+        var keys = cache.keys();
+        var count = 0;
+        while (keys.hasNext())
+        {
+            var key = keys.next();
+            ensureEqual("value" + key, cache.get(key));
+            count++;
+        }
+        ensureEqual(100, count);
+    }
+
+    @Test
+    public void testGetPut()
+    {
+        var cache = cache(1_000);
+        for (var index = 0L; index < 1_000; index++)
+        {
+            var key = index * 1_000_003L - 500_000_000L;
+            cache.put(key, "value" + key);
+            ensureEqual("value" + key, cache.get(key));
+        }
+        ensureEqual(1_000, cache.size());
+        ensureEqual(0L, cache.evictions());
+    }
+
+    @Test
+    public void testLoader()
+    {
+        var cache = cache(100);
+        ensureEqual("value1", cache.get(1, key -> "value" + key));
+        ensureEqual("value1", cache.get(1, key -> "other"));
+        ensureEqual(1L, cache.hits());
+        ensureEqual(1L, cache.misses());
+        ensureEqual(null, cache.get(2, key -> null));
+        ensureFalse(cache.containsKey(2));
+    }
+
+    @Test
+    public void testRemove()
+    {
+        var cache = cache(100);
+        for (var key = 0L; key < 100; key++)
+        {
+            cache.put(key, "value" + key);
+        }
+        for (var key = 0L; key < 100; key += 2)
+        {
+            ensure(cache.remove(key));
+            ensureFalse(cache.remove(key));
+        }
+        ensureEqual(50, cache.size());
+        for (var key = 0L; key < 100; key++)
+        {
+            ensureEqual(key % 2 == 1, cache.containsKey(key));
+        }
+    }
+
+    @Test
+    public void testSerialization()
+    {
+        var cache = cache(100);
+        for (var key = 0L; key < 150; key++)
+        {
+            cache.put(key, "value" + key);
+            cache.get(key / 2);
+        }
+        testSerialization(cache);
+    }
+
+    @Test
+    public void testStatistics()
+    {
+        var cache = cache(100);
+        cache.put(1, "one");
+        ensureEqual("one", cache.get(1));
+        ensureEqual("one", cache.get(1));
+        ensureEqual(null, cache.get(2));
+        ensureEqual(2L, cache.hits());
+        ensureEqual(1L, cache.misses());
+        ensureEqual(0L, cache.evictions());
+    }
+
+    @Test
+    public void testWeight()
+    {
+        var cache = newCache(1_000);
+        cache.weigher(String::length).maximumWeight(50);
+        cache.initialize();
+        for (var key = 0L; key < 100; key++)
+        {
+            cache.put(key, "0123456789");
+            ensure(cache.weight() <= 50);
+        }
+        ensureEqual(5, cache.size());
+        ensureEqual(50L, cache.weight());
+        ensureFalse(cache.put(1_000, "x".repeat(51)));
+        ensureFalse(cache.put(99, "x".repeat(51)));
+        ensureEqual("0123456789", cache.get(99));
+        ensure(cache.remove(99));
+        ensureEqual(40L, cache.weight());
+    }
+
+    private LongToObjectCache<String> cache(int maximumSize)
+    {
+        var cache = newCache(maximumSize);
+        cache.initialize();
+        return cache;
+    }
+
+    @SuppressWarnings("unchecked")
+    private LongToObjectCache<String> newCache(int maximumSize)
+    {
+        return (LongToObjectCache<String>) new LongToObjectCache<String>("test")
+                .nullLong(Long.MIN_VALUE)
+                .maximumSize(maximumSize);
+    }
+}
@@ -20,6 +20,8 @@ package com.telenav.kivakit.primitive.collections.map.scalars;
 
 import com.telenav.kivakit.primitive.collections.CompressibleCollection;
 import com.telenav.kivakit.primitive.collections.PrimitiveCollectionsUnitTest;
+import com.telenav.kivakit.primitive.collections.map.PowerOfTwoHashingStrategy;
+import com.telenav.kivakit.primitive.collections.metrics.CollectionMetricsRegistry;
 import org.junit.Test;
 
 import java.util.HashSet;
@@ -36,6 +38,24 @@ public class IntToIntMapTest extends PrimitiveCollectionsUnitTest
         void test(IntToIntMap map, List<Integer> keys, List<Integer> values);
     }
 
+    @Test
+    public void testAdaptiveRehashing()
+    {
+        var map = map();
+        map.maximumAverageProbeLength(1.0);
+        for (var i = 0; i < 10_000; i++)
+        {
+            map.put(i * 1_024, i);
+        }
+        ensureEqual(10_000, map.size());
+        ensure(map.rehashes() > 0);
+        for (var i = 0; i < 10_000; i++)
+        {
+            ensureEqual(i, map.get(i * 1_024));
+        }
+        ensureFalse(map.containsKey(1));
+    }
+
     @Test
     public void testClear()
     {
@@ -88,6 +108,42 @@ public class IntToIntMapTest extends PrimitiveCollectionsUnitTest
         });
     }
 
+    @Test
+    public void testGetAllPutAll()
+    {
+        withPopulatedMap((a, keys, values) ->
+        {
+            var keyArray = keys.stream().mapToInt(Integer::intValue).toArray();
+            var valueArray = values.stream().mapToInt(Integer::intValue).toArray();
+
+            var b = map();
+            ensureEqual(keyArray.length, b.putAll(keyArray, valueArray));
+            ensureEqual(0, b.putAll(keyArray, valueArray));
+            ensureEqual(a, b);
+
+            var found = new int[keyArray.length];
+            map().getAll(keyArray, found);
+            for (var value : found)
+            {
+                ensure(b.isNull(value));
+            }
+
+            b.getAll(keyArray, found);
+            for (var i = 0; i < keyArray.length; i++)
+            {
+                ensureEqual(valueArray[i], found[i]);
+            }
+
+            b.compress(CompressibleCollection.Method.FREEZE);
+            found = new int[keyArray.length];
+            b.getAll(keyArray, found);
+            for (var i = 0; i < keyArray.length; i++)
+            {
+                ensureEqual(valueArray[i], found[i]);
+            }
+        });
+    }
+
     @Test
     public void testGetPut()
     {
@@ -121,6 +177,67 @@ public class IntToIntMapTest extends PrimitiveCollectionsUnitTest
         });
     }
 
+    @Test
+    public void testPowerOfTwoHashing()
+    {
+        withPopulatedMap((a, keys, values) ->
+        {
+            var b = powerOfTwoMap();
+            putAll(b, keys, values);
+            ensureEqual(a, b);
+            ensureEqual(Integer.bitCount(b.capacity().asInt()), 1);
+            index = 0;
+            keys.forEach(key -> ensureEqual(b.get(key), values.get(index++)));
+            testSerialization(b);
+
+            b.compress(CompressibleCollection.Method.RESIZE);
+            ensureEqual(a, b);
+
+            keys.forEach(key ->
+            {
+                b.remove(key);
+                ensureFalse(b.containsKey(key));
+            });
+            ensure(b.isEmpty());
+        });
+    }
+
+    @Test
+    public void testProbeCounting()
+    {
+        // A map that doesn't rehash adaptively only counts probes if metrics are enabled,
+        var map = map();
+        map.maximumAverageProbeLength(0);
+        for (var i = 0; i < 100; i++)
+        {
+            map.put(i, i);
+            ensureEqual(i, map.get(i));
+        }
+        ensureEqual(CollectionMetricsRegistry.isEnabled(), map.maximumProbeLength() > 0);
+
+        // while one that does always counts them.
+        map.maximumAverageProbeLength(1.0);
+        ensureEqual(0, map.get(0));
+        ensure(map.maximumProbeLength() > 0);
+    }
+
+    @Test
+    public void testProbeCountingOffByDefault()
+    {
+        // A map with default settings doesn't rehash adaptively,
+        var metrics = CollectionMetricsRegistry.isEnabled();
+        var map = map();
+        for (var i = 0; i < 10_000; i++)
+        {
+            map.put(i, i);
+            ensureEqual(i, map.get(i));
+        }
+
+        // so unless metrics are enabled, its lookups don't write any probe counts.
+        ensureEqual(metrics, map.maximumProbeLength() > 0);
+        ensureEqual(metrics, map.averageProbeLength() > 0);
+    }
+
     @Test
     public void testRemove()
     {
@@ -170,6 +287,16 @@ public class IntToIntMapTest extends PrimitiveCollectionsUnitTest
         return map;
     }
 
+    private IntToIntMap powerOfTwoMap()
+    {
+        var map = (IntToIntMap) new IntToIntMap("test")
+                .nullInt(Integer.MIN_VALUE);
+        map.initialSize(16);
+        map.initialHashingStrategy(PowerOfTwoHashingStrategy.DEFAULT);
+        map.initialize();
+        return map;
+    }
+
     private void putAll(IntToIntMap map, List<Integer> keys, List<Integer> values)
     {
         index = 0;
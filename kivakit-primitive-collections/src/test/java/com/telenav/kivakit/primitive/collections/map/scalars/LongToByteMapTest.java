@@ -127,17 +127,23 @@ public class LongToByteMapTest extends PrimitiveCollectionsUnitTest
     public void testRemove()
     {
         withPopulatedMap((map, keys, values) ->
-                keys.forEach(key ->
+        {
+            keys.forEach(key ->
+            {
+                int size = map.size();
+                boolean exists = map.containsKey(key);
+                map.remove(key);
+                ensure(map.isEmpty(map.get(key)));
+                if (exists)
                 {
-                    int size = map.size();
-                    boolean exists = map.containsKey(key);
-                    map.remove(key);
-                    ensure(map.isEmpty(map.get(key)));
-                    if (exists)
-                    {
-                        ensureEqual(map.size(), size - 1);
-                    }
-                }));
+                    ensureEqual(map.size(), size - 1);
+                }
+            });
+
+            // Removing every key must leave every slot empty, with no tombstones or ghost keys
+            ensureFalse(map.keys().hasNext());
+            ensureEqual(0, occupiedSlots(map));
+        });
     }
 
     @Test
@@ -173,6 +179,31 @@ public class LongToByteMapTest extends PrimitiveCollectionsUnitTest
         return map;
     }
 
+    /**
+     * @return The number of key slots in the given map that are not empty, including any tombstones
+     */
+    private int occupiedSlots(LongToByteMap map)
+    {
+        try
+        {
+            var field = LongToByteMap.class.getDeclaredField("keys");
+            field.setAccessible(true);
+            var occupied = 0;
+            for (var key : (long[]) field.get(map))
+            {
+                if (!map.isNull(key))
+                {
+                    occupied++;
+                }
+            }
+            return occupied;
+        }
+        catch (ReflectiveOperationException e)
+        {
+            throw new IllegalStateException(e);
+        }
+    }
+
     private void putAll(LongToByteMap map, List<Long> keys, List<Byte> values)
     {
         index = 0;
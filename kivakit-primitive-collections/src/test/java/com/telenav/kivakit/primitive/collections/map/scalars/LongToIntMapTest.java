@@ -20,6 +20,7 @@ package com.telenav.kivakit.primitive.collections.map.scalars;
 
 import com.telenav.kivakit.primitive.collections.CompressibleCollection;
 import com.telenav.kivakit.primitive.collections.PrimitiveCollectionsUnitTest;
+import com.telenav.kivakit.primitive.collections.map.PowerOfTwoHashingStrategy;
 import org.junit.Test;
 
 import java.util.HashSet;
@@ -122,21 +123,81 @@ public class LongToIntMapTest extends PrimitiveCollectionsUnitTest
         }
     }
 
+    @Test
+    public void testPerfectHashing()
+    {
+        withPopulatedMap((a, keys, values) ->
+        {
+            var b = map();
+            b.perfectHashing(true);
+            putAll(b, keys, values);
+            b.compress(CompressibleCollection.Method.FREEZE);
+            ensureEqual(a, b);
+            for (var key : keys)
+            {
+                ensure(b.containsKey(key));
+            }
+            var keySet = new HashSet<>(keys);
+            var missing = 0;
+            for (var key = 0L; missing < 1_000; key++)
+            {
+                if (!keySet.contains(key))
+                {
+                    ensure(b.isNull(b.get(key)));
+                    ensureFalse(b.containsKey(key));
+                    missing++;
+                }
+            }
+            testSerialization(b);
+        });
+    }
+
+    @Test
+    public void testPowerOfTwoHashing()
+    {
+        withPopulatedMap((a, keys, values) ->
+        {
+            var b = powerOfTwoMap();
+            putAll(b, keys, values);
+            ensureEqual(a, b);
+            ensureEqual(Integer.bitCount(b.capacity().asInt()), 1);
+            index = 0;
+            keys.forEach(key -> ensureEqual(b.get(key), values.get(index++)));
+            testSerialization(b);
+
+            b.compress(CompressibleCollection.Method.RESIZE);
+            ensureEqual(a, b);
+
+            keys.forEach(key ->
+            {
+                b.remove(key);
+                ensureFalse(b.containsKey(key));
+            });
+            ensure(b.isEmpty());
+        });
+    }
+
     @Test
     public void testRemove()
     {
         withPopulatedMap((map, keys, values) ->
-                keys.forEach(key ->
+        {
+            keys.forEach(key ->
+            {
+                int size = map.size();
+                boolean exists = map.containsKey(key);
+                map.remove(key);
+                ensure(map.isEmpty(map.get(key)));
+                if (exists)
                 {
-                    int size = map.size();
-                    boolean exists = map.containsKey(key);
-                    map.remove(key);
-                    ensure(map.isEmpty(map.get(key)));
-                    if (exists)
-                    {
-                        ensureEqual(map.size(), size - 1);
-                    }
-                }));
+                    ensureEqual(map.size(), size - 1);
+                }
+            });
+
+            // Removing every key must leave every slot empty, with no tombstones or ghost keys
+            ensureFalse(map.keys().hasNext());
+            ensureEqual(0, occupiedSlots(map));
+        });
     }
 
     @Test
@@ -172,6 +233,42 @@ public class LongToIntMapTest extends PrimitiveCollectionsUnitTest
         return map;
     }
 
+    private LongToIntMap powerOfTwoMap()
+    {
+        var map = (LongToIntMap) new LongToIntMap("test")
+                .nullLong(Long.MIN_VALUE)
+                .nullInt(Integer.MIN_VALUE);
+        map.initialSize(16);
+        map.initialHashingStrategy(PowerOfTwoHashingStrategy.DEFAULT);
+        map.initialize();
+        return map;
+    }
+
+    /**
+     * @return The number of key slots in the given map that are not empty, including any tombstones
+     */
+    private int occupiedSlots(LongToIntMap map)
+    {
+        try
+        {
+            var field = LongToIntMap.class.getDeclaredField("keys");
+            field.setAccessible(true);
+            var occupied = 0;
+            for (var key : (long[]) field.get(map))
+            {
+                if (!map.isNull(key))
+                {
+                    occupied++;
+                }
+            }
+            return occupied;
+        }
+        catch (ReflectiveOperationException e)
+        {
+            throw new IllegalStateException(e);
+        }
+    }
+
     private void putAll(LongToIntMap map, List<Long> keys, List<Integer> values)
     {
         index = 0;
@@ -18,10 +18,22 @@
 
 package com.telenav.kivakit.primitive.collections.map.scalars;
 
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+import com.esotericsoftware.kryo.util.DefaultInstantiatorStrategy;
+import com.telenav.kivakit.core.language.Hash;
+import com.telenav.kivakit.core.value.count.Count;
+import com.telenav.kivakit.core.value.count.Estimate;
 import com.telenav.kivakit.primitive.collections.CompressibleCollection;
+import com.telenav.kivakit.primitive.collections.PrimitiveCollection;
 import com.telenav.kivakit.primitive.collections.PrimitiveCollectionsUnitTest;
+import com.telenav.kivakit.primitive.collections.map.DefaultHashingStrategy;
+import com.telenav.kivakit.primitive.collections.map.HashingStrategy;
 import org.junit.Test;
+import org.objenesis.strategy.StdInstantiatorStrategy;
 
+import java.util.Arrays;
 import java.util.HashSet;
 import java.util.List;
 
@@ -36,6 +48,62 @@ public class LongToLongMapTest extends PrimitiveCollectionsUnitTest
         void test(LongToLongMap map, List<Long> keys, List<Long> values);
     }
 
+    /**
+     * Writes a long to long map the way maps were written before hashing strategies were pluggable, when the map
+     * section held only the rehash threshold and a {@link DefaultHashingStrategy}, and keys were placed by dividing
+     * their hash by the number of slots
+     */
+    private static class OriginalFormatMap extends PrimitiveCollection
+    {
+        private final HashingStrategy hashingStrategy = DefaultHashingStrategy.of(Estimate.estimate(100));
+
+        private final long[] keys;
+
+        private final long[] values;
+
+        OriginalFormatMap(long[] keys, long[] values)
+        {
+            super("original");
+            nullLong(Long.MIN_VALUE);
+
+            var slots = hashingStrategy.recommendedSize().asInt();
+            this.keys = new long[slots];
+            this.values = new long[slots];
+            Arrays.fill(this.keys, nullLong());
+            Arrays.fill(this.values, nullLong());
+            for (var i = 0; i < keys.length; i++)
+            {
+                var hash = (int) ((keys[i] ^ (keys[i] >>> 32)) * Hash.KNUTH_SEED);
+                var slot = Math.abs((hash < 0 ? -hash : hash) % slots);
+                while (this.keys[slot] != nullLong())
+                {
+                    slot = (slot + 1) % slots;
+                }
+                this.keys[slot] = keys[i];
+                this.values[slot] = values[i];
+            }
+            size(keys.length);
+            initialize();
+        }
+
+        @Override
+        public Count capacity()
+        {
+            return Count.count(keys.length);
+        }
+
+        @Override
+        public void write(Kryo kryo, Output output)
+        {
+            super.write(kryo, output);
+
+            kryo.writeObject(output, hashingStrategy.rehashThreshold().asInt());
+            kryo.writeObject(output, hashingStrategy);
+            kryo.writeObject(output, keys);
+            kryo.writeObject(output, values);
+        }
+    }
+
     @Test
     public void testClear()
     {
@@ -88,6 +156,42 @@ public class LongToLongMapTest extends PrimitiveCollectionsUnitTest
         });
     }
 
+    @Test
+    public void testGetAllPutAll()
+    {
+        withPopulatedMap((a, keys, values) ->
+        {
+            var keyArray = keys.stream().mapToLong(Long::longValue).toArray();
+            var valueArray = values.stream().mapToLong(Long::longValue).toArray();
+
+            var b = map();
+            ensureEqual(keyArray.length, b.putAll(keyArray, valueArray));
+            ensureEqual(0, b.putAll(keyArray, valueArray));
+            ensureEqual(a, b);
+
+            var found = new long[keyArray.length];
+            map().getAll(keyArray, found);
+            for (var value : found)
+            {
+                ensure(b.isNull(value));
+            }
+
+            b.getAll(keyArray, found);
+            for (var i = 0; i < keyArray.length; i++)
+            {
+                ensureEqual(valueArray[i], found[i]);
+            }
+
+            b.compress(CompressibleCollection.Method.FREEZE);
+            found = new long[keyArray.length];
+            b.getAll(keyArray, found);
+            for (var i = 0; i < keyArray.length; i++)
+            {
+                ensureEqual(valueArray[i], found[i]);
+            }
+        });
+    }
+
     @Test
     public void testGetPut()
     {
@@ -115,21 +219,89 @@ public class LongToLongMapTest extends PrimitiveCollectionsUnitTest
         });
     }
 
+    @Test
+    public void testReadOriginalFormat()
+    {
+        var kryo = new Kryo();
+        kryo.setRegistrationRequired(false);
+        kryo.setInstantiatorStrategy(new DefaultInstantiatorStrategy(new StdInstantiatorStrategy()));
+
+        // Write a map in the original format,
+        var keys = new long[50];
+        var values = new long[50];
+        for (var i = 0; i < keys.length; i++)
+        {
+            keys[i] = i * 7_919L - 100_000L;
+            values[i] = i * 3L;
+        }
+        var output = new Output(4_096, -1);
+        new OriginalFormatMap(keys, values).write(kryo, output);
+        var original = output.toBytes();
+
+        // read it back,
+        var map = new LongToLongMap("test");
+        map.read(kryo, new Input(original));
+        ensureEqual(keys.length, map.size());
+        for (var i = 0; i < keys.length; i++)
+        {
+            ensureEqual(values[i], map.get(keys[i]));
+        }
+        ensureFalse(map.containsKey(1));
+
+        // and it should be written again in exactly the same format.
+        var rewritten = new Output(4_096, -1);
+        map.write(kryo, rewritten);
+        ensure(Arrays.equals(original, rewritten.toBytes()));
+    }
+
     @Test
     public void testRemove()
     {
         withPopulatedMap((map, keys, values) ->
-                keys.forEach(key ->
+        {
+            keys.forEach(key ->
+            {
+                int size = map.size();
+                boolean exists = map.containsKey(key);
+                map.remove(key);
+                ensure(map.isEmpty(map.get(key)));
+                if (exists)
+                {
+                    ensureEqual(map.size(), size - 1);
+                }
+            });
+
+            // Removing every key must leave every slot empty, with no tombstones or ghost keys
+            ensureFalse(map.keys().hasNext());
+            ensureEqual(0, occupiedSlots(map));
+        });
+    }
+
+    @Test
+    public void testRemoveChurn()
+    {
+        withPopulatedMap((map, keys, values) ->
+        {
+            var capacity = map.capacity();
+            for (var round = 0; round < 8; round++)
+            {
+                // Remove half of the keys and add them back again
+                for (var i = round % 2; i < keys.size(); i += 2)
                 {
-                    int size = map.size();
-                    boolean exists = map.containsKey(key);
-                    map.remove(key);
-                    ensure(map.isEmpty(map.get(key)));
-                    if (exists)
-                    {
-                        ensureEqual(map.size(), size - 1);
-                    }
-                }));
+                    ensure(map.remove(keys.get(i)));
+                }
+                for (var i = round % 2; i < keys.size(); i += 2)
+                {
+                    ensure(map.put(keys.get(i), values.get(i)));
+                }
+
+                // and every key should still be found with its value
+                index = 0;
+                keys.forEach(key -> ensureEqual(map.get(key), values.get(index++)));
+                ensureEqual(map.size(), keys.size());
+            }
+            ensureEqual(map.capacity(), capacity);
+        });
     }
 
     @Test
@@ -164,6 +336,31 @@ public class LongToLongMapTest extends PrimitiveCollectionsUnitTest
         return map;
     }
 
+    /**
+     * @return The number of key slots in the given map that are not empty, including any tombstones
+     */
+    private int occupiedSlots(LongToLongMap map)
+    {
+        try
+        {
+            var field = LongToLongMap.class.getDeclaredField("keys");
+            field.setAccessible(true);
+            var occupied = 0;
+            for (var key : (long[]) field.get(map))
+            {
+                if (!map.isNull(key))
+                {
+                    occupied++;
+                }
+            }
+            return occupied;
+        }
+        catch (ReflectiveOperationException e)
+        {
+            throw new IllegalStateException(e);
+        }
+    }
+
     private void putAll(LongToLongMap map, List<Long> keys, List<Long> values)
     {
         index = 0;
@@ -0,0 +1,216 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+package com.telenav.kivakit.primitive.collections.map.scalars;
+
+import com.telenav.kivakit.primitive.collections.CompressibleCollection;
+import com.telenav.kivakit.primitive.collections.PrimitiveCollectionsUnitTest;
+import org.junit.Test;
+
+import java.util.HashSet;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+public class Utf8ToIntMapTest extends PrimitiveCollectionsUnitTest
+{
+    private static final int SIZE = 10_000;
+
+    @Test
+    public void testByteKeys()
+    {
+        var map = map();
+        for (var i = 0; i < SIZE; i++)
+        {
+            var key = key(i).getBytes(UTF_8);
+            var buffer = new byte[key.length + 2];
+            System.arraycopy(key, 0, buffer, 1, key.length);
+            ensure(map.put(buffer, 1, key.length, i));
+        }
+        for (var i = 0; i < SIZE; i++)
+        {
+            ensureEqual(i, map.get(key(i)));
+            var key = key(i).getBytes(UTF_8);
+            ensure(map.containsKey(key, 0, key.length));
+        }
+    }
+
+    @Test
+    public void testClear()
+    {
+        // Clearing a map starts a new arena for its key bytes,
+        var map = populatedMap();
+        map.clear();
+        ensure(map.isEmpty());
+        ensureEqual(1, keyBytesIndex(map));
+        ensureFalse(map.containsKey(key(1)));
+
+        // and keys can be added again afterwards.
+        map.put(key(1), 1);
+        ensureEqual(1, map.get(key(1)));
+        ensureEqual(1, map.size());
+    }
+
+    @Test
+    public void testCompress()
+    {
+        // Remove half the keys from a map,
+        var map = populatedMap();
+        var before = keyBytesIndex(map);
+        for (var i = 0; i < SIZE; i += 2)
+        {
+            ensure(map.remove(key(i)));
+        }
+
+        // then compress it, which should reclaim the bytes of the removed keys,
+        map.compress(CompressibleCollection.Method.FREEZE);
+        ensure(keyBytesIndex(map) < before * 3 / 4);
+        for (var i = 0; i < SIZE; i++)
+        {
+            ensureEqual(i % 2 == 1, map.containsKey(key(i)));
+            if (i % 2 == 1)
+            {
+                ensureEqual(i, map.get(key(i)));
+            }
+        }
+
+        // and leave it writable.
+        map.put(key(0), 0);
+        ensureEqual(0, map.get(key(0)));
+    }
+
+    @Test
+    public void testEqualsHashCode()
+    {
+        var a = populatedMap();
+        var b = populatedMap();
+        ensureEqual(a, b);
+        ensureEqual(a.hashCode(), b.hashCode());
+        b.put("different", 1);
+        ensureNotEqual(a, b);
+    }
+
+    @Test
+    public void testFreeze()
+    {
+        var a = populatedMap();
+        var b = populatedMap();
+        b.compress(CompressibleCollection.Method.FREEZE);
+        ensureEqual(a, b);
+        for (var i = 0; i < SIZE; i++)
+        {
+            ensureEqual(i, b.get(key(i)));
+        }
+    }
+
+    @Test
+    public void testGetPut()
+    {
+        var map = populatedMap();
+        ensure(map.size() == SIZE);
+        for (var i = 0; i < SIZE; i++)
+        {
+            ensureEqual(i, map.get(key(i)));
+            ensureEqual(i, map.get(new StringBuilder(key(i))));
+        }
+        ensure(map.isNull(map.get("missing")));
+        ensureFalse(map.put(key(0), -1));
+        ensureEqual(-1, map.get(key(0)));
+        ensure(map.size() == SIZE);
+    }
+
+    @Test
+    public void testKeys()
+    {
+        var map = populatedMap();
+        var keys = new HashSet<String>();
+        map.keys().forEachRemaining(keys::add);
+        ensure(keys.size() == SIZE);
+        for (var i = 0; i < SIZE; i++)
+        {
+            ensure(keys.contains(key(i)));
+        }
+    }
+
+    @Test
+    public void testRemove()
+    {
+        var map = populatedMap();
+        for (var i = 0; i < SIZE; i += 2)
+        {
+            ensure(map.remove(key(i)));
+        }
+        ensureFalse(map.remove(key(0)));
+        ensure(map.size() == SIZE / 2);
+        for (var i = 0; i < SIZE; i++)
+        {
+            ensure(map.containsKey(key(i)) == (i % 2 == 1));
+        }
+    }
+
+    @Test
+    public void testSerialization()
+    {
+        testSerialization(populatedMap());
+    }
+
+    private String key(int i)
+    {
+        switch (i % 3)
+        {
+            case 0:
+                return "name" + i;
+
+            case 1:
+                return "stra\u00dfe " + i;
+
+            default:
+                return "\u5317\u4eac\ud83d\ude00" + i;
+        }
+    }
+
+    private int keyBytesIndex(Utf8ToIntMap map)
+    {
+        try
+        {
+            var field = Utf8KeyedMap.class.getDeclaredField("keyBytesIndex");
+            field.setAccessible(true);
+            return (int) field.get(map);
+        }
+        catch (Exception e)
+        {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private Utf8ToIntMap map()
+    {
+        var map = (Utf8ToIntMap) new Utf8ToIntMap("test")
+                .nullInt(Integer.MIN_VALUE);
+        map.initialize();
+        return map;
+    }
+
+    private Utf8ToIntMap populatedMap()
+    {
+        var map = map();
+        for (var i = 0; i < SIZE; i++)
+        {
+            map.put(key(i), i);
+        }
+        return map;
+    }
+}
@@ -0,0 +1,82 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+package com.telenav.kivakit.primitive.collections.map.scalars;
+
+import com.telenav.kivakit.primitive.collections.PrimitiveCollectionsUnitTest;
+import org.junit.Test;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+public class Utf8ToLongMapTest extends PrimitiveCollectionsUnitTest
+{
+    private static final int SIZE = 10_000;
+
+    @Test
+    public void testGetPut()
+    {
+        var map = populatedMap();
+        ensure(map.size() == SIZE);
+        for (var i = 0; i < SIZE; i++)
+        {
+            ensureEqual(value(i), map.get(key(i)));
+            var key = key(i).getBytes(UTF_8);
+            ensureEqual(value(i), map.get(key, 0, key.length));
+        }
+        ensure(map.isNull(map.get("missing")));
+    }
+
+    @Test
+    public void testRemove()
+    {
+        var map = populatedMap();
+        for (var i = 0; i < SIZE; i++)
+        {
+            ensure(map.remove(key(i)));
+            ensureFalse(map.containsKey(key(i)));
+        }
+        ensure(map.isEmpty());
+    }
+
+    @Test
+    public void testSerialization()
+    {
+        testSerialization(populatedMap());
+    }
+
+    private String key(int i)
+    {
+        return i % 2 == 0 ? "name" + i : "\u00e9t\u00e9 " + i;
+    }
+
+    private Utf8ToLongMap populatedMap()
+    {
+        var map = (Utf8ToLongMap) new Utf8ToLongMap("test")
+                .nullLong(Long.MIN_VALUE);
+        map.initialize();
+        for (var i = 0; i < SIZE; i++)
+        {
+            map.put(key(i), value(i));
+        }
+        return map;
+    }
+
+    private long value(int i)
+    {
+        return (long) i << 32;
+    }
+}
@@ -0,0 +1,215 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+package com.telenav.kivakit.primitive.collections.map.split;
+
+import com.telenav.kivakit.primitive.collections.CompressibleCollection;
+import com.telenav.kivakit.primitive.collections.PrimitiveCollectionsUnitTest;
+import com.telenav.kivakit.primitive.collections.map.scalars.IntToIntMap;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.IntConsumer;
+
+public class ConcurrentSplitIntToIntMapTest extends PrimitiveCollectionsUnitTest
+{
+    private static final int THREADS = 8;
+
+    private static final int KEYS_PER_THREAD = 50_000;
+
+    @Test
+    public void testClear()
+    {
+        var map = populatedMap();
+        ensureFalse(map.isEmpty());
+        map.clear();
+        ensure(map.isEmpty());
+        ensureFalse(map.containsKey(1));
+    }
+
+    @Test
+    public void testConcurrentGet()
+    {
+        var map = populatedMap();
+        run(thread ->
+        {
+            for (var key = 0; key < THREADS * KEYS_PER_THREAD; key++)
+            {
+                ensureEqual(key * 3, map.get(key));
+                ensure(map.containsKey(key));
+            }
+        });
+
+        // Readers share each child, so no child may count probes
+        for (var child : children(map))
+        {
+            if (child != null)
+            {
+                ensureEqual(0, child.maximumProbeLength());
+                ensureEqual(0.0, child.averageProbeLength());
+            }
+        }
+    }
+
+    @Test
+    public void testConcurrentPut()
+    {
+        var map = populatedMap();
+        ensureEqual(THREADS * KEYS_PER_THREAD, map.size());
+        for (var key = 0; key < THREADS * KEYS_PER_THREAD; key++)
+        {
+            ensureEqual(key * 3, map.get(key));
+        }
+    }
+
+    @Test
+    public void testConcurrentRemove()
+    {
+        var map = populatedMap();
+        run(thread ->
+        {
+            for (var key = thread; key < THREADS * KEYS_PER_THREAD; key += THREADS * 2)
+            {
+                ensure(map.remove(key));
+            }
+        });
+        for (var key = 0; key < THREADS * KEYS_PER_THREAD; key++)
+        {
+            var removed = key % (THREADS * 2) < THREADS;
+            ensureEqual(!removed, map.containsKey(key));
+        }
+        ensureEqual(THREADS * KEYS_PER_THREAD / 2, map.size());
+    }
+
+    @Test
+    public void testFreeze()
+    {
+        var map = populatedMap();
+        map.compress(CompressibleCollection.Method.FREEZE);
+        for (var key = 0; key < THREADS * KEYS_PER_THREAD; key++)
+        {
+            ensureEqual(key * 3, map.get(key));
+        }
+    }
+
+    @Test
+    public void testKeys()
+    {
+        var map = populatedMap();
+        var keys = new HashSet<Integer>();
+        var iterator = map.keys();
+        while (iterator.hasNext())
+        {
+            keys.add(iterator.next());
+        }
+        ensureEqual(map.size(), keys.size());
+    }
+
+    @Test
+    public void testNegativeHash()
+    {
+        // The hash of Integer.MIN_VALUE is Integer.MIN_VALUE, which has no positive counterpart
+        // and is not a multiple of the number of children
+        var map = (ConcurrentSplitIntToIntMap) new ConcurrentSplitIntToIntMap("test")
+                .nullInt(Integer.MAX_VALUE)
+                .initialChildSize(1_024)
+                .initialSize(3 * 1_024);
+        map.initialize();
+        map.put(Integer.MIN_VALUE, 7);
+        ensureEqual(7, map.get(Integer.MIN_VALUE));
+        ensure(map.remove(Integer.MIN_VALUE));
+        ensure(map.isEmpty());
+    }
+
+    private IntToIntMap[] children(ConcurrentSplitIntToIntMap map)
+    {
+        try
+        {
+            var field = ConcurrentSplitIntToIntMap.class.getDeclaredField("children");
+            field.setAccessible(true);
+            return (IntToIntMap[]) field.get(map);
+        }
+        catch (Exception e)
+        {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private ConcurrentSplitIntToIntMap map()
+    {
+        var map = (ConcurrentSplitIntToIntMap) new ConcurrentSplitIntToIntMap("test")
+                .nullInt(Integer.MIN_VALUE);
+        map.initialize();
+        return map;
+    }
+
+    private ConcurrentSplitIntToIntMap populatedMap()
+    {
+        var map = map();
+        run(thread ->
+        {
+            for (var key = thread; key < THREADS * KEYS_PER_THREAD; key += THREADS)
+            {
+                map.put(key, key * 3);
+            }
+        });
+        return map;
+    }
+
+    private void run(IntConsumer code)
+    {
+        // Start the threads, capturing the first failure of any of them,
+        var failure = new AtomicReference<Throwable>();
+        var threads = new ArrayList<Thread>();
+        for (var index = 0; index < THREADS; index++)
+        {
+            var thread = index;
+            threads.add(new Thread(() ->
+            {
+                try
+                {
+                    code.accept(thread);
+                }
+                catch (Throwable e)
+                {
+                    failure.compareAndSet(null, e);
+                }
+            }));
+        }
+        threads.forEach(Thread::start);
+
+        // then wait for them to finish.
+        for (var thread : threads)
+        {
+            try
+            {
+                thread.join();
+            }
+            catch (InterruptedException e)
+            {
+                throw new IllegalStateException(e);
+            }
+        }
+        if (failure.get() != null)
+        {
+            throw new IllegalStateException("Thread failed", failure.get());
+        }
+    }
+}
@@ -89,6 +89,42 @@ public class SplitLongToLongMapTest extends PrimitiveCollectionsUnitTest
         });
     }
 
+    @Test
+    public void testGetAllPutAll()
+    {
+        withPopulatedMap((a, keys, values) ->
+        {
+            var keyArray = keys.stream().mapToLong(Long::longValue).toArray();
+            var valueArray = values.stream().mapToLong(Long::longValue).toArray();
+
+            var b = map();
+            ensureEqual(keyArray.length, b.putAll(keyArray, valueArray));
+            ensureEqual(0, b.putAll(keyArray, valueArray));
+            ensureEqual(a, b);
+
+            var found = new long[keyArray.length];
+            map().getAll(keyArray, found);
+            for (var value : found)
+            {
+                ensure(b.isNull(value));
+            }
+
+            b.getAll(keyArray, found);
+            for (var i = 0; i < keyArray.length; i++)
+            {
+                ensureEqual(valueArray[i], found[i]);
+            }
+
+            b.compress(CompressibleCollection.Method.FREEZE);
+            found = new long[keyArray.length];
+            b.getAll(keyArray, found);
+            for (var i = 0; i < keyArray.length; i++)
+            {
+                ensureEqual(valueArray[i], found[i]);
+            }
+        });
+    }
+
     @Test
     public void testGetPut()
     {
@@ -139,6 +175,21 @@ public class SplitLongToLongMapTest extends PrimitiveCollectionsUnitTest
         withPopulatedMap((map, keys, values) -> testSerialization(map));
     }
 
+    @Test
+    public void testStreams()
+    {
+        withPopulatedMap((map, keys, values) ->
+        {
+            var keySum = keys.stream().mapToLong(Long::longValue).sum();
+            var valueSum = values.stream().mapToLong(Long::longValue).sum();
+
+            ensureEqual(map.size(), (int) map.keyStream().count());
+            ensureEqual(keySum, map.keyStream().sum());
+            ensureEqual(keySum, map.keyStream().parallel().sum());
+            ensureEqual(valueSum, map.valueStream().parallel().sum());
+        });
+    }
+
     @Test
     public void testValues()
     {
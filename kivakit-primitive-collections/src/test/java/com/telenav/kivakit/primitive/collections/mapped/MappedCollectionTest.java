@@ -0,0 +1,200 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+package com.telenav.kivakit.primitive.collections.mapped;
+
+import com.telenav.kivakit.core.value.count.BitCount;
+import com.telenav.kivakit.primitive.collections.CompressibleCollection;
+import com.telenav.kivakit.primitive.collections.PrimitiveCollectionsUnitTest;
+import com.telenav.kivakit.primitive.collections.array.packed.PackedArray;
+import com.telenav.kivakit.primitive.collections.array.packed.PackedPrimitiveArray;
+import com.telenav.kivakit.primitive.collections.array.scalars.IntArray;
+import com.telenav.kivakit.primitive.collections.array.scalars.LongArray;
+import com.telenav.kivakit.primitive.collections.map.scalars.IntToByteMap;
+import com.telenav.kivakit.primitive.collections.map.scalars.LongToLongMap;
+import com.telenav.kivakit.primitive.collections.set.LongSet;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+public class MappedCollectionTest extends PrimitiveCollectionsUnitTest
+{
+    @Test
+    public void testIntArray()
+    {
+        var array = new IntArray("test");
+        array.initialize();
+        for (var i = 0; i < 10_000; i++)
+        {
+            array.add(i * 31 - 5_000);
+        }
+
+        var file = file();
+        MappedIntArray.write(file, array);
+        var mapped = MappedIntArray.open(file);
+        ensureEqual(array.size(), mapped.size());
+        for (var i = 0; i < array.size(); i++)
+        {
+            ensureEqual(array.get(i), mapped.get(i));
+        }
+    }
+
+    @Test
+    public void testIntToByteMap()
+    {
+        var map = (IntToByteMap) new IntToByteMap("test")
+                .nullInt(Integer.MIN_VALUE)
+                .nullByte(Byte.MIN_VALUE);
+        map.initialize();
+        for (var i = 0; i < 1_000; i++)
+        {
+            map.put(i * 7 - 3_000, (byte) (i % 100 - 50));
+        }
+
+        var file = file();
+        MappedScalarMap.write(file, map);
+        var mapped = MappedScalarMap.open(file);
+        ensureEqual(map.size(), mapped.size());
+        for (var i = 0; i < 1_000; i++)
+        {
+            ensureEqual((long) (i % 100 - 50), mapped.getScalar(i * 7 - 3_000));
+        }
+        ensure(!mapped.containsKey(1));
+        ensure(mapped.isScalarValueNull(mapped.getScalar(1)));
+    }
+
+    @Test
+    public void testLongArray()
+    {
+        var array = new LongArray("test");
+        array.initialize();
+        for (var i = 0; i < 10_000; i++)
+        {
+            array.add(i * 0x1_0000_0001L);
+        }
+
+        var file = file();
+        MappedLongArray.write(file, array);
+        var mapped = MappedLongArray.open(file);
+        ensureEqual(array.size(), mapped.size());
+        for (var i = 0; i < array.size(); i++)
+        {
+            ensureEqual(array.get(i), mapped.get(i));
+        }
+        ensure(mapped.isNull(mapped.safeGet(array.size())));
+    }
+
+    @Test
+    public void testLongSet()
+    {
+        var set = new LongSet("test");
+        set.initialize();
+        for (var i = 0; i < 1_000; i++)
+        {
+            set.add((i + 1) * 1_000_003L);
+        }
+        set.compress(CompressibleCollection.Method.FREEZE);
+
+        var file = file();
+        MappedLongSet.write(file, set);
+        var mapped = MappedLongSet.open(file);
+        ensureEqual(set.size(), mapped.size());
+        for (var i = 0; i < 1_000; i++)
+        {
+            ensure(mapped.contains((i + 1) * 1_000_003L));
+            ensure(!mapped.contains((i + 1) * 1_000_003L + 1));
+        }
+    }
+
+    @Test
+    public void testLongToLongMap()
+    {
+        var map = (LongToLongMap) new LongToLongMap("test")
+                .nullLong(Long.MIN_VALUE);
+        map.initialize();
+        for (var i = 0; i < 1_000; i++)
+        {
+            map.put(-i * 0x1_0000_0001L, i);
+        }
+        map.compress(CompressibleCollection.Method.FREEZE);
+
+        var file = file();
+        MappedScalarMap.write(file, map);
+        var mapped = MappedScalarMap.open(file);
+        ensureEqual(map.size(), mapped.size());
+        for (var i = 0; i < 1_000; i++)
+        {
+            ensureEqual((long) i, mapped.getScalar(-i * 0x1_0000_0001L));
+        }
+        ensure(mapped.isScalarValueNull(mapped.getScalar(1)));
+    }
+
+    @Test
+    public void testPackedArray()
+    {
+        for (var bits : new int[] { 1, 3, 17, 32, 34, 63, 64 })
+        {
+            var array = new PackedArray("test");
+            array.bits(BitCount.bitCount(bits), PackedPrimitiveArray.OverflowHandling.NO_OVERFLOW);
+            array.initialize();
+            var mask = bits == 64 ? -1L : (1L << bits) - 1;
+            for (var i = 0; i < 1_000; i++)
+            {
+                array.add((i * 0x9E37_79B9_7F4A_7C15L) & mask);
+            }
+
+            var file = file();
+            MappedPackedArray.write(file, array);
+            var mapped = MappedPackedArray.open(file);
+            ensureEqual(bits, mapped.bits());
+            ensureEqual(array.size(), mapped.size());
+            for (var i = 0; i < array.size(); i++)
+            {
+                ensureEqual(array.get(i), mapped.get(i));
+            }
+        }
+    }
+
+    @Test
+    public void testWrongKind()
+    {
+        var array = new LongArray("test");
+        array.initialize();
+        array.add(1);
+
+        var file = file();
+        MappedLongArray.write(file, array);
+        ensureThrows(() -> MappedLongSet.open(file));
+    }
+
+    private Path file()
+    {
+        try
+        {
+            var file = Files.createTempFile("mapped", ".kvpc");
+            file.toFile().deleteOnExit();
+            return file;
+        }
+        catch (IOException e)
+        {
+            throw new IllegalStateException("Unable to create temporary file", e);
+        }
+    }
+}
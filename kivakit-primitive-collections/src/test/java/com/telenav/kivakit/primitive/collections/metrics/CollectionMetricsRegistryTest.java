@@ -0,0 +1,96 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+package com.telenav.kivakit.primitive.collections.metrics;
+
+import com.telenav.kivakit.primitive.collections.PrimitiveCollectionsUnitTest;
+import com.telenav.kivakit.primitive.collections.map.PowerOfTwoHashingStrategy;
+import com.telenav.kivakit.primitive.collections.map.scalars.IntToIntMap;
+import org.junit.Test;
+
+import javax.management.ObjectName;
+import javax.management.openmbean.TabularData;
+import java.lang.management.ManagementFactory;
+
+public class CollectionMetricsRegistryTest extends PrimitiveCollectionsUnitTest
+{
+    @Test
+    public void testMapMetrics()
+    {
+        CollectionMetricsRegistry.enable();
+        var map = map("metrics-test-map");
+        for (var i = 0; i < 1_000; i++)
+        {
+            map.put(i, i);
+        }
+        for (var i = 0; i < 1_000; i++)
+        {
+            ensureEqual(i, map.get(i));
+        }
+
+        ensure(map.rehashes() > 0);
+        ensure(map.averageProbeLength() >= 1.0);
+        ensure(map.maximumProbeLength() >= 1);
+        ensure(map.loadFactor() > 0.0 && map.loadFactor() <= 1.0);
+    }
+
+    @Test
+    public void testMBean() throws Exception
+    {
+        CollectionMetricsRegistry.enable();
+        var map = map("metrics-test-mbean");
+        map.put(1, 1);
+
+        var server = ManagementFactory.getPlatformMBeanServer();
+        var name = new ObjectName(CollectionMetricsRegistry.OBJECT_NAME);
+        ensure((Integer) server.getAttribute(name, "CollectionCount") >= 1);
+        ensure((Long) server.getAttribute(name, "RetainedBytes") > 0);
+        ensure(((TabularData) server.getAttribute(name, "Collections")).size() >= 1);
+    }
+
+    @Test
+    public void testSnapshot()
+    {
+        CollectionMetricsRegistry.enable();
+        var map = map("metrics-test-snapshot");
+        map.put(1, 1);
+
+        CollectionMetrics metrics = null;
+        for (var at : CollectionMetricsRegistry.snapshot())
+        {
+            if (at.objectName().equals("metrics-test-snapshot"))
+            {
+                metrics = at;
+            }
+        }
+        ensure(metrics != null);
+        ensure(metrics.isMap());
+        ensureEqual(map.size(), metrics.size());
+        ensure(metrics.retainedSize().asBytes() > 0);
+    }
+
+    private IntToIntMap map(String name)
+    {
+        var map = (IntToIntMap) new IntToIntMap(name)
+                .nullInt(Integer.MIN_VALUE);
+        map.initialSize(16);
+        map.initialHashingStrategy(PowerOfTwoHashingStrategy.DEFAULT);
+        map.initialize();
+        return map;
+    }
+}
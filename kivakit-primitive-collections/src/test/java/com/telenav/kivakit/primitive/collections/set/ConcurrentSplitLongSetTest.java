@@ -0,0 +1,190 @@
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+//
+// © 2011-2021 Telenav, Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+package com.telenav.kivakit.primitive.collections.set;
+
+import com.telenav.kivakit.primitive.collections.CompressibleCollection;
+import com.telenav.kivakit.primitive.collections.PrimitiveCollectionsUnitTest;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.IntConsumer;
+
+public class ConcurrentSplitLongSetTest extends PrimitiveCollectionsUnitTest
+{
+    private static final int THREADS = 8;
+
+    private static final int VALUES_PER_THREAD = 50_000;
+
+    @Test
+    public void testClear()
+    {
+        var set = populatedSet();
+        ensureFalse(set.isEmpty());
+        set.clear();
+        ensure(set.isEmpty());
+        ensureFalse(set.contains(1));
+    }
+
+    @Test
+    public void testConcurrentAdd()
+    {
+        var set = populatedSet();
+        ensureEqual(THREADS * VALUES_PER_THREAD, set.size());
+        for (var value = 0L; value < THREADS * VALUES_PER_THREAD; value++)
+        {
+            ensure(set.contains(value));
+        }
+    }
+
+    @Test
+    public void testConcurrentContains()
+    {
+        var set = populatedSet();
+        run(thread ->
+        {
+            for (var value = 0L; value < THREADS * VALUES_PER_THREAD; value++)
+            {
+                ensure(set.contains(value));
+                ensureFalse(set.contains(-value - 1));
+            }
+        });
+    }
+
+    @Test
+    public void testConcurrentRemove()
+    {
+        var set = populatedSet();
+        run(thread ->
+        {
+            for (var value = (long) thread; value < THREADS * VALUES_PER_THREAD; value += THREADS * 2)
+            {
+                ensure(set.remove(value));
+            }
+        });
+        for (var value = 0L; value < THREADS * VALUES_PER_THREAD; value++)
+        {
+            var removed = value % (THREADS * 2) < THREADS;
+            ensureEqual(!removed, set.contains(value));
+        }
+        ensureEqual(THREADS * VALUES_PER_THREAD / 2, set.size());
+    }
+
+    @Test
+    public void testFreeze()
+    {
+        var set = populatedSet();
+        set.compress(CompressibleCollection.Method.FREEZE);
+        for (var value = 0L; value < THREADS * VALUES_PER_THREAD; value++)
+        {
+            ensure(set.contains(value));
+        }
+    }
+
+    @Test
+    public void testNegativeHash()
+    {
+        // The hash of 2^31 is Integer.MIN_VALUE, which has no positive counterpart
+        // and is not a multiple of the number of children
+        var set = (ConcurrentSplitLongSet) new ConcurrentSplitLongSet("test")
+                .nullLong(Long.MIN_VALUE)
+                .initialChildSize(1_024)
+                .initialSize(3 * 1_024);
+        set.initialize();
+        ensure(set.add(1L << 31));
+        ensure(set.contains(1L << 31));
+        ensure(set.remove(1L << 31));
+        ensure(set.isEmpty());
+    }
+
+    @Test
+    public void testValues()
+    {
+        var set = populatedSet();
+        var values = new HashSet<Long>();
+        var iterator = set.values();
+        while (iterator.hasNext())
+        {
+            values.add(iterator.next());
+        }
+        ensureEqual(set.size(), values.size());
+    }
+
+    private ConcurrentSplitLongSet populatedSet()
+    {
+        var set = set();
+        run(thread ->
+        {
+            for (var value = (long) thread; value < THREADS * VALUES_PER_THREAD; value += THREADS)
+            {
+                ensure(set.add(value));
+            }
+        });
+        return set;
+    }
+
+    private void run(IntConsumer code)
+    {
+        // Start the threads, capturing the first failure of any of them,
+        var failure = new AtomicReference<Throwable>();
+        var threads = new ArrayList<Thread>();
+        for (var index = 0; index < THREADS; index++)
+        {
+            var thread = index;
+            threads.add(new Thread(() ->
+            {
+                try
+                {
+                    code.accept(thread);
+                }
+                catch (Throwable e)
+                {
+                    failure.compareAndSet(null, e);
+                }
+            }));
+        }
+        threads.forEach(Thread::start);
+
+        // then wait for them to finish.
+        for (var thread : threads)
+        {
+            try
+            {
+                thread.join();
+            }
+            catch (InterruptedException e)
+            {
+                throw new IllegalStateException(e);
+            }
+        }
+        if (failure.get() != null)
+        {
+            throw new IllegalStateException("Thread failed", failure.get());
+        }
+    }
+
+    private ConcurrentSplitLongSet set()
+    {
+        var set = (ConcurrentSplitLongSet) new ConcurrentSplitLongSet("test")
+                .nullLong(Long.MIN_VALUE);
+        set.initialize();
+        return set;
+    }
+}
@@ -85,6 +85,25 @@ public class LongSetTest extends PrimitiveCollectionsUnitTest
         });
     }
 
+    @Test
+    public void testPerfectHashing()
+    {
+        withPopulatedSet((a, values) ->
+        {
+            var b = set();
+            b.perfectHashing(true);
+            addAll(b, values);
+            b.compress(CompressibleCollection.Method.FREEZE);
+            ensureEqual(a, b);
+            var valueSet = new HashSet<>(values);
+            for (var value = 0L; value < 1_000; value++)
+            {
+                ensureEqual(valueSet.contains(value), b.contains(value));
+            }
+            testSerialization(b);
+        });
+    }
+
     @Test
     public void testRemove()
     {
@@ -102,12 +121,41 @@ public class LongSetTest extends PrimitiveCollectionsUnitTest
                 }));
     }
 
+    @Test
+    public void testRemoveKeepsOtherValues()
+    {
+        withPopulatedSet((set, values) ->
+        {
+            for (var i = 0; i < values.size(); i += 2)
+            {
+                set.remove(values.get(i));
+            }
+            for (var i = 0; i < values.size(); i++)
+            {
+                ensureEqual(set.contains(values.get(i)), i % 2 == 1);
+            }
+        });
+    }
+
     @Test
     public void testSerialization()
     {
         withPopulatedSet((set, values) -> testSerialization(set));
     }
 
+    @Test
+    public void testStream()
+    {
+        withPopulatedSet((set, values) ->
+        {
+            var sum = new HashSet<>(values).stream().mapToLong(Long::longValue).sum();
+            ensureEqual(sum, set.longStream().sum());
+            ensureEqual(sum, set.longStream().parallel().sum());
+            set.compress(CompressibleCollection.Method.FREEZE);
+            ensureEqual(sum, set.longStream().parallel().sum());
+        });
+    }
+
     @Test
     public void testValues()
     {